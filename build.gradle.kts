@@ -6,6 +6,7 @@ plugins {
     id("io.spring.dependency-management") version "1.1.7"
     id("com.microsoft.azure.azurewebapp") version "1.10.0"
     id("org.liquibase.gradle") version "2.2.2"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "capstone-project"
@@ -87,9 +88,7 @@ dependencies {
     implementation("com.fasterxml.jackson.datatype:jackson-datatype-hibernate6:2.17.0")
 
     // PDF / VIEW
-    implementation("com.itextpdf:itextpdf:5.5.13.4")
     implementation("com.itextpdf:itext7-core:7.2.5")
-    implementation("com.itextpdf:html2pdf:4.0.5")
     implementation("org.xhtmlrenderer:flying-saucer-pdf:9.13.3")
 
     // CLOUD & INTEGRATION
@@ -126,6 +125,25 @@ tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+// JMH benchmarks (src/jmh): ./gradlew jmh, results in build/results/jmh/results.json
+// -PjmhInclude=BinPacker chạy riêng một benchmark; ./gradlew jmhBaseline cập nhật baseline đã commit
+jmh {
+    jmhVersion = "1.37"
+    warmupIterations = 3
+    warmup = "1s"
+    iterations = 5
+    timeOnIteration = "1s"
+    fork = 1
+    resultFormat = "JSON"
+    (project.findProperty("jmhInclude") as String?)?.let { includes = listOf(it) }
+}
+
+tasks.register<Copy>("jmhBaseline") {
+    dependsOn("jmh")
+    from(layout.buildDirectory.file("results/jmh/results.json"))
+    into("src/jmh/baseline")
+}
+
 tasks.named<org.springframework.boot.gradle.tasks.run.BootRun>("bootRun") {
     systemProperty("java.io.tmpdir", "${project.buildDir}/tmp")
     jvmArgs("-Xmx512m")
@@ -0,0 +1,140 @@
+package capstone_project.common.utils;
+
+import capstone_project.entity.order.order.OrderDetailEntity;
+import capstone_project.entity.order.order.OrderSizeEntity;
+import capstone_project.entity.pricing.SizeRuleEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BinPacker over synthetic orders: small parcels, a realistic mix, or pallets only.
+ * Vehicle sizes follow the size rules seeded for the truck catalogue (0.5 - 10 tons).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BinPackerBenchmark {
+
+    // Same as binpacker.search.time-budget-ms in application.properties
+    private static final long SEARCH_BUDGET_MS = 150;
+
+    @Param({"20", "100", "300"})
+    public int packageCount;
+
+    @Param({"PARCELS", "MIXED", "PALLETS"})
+    public String mix;
+
+    private List<OrderDetailEntity> details;
+    private List<SizeRuleEntity> sizeRules;
+    private SizeRuleEntity largestRule;
+    private int manualContainers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sizeRules = List.of(
+                sizeRule("Xe tải 0.5 tấn", "0.5", "2.6", "1.5", "1.5"),
+                sizeRule("Xe tải 1.25 tấn", "1.25", "3.2", "1.6", "1.6"),
+                sizeRule("Xe tải 1.9 tấn", "1.9", "4.4", "1.8", "1.8"),
+                sizeRule("Xe tải 2.4 tấn", "2.4", "4.9", "1.9", "1.9"),
+                sizeRule("Xe tải 3.5 tấn", "3.5", "5.8", "2.1", "2.0"),
+                sizeRule("Xe tải 5 tấn", "5", "6.8", "2.3", "2.1"),
+                sizeRule("Xe tải 7 tấn", "7", "9.2", "2.4", "2.3"),
+                sizeRule("Xe tải 10 tấn", "10", "9.6", "2.4", "2.4"));
+        largestRule = sizeRules.get(sizeRules.size() - 1);
+
+        Random random = new Random(42);
+        details = new ArrayList<>(packageCount);
+        for (int i = 0; i < packageCount; i++) {
+            details.add(randomPackage(random));
+        }
+
+        // Enough 10-ton trucks for the whole order, as staff would pick for manual packing
+        BinPacker.ManualResult probe = BinPacker.packManualForDetails(details, largestRule, packageCount);
+        manualContainers = (int) Math.max(1, probe.containers.stream().filter(c -> !c.placements.isEmpty()).count());
+    }
+
+    @Benchmark
+    public List<BinPacker.ContainerState> pack() {
+        return BinPacker.pack(details, sizeRules);
+    }
+
+    @Benchmark
+    public List<BinPacker.ContainerState> packBest() {
+        return BinPacker.packBest(details, sizeRules, SEARCH_BUDGET_MS);
+    }
+
+    @Benchmark
+    public BinPacker.ManualResult packManualForDetails() {
+        return BinPacker.packManualForDetails(details, largestRule, manualContainers);
+    }
+
+    private OrderDetailEntity randomPackage(Random random) {
+        String kind = switch (mix) {
+            case "PARCELS" -> "PARCEL";
+            case "PALLETS" -> "PALLET";
+            default -> {
+                double roll = random.nextDouble();
+                yield roll < 0.70 ? "PARCEL" : roll < 0.95 ? "CARTON" : "PALLET";
+            }
+        };
+
+        return switch (kind) {
+            case "PARCEL" -> orderDetail(random, 0.2, 0.6, 0.2, 0.5, 0.1, 0.5, 0.005, 0.05);
+            case "CARTON" -> orderDetail(random, 0.6, 1.2, 0.4, 0.8, 0.4, 0.8, 0.03, 0.15);
+            default -> orderDetail(random, 1.0, 1.2, 1.0, 1.2, 1.0, 1.6, 0.3, 0.8);
+        };
+    }
+
+    private static OrderDetailEntity orderDetail(Random random,
+                                                 double minLength, double maxLength,
+                                                 double minWidth, double maxWidth,
+                                                 double minHeight, double maxHeight,
+                                                 double minTons, double maxTons) {
+        OrderSizeEntity size = OrderSizeEntity.builder()
+                .id(UUID.randomUUID())
+                .maxLength(decimal(between(random, minLength, maxLength), 1))
+                .maxWidth(decimal(between(random, minWidth, maxWidth), 1))
+                .maxHeight(decimal(between(random, minHeight, maxHeight), 1))
+                .build();
+        return OrderDetailEntity.builder()
+                .id(UUID.randomUUID())
+                .weightTons(decimal(between(random, minTons, maxTons), 3))
+                .unit("Kí")
+                .orderSizeEntity(size)
+                .build();
+    }
+
+    private static SizeRuleEntity sizeRule(String name, String tons, String length, String width, String height) {
+        return SizeRuleEntity.builder()
+                .id(UUID.randomUUID())
+                .sizeRuleName(name)
+                .maxWeight(new BigDecimal(tons))
+                .maxLength(new BigDecimal(length))
+                .maxWidth(new BigDecimal(width))
+                .maxHeight(new BigDecimal(height))
+                .build();
+    }
+
+    private static double between(Random random, double min, double max) {
+        return min + random.nextDouble() * (max - min);
+    }
+
+    private static BigDecimal decimal(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,133 @@
+package capstone_project.common.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Off-route check for one GPS ping: distance from the point to the planned route polyline.
+ * Routes follow QL1A out of Ho Chi Minh City with a vertex every ~40 m, like a decoded Vietmap polyline:
+ * an urban delivery (15 km), an inter-province trip (300 km) and the north-south run (1700 km).
+ * Pings are a mix of on-route, slightly off (GPS drift) and far off-route points.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RouteGeometryIndexBenchmark {
+
+    // HCM -> Phan Thiết -> Nha Trang -> Quy Nhơn -> Đà Nẵng -> Huế -> Vinh -> Thanh Hóa -> Hà Nội
+    private static final double[][] WAYPOINTS = {
+            {10.7769, 106.7009}, {10.9280, 108.1020}, {12.2388, 109.1967}, {13.7829, 109.2196},
+            {16.0544, 108.2022}, {16.4637, 107.5909}, {18.6796, 105.6813}, {19.8067, 105.7852},
+            {21.0278, 105.8342}
+    };
+
+    private static final double VERTEX_SPACING_METERS = 40;
+    private static final int PING_COUNT = 1024;
+
+    @Param({"15", "300", "1700"})
+    public int routeKm;
+
+    private double[] routeLats;
+    private double[] routeLngs;
+    private RouteGeometryIndex index;
+
+    private double[] pingLats;
+    private double[] pingLngs;
+    private int nextPing;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        buildRoute(random);
+
+        RouteGeometryIndex.Builder builder = RouteGeometryIndex.builder().beginPolyline();
+        for (int i = 0; i < routeLats.length; i++) {
+            builder.addVertex(routeLats[i], routeLngs[i]);
+        }
+        index = builder.endPolyline().build();
+
+        pingLats = new double[PING_COUNT];
+        pingLngs = new double[PING_COUNT];
+        for (int i = 0; i < PING_COUNT; i++) {
+            int vertex = random.nextInt(routeLats.length);
+            double roll = random.nextDouble();
+            // 80% on route with GPS noise, 15% a few hundred metres off, 5% kilometres away
+            double offsetMeters = roll < 0.80 ? random.nextDouble() * 30
+                    : roll < 0.95 ? 100 + random.nextDouble() * 400
+                    : 2000 + random.nextDouble() * 20000;
+            double bearing = random.nextDouble() * 2 * Math.PI;
+            pingLats[i] = routeLats[vertex] + offsetMeters * Math.cos(bearing) / 110574;
+            pingLngs[i] = routeLngs[vertex] + offsetMeters * Math.sin(bearing)
+                    / (111320 * Math.cos(Math.toRadians(routeLats[vertex])));
+        }
+    }
+
+    @Benchmark
+    public double indexedDistance() {
+        int i = nextPing++ & (PING_COUNT - 1);
+        return index.distanceToRoute(pingLats[i], pingLngs[i]);
+    }
+
+    /**
+     * Baseline: every segment of the route checked for every ping
+     */
+    @Benchmark
+    public double linearScanDistance() {
+        int i = nextPing++ & (PING_COUNT - 1);
+        double lat = pingLats[i], lng = pingLngs[i];
+        double min = Double.MAX_VALUE;
+        for (int v = 1; v < routeLats.length; v++) {
+            min = Math.min(min, RouteGeometryIndex.pointToSegmentDistance(
+                    lat, lng, routeLats[v - 1], routeLngs[v - 1], routeLats[v], routeLngs[v]));
+        }
+        return min;
+    }
+
+    @Benchmark
+    public RouteGeometryIndex buildIndex() {
+        RouteGeometryIndex.Builder builder = RouteGeometryIndex.builder().beginPolyline();
+        for (int i = 0; i < routeLats.length; i++) {
+            builder.addVertex(routeLats[i], routeLngs[i]);
+        }
+        return builder.endPolyline().build();
+    }
+
+    /**
+     * Walk the waypoints for routeKm kilometres, one vertex every ~40 m with a small sideways wiggle
+     */
+    private void buildRoute(Random random) {
+        int vertices = (int) (routeKm * 1000 / VERTEX_SPACING_METERS) + 1;
+        routeLats = new double[vertices];
+        routeLngs = new double[vertices];
+
+        int leg = 0;
+        double lat = WAYPOINTS[0][0], lng = WAYPOINTS[0][1];
+        routeLats[0] = lat;
+        routeLngs[0] = lng;
+        for (int v = 1; v < vertices; v++) {
+            double[] target = WAYPOINTS[Math.min(leg + 1, WAYPOINTS.length - 1)];
+            double metersPerDegreeLng = 111320 * Math.cos(Math.toRadians(lat));
+            double dy = (target[0] - lat) * 110574;
+            double dx = (target[1] - lng) * metersPerDegreeLng;
+            double remaining = Math.hypot(dx, dy);
+            if (remaining < VERTEX_SPACING_METERS && leg + 1 < WAYPOINTS.length - 1) {
+                leg++;
+            }
+            double heading = Math.atan2(dy, dx) + (random.nextDouble() - 0.5) * 0.6;
+            lat += VERTEX_SPACING_METERS * Math.sin(heading) / 110574;
+            lng += VERTEX_SPACING_METERS * Math.cos(heading) / metersPerDegreeLng;
+            routeLats[v] = lat;
+            routeLngs[v] = lng;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package capstone_project.service.services.pricing;
+
+import capstone_project.entity.pricing.DistanceRuleEntity;
+import capstone_project.entity.pricing.SizeRuleEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UnifiedPricingService.calculatePrice on a fixed PricingSnapshot built from in-memory rules,
+ * so the numbers cover the tier walk and BigDecimal arithmetic rather than the database.
+ * Distances hit one tier (urban), three tiers (inter-province) and the open-ended tier (north-south).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UnifiedPricingServiceBenchmark {
+
+    @Param({"3", "45", "320", "1700"})
+    public String distanceKm;
+
+    @Param({"1", "3"})
+    public int numberOfVehicles;
+
+    private UnifiedPricingService pricingService;
+    private UUID vehicleId;
+    private BigDecimal distance;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SizeRuleEntity vehicle = SizeRuleEntity.builder()
+                .id(UUID.randomUUID())
+                .sizeRuleName("Xe tải 2.4 tấn")
+                .maxWeight(new BigDecimal("2.4"))
+                .build();
+        vehicleId = vehicle.getId();
+        distance = new BigDecimal(distanceKm);
+
+        List<DistanceRuleEntity> distanceRules = List.of(
+                distanceRule("15", "100", 3),
+                distanceRule("0", "4", 1),
+                distanceRule("100", null, 4),
+                distanceRule("4", "15", 2));
+
+        // Fixed price for the 0-4 km tier, per-km prices for the others
+        List<Object[]> basePrices = List.of(
+                new Object[]{vehicleId, distanceRules.get(1).getId(), new BigDecimal("180000")},
+                new Object[]{vehicleId, distanceRules.get(3).getId(), new BigDecimal("20000")},
+                new Object[]{vehicleId, distanceRules.get(0).getId(), new BigDecimal("15000")},
+                new Object[]{vehicleId, distanceRules.get(2).getId(), new BigDecimal("12000")});
+
+        PricingSnapshot snapshot = PricingSnapshot.builder()
+                .distanceRules(distanceRules)
+                .sizeRules(List.of(vehicle))
+                .priceMatrixRows(basePrices)
+                .build(1);
+
+        // No repositories: the service only hands out the fixed snapshot
+        PricingSnapshotService snapshotService = new PricingSnapshotService(
+                null, null, null, null, null, null, null, null, new SimpleMeterRegistry()) {
+            @Override
+            public PricingSnapshot current() {
+                return snapshot;
+            }
+        };
+        pricingService = new UnifiedPricingService(snapshotService);
+    }
+
+    @Benchmark
+    public UnifiedPricingService.UnifiedPriceResult calculatePrice() {
+        return pricingService.calculatePrice(vehicleId, distance, numberOfVehicles, null);
+    }
+
+    private static DistanceRuleEntity distanceRule(String fromKm, String toKm, int displayOrder) {
+        return DistanceRuleEntity.builder()
+                .id(UUID.randomUUID())
+                .fromKm(new BigDecimal(fromKm))
+                .toKm(toKm == null ? null : new BigDecimal(toKm))
+                .displayOrder(displayOrder)
+                .isBasePrice(displayOrder == 1)
+                .status("ACTIVE")
+                .build();
+    }
+}
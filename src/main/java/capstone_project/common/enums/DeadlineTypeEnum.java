@@ -0,0 +1,9 @@
+package capstone_project.common.enums;
+
+public enum DeadlineTypeEnum {
+    CONTRACT_SIGNING,
+    CONTRACT_DEPOSIT_PAYMENT,
+    CONTRACT_FULL_PAYMENT,
+    TRANSACTION_PAYMENT,
+    RETURN_PAYMENT
+}
@@ -11,6 +11,12 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -20,6 +26,75 @@ public class BinPacker {
     private static final boolean ALLOW_ROTATION = true;
     public static final int UNIT_MULTIPLIER = 10;
 
+    // Mốc "không giới hạn thời gian" cho packBoxes
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    // packBest: chỉ tìm kiếm khi đơn có từ 2 kiện trở lên (1 kiện thì mọi chiến lược cho cùng kết quả)
+    private static final int SEARCH_MIN_PACKAGES = 2;
+    private static final ForkJoinPool SEARCH_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    // Phương án rẻ hơn: ít xe hơn, rồi tổng tải trọng xe nhỏ hơn, rồi tổng thể tích thùng nhỏ hơn
+    private static final Comparator<List<ContainerState>> PACKING_COST =
+            Comparator.<List<ContainerState>>comparingInt(List::size)
+                    .thenComparingLong(used -> used.stream()
+                            .mapToLong(c -> convertWeightToLong(c.rule.getMaxWeight())).sum())
+                    .thenComparingLong(used -> used.stream()
+                            .mapToLong(c -> (long) c.maxX * c.maxY * c.maxZ).sum());
+
+    // * Thứ tự đưa kiện vào xếp
+    enum BoxOrder {
+        // OPTIMIZED sorting strategy (default): density-aware multi-criteria sorting
+        // This ensures optimal packing by considering weight, volume, and density together
+        DENSITY_VOLUME((a, b) -> {
+            // Calculate density (weight/volume ratio) for both packages
+            double densityA = a.volume > 0 ? (double) a.weight / a.volume : 0.0;
+            double densityB = b.volume > 0 ? (double) b.weight / b.volume : 0.0;
+            
+            // Primary: Sort by density category (heavy-dense items first)
+            // This prevents placing light items first and wasting weight capacity
+            boolean aIsHeavyDense = densityA > 15.0; // >15 kg/dm³ = metals, machinery
+            boolean bIsHeavyDense = densityB > 15.0;
+            if (aIsHeavyDense != bIsHeavyDense) {
+                return bIsHeavyDense ? 1 : -1; // Heavy-dense items first
+            }
+
+            // Secondary: Within same density category, sort by volume (largest first)
+            // This ensures large items are placed before small ones
+            int cmp = Long.compare(b.volume, a.volume);
+            if (cmp != 0) return cmp;
+
+            // Tertiary: Sort by weight (heaviest first) for items with same volume
+            cmp = Long.compare(b.weight, a.weight);
+            if (cmp != 0) return cmp;
+
+            // Quaternary: Sort by longest dimension (to minimize container upgrades)
+            int aMaxDim = Math.max(a.lx, Math.max(a.ly, a.lz));
+            int bMaxDim = Math.max(b.lx, Math.max(b.ly, b.lz));
+            return Integer.compare(bMaxDim, aMaxDim);
+        }),
+        VOLUME_DESC(Comparator.comparingLong((BoxItem b) -> b.volume).reversed()
+                .thenComparing(Comparator.comparingLong((BoxItem b) -> b.weight).reversed())),
+        WEIGHT_DESC(Comparator.comparingLong((BoxItem b) -> b.weight).reversed()
+                .thenComparing(Comparator.comparingLong((BoxItem b) -> b.volume).reversed())),
+        LONGEST_EDGE_DESC(Comparator.comparingInt(BinPacker::longestEdge).reversed()
+                .thenComparing(Comparator.comparingLong((BoxItem b) -> b.volume).reversed())),
+        FOOTPRINT_DESC(Comparator.comparingLong(BinPacker::largestFace).reversed()
+                .thenComparing(Comparator.comparingLong((BoxItem b) -> b.volume).reversed()));
+
+        final Comparator<BoxItem> comparator;
+
+        BoxOrder(Comparator<BoxItem> comparator) {
+            this.comparator = comparator;
+        }
+    }
+
+    // * Cách chọn cỡ xe khi phải mở thêm xe mới
+    enum VehicleMix {
+        UPGRADE_BEST_FIT,   // xe có điểm fit tốt nhất (mặc định của pack())
+        SMALLEST_FIT,       // xe nhỏ nhất chứa được kiện, nâng cấp dần khi cần
+        LARGEST_FIRST       // xe lớn nhất, thu nhỏ lại sau khi xếp xong
+    }
+
     // * đại diện cho 1 kiện hàng theo chuẩn hóa (dài rộng cao, trọng lượng)
     public static class BoxItem {
 
@@ -27,6 +102,7 @@ public class BinPacker {
         public final int lx, ly, lz;
         public final long weight;
         public final long volume;
+        final int[][] orientations; // các hướng xoay hợp lệ, tính 1 lần cho mỗi kiện
 
         public BoxItem(UUID id, int lx, int ly, int lz, long weight) {
             this.id = id;
@@ -35,6 +111,9 @@ public class BinPacker {
             this.lz = lz;
             this.weight = weight;
             this.volume = (long) lx * ly * lz;
+            this.orientations = ALLOW_ROTATION
+                    ? rotations(lx, ly, lz).toArray(new int[0][])
+                    : new int[][]{{lx, ly, lz}};
         }
     }
 
@@ -77,8 +156,14 @@ public class BinPacker {
         public final SizeRuleEntity rule;
         final int maxX, maxY, maxZ;
         public long currentWeight;
+        public long usedVolume;
         public List<Placement> placements = new ArrayList<>();  // check kiện đã đặt -->
-        List<int[]> extremePoints = new ArrayList<>(); // each point [x,y,z] - điểm cực trị để đặt kiện tiếp theo
+        final PlacementIndex occupied; // chỉ mục không gian của các kiện đã đặt
+
+        // điểm cực trị để đặt kiện tiếp theo, lưu theo thứ tự được sinh ra
+        int[] epX = new int[16], epY = new int[16], epZ = new int[16];
+        int epCount;
+        private final Set<Long> seenPoints = new HashSet<>(); // mọi điểm đã từng sinh ra (kể cả đã bị loại)
 
         public ContainerState(SizeRuleEntity rule, int maxX, int maxY, int maxZ) {
             this.rule = rule;
@@ -86,8 +171,9 @@ public class BinPacker {
             this.maxY = maxY;
             this.maxZ = maxZ;
             this.currentWeight = 0;
+            this.occupied = new PlacementIndex(maxX, maxY, maxZ);
             // initial extreme point = origin (0,0,0)
-            this.extremePoints.add(new int[]{0, 0, 0});
+            offerExtremePoint(0, 0, 0);
         }
 
         // * Sau khi thêm kiện  --> update lại trọng lượng --> kiểm tra trọng lượng có vượt quá giới hạn không
@@ -110,51 +196,75 @@ public class BinPacker {
         public void addPlacement(Placement p) {
             placements.add(p);
             currentWeight += p.box.weight;
+            usedVolume += (long) p.lx * p.ly * p.lz;
+            occupied.add(p.x, p.y, p.z, p.lx, p.ly, p.lz);
+            // remove extreme points now covered by the placed block
+            pruneExtremePoints();
             // add new extreme points: right, front, top of placed block
             int nx = p.x + p.lx;
             int ny = p.y + p.ly;
             int nz = p.z + p.lz;
-            extremePoints.add(new int[]{nx, p.y, p.z});
-            extremePoints.add(new int[]{p.x, ny, p.z});
-            extremePoints.add(new int[]{p.x, p.y, nz});
-            // remove dominated extreme points (simple filter)
-            pruneExtremePoints();
+            offerExtremePoint(nx, p.y, p.z);
+            offerExtremePoint(p.x, ny, p.z);
+            offerExtremePoint(p.x, p.y, nz);
         }
 
-        // * Loại bỏ các điểm cực trị không hợp lệ or trùng lặp or nằm ngoài container
+        // * Thêm điểm cực trị nếu hợp lệ: trong container, chưa từng sinh ra, không nằm trong kiện đã đặt
+        private void offerExtremePoint(int x, int y, int z) {
+            if (x < 0 || y < 0 || z < 0) return;   // sinh ra điểm âm -> bỏ
+            if (x >= maxX || y >= maxY || z >= maxZ) return;   // chạm/vượt thành xe -> không đặt được kiện nào -> bỏ
+            if (!seenPoints.add(pointKey(x, y, z))) return;   // trùng lặp -> bỏ
+            if (occupied.isOccupied(x, y, z)) return;   // nằm trong kiện đã đặt -> bỏ
+            if (epCount == epX.length) {
+                epX = Arrays.copyOf(epX, epCount * 2);
+                epY = Arrays.copyOf(epY, epCount * 2);
+                epZ = Arrays.copyOf(epZ, epCount * 2);
+            }
+            epX[epCount] = x;
+            epY[epCount] = y;
+            epZ[epCount] = z;
+            epCount++;
+        }
+
+        // * Loại bỏ các điểm cực trị bị kiện vừa đặt che lấp (giữ nguyên thứ tự các điểm còn lại)
         private void pruneExtremePoints() {
-            // remove points outside container or duplicates
-            Set<String> seen = new HashSet<>();
-            List<int[]> out = new ArrayList<>();
-            for (int[] p : extremePoints) {
-                if (p[0] < 0 || p[1] < 0 || p[2] < 0) continue;   // sinh ra điểm âm -> bỏ
-                if (p[0] > maxX || p[1] > maxY || p[2] > maxZ) continue;   // ngoài công -> bỏ
-                String k = p[0] + ":" + p[1] + ":" + p[2];
-                if (!seen.contains(k)) {
-                    seen.add(k);
-                    out.add(p);
-                }
+            int out = 0;
+            for (int i = 0; i < epCount; i++) {
+                if (occupied.isInsideLast(epX[i], epY[i], epZ[i])) continue;
+                epX[out] = epX[i];
+                epY[out] = epY[i];
+                epZ[out] = epZ[i];
+                out++;
             }
-            extremePoints = out;
+            epCount = out;
+        }
+
+        private static long pointKey(int x, int y, int z) {
+            return ((long) x << 42) | ((long) y << 21) | z;
         }
     }
 
     // * Tạo 6 cách xoay kiện --> bỏ các cách trùng lặp
     public static List<int[]> rotations(int lx, int ly, int lz) {
-        List<int[]> r = new ArrayList<>();
-        r.add(new int[]{lx, ly, lz});
-        r.add(new int[]{lx, lz, ly});
-        r.add(new int[]{ly, lx, lz});
-        r.add(new int[]{ly, lz, lx});
-        r.add(new int[]{lz, lx, ly});
-        r.add(new int[]{lz, ly, lx});
+        int[][] all = {
+                {lx, ly, lz},
+                {lx, lz, ly},
+                {ly, lx, lz},
+                {ly, lz, lx},
+                {lz, lx, ly},
+                {lz, ly, lx}
+        };
         // remove dupes
-        Set<String> seen = new HashSet<>();
-        List<int[]> uniq = new ArrayList<>();
-        for (int[] a : r) {
-            String k = a[0] + ":" + a[1] + ":" + a[2];
-            if (!seen.contains(k)) {
-                seen.add(k);
+        List<int[]> uniq = new ArrayList<>(all.length);
+        for (int[] a : all) {
+            boolean duplicate = false;
+            for (int[] u : uniq) {
+                if (u[0] == a[0] && u[1] == a[1] && u[2] == a[2]) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
                 uniq.add(a);
             }
         }
@@ -167,36 +277,26 @@ public class BinPacker {
      * */
     public static Placement tryPlaceBoxInContainer(BoxItem box, ContainerState container) {
 
+        // weight check (không phụ thuộc vị trí -> kiểm tra 1 lần)
+        if (!container.checkWeightAfterAdd(box.weight)) {
+            return null;
+        }
+
         // iterate extreme points
-        for (int[] p : container.extremePoints) {
-            int px = p[0], py = p[1], pz = p[2];
-            // * kiểm tra hướng xoay phù hợp
-            List<int[]> rots = ALLOW_ROTATION ? rotations(box.lx, box.ly, box.lz) : Collections.singletonList(new int[]{box.lx, box.ly, box.lz});
+        for (int i = 0; i < container.epCount; i++) {
+            int px = container.epX[i], py = container.epY[i], pz = container.epZ[i];
 
-            for (int[] dim : rots) {
+            // * kiểm tra hướng xoay phù hợp
+            for (int[] dim : box.orientations) {
                 int lx = dim[0], ly = dim[1], lz = dim[2];
 
                 // bounds check
                 if (px + lx > container.maxX || py + ly > container.maxY || pz + lz > container.maxZ) {
-                    
                     continue;
                 }
 
-                // * kiểm tra va chạm với các kiện đã đặt
-                boolean collide = false;
-                for (Placement ex : container.placements) {
-                    if (intersect(px, py, pz, lx, ly, lz, ex.x, ex.y, ex.z, ex.lx, ex.ly, ex.lz)) {
-                        
-                        collide = true;
-                        break;
-                    }
-                }
-                if (collide) continue;
-
-                // weight check
-                if (!container.checkWeightAfterAdd(box.weight)) {
-                    continue;
-                }
+                // * kiểm tra va chạm với các kiện đã đặt (chỉ các kiện trong các ô lưới liên quan)
+                if (container.occupied.collides(px, py, pz, lx, ly, lz)) continue;
 
                 return new Placement(box, px, py, pz, lx, ly, lz);
             }
@@ -230,6 +330,160 @@ public class BinPacker {
      * @throws RuntimeException if any package exceeds maximum vehicle capacity
      */
     public static List<ContainerState> pack(List<OrderDetailEntity> details, List<SizeRuleEntity> sizeRules) {
+        List<BoxItem> boxes = toBoxItems(details, sizeRules);
+        boxes.sort(BoxOrder.DENSITY_VOLUME.comparator);
+
+        log.info("📦 Starting bin packing for {} packages", boxes.size());
+        List<ContainerState> used = packBoxes(boxes, sizeRules, VehicleMix.UPGRADE_BEST_FIT, NO_DEADLINE);
+        logPackingSummary(boxes.size(), used);
+        return used;
+    }
+
+    /**
+     * Search mode of {@link #pack}: packs the boxes with every {@link BoxOrder} x {@link VehicleMix} combination
+     * in parallel, shrinks each vehicle to the smallest size rule that still holds its boxes,
+     * and returns the cheapest result (fewest vehicles, then smallest trucks).
+     * The default strategy of {@link #pack} runs on the calling thread without a deadline, so the result is
+     * never worse than {@link #pack} and invalid packages fail with the same errors.
+     * Once the default result is ready, strategies still queued on the search pool (busy with other requests)
+     * are cancelled instead of awaited, and the time budget only caps strategies that are already running.
+     *
+     * @param timeBudgetMs wall-clock cap for running alternative strategies, 0 or less behaves like {@link #pack}
+     */
+    public static List<ContainerState> packBest(List<OrderDetailEntity> details, List<SizeRuleEntity> sizeRules,
+                                                long timeBudgetMs) {
+        if (timeBudgetMs <= 0 || details.size() < SEARCH_MIN_PACKAGES) {
+            return pack(details, sizeRules);
+        }
+
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeBudgetMs);
+        List<BoxItem> boxes = toBoxItems(details, sizeRules);
+        log.info("📦 Starting bin packing search for {} packages (budget {}ms)", boxes.size(), timeBudgetMs);
+
+        List<SearchTask> alternatives = new ArrayList<>();
+        for (BoxOrder order : BoxOrder.values()) {
+            for (VehicleMix mix : VehicleMix.values()) {
+                if (order == BoxOrder.DENSITY_VOLUME && mix == VehicleMix.UPGRADE_BEST_FIT) continue;
+                AtomicBoolean started = new AtomicBoolean();
+                alternatives.add(new SearchTask(order, mix, started, SEARCH_POOL.submit(() -> {
+                    started.set(true);
+                    return packWithStrategy(boxes, sizeRules, order, mix, deadlineNanos);
+                })));
+            }
+        }
+
+        List<ContainerState> best;
+        try {
+            List<BoxItem> sorted = new ArrayList<>(boxes);
+            sorted.sort(BoxOrder.DENSITY_VOLUME.comparator);
+            best = shrinkContainers(packBoxes(sorted, sizeRules, VehicleMix.UPGRADE_BEST_FIT, NO_DEADLINE),
+                    sizeRules, deadlineNanos);
+        } catch (RuntimeException e) {
+            alternatives.forEach(alternative -> alternative.task().cancel(true));
+            throw e;
+        }
+
+        int defaultVehicles = best.size();
+        String bestStrategy = BoxOrder.DENSITY_VOLUME + "/" + VehicleMix.UPGRADE_BEST_FIT;
+        int finished = 1;
+        for (SearchTask alternative : alternatives) {
+            List<ContainerState> candidate = awaitCandidate(alternative, deadlineNanos);
+            if (candidate == null) continue;
+            finished++;
+            if (PACKING_COST.compare(candidate, best) < 0) {
+                best = candidate;
+                bestStrategy = alternative.order() + "/" + alternative.mix();
+            }
+        }
+
+        log.info("[BinPacker] Search picked {} ({} vehicles, default {}) from {}/{} strategies in {}ms",
+                bestStrategy, best.size(), defaultVehicles, finished, alternatives.size() + 1,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        logPackingSummary(boxes.size(), best);
+        return best;
+    }
+
+    private record SearchTask(BoxOrder order, VehicleMix mix, AtomicBoolean started,
+                              ForkJoinTask<List<ContainerState>> task) {
+    }
+
+    private static List<ContainerState> packWithStrategy(List<BoxItem> boxes, List<SizeRuleEntity> sizeRules,
+                                                         BoxOrder order, VehicleMix mix, long deadlineNanos) {
+        List<BoxItem> sorted = new ArrayList<>(boxes);
+        sorted.sort(order.comparator);
+        List<ContainerState> used = packBoxes(sorted, sizeRules, mix, deadlineNanos);
+        return used == null ? null : shrinkContainers(used, sizeRules, deadlineNanos);
+    }
+
+    // * Chờ kết quả của 1 chiến lược tới hạn chót; chưa bắt đầu chạy, quá hạn hoặc lỗi -> bỏ qua chiến lược đó
+    private static List<ContainerState> awaitCandidate(SearchTask alternative, long deadlineNanos) {
+        ForkJoinTask<List<ContainerState>> task = alternative.task();
+        if (!task.isDone() && !alternative.started().get()) {
+            // Still queued behind other searches: running it now would only add latency
+            task.cancel(false);
+            return null;
+        }
+        try {
+            long remaining = deadlineNanos - System.nanoTime();
+            if (!task.isDone() && remaining <= 0) {
+                task.cancel(true);
+                return null;
+            }
+            return task.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            return null;
+        } catch (ExecutionException e) {
+            log.debug("[BinPacker] Strategy {}/{} failed: {}", alternative.order(), alternative.mix(),
+                    e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.cancel(true);
+            return null;
+        }
+    }
+
+    // * Thu nhỏ từng xe về loại nhỏ nhất vẫn xếp lại được toàn bộ kiện của xe đó (sizeRules sắp xếp nhỏ -> lớn)
+    static List<ContainerState> shrinkContainers(List<ContainerState> used, List<SizeRuleEntity> sizeRules,
+                                                 long deadlineNanos) {
+        List<ContainerState> result = new ArrayList<>(used.size());
+        for (ContainerState container : used) {
+            ContainerState smallest = container;
+            if (!isPastDeadline(deadlineNanos)) {
+                for (SizeRuleEntity rule : sizeRules) {
+                    if (rule.getId().equals(container.rule.getId())) break; // chỉ thử các loại nhỏ hơn
+                    ContainerState repacked = upgradeContainer(container, rule);
+                    if (repacked != null) {
+                        smallest = repacked;
+                        break;
+                    }
+                }
+            }
+            result.add(smallest);
+        }
+        return result;
+    }
+
+    private static boolean isPastDeadline(long deadlineNanos) {
+        return deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    private static int longestEdge(BoxItem box) {
+        return Math.max(box.lx, Math.max(box.ly, box.lz));
+    }
+
+    // Diện tích mặt lớn nhất = tích 2 cạnh dài nhất
+    private static long largestFace(BoxItem box) {
+        int longest = longestEdge(box);
+        int shortest = Math.min(box.lx, Math.min(box.ly, box.lz));
+        int middle = box.lx + box.ly + box.lz - longest - shortest;
+        return (long) longest * middle;
+    }
+
+    // * Chuẩn hóa OrderDetailEntity -> BoxItem, báo lỗi nếu kiện thiếu kích thước hoặc nặng hơn xe lớn nhất
+    static List<BoxItem> toBoxItems(List<OrderDetailEntity> details, List<SizeRuleEntity> sizeRules) {
         log.info("[BinPacker] Starting pack() with {} packages and {} size rules", details.size(), sizeRules.size());
         
         // Check if sizeRules is empty (before loop)
@@ -280,42 +534,21 @@ public class BinPacker {
             
             boxes.add(new BoxItem(d.getId(), lx, ly, lz, w));
         }
+        return boxes;
+    }
 
-        // OPTIMIZED sorting strategy: density-aware multi-criteria sorting
-        // This ensures optimal packing by considering weight, volume, and density together
-        boxes.sort((a, b) -> {
-            // Calculate density (weight/volume ratio) for both packages
-            double densityA = a.volume > 0 ? (double) a.weight / a.volume : 0.0;
-            double densityB = b.volume > 0 ? (double) b.weight / b.volume : 0.0;
-            
-            // Primary: Sort by density category (heavy-dense items first)
-            // This prevents placing light items first and wasting weight capacity
-            boolean aIsHeavyDense = densityA > 15.0; // >15 kg/dm³ = metals, machinery
-            boolean bIsHeavyDense = densityB > 15.0;
-            if (aIsHeavyDense != bIsHeavyDense) {
-                return bIsHeavyDense ? 1 : -1; // Heavy-dense items first
-            }
-
-            // Secondary: Within same density category, sort by volume (largest first)
-            // This ensures large items are placed before small ones
-            int cmp = Long.compare(b.volume, a.volume);
-            if (cmp != 0) return cmp;
-
-            // Tertiary: Sort by weight (heaviest first) for items with same volume
-            cmp = Long.compare(b.weight, a.weight);
-            if (cmp != 0) return cmp;
-
-            // Quaternary: Sort by longest dimension (to minimize container upgrades)
-            int aMaxDim = Math.max(a.lx, Math.max(a.ly, a.lz));
-            int bMaxDim = Math.max(b.lx, Math.max(b.ly, b.lz));
-            return Integer.compare(bMaxDim, aMaxDim);
-        });
-
-        log.info("📦 Starting bin packing for {} packages", boxes.size());
-
+    /**
+     * Greedy packing of boxes in the given order: existing vehicles first, then upgrades, then a new vehicle.
+     * Returns null if the deadline passes before every box is placed.
+     */
+    static List<ContainerState> packBoxes(List<BoxItem> boxes, List<SizeRuleEntity> sizeRules,
+                                          VehicleMix mix, long deadlineNanos) {
         List<ContainerState> used = new ArrayList<>();
 
         for (BoxItem box : boxes) {
+            if (isPastDeadline(deadlineNanos)) {
+                return null;
+            }
             boolean placed = false;
 
             // Strategy 1: Try to place in existing vehicles (minimize vehicle count)
@@ -382,13 +615,14 @@ public class BinPacker {
 
             if (placed) continue;
 
-            // Strategy 3: Open new vehicle with BEST-FIT size (optimal resource utilization)
+            // Strategy 3: Open new vehicle, size picked by the vehicle mix (BEST-FIT by default)
             if (!placed) {
                 SizeRuleEntity bestRule = null;
                 ContainerState bestContainer = null;
                 double bestFitScore = -1.0;
 
-                for (SizeRuleEntity rule : sizeRules) {
+                for (int r = 0; r < sizeRules.size(); r++) {
+                    SizeRuleEntity rule = sizeRules.get(r);
                     int maxX = convertToInt(rule.getMaxLength());
                     int maxY = convertToInt(rule.getMaxWidth());
                     int maxZ = convertToInt(rule.getMaxHeight());
@@ -405,7 +639,11 @@ public class BinPacker {
                         Placement p = tryPlaceBoxInContainer(box, candidate);
                         if (p != null) {
                             // Calculate fit score: balance between minimizing waste and avoiding upgrades later
-                            double fitScore = calculateVehicleFitScore(box, rule, maxX, maxY, maxZ);
+                            double fitScore = switch (mix) {
+                                case UPGRADE_BEST_FIT -> calculateVehicleFitScore(box, rule, maxX, maxY, maxZ);
+                                case SMALLEST_FIT -> sizeRules.size() - r;
+                                case LARGEST_FIRST -> r + 1;
+                            };
                             
                             // Select vehicle with BEST fit score (not just smallest)
                             if (fitScore > bestFitScore) {
@@ -420,7 +658,7 @@ public class BinPacker {
 
                 if (bestContainer != null) {
                     used.add(bestContainer);
-                    log.info("[BinPacker] Opened new vehicle {} ({}) for box {}",
+                    log.debug("[BinPacker] Opened new vehicle {} ({}) for box {}",
                             used.size(), bestRule.getSizeRuleName(), box.id);
                 } else {
                     double packageTons = box.weight / 1000.0;
@@ -451,8 +689,12 @@ public class BinPacker {
             }
         }
 
-        // Log packing summary with volume and weight utilization
-        log.info("✅ Bin packing completed: {} packages assigned to {} vehicles", boxes.size(), used.size());
+        return used;
+    }
+
+    // Log packing summary with volume and weight utilization
+    private static void logPackingSummary(int packageCount, List<ContainerState> used) {
+        log.info("✅ Bin packing completed: {} packages assigned to {} vehicles", packageCount, used.size());
         for (int i = 0; i < used.size(); i++) {
             ContainerState container = used.get(i);
             
@@ -461,11 +703,8 @@ public class BinPacker {
             double weightUtil = (double) container.currentWeight / maxWeightGram * 100;
             
             // Calculate volume utilization
-            long usedVolume = container.placements.stream()
-                    .mapToLong(p -> (long) p.lx * p.ly * p.lz)
-                    .sum();
             long totalVolume = (long) container.maxX * container.maxY * container.maxZ;
-            double volumeUtil = (double) usedVolume / totalVolume * 100;
+            double volumeUtil = (double) container.usedVolume / totalVolume * 100;
             
             log.info("   Vehicle {}: {} - {} packages, Weight: {:.1f}%, Volume: {:.1f}%",
                     i + 1, container.rule.getSizeRuleName(), container.placements.size(), 
@@ -487,8 +726,6 @@ public class BinPacker {
                         volumeUtil, weightUtil);
             }
         }
-
-        return used;
     }
 
     /**
@@ -547,11 +784,8 @@ public class BinPacker {
         double weightUtil = maxWeightGram > 0 ? (double) container.currentWeight / maxWeightGram : 0.0;
         
         // Volume utilization
-        long usedVolume = container.placements.stream()
-                .mapToLong(p -> (long) p.lx * p.ly * p.lz)
-                .sum();
         long totalVolume = (long) container.maxX * container.maxY * container.maxZ;
-        double volumeUtil = totalVolume > 0 ? (double) usedVolume / totalVolume : 0.0;
+        double volumeUtil = totalVolume > 0 ? (double) container.usedVolume / totalVolume : 0.0;
         
         // Combined score: weight is more important (60%) than volume (40%)
         // This prevents wasting expensive weight capacity
@@ -0,0 +1,122 @@
+package capstone_project.common.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary encoding of a GPS breadcrumb segment.
+ * The first point is stored in full, every following point as the difference to the previous one:
+ * time in milliseconds, latitude/longitude in 1e-6 degrees (~0.1 m), all as zigzag varints.
+ * A ping every few seconds costs 5-8 bytes instead of a database row.
+ */
+public final class GpsTrackCodec {
+
+    public static final int COORDINATE_SCALE = 1_000_000;
+    private static final int FORMAT_VERSION = 1;
+
+    private GpsTrackCodec() {
+    }
+
+    public record TrackPoint(long timestampMillis, double latitude, double longitude) {
+    }
+
+    public static byte[] encode(List<TrackPoint> points) {
+        Writer out = new Writer(8 + points.size() * 8);
+        out.writeVarLong(FORMAT_VERSION);
+        out.writeVarLong(points.size());
+
+        long prevTime = 0;
+        long prevLat = 0;
+        long prevLng = 0;
+        for (TrackPoint point : points) {
+            long lat = Math.round(point.latitude() * COORDINATE_SCALE);
+            long lng = Math.round(point.longitude() * COORDINATE_SCALE);
+            out.writeZigZag(point.timestampMillis() - prevTime);
+            out.writeZigZag(lat - prevLat);
+            out.writeZigZag(lng - prevLng);
+            prevTime = point.timestampMillis();
+            prevLat = lat;
+            prevLng = lng;
+        }
+        return out.toByteArray();
+    }
+
+    public static List<TrackPoint> decode(byte[] data) {
+        Reader in = new Reader(data);
+        long version = in.readVarLong();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported GPS track format version: " + version);
+        }
+        int count = (int) in.readVarLong();
+
+        List<TrackPoint> points = new ArrayList<>(count);
+        long time = 0;
+        long lat = 0;
+        long lng = 0;
+        for (int i = 0; i < count; i++) {
+            time += in.readZigZag();
+            lat += in.readZigZag();
+            lng += in.readZigZag();
+            points.add(new TrackPoint(time, (double) lat / COORDINATE_SCALE, (double) lng / COORDINATE_SCALE));
+        }
+        return points;
+    }
+
+    private static final class Writer {
+        private byte[] buffer;
+        private int size;
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeVarLong(long value) {
+            if (size + 10 > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + 10));
+            }
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        long readZigZag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= data.length) {
+                    throw new IllegalArgumentException("Truncated GPS track data");
+                }
+                byte b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in GPS track data");
+        }
+    }
+}
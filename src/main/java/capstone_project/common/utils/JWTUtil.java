@@ -157,6 +157,16 @@ public class JWTUtil {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Verify the token and return all its claims in a single parse.
+     *
+     * @param token the token
+     * @return the claims
+     */
+    public static Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
     private static Claims extractAllClaims(String token) {
         return Jwts.parser()
                 .verifyWith(getSigningKey())
@@ -0,0 +1,189 @@
+package capstone_project.common.utils;
+
+import java.util.Arrays;
+
+/**
+ * Uniform 3D grid over a container that indexes the boxes already placed in it.
+ * Collision and containment queries only look at the boxes registered in the cells
+ * the query touches, instead of every placement in the container.
+ * Boxes are stored as primitive arrays of [start, end) coordinates.
+ */
+class PlacementIndex {
+
+    // Max cells per axis, keeps the grid at most 16 x 16 x 16 cells whatever the container size
+    private static final int CELLS_PER_AXIS = 16;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int cellX, cellY, cellZ;     // cell size per axis (units)
+    private final int cellsX, cellsY, cellsZ;  // cell count per axis
+
+    // Box ids registered in each cell
+    private final int[][] cellBoxes;
+    private final int[] cellCounts;
+
+    private int[] startX = new int[INITIAL_CAPACITY];
+    private int[] startY = new int[INITIAL_CAPACITY];
+    private int[] startZ = new int[INITIAL_CAPACITY];
+    private int[] endX = new int[INITIAL_CAPACITY];
+    private int[] endY = new int[INITIAL_CAPACITY];
+    private int[] endZ = new int[INITIAL_CAPACITY];
+    private int size;
+
+    // A box spanning several cells is checked once per query
+    private int[] visitedStamp = new int[INITIAL_CAPACITY];
+    private int queryStamp;
+
+    PlacementIndex(int maxX, int maxY, int maxZ) {
+        this.cellX = cellSize(maxX);
+        this.cellY = cellSize(maxY);
+        this.cellZ = cellSize(maxZ);
+        this.cellsX = Math.max(1, ceilDiv(maxX, cellX));
+        this.cellsY = Math.max(1, ceilDiv(maxY, cellY));
+        this.cellsZ = Math.max(1, ceilDiv(maxZ, cellZ));
+        this.cellBoxes = new int[cellsX * cellsY * cellsZ][];
+        this.cellCounts = new int[cellsX * cellsY * cellsZ];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(int x, int y, int z, int lx, int ly, int lz) {
+        ensureCapacity(size + 1);
+        int id = size++;
+        startX[id] = x;
+        startY[id] = y;
+        startZ[id] = z;
+        endX[id] = x + lx;
+        endY[id] = y + ly;
+        endZ[id] = z + lz;
+
+        int x0 = cellOf(x, cellX, cellsX), x1 = cellOf(lastUnit(x, lx), cellX, cellsX);
+        int y0 = cellOf(y, cellY, cellsY), y1 = cellOf(lastUnit(y, ly), cellY, cellsY);
+        int z0 = cellOf(z, cellZ, cellsZ), z1 = cellOf(lastUnit(z, lz), cellZ, cellsZ);
+        for (int cx = x0; cx <= x1; cx++) {
+            for (int cy = y0; cy <= y1; cy++) {
+                for (int cz = z0; cz <= z1; cz++) {
+                    register(cellIndex(cx, cy, cz), id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Same result as checking {@link BinPacker#intersect} against every placed box
+     */
+    boolean collides(int x, int y, int z, int lx, int ly, int lz) {
+        if (size == 0) {
+            return false;
+        }
+        int stamp = nextStamp();
+        int ex = x + lx, ey = y + ly, ez = z + lz;
+
+        int x0 = cellOf(x, cellX, cellsX), x1 = cellOf(lastUnit(x, lx), cellX, cellsX);
+        int y0 = cellOf(y, cellY, cellsY), y1 = cellOf(lastUnit(y, ly), cellY, cellsY);
+        int z0 = cellOf(z, cellZ, cellsZ), z1 = cellOf(lastUnit(z, lz), cellZ, cellsZ);
+        for (int cx = x0; cx <= x1; cx++) {
+            for (int cy = y0; cy <= y1; cy++) {
+                for (int cz = z0; cz <= z1; cz++) {
+                    int cell = cellIndex(cx, cy, cz);
+                    int[] ids = cellBoxes[cell];
+                    for (int i = 0, n = cellCounts[cell]; i < n; i++) {
+                        int id = ids[i];
+                        if (visitedStamp[id] == stamp) continue;
+                        visitedStamp[id] = stamp;
+                        if (x < endX[id] && startX[id] < ex
+                                && y < endY[id] && startY[id] < ey
+                                && z < endZ[id] && startZ[id] < ez) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the point lies inside an occupied box, i.e. no box with volume can start there
+     */
+    boolean isOccupied(int x, int y, int z) {
+        int cell = cellIndex(cellOf(x, cellX, cellsX), cellOf(y, cellY, cellsY), cellOf(z, cellZ, cellsZ));
+        int[] ids = cellBoxes[cell];
+        for (int i = 0, n = cellCounts[cell]; i < n; i++) {
+            int id = ids[i];
+            if (isInside(id, x, y, z)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the point lies inside the most recently added box
+     */
+    boolean isInsideLast(int x, int y, int z) {
+        return size > 0 && isInside(size - 1, x, y, z);
+    }
+
+    private boolean isInside(int id, int x, int y, int z) {
+        return startX[id] <= x && x < endX[id]
+                && startY[id] <= y && y < endY[id]
+                && startZ[id] <= z && z < endZ[id];
+    }
+
+    private void register(int cell, int id) {
+        int[] ids = cellBoxes[cell];
+        if (ids == null) {
+            ids = new int[4];
+            cellBoxes[cell] = ids;
+        } else if (cellCounts[cell] == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            cellBoxes[cell] = ids;
+        }
+        ids[cellCounts[cell]++] = id;
+    }
+
+    private int nextStamp() {
+        if (++queryStamp == Integer.MAX_VALUE) {
+            Arrays.fill(visitedStamp, 0);
+            queryStamp = 1;
+        }
+        return queryStamp;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= startX.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, startX.length * 2);
+        startX = Arrays.copyOf(startX, newCapacity);
+        startY = Arrays.copyOf(startY, newCapacity);
+        startZ = Arrays.copyOf(startZ, newCapacity);
+        endX = Arrays.copyOf(endX, newCapacity);
+        endY = Arrays.copyOf(endY, newCapacity);
+        endZ = Arrays.copyOf(endZ, newCapacity);
+        visitedStamp = Arrays.copyOf(visitedStamp, newCapacity);
+    }
+
+    private int cellIndex(int cx, int cy, int cz) {
+        return (cx * cellsY + cy) * cellsZ + cz;
+    }
+
+    // Last unit covered by [start, start + length), a zero-length box still covers its start cell
+    private static int lastUnit(int start, int length) {
+        return Math.max(start, start + length - 1);
+    }
+
+    private static int cellOf(int coordinate, int cellSize, int cells) {
+        return Math.min(cells - 1, Math.max(0, coordinate / cellSize));
+    }
+
+    private static int cellSize(int max) {
+        return Math.max(1, ceilDiv(max, CELLS_PER_AXIS));
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+}
@@ -0,0 +1,389 @@
+package capstone_project.common.utils;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, precompiled route geometry for off-route distance checks.
+ * Vertices are stored in primitive arrays and every segment is registered in a sparse uniform grid
+ * (sorted cell keys + CSR offsets), so a point-to-route query only visits the cells around the point
+ * instead of scanning every vertex. Queries do not allocate.
+ */
+public final class RouteGeometryIndex {
+
+    private static final double EARTH_RADIUS_METERS = 6371000;
+    private static final double METERS_PER_DEGREE_LAT = 110574;
+    private static final double METERS_PER_DEGREE_LNG_EQUATOR = 111320;
+
+    // Grid cell size bounds in degrees (~110 m .. ~5.5 km)
+    private static final double MIN_CELL_DEGREES = 0.001;
+    private static final double MAX_CELL_DEGREES = 0.05;
+    private static final int MAX_CELLS_PER_AXIS = 40000;
+    private static final int MAX_BOUNDING_BOX_CELLS = 16;
+
+    private static final RouteGeometryIndex EMPTY = new RouteGeometryIndex(
+            new double[0], new double[0], new int[0], new int[0], 0, 0, 1, 0, 1, 1, new long[0], new int[]{0}, new int[0]);
+
+    // Vertex coordinates
+    private final double[] lats;
+    private final double[] lngs;
+
+    // Segment i goes from vertex segFrom[i] to vertex segTo[i] (equal for standalone points)
+    private final int[] segFrom;
+    private final int[] segTo;
+
+    // Grid definition
+    private final double originLat;
+    private final double originLng;
+    private final double cellDegrees;
+    private final double maxAbsLat;
+    private final int rows;
+    private final int columns;
+
+    // Sparse grid: sorted cell keys, CSR offsets into cellSegments
+    private final long[] cellKeys;
+    private final int[] cellOffsets;
+    private final int[] cellSegments;
+
+    private RouteGeometryIndex(double[] lats, double[] lngs, int[] segFrom, int[] segTo,
+                               double originLat, double originLng, double cellDegrees, double maxAbsLat,
+                               int rows, int columns, long[] cellKeys, int[] cellOffsets, int[] cellSegments) {
+        this.lats = lats;
+        this.lngs = lngs;
+        this.segFrom = segFrom;
+        this.segTo = segTo;
+        this.originLat = originLat;
+        this.originLng = originLng;
+        this.cellDegrees = cellDegrees;
+        this.maxAbsLat = maxAbsLat;
+        this.rows = rows;
+        this.columns = columns;
+        this.cellKeys = cellKeys;
+        this.cellOffsets = cellOffsets;
+        this.cellSegments = cellSegments;
+    }
+
+    public static RouteGeometryIndex empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isEmpty() {
+        return segFrom.length == 0;
+    }
+
+    public int vertexCount() {
+        return lats.length;
+    }
+
+    public int segmentCount() {
+        return segFrom.length;
+    }
+
+    /**
+     * Minimum distance in meters from a point to the route, 0 if the route has no geometry
+     */
+    public double distanceToRoute(double lat, double lng) {
+        int segmentCount = segFrom.length;
+        if (segmentCount == 0) {
+            return 0;
+        }
+
+        int row = (int) Math.floor((lat - originLat) / cellDegrees);
+        int col = (int) Math.floor((lng - originLng) / cellDegrees);
+
+        // Conservative meters-per-degree for the lower bound of unvisited rings
+        double cosLat = Math.cos(Math.toRadians(Math.max(maxAbsLat, Math.abs(lat))));
+        double metersPerCell = cellDegrees * Math.min(METERS_PER_DEGREE_LAT, METERS_PER_DEGREE_LNG_EQUATOR * cosLat);
+
+        // Rings beyond this radius no longer intersect the grid
+        int maxRing = Math.max(
+                Math.max(Math.abs(row), Math.abs(rows - 1 - row)),
+                Math.max(Math.abs(col), Math.abs(columns - 1 - col)));
+
+        double best = Double.MAX_VALUE;
+        int cellsVisited = 0;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = row - ring; r <= row + ring; r++) {
+                if (r < 0 || r >= rows) {
+                    cellsVisited += 2 * ring + 1;
+                    continue;
+                }
+                boolean edgeRow = (r == row - ring) || (r == row + ring);
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int c = col - ring; c <= col + ring; c += step) {
+                    cellsVisited++;
+                    if (c < 0 || c >= columns) {
+                        continue;
+                    }
+                    int cellIndex = Arrays.binarySearch(cellKeys, (long) r * columns + c);
+                    if (cellIndex < 0) {
+                        continue;
+                    }
+                    for (int k = cellOffsets[cellIndex]; k < cellOffsets[cellIndex + 1]; k++) {
+                        double d = segmentDistance(cellSegments[k], lat, lng);
+                        if (d < best) {
+                            best = d;
+                        }
+                    }
+                }
+            }
+
+            // Anything not yet visited lies at least `ring` full cells away
+            if (best <= ring * metersPerCell) {
+                return best;
+            }
+
+            // Far from the route: a plain scan is cheaper than walking empty rings
+            if (cellsVisited > segmentCount) {
+                return linearScan(lat, lng);
+            }
+        }
+
+        return best == Double.MAX_VALUE ? linearScan(lat, lng) : best;
+    }
+
+    private double linearScan(double lat, double lng) {
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < segFrom.length; i++) {
+            double d = segmentDistance(i, lat, lng);
+            if (d < best) {
+                best = d;
+            }
+        }
+        return best;
+    }
+
+    private double segmentDistance(int segment, double lat, double lng) {
+        int a = segFrom[segment];
+        int b = segTo[segment];
+        return pointToSegmentDistance(lat, lng, lats[a], lngs[a], lats[b], lngs[b]);
+    }
+
+    /**
+     * Distance from a point to a line segment: projection in degree space, Haversine for the final distance
+     */
+    public static double pointToSegmentDistance(double lat, double lng,
+                                                double lat1, double lng1,
+                                                double lat2, double lng2) {
+        double dx = lat2 - lat1;
+        double dy = lng2 - lng1;
+
+        if (dx == 0 && dy == 0) {
+            return haversineDistance(lat, lng, lat1, lng1);
+        }
+
+        double t = Math.max(0, Math.min(1, ((lat - lat1) * dx + (lng - lng1) * dy) / (dx * dx + dy * dy)));
+
+        return haversineDistance(lat, lng, lat1 + t * dx, lng1 + t * dy);
+    }
+
+    /**
+     * Haversine distance between two points in meters
+     */
+    public static double haversineDistance(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                        Math.sin(dLng / 2) * Math.sin(dLng / 2);
+
+        return EARTH_RADIUS_METERS * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * Collects standalone points and polylines, then compiles them into an index
+     */
+    public static final class Builder {
+
+        private double[] lats = new double[64];
+        private double[] lngs = new double[64];
+        private int vertexCount;
+
+        private int[] segFrom = new int[64];
+        private int[] segTo = new int[64];
+        private int segmentCount;
+
+        private int polylineStart = -1;
+
+        private Builder() {
+        }
+
+        /**
+         * Add a standalone point (e.g. a segment start/end location)
+         */
+        public Builder addPoint(double lat, double lng) {
+            endPolyline();
+            int v = addVertex0(lat, lng);
+            addSegment(v, v);
+            return this;
+        }
+
+        /**
+         * Start a new polyline; following {@link #addVertex} calls are connected in order
+         */
+        public Builder beginPolyline() {
+            endPolyline();
+            polylineStart = vertexCount;
+            return this;
+        }
+
+        public Builder addVertex(double lat, double lng) {
+            if (polylineStart < 0) {
+                beginPolyline();
+            }
+            int v = addVertex0(lat, lng);
+            if (v > polylineStart) {
+                addSegment(v - 1, v);
+            }
+            return this;
+        }
+
+        public Builder endPolyline() {
+            polylineStart = -1;
+            return this;
+        }
+
+        private int addVertex0(double lat, double lng) {
+            if (vertexCount == lats.length) {
+                lats = Arrays.copyOf(lats, vertexCount * 2);
+                lngs = Arrays.copyOf(lngs, vertexCount * 2);
+            }
+            lats[vertexCount] = lat;
+            lngs[vertexCount] = lng;
+            return vertexCount++;
+        }
+
+        private void addSegment(int from, int to) {
+            if (segmentCount == segFrom.length) {
+                segFrom = Arrays.copyOf(segFrom, segmentCount * 2);
+                segTo = Arrays.copyOf(segTo, segmentCount * 2);
+            }
+            segFrom[segmentCount] = from;
+            segTo[segmentCount] = to;
+            segmentCount++;
+        }
+
+        public RouteGeometryIndex build() {
+            if (segmentCount == 0) {
+                return EMPTY;
+            }
+
+            double[] vLats = Arrays.copyOf(lats, vertexCount);
+            double[] vLngs = Arrays.copyOf(lngs, vertexCount);
+            int[] from = Arrays.copyOf(segFrom, segmentCount);
+            int[] to = Arrays.copyOf(segTo, segmentCount);
+
+            double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+            double minLng = Double.MAX_VALUE, maxLng = -Double.MAX_VALUE;
+            double totalSpan = 0;
+            for (int i = 0; i < segmentCount; i++) {
+                int a = from[i], b = to[i];
+                minLat = Math.min(minLat, Math.min(vLats[a], vLats[b]));
+                maxLat = Math.max(maxLat, Math.max(vLats[a], vLats[b]));
+                minLng = Math.min(minLng, Math.min(vLngs[a], vLngs[b]));
+                maxLng = Math.max(maxLng, Math.max(vLngs[a], vLngs[b]));
+                totalSpan += Math.max(Math.abs(vLats[b] - vLats[a]), Math.abs(vLngs[b] - vLngs[a]));
+            }
+
+            // A few segments per cell on average keeps both the grid and the per-cell lists small,
+            // capped so the packed cell id always fits in 31 bits
+            double cellDegrees = Math.min(MAX_CELL_DEGREES,
+                    Math.max(MIN_CELL_DEGREES, 4 * totalSpan / segmentCount));
+            cellDegrees = Math.max(cellDegrees, Math.max(maxLat - minLat, maxLng - minLng) / MAX_CELLS_PER_AXIS);
+            int rows = cell(maxLat, minLat, cellDegrees) + 1;
+            int columns = cell(maxLng, minLng, cellDegrees) + 1;
+
+            // Collect (cell, segment) pairs packed into longs, then sort by cell
+            EntryCollector entries = new EntryCollector(segmentCount * 2, columns);
+            for (int i = 0; i < segmentCount; i++) {
+                int a = from[i], b = to[i];
+                int r0 = cell(Math.min(vLats[a], vLats[b]), minLat, cellDegrees);
+                int r1 = cell(Math.max(vLats[a], vLats[b]), minLat, cellDegrees);
+                int c0 = cell(Math.min(vLngs[a], vLngs[b]), minLng, cellDegrees);
+                int c1 = cell(Math.max(vLngs[a], vLngs[b]), minLng, cellDegrees);
+
+                if ((long) (r1 - r0 + 1) * (c1 - c0 + 1) <= MAX_BOUNDING_BOX_CELLS) {
+                    for (int r = r0; r <= r1; r++) {
+                        for (int c = c0; c <= c1; c++) {
+                            entries.add(r, c, i);
+                        }
+                    }
+                } else {
+                    // Long diagonal segment: sample every half cell and register the 3x3 neighbourhood,
+                    // which covers every cell the segment passes through
+                    int steps = (int) Math.ceil(2 * Math.max(r1 - r0 + 1, c1 - c0 + 1));
+                    for (int step = 0; step <= steps; step++) {
+                        double t = (double) step / steps;
+                        int r = cell(vLats[a] + t * (vLats[b] - vLats[a]), minLat, cellDegrees);
+                        int c = cell(vLngs[a] + t * (vLngs[b] - vLngs[a]), minLng, cellDegrees);
+                        for (int dr = -1; dr <= 1; dr++) {
+                            for (int dc = -1; dc <= 1; dc++) {
+                                if (r + dr >= 0 && r + dr < rows && c + dc >= 0 && c + dc < columns) {
+                                    entries.add(r + dr, c + dc, i);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            long[] sorted = entries.sorted();
+            int entryCount = sorted.length;
+
+            long[] keys = new long[entryCount];
+            int[] offsets = new int[entryCount + 1];
+            int[] segments = new int[entryCount];
+            int cellCount = 0;
+            for (int k = 0; k < entryCount; k++) {
+                long key = sorted[k] >>> 32;
+                if (cellCount == 0 || keys[cellCount - 1] != key) {
+                    keys[cellCount] = key;
+                    offsets[cellCount] = k;
+                    cellCount++;
+                }
+                segments[k] = (int) sorted[k];
+            }
+            offsets[cellCount] = entryCount;
+
+            return new RouteGeometryIndex(vLats, vLngs, from, to,
+                    minLat, minLng, cellDegrees, Math.max(Math.abs(minLat), Math.abs(maxLat)),
+                    rows, columns, Arrays.copyOf(keys, cellCount), Arrays.copyOf(offsets, cellCount + 1), segments);
+        }
+
+        private static int cell(double value, double origin, double cellDegrees) {
+            return (int) Math.floor((value - origin) / cellDegrees);
+        }
+    }
+
+    /**
+     * Growable buffer of (cell id << 32 | segment) entries used while building the grid
+     */
+    private static final class EntryCollector {
+
+        private final int columns;
+        private long[] entries;
+        private int size;
+
+        EntryCollector(int initialCapacity, int columns) {
+            this.entries = new long[Math.max(16, initialCapacity)];
+            this.columns = columns;
+        }
+
+        void add(int row, int column, int segment) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            entries[size++] = (((long) row * columns + column) << 32) | segment;
+        }
+
+        long[] sorted() {
+            long[] result = Arrays.copyOf(entries, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
@@ -1,14 +1,55 @@
 package capstone_project.config.app;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
     @Bean
+    @Primary
     public WebClient webClient() {
         return WebClient.builder().build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Client for the Vietmap APIs: a dedicated, bounded connection pool with keep-alive,
+     * so concurrent lookups reuse connections and a slow Vietmap cannot exhaust the shared pool
+     */
+    @Bean
+    public WebClient vietmapWebClient(WebClient.Builder builder,
+                                      @Value("${vietmap.http.max-connections:100}") int maxConnections,
+                                      @Value("${vietmap.http.pending-acquire-max:500}") int pendingAcquireMax,
+                                      @Value("${vietmap.http.pending-acquire-timeout-ms:2000}") long pendingAcquireTimeoutMs,
+                                      @Value("${vietmap.http.max-idle-seconds:30}") long maxIdleSeconds,
+                                      @Value("${vietmap.http.connect-timeout-ms:2000}") int connectTimeoutMs,
+                                      @Value("${vietmap.http.response-timeout-ms:15000}") long responseTimeoutMs,
+                                      @Value("${vietmap.http.max-in-memory-bytes:4194304}") int maxInMemoryBytes) {
+        ConnectionProvider pool = ConnectionProvider.builder("vietmap")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofSeconds(maxIdleSeconds))
+                .evictInBackground(Duration.ofSeconds(maxIdleSeconds))
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs))
+                .compress(true);
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxInMemoryBytes))
+                .build();
+    }
+}
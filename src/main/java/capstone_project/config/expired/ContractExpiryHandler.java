@@ -1,175 +1,129 @@
 package capstone_project.config.expired;
 
 import capstone_project.common.enums.ContractStatusEnum;
+import capstone_project.common.enums.DeadlineTypeEnum;
 import capstone_project.common.enums.OrderDetailStatusEnum;
 import capstone_project.common.enums.OrderStatusEnum;
+import capstone_project.common.utils.VietnamTimeUtils;
+import capstone_project.config.scheduler.DeadlineHandler;
+import capstone_project.config.scheduler.DeadlineScheduler;
 import capstone_project.entity.order.contract.ContractEntity;
 import capstone_project.entity.order.order.OrderDetailEntity;
 import capstone_project.entity.order.order.OrderEntity;
 import capstone_project.repository.entityServices.order.contract.ContractEntityService;
 import capstone_project.repository.entityServices.order.order.OrderDetailEntityService;
 import capstone_project.repository.entityServices.order.order.OrderEntityService;
+import capstone_project.repository.repositories.common.DeadlineRepository;
 import capstone_project.service.services.order.order.OrderService;
 import capstone_project.service.services.order.order.OrderCancellationContext;
 import capstone_project.service.services.order.order.OrderStatusWebSocketService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 /**
- * Background scheduler to check and handle contract expiration scenarios
+ * Handles contract expiration deadlines fired by {@link DeadlineScheduler}
  * 
- * Checks for:
- * 1. Expired signing deadline - Contracts in CONTRACT_DRAFT status that haven't been signed within 24 hours
- * 2. Expired deposit payment deadline - Contracts in CONTRACT_SIGNED status without deposit payment within 24 hours after signing
- * 3. Expired full payment deadline - Contracts in DEPOSITED status without full payment before 1 day prior to pickup time
+ * Deadlines:
+ * 1. Signing deadline - Contracts in CONTRACT_DRAFT status that haven't been signed in time
+ * 2. Deposit payment deadline - Contracts in CONTRACT_SIGNED status without deposit payment in time
+ * 3. Full payment deadline - Contracts in DEPOSITED status without full payment before pickup
  * 
  * When deadlines are missed, the order and contract are automatically cancelled
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class ContractExpiryScheduler {
+public class ContractExpiryHandler implements DeadlineHandler {
     private final ContractEntityService contractEntityService;
     private final OrderEntityService orderEntityService;
     private final OrderDetailEntityService orderDetailEntityService;
     private final OrderStatusWebSocketService orderStatusWebSocketService;
     private final OrderService orderService;
+    private final DeadlineRepository deadlineRepository;
+    private final DeadlineScheduler deadlineScheduler;
 
-    /**
-     * Check for expired contracts every 10 minutes
-     * Reasonable deadlines:
-     * - Contract signing: 24 hours after contract draft creation
-     * - Deposit payment: 24 hours after contract signing
-     * - Full payment: 1 day before pickup time (earliest estimated start time)
-     */
-    @Scheduled(fixedRate = 600000) // Runs every 10 minutes
-    public void checkExpiredContracts() {
-
-        LocalDateTime now = LocalDateTime.now();
-        
-        // Check expired signing deadlines
-        checkExpiredSigningDeadlines(now);
-        
-        // Check expired deposit payment deadlines
-        checkExpiredDepositPaymentDeadlines(now);
-        
-        // Check expired full payment deadlines
-        checkExpiredFullPaymentDeadlines(now);
-
+    @Override
+    public Set<DeadlineTypeEnum> deadlineTypes() {
+        return Set.of(DeadlineTypeEnum.CONTRACT_SIGNING,
+                DeadlineTypeEnum.CONTRACT_DEPOSIT_PAYMENT,
+                DeadlineTypeEnum.CONTRACT_FULL_PAYMENT);
     }
 
-    /**
-     * Check for contracts in CONTRACT_DRAFT status with expired signing deadline
-     * Deadline: 24 hours after contract creation
-     */
-    private void checkExpiredSigningDeadlines(LocalDateTime now) {
-        try {
-            List<ContractEntity> expiredContracts = contractEntityService
-                    .findByStatusAndSigningDeadlineBefore(
-                            ContractStatusEnum.CONTRACT_DRAFT.name(), 
-                            now
-                    );
-
-            if (expiredContracts.isEmpty()) {
-                
-                return;
-            }
-
-            for (ContractEntity contract : expiredContracts) {
-                try {
-                    cancelOrderAndContract(
-                            contract, 
-                            "Hợp đồng hết hạn ký - đã quá 24 giờ kể từ khi tạo hợp đồng",
-                            "signing deadline",
-                            List.of(OrderStatusEnum.CONTRACT_DRAFT.name())
-                    );
-                } catch (Exception e) {
-                    log.error("Failed to cancel order for contract {} due to expired signing deadline: {}", 
-                            contract.getId(), e.getMessage(), e);
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error checking expired signing deadlines: {}", e.getMessage(), e);
-        }
+    @Override
+    public int backfillDeadlines() {
+        return deadlineRepository.backfillContractDeadlines();
     }
 
-    /**
-     * Check for contracts in CONTRACT_SIGNED status with expired deposit payment deadline
-     * Deadline: 24 hours after contract signing
-     */
-    private void checkExpiredDepositPaymentDeadlines(LocalDateTime now) {
-        try {
-            List<ContractEntity> expiredContracts = contractEntityService
-                    .findByStatusAndDepositPaymentDeadlineBefore(
-                            ContractStatusEnum.CONTRACT_SIGNED.name(), 
-                            now
-                    );
-
-            if (expiredContracts.isEmpty()) {
-                
-                return;
-            }
+    @Override
+    public void onDeadline(DeadlineTypeEnum type, UUID contractId) {
+        ContractEntity contract = contractEntityService.findEntityById(contractId).orElse(null);
+        if (contract == null) {
+            log.warn("Contract {} not found for {} deadline", contractId, type);
+            return;
+        }
 
-            for (ContractEntity contract : expiredContracts) {
-                try {
-                    cancelOrderAndContract(
-                            contract, 
-                            "Hợp đồng hết hạn thanh toán cọc - đã quá 24 giờ kể từ khi ký hợp đồng",
-                            "deposit payment deadline",
-                            List.of(OrderStatusEnum.CONTRACT_SIGNED.name())
-                    );
-                } catch (Exception e) {
-                    log.error("Failed to cancel order for contract {} due to expired deposit payment deadline: {}", 
-                            contract.getId(), e.getMessage(), e);
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error checking expired deposit payment deadlines: {}", e.getMessage(), e);
+        switch (type) {
+            case CONTRACT_SIGNING -> handleExpiredDeadline(
+                    contract,
+                    type,
+                    ContractStatusEnum.CONTRACT_DRAFT,
+                    contract.getSigningDeadline(),
+                    "Hợp đồng hết hạn ký - đã quá 24 giờ kể từ khi tạo hợp đồng",
+                    "signing deadline",
+                    List.of(OrderStatusEnum.CONTRACT_DRAFT.name())
+            );
+            case CONTRACT_DEPOSIT_PAYMENT -> handleExpiredDeadline(
+                    contract,
+                    type,
+                    ContractStatusEnum.CONTRACT_SIGNED,
+                    contract.getDepositPaymentDeadline(),
+                    "Hợp đồng hết hạn thanh toán cọc - đã quá 24 giờ kể từ khi ký hợp đồng",
+                    "deposit payment deadline",
+                    List.of(OrderStatusEnum.CONTRACT_SIGNED.name())
+            );
+            case CONTRACT_FULL_PAYMENT -> handleExpiredDeadline(
+                    contract,
+                    type,
+                    ContractStatusEnum.DEPOSITED,
+                    contract.getFullPaymentDeadline(),
+                    "Hợp đồng hết hạn thanh toán toàn bộ - đã quá thời gian lấy hàng",
+                    "full payment deadline",
+                    List.of(OrderStatusEnum.ASSIGNED_TO_DRIVER.name())
+            );
+            default -> log.warn("Unexpected deadline type {} for contract {}", type, contractId);
         }
     }
 
     /**
-     * Check for contracts in DEPOSITED status with expired full payment deadline
-     * Deadline: Before pickup time (estimate start time)
+     * Cancel the contract if it is still waiting in the given status and its deadline has passed.
+     * A contract that moved on is left alone; a deadline that was pushed back is scheduled again
      */
-    private void checkExpiredFullPaymentDeadlines(LocalDateTime now) {
-        try {
-            List<ContractEntity> expiredContracts = contractEntityService
-                    .findByStatusAndFullPaymentDeadlineBefore(
-                            ContractStatusEnum.DEPOSITED.name(), 
-                            now
-                    );
-
-            if (expiredContracts.isEmpty()) {
-                
-                return;
-            }
-
-            // Note: Don't log count here - many contracts may be filtered out (e.g., orders in ON_PLANNING)
-            // Only log when actually cancelling individual orders
-
-            for (ContractEntity contract : expiredContracts) {
-                try {
-                    cancelOrderAndContract(
-                            contract, 
-                            "Hợp đồng hết hạn thanh toán toàn bộ - đã quá thời gian lấy hàng",
-                            "full payment deadline",
-                            List.of(OrderStatusEnum.ASSIGNED_TO_DRIVER.name())
-                    );
-                } catch (Exception e) {
-                    log.error("Failed to cancel order for contract {} due to expired full payment deadline: {}", 
-                            contract.getId(), e.getMessage(), e);
-                    // Continue processing other contracts even if one fails
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error checking expired full payment deadlines: {}", e.getMessage(), e);
+    private void handleExpiredDeadline(
+            ContractEntity contract,
+            DeadlineTypeEnum type,
+            ContractStatusEnum waitingStatus,
+            LocalDateTime deadline,
+            String reason,
+            String deadlineType,
+            List<String> expectedOrderStatuses
+    ) {
+        if (!waitingStatus.name().equals(contract.getStatus())) {
+            return;
+        }
+        if (deadline == null) {
+            return;
+        }
+        if (deadline.isAfter(VietnamTimeUtils.now())) {
+            deadlineScheduler.schedule(type, contract.getId(), deadline);
+            return;
         }
+        cancelOrderAndContract(contract, reason, deadlineType, expectedOrderStatuses);
     }
 
     /**
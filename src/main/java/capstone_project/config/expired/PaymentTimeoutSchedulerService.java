@@ -1,37 +1,33 @@
 package capstone_project.config.expired;
 
+import capstone_project.common.enums.DeadlineTypeEnum;
+import capstone_project.config.scheduler.DeadlineHandler;
+import capstone_project.config.scheduler.DeadlineScheduler;
 import capstone_project.entity.issue.IssueEntity;
+import capstone_project.repository.repositories.common.DeadlineRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.time.ZoneId;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Service to schedule payment timeout checks for individual issues
- * Provides real-time timeout detection with minimal delay
+ * Deadlines are stored by {@link DeadlineScheduler}, so they survive a restart
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class PaymentTimeoutSchedulerService {
-    
-    private final TaskScheduler taskScheduler;
+public class PaymentTimeoutSchedulerService implements DeadlineHandler {
+
+    // Buffer after the deadline to ensure it has definitely passed
+    private static final int DEADLINE_BUFFER_SECONDS = 30;
+
+    private final DeadlineScheduler deadlineScheduler;
     private final PaymentTimeoutProcessor paymentTimeoutProcessor;
-    
-    // Track scheduled tasks to allow cancellation if payment received
-    private final Map<java.util.UUID, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
-    
-    // Statistics for monitoring
-    private long totalScheduledTasks = 0;
-    private long totalCancelledTasks = 0;
-    private long totalExecutedTasks = 0;
-    
+    private final DeadlineRepository deadlineRepository;
+
     /**
      * Schedule timeout check for specific issue
      * Will execute exactly at deadline (+ small buffer for safety)
@@ -39,40 +35,12 @@ public class PaymentTimeoutSchedulerService {
      * @param issue Issue entity with payment deadline
      */
     public void scheduleTimeoutCheck(IssueEntity issue) {
-        totalScheduledTasks++;
         if (issue.getPaymentDeadline() == null) {
             log.warn("Cannot schedule timeout check for issue {} - no deadline set", issue.getId());
             return;
         }
-        
-        // Add 30 second buffer to ensure deadline has definitely passed
-        Instant scheduledTime = issue.getPaymentDeadline()
-                .plusSeconds(30)
-                .atZone(ZoneId.systemDefault())
-                .toInstant();
-        
-        long secondsUntilExecution = java.time.Duration.between(Instant.now(), scheduledTime).getSeconds();
-        
-        
-        // Create and schedule task with wrapper to track execution
-        PaymentTimeoutTask task = new PaymentTimeoutTask(
-            issue.getId(),
-            paymentTimeoutProcessor
-        );
-        
-        // Wrap task to count executions
-        Runnable wrappedTask = () -> {
-            totalExecutedTasks++;
-            task.run();
-            // Remove from tracking map after execution
-            scheduledTasks.remove(issue.getId());
-        };
-        
-        ScheduledFuture<?> scheduledFuture = taskScheduler.schedule(wrappedTask, scheduledTime);
-        
-        // Track task for potential cancellation
-        scheduledTasks.put(issue.getId(), scheduledFuture);
-        
+        deadlineScheduler.schedule(DeadlineTypeEnum.RETURN_PAYMENT, issue.getId(),
+                issue.getPaymentDeadline().plusSeconds(DEADLINE_BUFFER_SECONDS));
     }
     
     /**
@@ -80,47 +48,23 @@ public class PaymentTimeoutSchedulerService {
      * 
      * @param issueId Issue ID
      */
-    public void cancelTimeoutCheck(java.util.UUID issueId) {
-        totalCancelledTasks++;
-        ScheduledFuture<?> scheduledFuture = scheduledTasks.remove(issueId);
-        
-        if (scheduledFuture != null && !scheduledFuture.isDone()) {
-            boolean cancelled = scheduledFuture.cancel(false);
-            if (cancelled) {
-            } else {
-                log.warn("⚠️ Failed to cancel timeout check for issue {} (may already be running)", issueId);
-            }
-        } else {
-        }
+    public void cancelTimeoutCheck(UUID issueId) {
+        deadlineScheduler.cancel(DeadlineTypeEnum.RETURN_PAYMENT, issueId);
     }
-    
-    /**
-     * Get number of currently scheduled timeout checks
-     */
-    public int getScheduledTaskCount() {
-        // Clean up completed tasks
-        scheduledTasks.entrySet().removeIf(entry -> entry.getValue().isDone());
-        return scheduledTasks.size();
+
+    @Override
+    public Set<DeadlineTypeEnum> deadlineTypes() {
+        return Set.of(DeadlineTypeEnum.RETURN_PAYMENT);
     }
-    
-    /**
-     * Get scheduler statistics for monitoring
-     */
-    public String getStatistics() {
-        // Clean up completed tasks first
-        scheduledTasks.entrySet().removeIf(entry -> entry.getValue().isDone());
-        
-        return String.format(
-            "Dynamic Scheduler Stats - Total scheduled: %d | Executed: %d | Cancelled: %d | Active: %d",
-            totalScheduledTasks, totalExecutedTasks, totalCancelledTasks, scheduledTasks.size()
-        );
+
+    @Override
+    public int backfillDeadlines() {
+        return deadlineRepository.backfillReturnPaymentDeadlines(DEADLINE_BUFFER_SECONDS);
     }
-    
-    /**
-     * Log current scheduler status (for health checks)
-     */
-    public void logStatus() {
-        scheduledTasks.entrySet().removeIf(entry -> entry.getValue().isDone());
-        
+
+    @Override
+    public void onDeadline(DeadlineTypeEnum type, UUID issueId) {
+        // Delegate to @Transactional service to prevent LazyInitializationException
+        paymentTimeoutProcessor.processTimeout(issueId);
     }
 }
@@ -1,12 +1,13 @@
 package capstone_project.config.expired;
 
+import capstone_project.config.scheduler.DeadlineScheduler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
- * Health check scheduler to monitor payment timeout schedulers
+ * Health check scheduler to monitor the deadline scheduler
  * Logs status every 30 minutes for monitoring
  */
 @Component
@@ -14,7 +15,7 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class SchedulerHealthCheck {
     
-    private final PaymentTimeoutSchedulerService dynamicScheduler;
+    private final DeadlineScheduler deadlineScheduler;
     
     /**
      * Log scheduler health status every 30 minutes
@@ -23,8 +24,8 @@ public class SchedulerHealthCheck {
     @Scheduled(cron = "0 */30 * * * *") // Every 30 minutes
     public void logSchedulerHealth() {
 
-        // Log dynamic scheduler status
-        dynamicScheduler.logStatus();
+        // Log pending deadlines per type
+        deadlineScheduler.logStatus();
 
     }
     
@@ -0,0 +1,50 @@
+package capstone_project.config.expired;
+
+import capstone_project.common.enums.DeadlineTypeEnum;
+import capstone_project.common.enums.TransactionEnum;
+import capstone_project.config.scheduler.DeadlineHandler;
+import capstone_project.entity.order.transaction.TransactionEntity;
+import capstone_project.repository.entityServices.order.transaction.TransactionEntityService;
+import capstone_project.repository.repositories.common.DeadlineRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Expires PENDING transactions that were not paid within the payment window
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionExpiryHandler implements DeadlineHandler {
+    private final TransactionEntityService transactionEntityService;
+    private final DeadlineRepository deadlineRepository;
+
+    @Value("${deadline.transaction.payment-window-minutes:60}")
+    private int paymentWindowMinutes;
+
+    @Override
+    public Set<DeadlineTypeEnum> deadlineTypes() {
+        return Set.of(DeadlineTypeEnum.TRANSACTION_PAYMENT);
+    }
+
+    @Override
+    public int backfillDeadlines() {
+        return deadlineRepository.backfillTransactionDeadlines(paymentWindowMinutes);
+    }
+
+    @Override
+    public void onDeadline(DeadlineTypeEnum type, UUID transactionId) {
+        TransactionEntity tx = transactionEntityService.findEntityById(transactionId).orElse(null);
+        if (tx == null || !TransactionEnum.PENDING.name().equals(tx.getStatus())) {
+            return;
+        }
+        tx.setStatus(TransactionEnum.EXPIRED.name());
+        transactionEntityService.save(tx);
+        log.info("Transaction {} expired after {} minutes without payment", transactionId, paymentWindowMinutes);
+    }
+}
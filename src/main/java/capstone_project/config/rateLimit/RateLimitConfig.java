@@ -37,6 +37,15 @@ public class RateLimitConfig {
             .build();
     }
 
+    /**
+     * Create bucket for guest batch quotes: 10 batches per minute
+     */
+    public Bucket createGuestBatchQuoteBucket() {
+        return Bucket.builder()
+            .addLimit(Bandwidth.classic(10, Refill.intervally(10, Duration.ofMinutes(1))))
+            .build();
+    }
+
     /**
      * Create bucket for IP violations: 5 violations per hour before temporary ban
      */
@@ -3,12 +3,16 @@ package capstone_project.config.scheduled;
 import capstone_project.service.services.offroute.OffRouteDetectionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
- * Scheduled job to monitor off-route events and send warnings
- * Runs every minute to check for events that have crossed warning thresholds
+ * Reconciliation job for off-route events.
+ * Warnings themselves are fired by the in-memory timer wheel of OffRouteDetectionServiceImpl;
+ * this job re-arms timers for active events that are not tracked in memory (e.g. after a restart)
+ * and drops idle tracking sessions.
  */
 @Component
 @RequiredArgsConstructor
@@ -18,13 +22,20 @@ public class OffRouteMonitoringScheduler {
     private final OffRouteDetectionService offRouteDetectionService;
 
     /**
-     * Check all active off-route events every minute
-     * This ensures warnings are sent even if GPS updates are delayed
+     * Restore warning timers of events that were still open before the application restarted
      */
-    @Scheduled(fixedRate = 60000) // Every 60 seconds
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        checkOffRouteEvents();
+    }
+
+    /**
+     * Reconcile active off-route events with the in-memory state
+     */
+    @Scheduled(fixedRateString = "${offroute.reconcile-interval-ms:300000}", initialDelay = 300000)
     public void checkOffRouteEvents() {
         try {
-            log.debug("[OffRouteScheduler] Checking active off-route events...");
+            log.debug("[OffRouteScheduler] Reconciling active off-route events...");
             offRouteDetectionService.checkAndSendWarnings();
         } catch (Exception e) {
             log.error("[OffRouteScheduler] Error checking off-route events: {}", e.getMessage(), e);
@@ -0,0 +1,26 @@
+package capstone_project.config.scheduler;
+
+import capstone_project.common.enums.DeadlineTypeEnum;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Reacts to deadlines fired by {@link DeadlineScheduler}.
+ * Handlers must re-check the current state of the target: a deadline may fire after the target
+ * was already paid, signed or moved on, and it may fire again after a restart.
+ */
+public interface DeadlineHandler {
+
+    Set<DeadlineTypeEnum> deadlineTypes();
+
+    void onDeadline(DeadlineTypeEnum type, UUID targetId);
+
+    /**
+     * Insert missing deadline rows for targets that are still waiting (run once at startup)
+     * @return number of rows inserted
+     */
+    default int backfillDeadlines() {
+        return 0;
+    }
+}
@@ -0,0 +1,202 @@
+package capstone_project.config.scheduler;
+
+import capstone_project.common.enums.DeadlineTypeEnum;
+import capstone_project.common.utils.VietnamTimeUtils;
+import capstone_project.entity.common.DeadlineEntity;
+import capstone_project.repository.repositories.common.DeadlineRepository;
+import io.netty.util.Timeout;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Durable deadline engine for contract, transaction and return payment expiries.
+ * Every pending deadline is a row in the deadlines table and a timeout in the {@link TimerWheel},
+ * so it fires within a tick of its due time instead of waiting for a periodic table scan.
+ * The table is reloaded at startup; deadlines that passed while the app was down fire right away.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeadlineScheduler {
+
+    private final DeadlineRepository deadlineRepository;
+    private final TimerWheel timerWheel;
+    private final PlatformTransactionManager transactionManager;
+
+    // Handlers depend on entity services that schedule deadlines themselves, so resolve them lazily
+    private final ObjectProvider<DeadlineHandler> handlerProvider;
+
+    // Armed timeout per deadline, with the due time it was armed for
+    private final Map<DeadlineKey, ArmedDeadline> armed = new ConcurrentHashMap<>();
+
+    private volatile Map<DeadlineTypeEnum, DeadlineHandler> handlers;
+
+    @Value("${deadline.retry-delay-seconds:60}")
+    private long retryDelaySeconds;
+
+    private record DeadlineKey(DeadlineTypeEnum type, UUID targetId) {
+    }
+
+    private record ArmedDeadline(LocalDateTime dueAt, Timeout timeout) {
+    }
+
+    /**
+     * Set or move the deadline of a target. The timer is armed once the surrounding transaction commits
+     */
+    @Transactional
+    public void schedule(DeadlineTypeEnum type, UUID targetId, LocalDateTime dueAt) {
+        if (targetId == null) {
+            return;
+        }
+        if (dueAt == null) {
+            cancel(type, targetId);
+            return;
+        }
+        // Same precision as the timestamp column, so the fired row can be matched by due time
+        LocalDateTime due = dueAt.truncatedTo(ChronoUnit.MICROS);
+        DeadlineKey key = new DeadlineKey(type, targetId);
+        ArmedDeadline current = armed.get(key);
+        if (current != null && current.dueAt().equals(due)) {
+            return;
+        }
+        deadlineRepository.upsert(UUID.randomUUID(), type.name(), targetId, due, VietnamTimeUtils.now());
+        afterCommit(() -> arm(key, due));
+    }
+
+    @Transactional
+    public void cancel(DeadlineTypeEnum type, UUID targetId) {
+        if (targetId == null) {
+            return;
+        }
+        DeadlineKey key = new DeadlineKey(type, targetId);
+        deadlineRepository.deleteByTypeAndTarget(type.name(), targetId);
+        afterCommit(() -> {
+            ArmedDeadline removed = armed.remove(key);
+            if (removed != null) {
+                removed.timeout().cancel();
+            }
+        });
+    }
+
+    public int pendingCount() {
+        return armed.size();
+    }
+
+    /**
+     * Backfill deadlines of rows written while the table was not maintained, then arm every stored deadline
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void loadDeadlines() {
+        int backfilled = 0;
+        for (DeadlineHandler handler : handlers().values().stream().distinct().toList()) {
+            backfilled += handler.backfillDeadlines();
+        }
+
+        List<DeadlineEntity> deadlines = deadlineRepository.findAll();
+        afterCommit(() -> {
+            for (DeadlineEntity deadline : deadlines) {
+                try {
+                    DeadlineTypeEnum type = DeadlineTypeEnum.valueOf(deadline.getDeadlineType());
+                    arm(new DeadlineKey(type, deadline.getTargetId()), deadline.getDueAt());
+                } catch (IllegalArgumentException e) {
+                    log.warn("[DeadlineScheduler] Unknown deadline type {} for target {}",
+                            deadline.getDeadlineType(), deadline.getTargetId());
+                }
+            }
+        });
+        log.info("[DeadlineScheduler] Loaded {} pending deadlines ({} backfilled)", deadlines.size(), backfilled);
+    }
+
+    public void logStatus() {
+        Map<DeadlineTypeEnum, Integer> byType = new EnumMap<>(DeadlineTypeEnum.class);
+        armed.keySet().forEach(key -> byType.merge(key.type(), 1, Integer::sum));
+        log.info("[DeadlineScheduler] Pending deadlines: {} (wheel timeouts: {})", byType, timerWheel.pendingTimeouts());
+    }
+
+    private void arm(DeadlineKey key, LocalDateTime dueAt) {
+        long delayMillis = toEpochMillis(dueAt) - System.currentTimeMillis();
+        Timeout timeout = timerWheel.schedule(() -> fire(key, dueAt), delayMillis);
+        ArmedDeadline previous = armed.put(key, new ArmedDeadline(dueAt, timeout));
+        if (previous != null) {
+            previous.timeout().cancel();
+        }
+    }
+
+    private void fire(DeadlineKey key, LocalDateTime dueAt) {
+        ArmedDeadline current = armed.get(key);
+        if (current == null || !current.dueAt().equals(dueAt)) {
+            // Moved or cancelled after this timeout was armed
+            return;
+        }
+
+        DeadlineHandler handler = handlers().get(key.type());
+        if (handler == null) {
+            log.error("[DeadlineScheduler] No handler for deadline type {}", key.type());
+            return;
+        }
+
+        try {
+            handler.onDeadline(key.type(), key.targetId());
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    deadlineRepository.deleteFired(key.type().name(), key.targetId(), dueAt));
+            armed.remove(key, current);
+        } catch (Exception e) {
+            log.error("[DeadlineScheduler] {} deadline for {} failed, retrying in {}s: {}",
+                    key.type(), key.targetId(), retryDelaySeconds, e.getMessage(), e);
+            Timeout retry = timerWheel.schedule(() -> fire(key, dueAt), retryDelaySeconds * 1000L);
+            if (!armed.replace(key, current, new ArmedDeadline(dueAt, retry))) {
+                retry.cancel();
+            }
+        }
+    }
+
+    private Map<DeadlineTypeEnum, DeadlineHandler> handlers() {
+        Map<DeadlineTypeEnum, DeadlineHandler> resolved = handlers;
+        if (resolved == null) {
+            resolved = new EnumMap<>(DeadlineTypeEnum.class);
+            for (DeadlineHandler handler : handlerProvider.orderedStream().toList()) {
+                for (DeadlineTypeEnum type : handler.deadlineTypes()) {
+                    resolved.put(type, handler);
+                }
+            }
+            handlers = resolved;
+        }
+        return resolved;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(VietnamTimeUtils.VIETNAM_ZONE).toInstant().toEpochMilli();
+    }
+}
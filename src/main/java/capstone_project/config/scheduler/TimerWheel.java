@@ -0,0 +1,69 @@
+package capstone_project.config.scheduler;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed timer wheel for large numbers of short, frequently cancelled deadlines
+ * (e.g. off-route warning thresholds). Scheduling and cancelling are O(1);
+ * expired tasks run on a small worker pool so the wheel thread is never blocked by DB or WebSocket work.
+ */
+@Component
+@Slf4j
+public class TimerWheel {
+
+    private static final long TICK_MILLIS = 100;
+    private static final int TICKS_PER_WHEEL = 512;
+    private static final int WORKER_THREADS = 4;
+
+    private final HashedWheelTimer wheel;
+    private final ExecutorService workers;
+
+    public TimerWheel() {
+        this.wheel = new HashedWheelTimer(daemonThreadFactory("timer-wheel-"),
+                TICK_MILLIS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL);
+        this.workers = Executors.newFixedThreadPool(WORKER_THREADS, daemonThreadFactory("timer-wheel-worker-"));
+    }
+
+    /**
+     * Run a task after the given delay. Negative delays run on the next tick.
+     * @return handle that can be cancelled while the task has not fired yet
+     */
+    public Timeout schedule(Runnable task, long delayMillis) {
+        return wheel.newTimeout(timeout -> workers.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("[TimerWheel] Task failed: {}", e.getMessage(), e);
+            }
+        }), Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+    }
+
+    public int pendingTimeouts() {
+        return (int) wheel.pendingTimeouts();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+        workers.shutdown();
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -4,6 +4,7 @@ package capstone_project.config.security;
 import capstone_project.common.enums.RoleTypeEnum;
 import capstone_project.service.auth.AuthUserService;
 import capstone_project.service.auth.JwtRequestFilter;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -252,6 +253,8 @@ public class SecurityConfigurer {
                 
                 // Authorization rules
                 .authorizeHttpRequests(requests -> requests
+                        // Completion dispatch of streamed responses; the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(PUBLIC_ENDPOINTS).permitAll()
 
                         // ================= USER =================
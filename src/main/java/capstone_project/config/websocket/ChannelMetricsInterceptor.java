@@ -0,0 +1,105 @@
+package capstone_project.config.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how long messages wait in a STOMP channel executor and applies drop-oldest to coalescible messages.
+ * A message sent with the {@link #COALESCE_KEY_HEADER} native header is skipped when a newer message
+ * with the same session, destination and key is already queued - the client only needs the latest position.
+ */
+public class ChannelMetricsInterceptor implements ExecutorChannelInterceptor {
+
+    public static final String COALESCE_KEY_HEADER = "coalesce-key";
+
+    private static final String ENQUEUED_AT_HEADER = "channelEnqueuedAt";
+    private static final String SEQUENCE_HEADER = "channelSequence";
+    private static final String TARGET_HEADER = "channelCoalesceTarget";
+
+    private final Timer latency;
+    private final Counter superseded;
+    private final boolean dropSuperseded;
+
+    // Sequence of the newest queued message per session|destination|key, removed once it is handled
+    private final Map<String, Long> newestQueued = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public ChannelMetricsInterceptor(String channelName, MeterRegistry meterRegistry, boolean dropSuperseded) {
+        this.dropSuperseded = dropSuperseded;
+        this.latency = Timer.builder("websocket.channel.latency")
+                .description("Time from queueing a STOMP message to handling it")
+                .tag("channel", channelName)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.superseded = Counter.builder("websocket.channel.dropped")
+                .description("Queued STOMP messages dropped because a newer one for the same target was queued")
+                .tag("channel", channelName)
+                .tag("reason", "superseded")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        // Keeps the STOMP accessor when the headers are still mutable, so later interceptors can use it
+        MessageHeaderAccessor accessor = MessageHeaderAccessor.getMutableAccessor(message);
+        accessor.setHeader(ENQUEUED_AT_HEADER, System.nanoTime());
+
+        String target = dropSuperseded ? coalesceTarget(message.getHeaders()) : null;
+        if (target != null) {
+            long seq = sequence.incrementAndGet();
+            newestQueued.put(target, seq);
+            accessor.setHeader(SEQUENCE_HEADER, seq);
+            accessor.setHeader(TARGET_HEADER, target);
+        }
+        return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        Long seq = message.getHeaders().get(SEQUENCE_HEADER, Long.class);
+        String target = message.getHeaders().get(TARGET_HEADER, String.class);
+        if (seq == null || target == null) {
+            return message;
+        }
+        Long newest = newestQueued.get(target);
+        if (newest != null && newest > seq) {
+            superseded.increment();
+            return null;
+        }
+        newestQueued.remove(target, seq);
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        Long enqueuedAt = message.getHeaders().get(ENQUEUED_AT_HEADER, Long.class);
+        if (enqueuedAt != null) {
+            latency.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String coalesceTarget(MessageHeaders headers) {
+        String key = NativeMessageHeaderAccessor.getFirstNativeHeader(COALESCE_KEY_HEADER, headers);
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (key == null || sessionId == null || destination == null) {
+            return null;
+        }
+        return sessionId + '|' + destination + '|' + key;
+    }
+}
@@ -1,28 +1,65 @@
 package capstone_project.config.websocket;
 
 import capstone_project.config.app.CorsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 
 import java.security.Principal;
 import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableWebSocketMessageBroker
 @RequiredArgsConstructor
+@Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     private final CorsProperties corsProperties;
     private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
     private final StompConnectChannelInterceptor stompConnectChannelInterceptor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${websocket.inbound.core-pool-size:4}")
+    private int inboundCorePoolSize;
+
+    @Value("${websocket.inbound.max-pool-size:16}")
+    private int inboundMaxPoolSize;
+
+    @Value("${websocket.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.outbound.core-pool-size:4}")
+    private int outboundCorePoolSize;
+
+    @Value("${websocket.outbound.max-pool-size:16}")
+    private int outboundMaxPoolSize;
+
+    @Value("${websocket.outbound.queue-capacity:5000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${websocket.transport.send-buffer-size-limit-kb:512}")
+    private int sendBufferSizeLimitKb;
+
+    @Value("${websocket.transport.message-size-limit-kb:64}")
+    private int messageSizeLimitKb;
 
     @Bean
     public TaskScheduler heartBeatScheduler() {
@@ -87,6 +124,57 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         // Register the STOMP channel interceptor to authenticate via STOMP CONNECT frame
-        registration.interceptors(stompConnectChannelInterceptor);
+        // (first, it needs the original STOMP header accessor)
+        registration.interceptors(stompConnectChannelInterceptor,
+                new ChannelMetricsInterceptor("inbound", meterRegistry, false));
+        registration.taskExecutor(channelExecutor("inbound", inboundCorePoolSize, inboundMaxPoolSize, inboundQueueCapacity));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Location messages carrying a coalesce key are dropped when a newer one for the same session is queued
+        registration.interceptors(new ChannelMetricsInterceptor("outbound", meterRegistry, true));
+        registration.taskExecutor(channelExecutor("outbound", outboundCorePoolSize, outboundMaxPoolSize, outboundQueueCapacity));
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A session that cannot take messages within these limits is closed instead of holding up other sessions
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimitKb * 1024)
+                .setMessageSizeLimit(messageSizeLimitKb * 1024);
+    }
+
+    /**
+     * Bounded channel executor. When the queue is full the sending thread runs the task itself,
+     * which slows the producer down instead of growing the queue without limit
+     */
+    private ThreadPoolTaskExecutor channelExecutor(String channelName, int corePoolSize, int maxPoolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setKeepAliveSeconds(60);
+        executor.setThreadNamePrefix("websocket-" + channelName + "-");
+
+        Counter saturated = Counter.builder("websocket.channel.saturated")
+                .description("STOMP messages run on the sending thread because the channel queue was full")
+                .tag("channel", channelName)
+                .register(meterRegistry);
+        ThreadPoolExecutor.CallerRunsPolicy callerRuns = new ThreadPoolExecutor.CallerRunsPolicy();
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            saturated.increment();
+            log.warn("[WebSocket] {} channel queue full ({}), running task on caller thread", channelName, queueCapacity);
+            callerRuns.rejectedExecution(task, pool);
+        });
+
+        Gauge.builder("websocket.channel.queue.size", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .description("STOMP messages waiting in the channel executor queue")
+                .tag("channel", channelName)
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.active.threads", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("channel", channelName)
+                .register(meterRegistry);
+        return executor;
     }
 }
\ No newline at end of file
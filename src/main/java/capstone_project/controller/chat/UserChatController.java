@@ -24,9 +24,9 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.servlet.http.HttpServletRequest;
-import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST Controller for user-to-user chat functionality
@@ -159,12 +159,12 @@ public class UserChatController {
     
     @PostMapping("/upload-image")
     @Operation(summary = "Upload chat image")
-    public ResponseEntity<String> uploadImage(
+    public CompletableFuture<ResponseEntity<String>> uploadImage(
             @RequestParam("file") MultipartFile file,
             @RequestParam UUID conversationId
-    ) throws IOException {
-        String imageUrl = userChatService.uploadChatImage(file, conversationId);
-        return ResponseEntity.ok(imageUrl);
+    ) {
+        return userChatService.uploadChatImage(file, conversationId)
+                .thenApply(ResponseEntity::ok);
     }
     
     // ==================== Staff Endpoints ====================
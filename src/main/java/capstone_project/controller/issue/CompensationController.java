@@ -6,6 +6,7 @@ import capstone_project.dtos.response.issue.CompensationDetailResponse;
 import capstone_project.dtos.response.common.ApiResponse;
 import capstone_project.service.CompensationService;
 import capstone_project.service.services.cloudinary.CloudinaryService;
+import capstone_project.service.services.cloudinary.ImageUploadPipeline;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
@@ -15,10 +16,13 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/compensation")
@@ -27,6 +31,7 @@ import java.util.UUID;
 public class CompensationController {
 
     private final CompensationService compensationService;
+    private final ImageUploadPipeline imageUploadPipeline;
     private final CloudinaryService cloudinaryService;
 
     /**
@@ -73,24 +78,12 @@ public class CompensationController {
             @RequestParam(value = "refundProofFile", required = false) MultipartFile refundProofFile) {
         
         try {
-            // Upload document files if provided
-            if (documentFiles != null && documentFiles.length > 0) {
-                List<String> documentUrls = new ArrayList<>();
-                for (MultipartFile file : documentFiles) {
-                    if (!file.isEmpty()) {
-                        Map<String, Object> uploadResult = cloudinaryService.uploadFile(
-                                file.getBytes(),
-                                file.getOriginalFilename(),
-                                "issue-documents");
-                        String url = (String) uploadResult.get("url");
-                        documentUrls.add(url);
-                    }
-                }
-                // Set uploaded URLs to request (List<String> matches DTO field type)
-                request.setDocumentImages(documentUrls);
-            }
-            
-            // Upload refund proof file if provided
+            // Document uploads go to Cloudinary in parallel while the refund proof is uploaded
+            CompletableFuture<List<String>> documentUploads = documentFiles != null && documentFiles.length > 0
+                    ? uploadFiles(documentFiles, "issue-documents")
+                    : null;
+
+            // Refund proof is a bank receipt: uploaded as sent, not downscaled or re-encoded
             if (refundProofFile != null && !refundProofFile.isEmpty()) {
                 Map<String, Object> uploadResult = cloudinaryService.uploadFile(
                         refundProofFile.getBytes(), 
@@ -104,10 +97,15 @@ public class CompensationController {
                 }
             }
             
+            if (documentUploads != null) {
+                // Set uploaded URLs to request (List<String> matches DTO field type)
+                request.setDocumentImages(ImageUploadPipeline.await(documentUploads));
+            }
+            
             CompensationDetailResponse response = compensationService.resolveCompensation(request);
             return ResponseEntity.ok(response);
             
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException e) {
             log.error("Error processing file uploads in resolveCompensation: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().build();
         }
@@ -122,32 +120,15 @@ public class CompensationController {
             @RequestParam("files") MultipartFile[] files) {
         
         try {
-            List<String> uploadedUrls = new ArrayList<>();
-            
-            // Upload each file to Cloudinary
-            for (MultipartFile file : files) {
-                if (!file.isEmpty()) {
-                    String originalFilename = file.getOriginalFilename();
-                    byte[] fileBytes = file.getBytes();
-                    
-                    // Upload to Cloudinary in the "issue-documents" folder
-                    Map<String, Object> uploadResult = cloudinaryService.uploadFile(
-                            fileBytes, 
-                            originalFilename, 
-                            "issue-documents");
-                    
-                    // Get the URL from the result
-                    String url = (String) uploadResult.get("url");
-                    uploadedUrls.add(url);
-                }
-            }
+            // Upload to Cloudinary in the "issue-documents" folder
+            List<String> uploadedUrls = ImageUploadPipeline.await(uploadFiles(files, "issue-documents"));
             
             // Update the compensation assessment with the uploaded URLs
             String[] urlArray = uploadedUrls.toArray(new String[0]);
             CompensationDetailResponse response = compensationService.uploadDocumentImages(issueId, urlArray);
             
             return ResponseEntity.ok(response);
-        } catch (IOException e) {
+        } catch (UncheckedIOException e) {
             log.error("Error uploading document images: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().build();
         }
@@ -163,7 +144,7 @@ public class CompensationController {
         try {
             List<String> uploadedUrls = new ArrayList<>();
             
-            // Upload each file to Cloudinary
+            // Upload each file to Cloudinary as sent (receipts are not downscaled or re-encoded)
             for (MultipartFile file : files) {
                 if (!file.isEmpty()) {
                     String originalFilename = file.getOriginalFilename();
@@ -187,4 +168,16 @@ public class CompensationController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    /**
+     * Upload the non-empty files in parallel under their original names (PDF documents stay raw files)
+     */
+    private CompletableFuture<List<String>> uploadFiles(MultipartFile[] files, String folder) {
+        List<CompletableFuture<String>> uploads = Arrays.stream(files)
+                .filter(file -> !file.isEmpty())
+                .map(file -> imageUploadPipeline.upload(file, file.getOriginalFilename(), folder))
+                .toList();
+        return CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new))
+                .thenApply(done -> uploads.stream().map(CompletableFuture::join).toList());
+    }
 }
@@ -3,6 +3,7 @@ package capstone_project.controller.order;
 import capstone_project.dtos.response.common.ApiResponse;
 import capstone_project.dtos.response.order.BillOfLandingPreviewResponse;
 import capstone_project.dtos.response.order.BillOfLandingResponse;
+import capstone_project.service.services.billOfLanding.BillOfLadingBundle;
 import capstone_project.service.services.billOfLanding.BillOfLandingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
@@ -13,16 +14,12 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 @RestController
 @RequestMapping("${bill-of-lading.api.base-path}")
@@ -45,38 +42,22 @@ public class BillOfLadingController {
     }
 
     @GetMapping("/order/{orderId}/print")
-    public ResponseEntity<byte[]> downloadWaybillsAndManifestsByOrder(@PathVariable UUID orderId) {
-        Map<String, byte[]> files = billOfLadingService.generateBillOfLadingAndCargoManifests(orderId);
+    public ResponseEntity<StreamingResponseBody> downloadWaybillsAndManifestsByOrder(@PathVariable UUID orderId) {
+        BillOfLadingBundle bundle = billOfLadingService.prepareBillOfLadingBundle(orderId);
 
-        if (files == null || files.isEmpty()) {
+        if (bundle.documentCount() == 0) {
             return ResponseEntity.noContent().build();
         }
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             ZipOutputStream zos = new ZipOutputStream(baos)) {
+        String dateStr = new SimpleDateFormat("yyyyMMdd").format(new Date());
+        String attachmentName = "van-don-" + orderId + "-" + dateStr + ".zip";
 
-            for (Map.Entry<String, byte[]> entry : files.entrySet()) {
-                String fileName = entry.getKey();
-                byte[] content = entry.getValue() != null ? entry.getValue() : new byte[0];
+        // Documents are rendered while the archive is written, each entry goes out as soon as it is ready
+        StreamingResponseBody body = bundle::writeZip;
 
-                ZipEntry zipEntry = new ZipEntry(fileName);
-                zos.putNextEntry(zipEntry);
-                zos.write(content);
-                zos.closeEntry();
-            }
-            zos.finish();
-
-            byte[] zipBytes = baos.toByteArray();
-            String dateStr = new SimpleDateFormat("yyyyMMdd").format(new Date());
-            String attachmentName = "van-don-" + orderId + "-" + dateStr + ".zip";
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType("application/zip"))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + attachmentName + "\"")
-                    .body(zipBytes);
-
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to build ZIP for order " + orderId, e);
-        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + attachmentName + "\"")
+                .body(body);
     }
 }
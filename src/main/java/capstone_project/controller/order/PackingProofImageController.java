@@ -12,9 +12,9 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("${packing-proof-image.api.base-path}")
@@ -27,11 +27,11 @@ public class PackingProofImageController {
      * Upload và lưu ảnh đóng hàng
      */
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ApiResponse<PackingProofImageResponse>> uploadAndSaveImage(
+    public CompletableFuture<ResponseEntity<ApiResponse<PackingProofImageResponse>>> uploadAndSaveImage(
             @RequestPart("file") MultipartFile file,
-            @RequestPart("request") CreatePackingProofImageRequest request) throws IOException {
-        final var result = packingProofImageService.uploadAndSaveImage(file, request);
-        return ResponseEntity.ok(ApiResponse.ok(result));
+            @RequestPart("request") CreatePackingProofImageRequest request) {
+        return packingProofImageService.uploadAndSaveImage(file, request)
+                .thenApply(result -> ResponseEntity.ok(ApiResponse.ok(result)));
     }
 
     /**
@@ -12,9 +12,9 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("${photo-completion.api.base-path}")
@@ -28,22 +28,22 @@ public class PhotoCompletionController {
      * Upload và lưu ảnh hoàn thành
      */
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ApiResponse<PhotoCompletionResponse>> uploadAndSavePhoto(
+    public CompletableFuture<ResponseEntity<ApiResponse<PhotoCompletionResponse>>> uploadAndSavePhoto(
             @RequestPart("file") MultipartFile file,
-            @RequestPart("request") CreatePhotoCompletionRequest request) throws IOException {
-        final var result = photoCompletionService.uploadAndSavePhoto(file, request);
-        return ResponseEntity.ok(ApiResponse.ok(result));
+            @RequestPart("request") CreatePhotoCompletionRequest request) {
+        return photoCompletionService.uploadAndSavePhoto(file, request)
+                .thenApply(result -> ResponseEntity.ok(ApiResponse.ok(result)));
     }
 
     /**
      * Upload và lưu nhiều ảnh hoàn thành cùng lúc
      */
     @PostMapping(value = "/upload-multiple", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ApiResponse<List<PhotoCompletionResponse>>> uploadAndSaveMultiplePhotos(
+    public CompletableFuture<ResponseEntity<ApiResponse<List<PhotoCompletionResponse>>>> uploadAndSaveMultiplePhotos(
             @RequestPart("files") List<MultipartFile> files,
-            @RequestPart("request") CreatePhotoCompletionRequest request) throws IOException {
-        final var result = photoCompletionService.uploadAndSaveMultiplePhotos(files, request);
-        return ResponseEntity.ok(ApiResponse.ok(result));
+            @RequestPart("request") CreatePhotoCompletionRequest request) {
+        return photoCompletionService.uploadAndSaveMultiplePhotos(files, request)
+                .thenApply(result -> ResponseEntity.ok(ApiResponse.ok(result)));
     }
 
     /**
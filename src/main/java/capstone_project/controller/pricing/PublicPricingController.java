@@ -1,19 +1,27 @@
 package capstone_project.controller.pricing;
 
+import capstone_project.dtos.request.pricing.BatchQuoteRequest;
 import capstone_project.dtos.response.common.ApiResponse;
 import capstone_project.dtos.response.order.CategoryResponse;
+import capstone_project.dtos.response.pricing.BatchQuoteResponse;
 import capstone_project.dtos.response.pricing.FullSizeRuleResponse;
 import capstone_project.dtos.response.vehicle.VehicleTypeResponse;
+import capstone_project.service.rateLimit.RateLimitService;
+import capstone_project.service.services.ai.PriceCalculationService;
 import capstone_project.service.services.order.category.CategoryService;
 import capstone_project.service.services.pricing.SizeRuleService;
 import capstone_project.service.services.vehicle.VehicleTypeService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Public API endpoints for pricing information
@@ -28,6 +36,8 @@ public class PublicPricingController {
     private final SizeRuleService sizeRuleService;
     private final CategoryService categoryService;
     private final VehicleTypeService vehicleTypeService;
+    private final PriceCalculationService priceCalculationService;
+    private final RateLimitService rateLimitService;
 
     /**
      * Get all active size rules with basing prices for public display
@@ -67,6 +77,52 @@ public class PublicPricingController {
         return ResponseEntity.ok(ApiResponse.ok(allVehicleTypes));
     }
 
+    /**
+     * Quote many (weight, distance, category, packages) scenarios in one call, e.g. to compare options.
+     * Rate limited per IP like the guest chat endpoints, since one call can pack many packages
+     */
+    @PostMapping("/quotes/batch")
+    public ResponseEntity<ApiResponse<BatchQuoteResponse>> quoteBatch(@Valid @RequestBody BatchQuoteRequest request,
+                                                                      HttpServletRequest httpRequest) {
+        String clientIp = rateLimitService.getClientIp(httpRequest);
+        if (rateLimitService.isIpBanned(clientIp) || !rateLimitService.canRequestBatchQuote(clientIp)) {
+            log.warn("Public API: Batch quote rejected for IP {}", clientIp);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+
+        log.info("Public API: Quoting {} pricing scenarios", request.scenarios().size());
+        List<BatchQuoteRequest.Scenario> scenarios = request.scenarios();
+        final var result = priceCalculationService.quoteScenarios(scenarios.stream()
+                .map(scenario -> new PriceCalculationService.QuoteScenario(
+                        scenario.weightKg(),
+                        scenario.distanceKm(),
+                        scenario.categoryName(),
+                        scenario.packages() == null ? null : scenario.packages().stream()
+                                .map(pkg -> new PriceCalculationService.PackageInfo(
+                                        pkg.weightTons(), pkg.lengthM(), pkg.widthM(), pkg.heightM()))
+                                .toList()))
+                .toList());
+
+        List<BatchQuoteResponse.ScenarioQuote> quotes = IntStream.range(0, scenarios.size())
+                .mapToObj(i -> new BatchQuoteResponse.ScenarioQuote(
+                        i,
+                        scenarios.get(i).weightKg(),
+                        scenarios.get(i).distanceKm(),
+                        scenarios.get(i).categoryName(),
+                        result.results().get(i).stream()
+                                .map(quote -> new BatchQuoteResponse.CategoryQuote(
+                                        quote.isSuccess(),
+                                        quote.getCategoryName(),
+                                        quote.getVehicleType(),
+                                        quote.getMaxLoad(),
+                                        quote.getEstimatedPrice(),
+                                        quote.getBreakdown(),
+                                        quote.getErrorMessage()))
+                                .toList()))
+                .toList();
+        return ResponseEntity.ok(ApiResponse.ok(new BatchQuoteResponse(result.pricingVersion(), quotes)));
+    }
+
     /**
      * Get insurance policy information for public display
      */
@@ -5,18 +5,22 @@ import capstone_project.dtos.request.vehicle.UpdateVehicleAssignmentRequest;
 import capstone_project.dtos.request.vehicle.VehicleAssignmentRequest;
 import capstone_project.dtos.response.common.ApiResponse;
 import capstone_project.dtos.response.order.StaffVehicleAssignmentFullResponse;
+import capstone_project.dtos.response.vehicle.BreadcrumbPointResponse;
 import capstone_project.dtos.response.vehicle.GroupedVehicleAssignmentResponse;
 import capstone_project.dtos.response.vehicle.SampleVehicleAssignmentResponse;
 import capstone_project.dtos.response.vehicle.SimplifiedVehicleAssignmentResponse;
 import capstone_project.dtos.response.vehicle.VehicleAssignmentResponse;
+import capstone_project.service.services.tracking.GpsBreadcrumbService;
 import capstone_project.service.services.vehicle.VehicleAssignmentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,6 +32,7 @@ import java.util.UUID;
 public class VehicleAssignmentController {
 
     private final VehicleAssignmentService service;
+    private final GpsBreadcrumbService gpsBreadcrumbService;
 
     @GetMapping
     public ResponseEntity<ApiResponse<List<VehicleAssignmentResponse>>> getAll() {
@@ -55,6 +60,17 @@ public class VehicleAssignmentController {
         return ResponseEntity.ok(ApiResponse.ok(response));
     }
 
+    /**
+     * Replay the driven track of a vehicle assignment (GPS breadcrumbs), oldest point first
+     */
+    @GetMapping("/{id}/breadcrumbs")
+    public ResponseEntity<ApiResponse<List<BreadcrumbPointResponse>>> getBreadcrumbs(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(ApiResponse.ok(gpsBreadcrumbService.getTrack(id, from, to)));
+    }
+
     @PostMapping
     public ResponseEntity<ApiResponse<VehicleAssignmentResponse>> create(
             @RequestBody @Valid VehicleAssignmentRequest req) {
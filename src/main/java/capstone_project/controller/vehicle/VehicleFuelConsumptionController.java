@@ -6,6 +6,7 @@ import capstone_project.dtos.request.vehicle.VehicleFuelConsumptionInvoiceReques
 import capstone_project.dtos.response.common.ApiResponse;
 import capstone_project.dtos.response.vehicle.VehicleFuelConsumptionListResponse;
 import capstone_project.dtos.response.vehicle.VehicleFuelConsumptionResponse;
+import capstone_project.service.services.cloudinary.ImageUploadPipeline;
 import capstone_project.service.services.vehicle.VehicleFuelConsumptionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -22,6 +23,7 @@ import java.beans.PropertyEditorSupport;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("${vehicle-fuel-consumption.api.base-path}")
@@ -31,6 +33,7 @@ import java.util.UUID;
 public class VehicleFuelConsumptionController {
 
     private final VehicleFuelConsumptionService vehicleFuelConsumptionService;
+    private final ImageUploadPipeline imageUploadPipeline;
 
     /**
      * Get all vehicle fuel consumptions for staff (sorted by createdAt DESC)
@@ -57,30 +60,42 @@ public class VehicleFuelConsumptionController {
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ApiResponse<VehicleFuelConsumptionResponse>> createVehicleFuelConsumption(
+    public CompletableFuture<ResponseEntity<ApiResponse<VehicleFuelConsumptionResponse>>> createVehicleFuelConsumption(
             @ModelAttribute VehicleFuelConsumptionCreateRequest request) {
-        
-        final var result = vehicleFuelConsumptionService.createVehicleFuelConsumption(request);
-        return ResponseEntity.ok(new ApiResponse<>(true, "Success", 200, result));
+
+        // The request thread is released while the odometer image uploads; the record is saved once the URL is known
+        MultipartFile image = request.odometerAtStartImage();
+        return imageUploadPipeline.upload(image, image.getOriginalFilename(), "vehicle-fuel/odometer-start")
+                .thenApply(url -> {
+                    final var result = vehicleFuelConsumptionService.createVehicleFuelConsumption(request, url);
+                    return ResponseEntity.ok(new ApiResponse<>(true, "Success", 200, result));
+                });
     }
 
     @PutMapping(value = "/invoice", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ApiResponse<VehicleFuelConsumptionResponse>> updateInvoiceImage(
+    public CompletableFuture<ResponseEntity<ApiResponse<VehicleFuelConsumptionResponse>>> updateInvoiceImage(
             @ModelAttribute VehicleFuelConsumptionInvoiceRequest request) {
-        
-        final var result = vehicleFuelConsumptionService.updateInvoiceImage(request);
-        return ResponseEntity.ok(new ApiResponse<>(true, "Success", 200, result));
+
+        MultipartFile image = request.companyInvoiceImage();
+        return imageUploadPipeline.upload(image, image.getOriginalFilename(), "vehicle-fuel/invoices")
+                .thenApply(url -> {
+                    final var result = vehicleFuelConsumptionService.updateInvoiceImage(request, url);
+                    return ResponseEntity.ok(new ApiResponse<>(true, "Success", 200, result));
+                });
     }
 
     @PutMapping(value = "/final-reading", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ApiResponse<VehicleFuelConsumptionResponse>> updateFinalReading(
+    public CompletableFuture<ResponseEntity<ApiResponse<VehicleFuelConsumptionResponse>>> updateFinalReading(
             @RequestParam UUID id,
             @RequestParam BigDecimal odometerReadingAtEnd,
             @RequestParam MultipartFile odometerAtEndImage) {
 
         final var request = new VehicleFuelConsumptionEndReadingRequest(id, odometerReadingAtEnd, odometerAtEndImage);
-        final var result = vehicleFuelConsumptionService.updateFinalReading(request);
-        return ResponseEntity.ok(new ApiResponse<>(true, "Success", 200, result));
+        return imageUploadPipeline.upload(odometerAtEndImage, odometerAtEndImage.getOriginalFilename(), "vehicle-fuel/odometer-end")
+                .thenApply(url -> {
+                    final var result = vehicleFuelConsumptionService.updateFinalReading(request, url);
+                    return ResponseEntity.ok(new ApiResponse<>(true, "Success", 200, result));
+                });
     }
 
     @GetMapping("/{id}")
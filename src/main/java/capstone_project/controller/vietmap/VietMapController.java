@@ -13,6 +13,9 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("${vietmap.api.base-path}")
@@ -24,122 +27,102 @@ public class VietMapController {
     private final ObjectMapper objectMapper;
 
     @GetMapping(value = "/autocomplete", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<String> autocomplete(
+    public CompletableFuture<ResponseEntity<String>> autocomplete(
             @RequestParam String text
     ) {
         if (text == null || text.isBlank()) {
-            return ResponseEntity.badRequest().body("{\"error\":\"text parameter is required\"}");
-        }
-        try {
-            String response = vietmapService.autocomplete(
-                    text,
-                    null,
-                    null, // cityId
-                    null, // distId
-                    null, // wardId
-                    null, // circle_center
-                    null, // circle_radius
-                    null, // cats
-                    null  // layers
-            );
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException ex) {
-            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
-                    .body("{\"error\":\"failed to call Vietmap API\",\"detail\":\"" + ex.getMessage() + "\"}");
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body("{\"error\":\"text parameter is required\"}"));
         }
+        return vietmapService.autocompleteAsync(
+                        text,
+                        null,
+                        null, // cityId
+                        null, // distId
+                        null, // wardId
+                        null, // circle_center
+                        null, // circle_radius
+                        null, // cats
+                        null  // layers
+                )
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(badGateway("Vietmap API"));
     }
 
     @GetMapping(value = "/place", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<String> place(
+    public CompletableFuture<ResponseEntity<String>> place(
             @RequestParam(name = "refid") String refid
     ) {
         if (refid == null || refid.isBlank()) {
-            return ResponseEntity.badRequest().body("{\"error\":\"refid parameter is required\"}");
-        }
-        try {
-            String response = vietmapService.place(refid);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException ex) {
-            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
-                    .body("{\"error\":\"failed to call Vietmap Place API\",\"detail\":\"" + ex.getMessage() + "\"}");
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body("{\"error\":\"refid parameter is required\"}"));
         }
+        return vietmapService.placeAsync(refid)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(badGateway("Vietmap Place API"));
     }
 
     @GetMapping(value = "/reverse", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<String> reverse(
+    public CompletableFuture<ResponseEntity<String>> reverse(
             @RequestParam Double lat,
             @RequestParam Double lng
     ) {
         if (lat == null || lng == null) {
-            return ResponseEntity.badRequest().body("{\"error\":\"lat and lng parameters are required\"}");
-        }
-        try {
-            String response = vietmapService.reverse(lat, lng);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException ex) {
-            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
-                    .body("{\"error\":\"failed to call Vietmap Reverse API\",\"detail\":\"" + ex.getMessage() + "\"}");
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body("{\"error\":\"lat and lng parameters are required\"}"));
         }
+        return vietmapService.reverseAsync(lat, lng)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(badGateway("Vietmap Reverse API"));
     }
 
     @PostMapping(value = "/route-tolls", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<String> routeTolls(
+    public CompletableFuture<ResponseEntity<String>> routeTolls(
             @RequestBody List<List<Double>> path,
             @RequestParam(required = false) Integer vehicle
     ) {
         if (path == null || path.isEmpty()) {
-            return ResponseEntity.badRequest().body("{\"error\":\"path body is required and must contain coordinate pairs\"}");
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body("{\"error\":\"path body is required and must contain coordinate pairs\"}"));
         }
+        String pathJson;
         try {
-            String pathJson = objectMapper.writeValueAsString(path);
-            String response = vietmapService.routeTolls(pathJson, vehicle);
-            return ResponseEntity.ok(response);
+            pathJson = objectMapper.writeValueAsString(path);
         } catch (JsonProcessingException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("{\"error\":\"invalid path body\"}");
-        } catch (RuntimeException ex) {
-            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
-                    .body("{\"error\":\"failed to call Vietmap Route-Tolls API\",\"detail\":\"" + ex.getMessage() + "\"}");
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.BAD_REQUEST).body("{\"error\":\"invalid path body\"}"));
         }
+        return vietmapService.routeTollsAsync(pathJson, vehicle)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(badGateway("Vietmap Route-Tolls API"));
     }
 
     @GetMapping(value = "/route", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<String> route(
+    public CompletableFuture<ResponseEntity<String>> route(
             @RequestParam(name = "point") java.util.List<String> points,
             @RequestParam(name = "vehicle", required = false) String vehicle
     ) {
         if (points == null || points.size() < 2) {
-            return ResponseEntity.badRequest()
-                    .body("{\"error\":\"at least two point query parameters are required (e.g. &point=lat,lng&point=lat,lng)\"}");
-        }
-        try {
-            String response = vietmapService.route(points, false, vehicle, false, null);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException ex) {
-            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
-                    .body("{\"error\":\"failed to call Vietmap Route API\",\"detail\":\"" + ex.getMessage() + "\"}");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body("{\"error\":\"at least two point query parameters are required (e.g. &point=lat,lng&point=lat,lng)\"}"));
         }
+        return vietmapService.routeAsync(points, false, vehicle, false, null)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(badGateway("Vietmap Route API"));
     }
 
     @GetMapping(value = "/styles", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<String> styles() {
-        try {
-            String response = vietmapService.styles();
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException ex) {
-            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
-                    .body("{\"error\":\"failed to call Vietmap Styles API\",\"detail\":\"" + ex.getMessage() + "\"}");
-        }
+    public CompletableFuture<ResponseEntity<String>> styles() {
+        return vietmapService.stylesAsync()
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(badGateway("Vietmap Styles API"));
     }
 
     @GetMapping(value = "/mobile-styles", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<String> mobileStyles() {
-        try {
-            String response = vietmapService.mobileStyles();
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException ex) {
-            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
-                    .body("{\"error\":\"failed to call Vietmap Mobile Styles API\",\"detail\":\"" + ex.getMessage() + "\"}");
-        }
+    public CompletableFuture<ResponseEntity<String>> mobileStyles() {
+        return vietmapService.mobileStylesAsync()
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(badGateway("Vietmap Mobile Styles API"));
     }
 
     /**
@@ -181,24 +164,34 @@ public class VietMapController {
      * }
      */
     @PostMapping(value = "/route-v3", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<VietmapRouteV3Response> routeV3(@RequestBody VietmapRouteV3Request request) {
-        try {
-            VietmapRouteV3Response response = vietmapService.routeV3(request);
-            return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException ex) {
-            // Return 400 Bad Request for invalid parameters
-            VietmapRouteV3Response errorResponse = VietmapRouteV3Response.builder()
-                    .code("INVALID_REQUEST")
-                    .messages(ex.getMessage())
-                    .build();
-            return ResponseEntity.badRequest().body(errorResponse);
-        } catch (RuntimeException ex) {
-            // Return 502 Bad Gateway for external API errors
-            VietmapRouteV3Response errorResponse = VietmapRouteV3Response.builder()
-                    .code("ERROR_UNKNOWN")
-                    .messages("Failed to call Vietmap Route API v3: " + ex.getMessage())
-                    .build();
-            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(errorResponse);
-        }
+    public CompletableFuture<ResponseEntity<VietmapRouteV3Response>> routeV3(@RequestBody VietmapRouteV3Request request) {
+        return vietmapService.routeV3Async(request)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(error -> {
+                    Throwable ex = unwrap(error);
+                    if (ex instanceof IllegalArgumentException) {
+                        // Return 400 Bad Request for invalid parameters
+                        VietmapRouteV3Response errorResponse = VietmapRouteV3Response.builder()
+                                .code("INVALID_REQUEST")
+                                .messages(ex.getMessage())
+                                .build();
+                        return ResponseEntity.badRequest().body(errorResponse);
+                    }
+                    // Return 502 Bad Gateway for external API errors
+                    VietmapRouteV3Response errorResponse = VietmapRouteV3Response.builder()
+                            .code("ERROR_UNKNOWN")
+                            .messages("Failed to call Vietmap Route API v3: " + ex.getMessage())
+                            .build();
+                    return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(errorResponse);
+                });
+    }
+
+    private static Function<Throwable, ResponseEntity<String>> badGateway(String api) {
+        return error -> ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                .body("{\"error\":\"failed to call " + api + "\",\"detail\":\"" + unwrap(error).getMessage() + "\"}");
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
     }
 }
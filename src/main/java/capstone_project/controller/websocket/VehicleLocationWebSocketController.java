@@ -4,8 +4,8 @@ import capstone_project.common.enums.ErrorEnum;
 import capstone_project.common.exceptions.dto.BadRequestException;
 import capstone_project.common.exceptions.dto.NotFoundException;
 import capstone_project.dtos.websocket.MobileLocationUpdateMessage;
-import capstone_project.entity.vehicle.VehicleEntity;
-import capstone_project.repository.entityServices.vehicle.VehicleEntityService;
+import capstone_project.service.services.tracking.GpsBreadcrumbService;
+import capstone_project.service.websocket.VehicleLocationBuffer;
 import capstone_project.service.websocket.VehicleLocationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,7 +14,6 @@ import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.UUID;
 
@@ -23,15 +22,16 @@ import java.util.UUID;
 @Slf4j
 public class VehicleLocationWebSocketController {
 
-    private final VehicleEntityService vehicleEntityService;
+    private final VehicleLocationBuffer vehicleLocationBuffer;
     private final VehicleLocationService vehicleLocationService;
+    private final GpsBreadcrumbService gpsBreadcrumbService;
 
     /**
      * Mobile app sends location updates to: /app/vehicle/{vehicleId}/location
-     * Server broadcasts to: /topic/vehicles/locations and /topic/vehicles/{vehicleId}
+     * Server broadcasts to: /topic/vehicles/locations/frames and /topic/vehicles/{vehicleId}
+     * Position is held in {@link VehicleLocationBuffer} and flushed to the database in batches
      */
     @MessageMapping("/vehicle/{vehicleId}/location")
-    @Transactional
     public void updateVehicleLocation(
             @DestinationVariable("vehicleId") UUID vehicleId,
             @Payload MobileLocationUpdateMessage message) {
@@ -46,23 +46,26 @@ public class VehicleLocationWebSocketController {
             );
         }
 
-        // Update location using existing service method
-        boolean updated = vehicleEntityService.updateLocationDirectly(
+        // Check if vehicle exists (only the first ping of a vehicle hits the database)
+        if (!vehicleLocationBuffer.isKnownVehicle(vehicleId)) {
+            log.warn("Vehicle not found: {}", vehicleId);
+            throw new NotFoundException(
+                    "Vehicle not found with ID: " + vehicleId,
+                    ErrorEnum.NOT_FOUND.getErrorCode()
+            );
+        }
+
+        // Buffer the location - skip broadcast if position is unchanged
+        boolean updated = vehicleLocationBuffer.record(
                 vehicleId, message.getLatitude(), message.getLongitude());
 
         if (!updated) {
-            // Check if vehicle exists
-            if (!vehicleEntityService.findByVehicleId(vehicleId).isPresent()) {
-                log.warn("Vehicle not found: {}", vehicleId);
-                throw new NotFoundException(
-                        "Vehicle not found with ID: " + vehicleId,
-                        ErrorEnum.NOT_FOUND.getErrorCode()
-                );
-            }
-            
             return;
         }
 
+        gpsBreadcrumbService.record(
+                vehicleId, message.getVehicleAssignmentId(), message.getLatitude(), message.getLongitude());
+
         // Broadcast directly with provided license plate number to avoid extra DB query
         vehicleLocationService.broadcastVehicleLocation(
                 vehicleId,
@@ -77,7 +80,6 @@ public class VehicleLocationWebSocketController {
      * Mobile app sends location updates with rate limiting to: /app/vehicle/{vehicleId}/location-rate-limited
      */
     @MessageMapping("/vehicle/{vehicleId}/location-rate-limited")
-    @Transactional
     @SendToUser("/queue/location-update-result")
     public boolean updateVehicleLocationWithRateLimit(
             @DestinationVariable("vehicleId") UUID vehicleId,
@@ -91,12 +93,23 @@ public class VehicleLocationWebSocketController {
             );
         }
 
+        // Check if vehicle exists
+        if (!vehicleLocationBuffer.isKnownVehicle(vehicleId)) {
+            throw new NotFoundException(
+                    "Vehicle not found with ID: " + vehicleId,
+                    ErrorEnum.NOT_FOUND.getErrorCode()
+            );
+        }
+
         // DEMO OPTIMIZATION: Use 1 second rate limit to prevent visual glitches
         // Reduced from 2s to 1s for faster initial location updates
-        boolean updated = vehicleEntityService.updateLocationWithRateLimit(
+        boolean updated = vehicleLocationBuffer.record(
                 vehicleId, message.getLatitude(), message.getLongitude(), 1);
 
         if (updated) {
+            gpsBreadcrumbService.record(
+                    vehicleId, message.getVehicleAssignmentId(), message.getLatitude(), message.getLongitude());
+
             // Build full VehicleLocationMessage including assignment for multi-trip off-route
             capstone_project.dtos.websocket.VehicleLocationMessage wsMessage =
                     capstone_project.dtos.websocket.VehicleLocationMessage.builder()
@@ -112,13 +125,6 @@ public class VehicleLocationWebSocketController {
             vehicleLocationService.broadcastVehicleLocation(wsMessage);
 
         } else {
-            // Check if vehicle exists
-            if (!vehicleEntityService.findByVehicleId(vehicleId).isPresent()) {
-                throw new NotFoundException(
-                        "Vehicle not found with ID: " + vehicleId,
-                        ErrorEnum.NOT_FOUND.getErrorCode()
-                );
-            }
             log.warn("⚠️ [WebSocket] Rate-limited location update SKIPPED for vehicle: {} ({}) - too soon since last update",
                     vehicleId, message.getLicensePlateNumber());
         }
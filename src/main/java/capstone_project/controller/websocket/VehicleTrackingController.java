@@ -1,12 +1,15 @@
 package capstone_project.controller.websocket;
 
+import capstone_project.dtos.websocket.VehicleLocationFrame;
 import capstone_project.dtos.websocket.VehicleLocationMessage;
+import capstone_project.service.websocket.VehicleLocationFanout;
 import capstone_project.service.websocket.VehicleLocationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 
 import java.util.UUID;
@@ -22,6 +25,17 @@ public class VehicleTrackingController {
 
     private final SimpMessagingTemplate messagingTemplate;
     private final VehicleLocationService vehicleLocationService;
+    private final VehicleLocationFanout vehicleLocationFanout;
+
+    /**
+     * Initial state of the all-vehicles map
+     * Web client subscribes to: /app/vehicles/locations/snapshot and receives one keyframe,
+     * then applies the delta frames from /topic/vehicles/locations/frames
+     */
+    @SubscribeMapping("/vehicles/locations/snapshot")
+    public VehicleLocationFrame getAllVehiclesSnapshot() {
+        return vehicleLocationFanout.snapshot();
+    }
 
     /**
      * Handler for customer to get current location of a specific vehicle
@@ -0,0 +1,57 @@
+package capstone_project.dtos.request.pricing;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record BatchQuoteRequest(
+
+        @NotEmpty(message = "Danh sách kịch bản báo giá không được để trống")
+        @Size(max = 50, message = "Tối đa 50 kịch bản cho mỗi lần báo giá")
+        @Valid List<Scenario> scenarios
+
+) {
+    /**
+     * Một kịch bản báo giá; categoryName trống thì trả giá cho mọi loại hàng,
+     * packages trống thì chọn xe theo trọng lượng
+     */
+    public record Scenario(
+
+            @NotNull(message = "Trọng lượng không được để trống")
+            @DecimalMin(value = "0.01", message = "Trọng lượng (kg) phải > 0")
+            BigDecimal weightKg,
+
+            @NotNull(message = "Khoảng cách không được để trống")
+            @DecimalMin(value = "0.01", message = "Khoảng cách (km) phải > 0")
+            BigDecimal distanceKm,
+
+            String categoryName,
+
+            @Size(max = 100, message = "Tối đa 100 kiện hàng cho mỗi kịch bản")
+            @Valid List<PackageDimension> packages
+    ) {}
+
+    public record PackageDimension(
+
+            @NotNull(message = "Trọng lượng kiện hàng không được để trống")
+            @DecimalMin(value = "0.0", inclusive = false, message = "Trọng lượng kiện hàng (tấn) phải > 0")
+            BigDecimal weightTons,
+
+            @NotNull(message = "Chiều dài không được để trống")
+            @DecimalMin(value = "0.0", inclusive = false, message = "Chiều dài (m) phải > 0")
+            BigDecimal lengthM,
+
+            @NotNull(message = "Chiều rộng không được để trống")
+            @DecimalMin(value = "0.0", inclusive = false, message = "Chiều rộng (m) phải > 0")
+            BigDecimal widthM,
+
+            @NotNull(message = "Chiều cao không được để trống")
+            @DecimalMin(value = "0.0", inclusive = false, message = "Chiều cao (m) phải > 0")
+            BigDecimal heightM
+    ) {}
+}
@@ -0,0 +1,27 @@
+package capstone_project.dtos.response.pricing;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record BatchQuoteResponse(
+        long pricingVersion,
+        List<ScenarioQuote> quotes
+) {
+    public record ScenarioQuote(
+            int index,
+            BigDecimal weightKg,
+            BigDecimal distanceKm,
+            String categoryName,
+            List<CategoryQuote> results
+    ) {}
+
+    public record CategoryQuote(
+            boolean success,
+            String categoryName,
+            String vehicleType,
+            Double maxLoadTons,
+            Double estimatedPrice,
+            String breakdown,
+            String errorMessage
+    ) {}
+}
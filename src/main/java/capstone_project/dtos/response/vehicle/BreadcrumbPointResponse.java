@@ -0,0 +1,11 @@
+package capstone_project.dtos.response.vehicle;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record BreadcrumbPointResponse(
+        LocalDateTime timestamp,
+        BigDecimal latitude,
+        BigDecimal longitude
+) {
+}
@@ -0,0 +1,27 @@
+package capstone_project.dtos.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One frame of the all-vehicles map.
+ * A keyframe holds every live vehicle with all fields; other frames only hold the vehicles that changed,
+ * each with "vehicleId" plus the fields that differ from the previous frame.
+ * Clients apply frames in sequence order and drop the vehicles listed in removed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleLocationFrame {
+    private long sequence;
+    private boolean keyframe;
+    private List<Map<String, Object>> vehicles;
+    private List<UUID> removed;
+}
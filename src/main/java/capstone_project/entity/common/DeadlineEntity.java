@@ -0,0 +1,50 @@
+package capstone_project.entity.common;
+
+import capstone_project.common.utils.VietnamTimeUtils;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Pending deadline of a contract, transaction or issue.
+ * One row per (type, target); the row is removed once the deadline has fired or is cancelled.
+ * Reloaded into the in-memory timer wheel at startup.
+ */
+@Entity
+@Table(name = "deadlines", uniqueConstraints = @UniqueConstraint(columnNames = {"deadline_type", "target_id"}))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadlineEntity {
+
+    @Id
+    @Column(name = "id", updatable = false, nullable = false, columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "deadline_type", nullable = false, length = 50)
+    private String deadlineType;
+
+    @Column(name = "target_id", nullable = false)
+    private UUID targetId;
+
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = VietnamTimeUtils.now();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package capstone_project.entity.common;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cached Vietmap route-tolls response (route polyline and tolls) of a quantized waypoint path and vehicle class.
+ * Second tier behind the in-memory cache of {@link capstone_project.service.services.map.RouteTollsCache}.
+ */
+@Entity
+@Table(name = "route_toll_cache")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteTollCacheEntity {
+
+    @Id
+    @Column(name = "cache_key", length = 64, nullable = false, updatable = false)
+    private String cacheKey;
+
+    @Column(name = "vehicle")
+    private Integer vehicle;
+
+    @Column(name = "waypoint_count", nullable = false)
+    private Integer waypointCount;
+
+    @Column(name = "response", nullable = false, columnDefinition = "text")
+    private String response;
+
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,66 @@
+package capstone_project.entity.vehicle;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+
+import capstone_project.common.utils.VietnamTimeUtils;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One chunk of the driven track of a vehicle assignment (append-only).
+ * Points are encoded with {@link capstone_project.common.utils.GpsTrackCodec};
+ * start/end time bound the points so range reads only decode overlapping segments.
+ */
+@Entity
+@Table(name = "gps_breadcrumb_segments")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GpsBreadcrumbSegmentEntity {
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(
+            name = "UUID",
+            strategy = "org.hibernate.id.UUIDGenerator"
+    )
+    @Column(name = "id", updatable = false, nullable = false, columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "vehicle_assignment_id", nullable = false, updatable = false)
+    private UUID vehicleAssignmentId;
+
+    @Column(name = "vehicle_id", nullable = false, updatable = false)
+    private UUID vehicleId;
+
+    @Column(name = "start_time", nullable = false, updatable = false)
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time", nullable = false, updatable = false)
+    private LocalDateTime endTime;
+
+    @Column(name = "point_count", nullable = false, updatable = false)
+    private Integer pointCount;
+
+    @Column(name = "encoded_points", nullable = false, updatable = false)
+    private byte[] encodedPoints;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = VietnamTimeUtils.now();
+        }
+    }
+}
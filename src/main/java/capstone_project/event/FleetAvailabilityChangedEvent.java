@@ -0,0 +1,17 @@
+package capstone_project.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Published when a vehicle, a driver or a driver's penalty history changes (ids are null for batch updates),
+ * so cached vehicle/driver availability can be dropped
+ */
+@Getter
+@AllArgsConstructor
+public class FleetAvailabilityChangedEvent {
+    private final UUID vehicleId;
+    private final UUID driverId;
+}
@@ -0,0 +1,17 @@
+package capstone_project.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * A journey stopped being followed: replaced by a reroute (journeyId set)
+ * or its vehicle assignment completed (journeyId null, every journey of the assignment)
+ */
+@Getter
+@AllArgsConstructor
+public class JourneyEndedEvent {
+    private final UUID vehicleAssignmentId;
+    private final UUID journeyId;
+}
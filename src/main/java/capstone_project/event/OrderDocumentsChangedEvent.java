@@ -0,0 +1,15 @@
+package capstone_project.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Published when an order, its details or its contract is saved, so rendered documents of the order can be dropped
+ */
+@Getter
+@AllArgsConstructor
+public class OrderDocumentsChangedEvent {
+    private final UUID orderId;
+}
@@ -0,0 +1,14 @@
+package capstone_project.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a distance rule, size rule, base price, category, category pricing detail, vehicle type
+ * or the contract settings are saved, so the in-memory pricing snapshot is rebuilt
+ */
+@Getter
+@AllArgsConstructor
+public class PricingDataChangedEvent {
+    private final String source;
+}
@@ -0,0 +1,15 @@
+package capstone_project.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a user account is saved (role, status, credentials, profile), so cached user details
+ * of that login (username or email) are dropped and the next request reloads its authorities
+ */
+@Getter
+@AllArgsConstructor
+public class UserAccountChangedEvent {
+    private final String username;
+    private final String email;
+}
@@ -0,0 +1,13 @@
+package capstone_project.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+public class VehicleAssignmentChangedEvent {
+    private final UUID vehicleAssignmentId;
+    private final UUID vehicleId;
+}
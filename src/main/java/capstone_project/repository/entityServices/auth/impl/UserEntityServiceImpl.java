@@ -2,9 +2,11 @@ package capstone_project.repository.entityServices.auth.impl;
 
 
 import capstone_project.entity.auth.UserEntity;
+import capstone_project.event.UserAccountChangedEvent;
 import capstone_project.repository.repositories.auth.UserRepository;
 import capstone_project.repository.entityServices.auth.UserEntityService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -16,6 +18,7 @@ import java.util.UUID;
 public class UserEntityServiceImpl implements UserEntityService {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public Optional<UserEntity> getUserById(UUID id) {
@@ -47,7 +50,9 @@ public class UserEntityServiceImpl implements UserEntityService {
 
     @Override
     public UserEntity updateUserStatus(String email, String status) {
-        return userRepository.updateUserStatus(email, status);
+        UserEntity updated = userRepository.updateUserStatus(email, status);
+        applicationEventPublisher.publishEvent(new UserAccountChangedEvent(null, email));
+        return updated;
     }
 
     @Override
@@ -87,7 +92,9 @@ public class UserEntityServiceImpl implements UserEntityService {
 
     @Override
     public UserEntity save(UserEntity entity) {
-        return userRepository.save(entity);
+        UserEntity saved = userRepository.save(entity);
+        applicationEventPublisher.publishEvent(new UserAccountChangedEvent(saved.getUsername(), saved.getEmail()));
+        return saved;
     }
 
     @Override
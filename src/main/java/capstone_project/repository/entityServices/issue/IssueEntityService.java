@@ -30,7 +30,7 @@ public interface IssueEntityService extends BaseEntityService<IssueEntity, UUID>
     
     /**
      * Find all ORDER_REJECTION issues that are IN_PROGRESS
-     * Optimized query for ReturnPaymentTimeoutScheduler
+     * Eager-fetches the issue type to avoid LazyInitializationException
      */
     List<IssueEntity> findInProgressOrderRejections();
 }
@@ -1,9 +1,14 @@
 package capstone_project.repository.entityServices.order.contract.impl;
 
+import capstone_project.common.enums.ContractStatusEnum;
+import capstone_project.common.enums.DeadlineTypeEnum;
+import capstone_project.config.scheduler.DeadlineScheduler;
 import capstone_project.entity.order.contract.ContractEntity;
+import capstone_project.event.OrderDocumentsChangedEvent;
 import capstone_project.repository.repositories.order.contract.ContractRepository;
 import capstone_project.repository.entityServices.order.contract.ContractEntityService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -16,10 +21,32 @@ import java.util.UUID;
 public class ContractEntityServiceImpl implements ContractEntityService {
 
     private final ContractRepository contractRepository;
+    private final DeadlineScheduler deadlineScheduler;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public ContractEntity save(ContractEntity entity) {
-        return contractRepository.save(entity);
+        ContractEntity saved = contractRepository.save(entity);
+        scheduleStatusDeadline(saved);
+        // Cached contract and waybill PDFs of the order are dropped after commit
+        if (saved.getOrderEntity() != null) {
+            applicationEventPublisher.publishEvent(new OrderDocumentsChangedEvent(saved.getOrderEntity().getId()));
+        }
+        return saved;
+    }
+
+    /**
+     * Register the deadline of the step the contract is waiting on (signing, deposit or full payment)
+     */
+    private void scheduleStatusDeadline(ContractEntity contract) {
+        String status = contract.getStatus();
+        if (ContractStatusEnum.CONTRACT_DRAFT.name().equals(status)) {
+            deadlineScheduler.schedule(DeadlineTypeEnum.CONTRACT_SIGNING, contract.getId(), contract.getSigningDeadline());
+        } else if (ContractStatusEnum.CONTRACT_SIGNED.name().equals(status)) {
+            deadlineScheduler.schedule(DeadlineTypeEnum.CONTRACT_DEPOSIT_PAYMENT, contract.getId(), contract.getDepositPaymentDeadline());
+        } else if (ContractStatusEnum.DEPOSITED.name().equals(status)) {
+            deadlineScheduler.schedule(DeadlineTypeEnum.CONTRACT_FULL_PAYMENT, contract.getId(), contract.getFullPaymentDeadline());
+        }
     }
 
     @Override
@@ -2,9 +2,11 @@ package capstone_project.repository.entityServices.order.order.impl;
 
 import capstone_project.common.enums.CategoryName;
 import capstone_project.entity.order.order.CategoryEntity;
+import capstone_project.event.PricingDataChangedEvent;
 import capstone_project.repository.repositories.order.order.CategoryRepository;
 import capstone_project.repository.entityServices.order.order.CategoryEntityService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -17,10 +19,13 @@ import java.util.UUID;
 public class CategoryEntityServiceImpl implements CategoryEntityService {
 
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public CategoryEntity save(CategoryEntity entity) {
-        return categoryRepository.save(entity);
+        CategoryEntity saved = categoryRepository.save(entity);
+        applicationEventPublisher.publishEvent(new PricingDataChangedEvent("categories"));
+        return saved;
     }
 
     @Override
@@ -41,5 +46,6 @@ public class CategoryEntityServiceImpl implements CategoryEntityService {
     @Override
     public void delete(CategoryEntity entity) {
         categoryRepository.delete(entity);
+        applicationEventPublisher.publishEvent(new PricingDataChangedEvent("categories"));
     }
 }
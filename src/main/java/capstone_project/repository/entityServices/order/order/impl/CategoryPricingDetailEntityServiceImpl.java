@@ -1,9 +1,11 @@
 package capstone_project.repository.entityServices.order.order.impl;
 
 import capstone_project.entity.order.order.CategoryPricingDetailEntity;
+import capstone_project.event.PricingDataChangedEvent;
 import capstone_project.repository.repositories.order.order.CategoryPricingDetailRepository;
 import capstone_project.repository.entityServices.order.order.CategoryPricingDetailEntityService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -15,10 +17,13 @@ import java.util.UUID;
 public class CategoryPricingDetailEntityServiceImpl implements CategoryPricingDetailEntityService {
 
     private final CategoryPricingDetailRepository categoryPricingDetailRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public CategoryPricingDetailEntity save(CategoryPricingDetailEntity entity) {
-        return categoryPricingDetailRepository.save(entity);
+        CategoryPricingDetailEntity saved = categoryPricingDetailRepository.save(entity);
+        applicationEventPublisher.publishEvent(new PricingDataChangedEvent("category_pricing_detail"));
+        return saved;
     }
 
     @Override
@@ -1,16 +1,20 @@
 package capstone_project.repository.entityServices.order.order.impl;
 
 import capstone_project.entity.order.order.OrderDetailEntity;
+import capstone_project.entity.order.order.OrderEntity;
 import capstone_project.entity.vehicle.VehicleAssignmentEntity;
+import capstone_project.event.OrderDocumentsChangedEvent;
 import capstone_project.repository.repositories.order.order.OrderDetailRepository;
 import capstone_project.repository.entityServices.order.order.OrderDetailEntityService;
 import capstone_project.repository.entityServices.vehicle.VehicleAssignmentEntityService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -20,10 +24,25 @@ public class OrderDetailEntityServiceImpl implements OrderDetailEntityService {
 
     private final OrderDetailRepository orderDetailRepository;
     private final VehicleAssignmentEntityService vehicleAssignmentEntityService;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public OrderDetailEntity save(OrderDetailEntity entity) {
-        return orderDetailRepository.save(entity);
+        OrderDetailEntity saved = orderDetailRepository.save(entity);
+        publishDocumentsChanged(List.of(saved));
+        return saved;
+    }
+
+    /**
+     * Cached contract and waybill PDFs of the affected orders are dropped after commit
+     */
+    private void publishDocumentsChanged(List<OrderDetailEntity> orderDetails) {
+        orderDetails.stream()
+                .map(OrderDetailEntity::getOrderEntity)
+                .filter(Objects::nonNull)
+                .map(OrderEntity::getId)
+                .distinct()
+                .forEach(orderId -> applicationEventPublisher.publishEvent(new OrderDocumentsChangedEvent(orderId)));
     }
 
     @Override
@@ -45,6 +64,7 @@ public class OrderDetailEntityServiceImpl implements OrderDetailEntityService {
     @Transactional
     public List<OrderDetailEntity> saveAllOrderDetailEntities(List<OrderDetailEntity> orderDetailEntities) {
         List<OrderDetailEntity> savedEntities = orderDetailRepository.saveAll(orderDetailEntities);
+        publishDocumentsChanged(savedEntities);
         if(savedEntities.size() == orderDetailEntities.size()){
             return savedEntities;
         }
@@ -2,10 +2,12 @@ package capstone_project.repository.entityServices.order.order.impl;
 
 import capstone_project.entity.order.order.OrderDetailEntity;
 import capstone_project.entity.order.order.OrderEntity;
+import capstone_project.event.OrderDocumentsChangedEvent;
 import capstone_project.repository.repositories.order.order.OrderDetailRepository;
 import capstone_project.repository.repositories.order.order.OrderRepository;
 import capstone_project.repository.entityServices.order.order.OrderEntityService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
@@ -19,10 +21,14 @@ public class OrderEntityServiceImpl implements OrderEntityService {
 
     private final OrderRepository orderRepository;
     private final OrderDetailRepository orderDetailRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public OrderEntity save(OrderEntity entity) {
-        return orderRepository.save(entity);
+        OrderEntity saved = orderRepository.save(entity);
+        // Cached contract and waybill PDFs of the order are dropped after commit
+        applicationEventPublisher.publishEvent(new OrderDocumentsChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Override
@@ -1,12 +1,18 @@
 package capstone_project.repository.entityServices.order.transaction.Impl;
 
+import capstone_project.common.enums.DeadlineTypeEnum;
+import capstone_project.common.enums.TransactionEnum;
+import capstone_project.common.utils.VietnamTimeUtils;
+import capstone_project.config.scheduler.DeadlineScheduler;
 import capstone_project.entity.order.transaction.TransactionEntity;
 import capstone_project.repository.repositories.order.transaction.TransactionRepository;
 import capstone_project.repository.entityServices.order.transaction.TransactionEntityService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -17,10 +23,19 @@ import java.util.UUID;
 public class TransactionEntityServiceImpl implements TransactionEntityService {
 
     private final TransactionRepository transactionRepository;
+    private final DeadlineScheduler deadlineScheduler;
+
+    @Value("${deadline.transaction.payment-window-minutes:60}")
+    private long paymentWindowMinutes;
 
     @Override
     public TransactionEntity save(TransactionEntity entity) {
-        return transactionRepository.save(entity);
+        TransactionEntity saved = transactionRepository.save(entity);
+        if (TransactionEnum.PENDING.name().equals(saved.getStatus())) {
+            LocalDateTime createdAt = saved.getCreatedAt() != null ? saved.getCreatedAt() : VietnamTimeUtils.now();
+            deadlineScheduler.schedule(DeadlineTypeEnum.TRANSACTION_PAYMENT, saved.getId(), createdAt.plusMinutes(paymentWindowMinutes));
+        }
+        return saved;
     }
 
     @Override
@@ -1,9 +1,11 @@
 package capstone_project.repository.entityServices.pricing.impl;
 
 import capstone_project.entity.pricing.BasingPriceEntity;
+import capstone_project.event.PricingDataChangedEvent;
 import capstone_project.repository.repositories.pricing.BasingPriceRepository;
 import capstone_project.repository.entityServices.pricing.BasingPriceEntityService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -15,10 +17,13 @@ import java.util.UUID;
 public class BasingPriceEntityServiceImpl implements BasingPriceEntityService {
 
     private final BasingPriceRepository basingPriceRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public BasingPriceEntity save(BasingPriceEntity entity) {
-        return basingPriceRepository.save(entity);
+        BasingPriceEntity saved = basingPriceRepository.save(entity);
+        applicationEventPublisher.publishEvent(new PricingDataChangedEvent("basing_prices"));
+        return saved;
     }
 
     @Override
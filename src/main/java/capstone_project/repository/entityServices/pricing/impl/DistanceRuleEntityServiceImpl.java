@@ -1,9 +1,11 @@
 package capstone_project.repository.entityServices.pricing.impl;
 
 import capstone_project.entity.pricing.DistanceRuleEntity;
+import capstone_project.event.PricingDataChangedEvent;
 import capstone_project.repository.repositories.pricing.DistanceRuleRepository;
 import capstone_project.repository.entityServices.pricing.DistanceRuleEntityService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -15,10 +17,13 @@ import java.util.UUID;
 public class DistanceRuleEntityServiceImpl implements DistanceRuleEntityService {
 
     private final DistanceRuleRepository distanceRuleRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public DistanceRuleEntity save(DistanceRuleEntity entity) {
-        return distanceRuleRepository.save(entity);
+        DistanceRuleEntity saved = distanceRuleRepository.save(entity);
+        applicationEventPublisher.publishEvent(new PricingDataChangedEvent("distance_rules"));
+        return saved;
     }
 
     @Override
@@ -1,9 +1,11 @@
 package capstone_project.repository.entityServices.pricing.impl;
 
 import capstone_project.entity.pricing.SizeRuleEntity;
+import capstone_project.event.PricingDataChangedEvent;
 import capstone_project.repository.entityServices.pricing.SizeRuleEntityService;
 import capstone_project.repository.repositories.pricing.SizeRuleRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -16,10 +18,13 @@ import java.util.UUID;
 public class SizeRuleEntityServiceImpl implements SizeRuleEntityService {
 
     private final SizeRuleRepository sizeRuleRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public SizeRuleEntity save(SizeRuleEntity entity) {
-        return sizeRuleRepository.save(entity);
+        SizeRuleEntity saved = sizeRuleRepository.save(entity);
+        applicationEventPublisher.publishEvent(new PricingDataChangedEvent("size_rules"));
+        return saved;
     }
 
     @Override
@@ -1,10 +1,12 @@
 package capstone_project.repository.entityServices.setting.impl;
 
 import capstone_project.entity.setting.ContractSettingEntity;
+import capstone_project.event.PricingDataChangedEvent;
 import capstone_project.repository.entityServices.setting.ContractSettingEntityService;
 import capstone_project.repository.repositories.setting.ContractSettingRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -17,10 +19,11 @@ import java.util.UUID;
 public class ContractSettingEntityServiceImpl implements ContractSettingEntityService {
 
     private final ContractSettingRepository contractSettingRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public ContractSettingEntity save(ContractSettingEntity newSetting) {
-        return contractSettingRepository.findFirstByOrderByCreatedAtAsc()
+        ContractSettingEntity saved = contractSettingRepository.findFirstByOrderByCreatedAtAsc()
                 .map(existing -> {
                     // update
                     existing.setDepositPercent(newSetting.getDepositPercent());
@@ -33,6 +36,9 @@ public class ContractSettingEntityServiceImpl implements ContractSettingEntitySe
                     return contractSettingRepository.save(existing);
                 })
                 .orElseGet(() -> contractSettingRepository.save(newSetting));
+        // Insurance and VAT rates are part of the pricing snapshot
+        applicationEventPublisher.publishEvent(new PricingDataChangedEvent("contract_settings"));
+        return saved;
     }
 
     @Override
@@ -3,6 +3,9 @@ package capstone_project.repository.entityServices.user;
 import capstone_project.entity.user.driver.DriverEntity;
 import capstone_project.repository.entityServices.common.BaseEntityService;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,4 +23,25 @@ public interface DriverEntityService extends BaseEntityService<DriverEntity, UUI
      * @return Optional containing driver entity if found
      */
     Optional<DriverEntity> findByPhoneNumber(String phoneNumber);
+
+    long countByStatusAndDateOfExpiryBefore(String status, LocalDateTime dateOfExpiry);
+
+    List<UUID> findIdsByStatusAfter(String status, UUID afterId, int batchSize);
+
+    /**
+     * Deactivate the drivers of a batch whose license expired, in one statement
+     * @return [driver id, full name] of the deactivated drivers
+     */
+    List<Object[]> deactivateExpiredLicenses(List<UUID> driverIds, String activeStatus, String inactiveStatus,
+                                             LocalDateTime expiredBefore, LocalDateTime now);
+
+    /**
+     * @return [driver id, full name, days left (null when no expiry date)]
+     */
+    List<Object[]> findExpiringLicenses(List<UUID> driverIds, String status, LocalDate today, LocalDateTime warningBefore);
+
+    /**
+     * Drivers with their user loaded, in one query
+     */
+    List<DriverEntity> findAllWithUserByIds(Collection<UUID> driverIds);
 }
@@ -1,12 +1,17 @@
 package capstone_project.repository.entityServices.user.impl;
 
 import capstone_project.entity.user.driver.DriverEntity;
+import capstone_project.event.FleetAvailabilityChangedEvent;
 import capstone_project.repository.repositories.user.DriverRepository;
 import capstone_project.repository.entityServices.user.DriverEntityService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,10 +22,14 @@ import java.util.UUID;
 public class DriverEntityServiceImpl implements DriverEntityService {
 
     private final DriverRepository driverRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public DriverEntity save(DriverEntity entity) {
-        return driverRepository.save(entity);
+        DriverEntity saved = driverRepository.save(entity);
+        // Status, license class or expiry may have changed the driver's availability for suggestions
+        applicationEventPublisher.publishEvent(new FleetAvailabilityChangedEvent(null, saved.getId()));
+        return saved;
     }
 
     @Override
@@ -70,4 +79,34 @@ public class DriverEntityServiceImpl implements DriverEntityService {
         
         return Optional.of(drivers.get(0));
     }
+
+    @Override
+    public long countByStatusAndDateOfExpiryBefore(String status, LocalDateTime dateOfExpiry) {
+        return driverRepository.countByStatusAndDateOfExpiryBefore(status, dateOfExpiry);
+    }
+
+    @Override
+    public List<UUID> findIdsByStatusAfter(String status, UUID afterId, int batchSize) {
+        return driverRepository.findIdsByStatusAfter(status, afterId, batchSize);
+    }
+
+    @Override
+    public List<Object[]> deactivateExpiredLicenses(List<UUID> driverIds, String activeStatus, String inactiveStatus,
+                                                    LocalDateTime expiredBefore, LocalDateTime now) {
+        return driverRepository.deactivateExpiredLicenses(driverIds, activeStatus, inactiveStatus, expiredBefore, now);
+    }
+
+    @Override
+    public List<Object[]> findExpiringLicenses(List<UUID> driverIds, String status, LocalDate today,
+                                               LocalDateTime warningBefore) {
+        return driverRepository.findExpiringLicenses(driverIds, status, today, warningBefore);
+    }
+
+    @Override
+    public List<DriverEntity> findAllWithUserByIds(Collection<UUID> driverIds) {
+        if (driverIds == null || driverIds.isEmpty()) {
+            return List.of();
+        }
+        return driverRepository.findAllWithUserByIdIn(driverIds);
+    }
 }
@@ -1,8 +1,10 @@
 package capstone_project.repository.entityServices.user.impl;
 import capstone_project.entity.user.driver.PenaltyHistoryEntity;
+import capstone_project.event.FleetAvailabilityChangedEvent;
 import capstone_project.repository.repositories.user.PenaltyHistoryRepository;
 import capstone_project.repository.entityServices.user.PenaltyHistoryEntityService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -15,8 +17,16 @@ public class PenaltyHistoryEntityServiceImpl
         implements PenaltyHistoryEntityService {
 
     private final PenaltyHistoryRepository repository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
-    @Override public PenaltyHistoryEntity save(PenaltyHistoryEntity e){return repository.save(e);}
+    @Override
+    public PenaltyHistoryEntity save(PenaltyHistoryEntity e) {
+        PenaltyHistoryEntity saved = repository.save(e);
+        // Violation counts rank drivers in vehicle assignment suggestions
+        applicationEventPublisher.publishEvent(new FleetAvailabilityChangedEvent(
+                null, saved.getIssueBy() != null ? saved.getIssueBy().getId() : null));
+        return saved;
+    }
     @Override public Optional<PenaltyHistoryEntity> findEntityById(UUID id){return repository.findById(id);}
     @Override public List<PenaltyHistoryEntity> findAll(){return repository.findAll();}
 
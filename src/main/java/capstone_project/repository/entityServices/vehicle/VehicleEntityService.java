@@ -6,6 +6,7 @@ import capstone_project.entity.vehicle.VehicleTypeEntity;
 import capstone_project.repository.entityServices.common.BaseEntityService;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -57,4 +58,9 @@ public interface VehicleEntityService extends BaseEntityService<VehicleEntity, U
      * Count vehicles by vehicle type ID
      */
     long countByVehicleTypeId(UUID vehicleTypeId);
+
+    /**
+     * Vehicles with their vehicle type loaded, in one query
+     */
+    List<VehicleEntity> findAllWithVehicleTypeByIds(Collection<UUID> vehicleIds);
 }
@@ -30,6 +30,11 @@ public interface VehicleReservationEntityService extends BaseEntityService<Vehic
      */
     boolean existsReservedByVehicleAndDateExcludingOrder(UUID vehicleId, LocalDate tripDate, UUID excludeOrderId);
 
+    /**
+     * All vehicles with a RESERVED reservation on a specific date (excluding a specific order), in one query
+     */
+    List<UUID> findReservedVehicleIdsByDateExcludingOrder(LocalDate tripDate, UUID excludeOrderId);
+
     /**
      * Check if a vehicle has any RESERVED reservation on a specific date
      * Used to check availability when suggesting vehicles (no order exclusion)
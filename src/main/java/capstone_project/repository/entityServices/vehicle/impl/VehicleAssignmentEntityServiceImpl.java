@@ -4,12 +4,14 @@ import capstone_project.entity.device.DeviceEntity;
 import capstone_project.entity.vehicle.VehicleAssignmentDeviceEntity;
 import capstone_project.entity.vehicle.VehicleAssignmentEntity;
 import capstone_project.entity.vehicle.VehicleEntity;
+import capstone_project.event.VehicleAssignmentChangedEvent;
 import capstone_project.repository.repositories.device.DeviceRepository;
 import capstone_project.repository.repositories.vehicle.VehicleAssignmentDeviceRepository;
 import capstone_project.repository.repositories.vehicle.VehicleAssignmentRepository;
 import capstone_project.repository.entityServices.vehicle.VehicleAssignmentEntityService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -28,10 +30,15 @@ public class VehicleAssignmentEntityServiceImpl implements VehicleAssignmentEnti
     private final VehicleAssignmentRepository vehicleAssignmentRepository;
     private final VehicleAssignmentDeviceRepository vehicleAssignmentDeviceRepository;
     private final DeviceRepository deviceRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public VehicleAssignmentEntity save(VehicleAssignmentEntity entity) {
-        return vehicleAssignmentRepository.save(entity);
+        VehicleAssignmentEntity saved = vehicleAssignmentRepository.save(entity);
+        // Lets in-memory tracking snapshots (drivers, vehicle, orders) refresh after commit
+        applicationEventPublisher.publishEvent(new VehicleAssignmentChangedEvent(
+                saved.getId(), saved.getVehicleEntity() != null ? saved.getVehicleEntity().getId() : null));
+        return saved;
     }
 
     @Override
@@ -3,15 +3,18 @@ package capstone_project.repository.entityServices.vehicle.impl;
 import capstone_project.dtos.request.vehicle.BatchUpdateLocationRequest;
 import capstone_project.entity.vehicle.VehicleEntity;
 import capstone_project.entity.vehicle.VehicleTypeEntity;
+import capstone_project.event.FleetAvailabilityChangedEvent;
 import capstone_project.repository.repositories.vehicle.VehicleRepository;
 import capstone_project.repository.entityServices.vehicle.VehicleEntityService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,10 +25,14 @@ import java.util.UUID;
 public class VehicleEntityServiceImpl implements VehicleEntityService {
 
     private final VehicleRepository vehicleRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public VehicleEntity save(VehicleEntity entity) {
-        return vehicleRepository.save(entity);
+        VehicleEntity saved = vehicleRepository.save(entity);
+        // Status, type or document expiry may have changed the vehicle's availability for suggestions
+        applicationEventPublisher.publishEvent(new FleetAvailabilityChangedEvent(saved.getId(), null));
+        return saved;
     }
 
     @Override
@@ -150,4 +157,12 @@ public class VehicleEntityServiceImpl implements VehicleEntityService {
     public long countByVehicleTypeId(UUID vehicleTypeId) {
         return vehicleRepository.countByVehicleTypeEntityId(vehicleTypeId);
     }
+
+    @Override
+    public List<VehicleEntity> findAllWithVehicleTypeByIds(Collection<UUID> vehicleIds) {
+        if (vehicleIds == null || vehicleIds.isEmpty()) {
+            return List.of();
+        }
+        return vehicleRepository.findAllWithVehicleTypeByIdIn(vehicleIds);
+    }
 }
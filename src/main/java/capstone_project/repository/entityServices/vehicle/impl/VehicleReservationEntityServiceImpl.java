@@ -65,6 +65,11 @@ public class VehicleReservationEntityServiceImpl implements VehicleReservationEn
         return repository.existsReservedByVehicleAndDateExcludingOrder(vehicleId, tripDate, excludeOrderId);
     }
 
+    @Override
+    public List<UUID> findReservedVehicleIdsByDateExcludingOrder(LocalDate tripDate, UUID excludeOrderId) {
+        return repository.findReservedVehicleIdsByDateExcludingOrder(tripDate, excludeOrderId);
+    }
+
     @Override
     public boolean existsReservedByVehicleAndDate(UUID vehicleId, LocalDate tripDate) {
         return repository.existsReservedByVehicleAndDate(vehicleId, tripDate);
@@ -1,9 +1,11 @@
 package capstone_project.repository.entityServices.vehicle.impl;
 
 import capstone_project.entity.vehicle.VehicleTypeEntity;
+import capstone_project.event.PricingDataChangedEvent;
 import capstone_project.repository.repositories.vehicle.VehicleTypeRepository;
 import capstone_project.repository.entityServices.vehicle.VehicleTypeEntityService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -15,10 +17,13 @@ import java.util.UUID;
 public class VehicleTypeEntityServiceImpl implements VehicleTypeEntityService {
 
     private final VehicleTypeRepository vehicleTypeRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public VehicleTypeEntity save(VehicleTypeEntity entity) {
-        return vehicleTypeRepository.save(entity);
+        VehicleTypeEntity saved = vehicleTypeRepository.save(entity);
+        applicationEventPublisher.publishEvent(new PricingDataChangedEvent("vehicle_types"));
+        return saved;
     }
 
     @Override
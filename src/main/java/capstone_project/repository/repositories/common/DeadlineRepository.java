@@ -0,0 +1,81 @@
+package capstone_project.repository.repositories.common;
+
+import capstone_project.entity.common.DeadlineEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface DeadlineRepository extends JpaRepository<DeadlineEntity, UUID> {
+
+    /**
+     * Insert or move the deadline of a target
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO deadlines (id, deadline_type, target_id, due_at, created_at)
+        VALUES (:id, :type, :targetId, :dueAt, :createdAt)
+        ON CONFLICT (deadline_type, target_id) DO UPDATE SET due_at = EXCLUDED.due_at
+        """, nativeQuery = true)
+    int upsert(@Param("id") UUID id,
+               @Param("type") String type,
+               @Param("targetId") UUID targetId,
+               @Param("dueAt") LocalDateTime dueAt,
+               @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query("DELETE FROM DeadlineEntity d WHERE d.deadlineType = :type AND d.targetId = :targetId")
+    int deleteByTypeAndTarget(@Param("type") String type, @Param("targetId") UUID targetId);
+
+    /**
+     * Remove a fired deadline, unless it was moved to a new time in the meantime
+     */
+    @Modifying
+    @Query("DELETE FROM DeadlineEntity d WHERE d.deadlineType = :type AND d.targetId = :targetId AND d.dueAt = :dueAt")
+    int deleteFired(@Param("type") String type, @Param("targetId") UUID targetId, @Param("dueAt") LocalDateTime dueAt);
+
+    // ==================== Startup backfill ====================
+    // Deadlines of rows written before the deadline table existed (or while the app was down)
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO deadlines (id, deadline_type, target_id, due_at, created_at)
+        SELECT gen_random_uuid(), 'CONTRACT_SIGNING', c.id, c.signing_deadline, now()
+        FROM contracts c
+        WHERE c.status = 'CONTRACT_DRAFT' AND c.signing_deadline IS NOT NULL
+        UNION ALL
+        SELECT gen_random_uuid(), 'CONTRACT_DEPOSIT_PAYMENT', c.id, c.deposit_payment_deadline, now()
+        FROM contracts c
+        WHERE c.status = 'CONTRACT_SIGNED' AND c.deposit_payment_deadline IS NOT NULL
+        UNION ALL
+        SELECT gen_random_uuid(), 'CONTRACT_FULL_PAYMENT', c.id, c.full_payment_deadline, now()
+        FROM contracts c
+        WHERE c.status = 'DEPOSITED' AND c.full_payment_deadline IS NOT NULL
+        ON CONFLICT (deadline_type, target_id) DO NOTHING
+        """, nativeQuery = true)
+    int backfillContractDeadlines();
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO deadlines (id, deadline_type, target_id, due_at, created_at)
+        SELECT gen_random_uuid(), 'TRANSACTION_PAYMENT', t.id, t.created_at + make_interval(mins => :paymentWindowMinutes), now()
+        FROM transaction t
+        WHERE t.status = 'PENDING' AND t.created_at IS NOT NULL
+        ON CONFLICT (deadline_type, target_id) DO NOTHING
+        """, nativeQuery = true)
+    int backfillTransactionDeadlines(@Param("paymentWindowMinutes") int paymentWindowMinutes);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO deadlines (id, deadline_type, target_id, due_at, created_at)
+        SELECT gen_random_uuid(), 'RETURN_PAYMENT', i.id, i.payment_deadline + make_interval(secs => :bufferSeconds), now()
+        FROM issues i
+        JOIN issue_types it ON it.id = i.issue_type_id
+        WHERE i.status = 'IN_PROGRESS' AND it.issue_category = 'ORDER_REJECTION' AND i.payment_deadline IS NOT NULL
+        ON CONFLICT (deadline_type, target_id) DO NOTHING
+        """, nativeQuery = true)
+    int backfillReturnPaymentDeadlines(@Param("bufferSeconds") int bufferSeconds);
+}
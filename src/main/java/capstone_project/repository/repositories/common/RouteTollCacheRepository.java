@@ -0,0 +1,39 @@
+package capstone_project.repository.repositories.common;
+
+import capstone_project.entity.common.RouteTollCacheEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface RouteTollCacheRepository extends JpaRepository<RouteTollCacheEntity, String> {
+
+    @Query("SELECT c FROM RouteTollCacheEntity c WHERE c.cacheKey = :cacheKey AND c.expiresAt > :now")
+    Optional<RouteTollCacheEntity> findValid(@Param("cacheKey") String cacheKey, @Param("now") LocalDateTime now);
+
+    /**
+     * Store a fetched response, replacing an older one of the same key
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO route_toll_cache (cache_key, vehicle, waypoint_count, response, fetched_at, expires_at)
+        VALUES (:cacheKey, :vehicle, :waypointCount, :response, :fetchedAt, :expiresAt)
+        ON CONFLICT (cache_key) DO UPDATE SET
+            response = EXCLUDED.response,
+            fetched_at = EXCLUDED.fetched_at,
+            expires_at = EXCLUDED.expires_at
+        """, nativeQuery = true)
+    int upsert(@Param("cacheKey") String cacheKey,
+               @Param("vehicle") Integer vehicle,
+               @Param("waypointCount") int waypointCount,
+               @Param("response") String response,
+               @Param("fetchedAt") LocalDateTime fetchedAt,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM RouteTollCacheEntity c WHERE c.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -2,7 +2,9 @@ package capstone_project.repository.repositories.device;
 
 import capstone_project.entity.device.DeviceEntity;
 import capstone_project.repository.repositories.common.BaseRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,5 +13,15 @@ public interface DeviceRepository extends BaseRepository<DeviceEntity> {
 
     Optional<DeviceEntity> findDeviceEntityByDeviceTypeEntityIdAndVehicleEntityId(UUID deviceTypeId, UUID vehicleId);
     
-    java.util.List<DeviceEntity> findDeviceEntitiesByVehicleEntityId(UUID vehicleId);
+    List<DeviceEntity> findDeviceEntitiesByVehicleEntityId(UUID vehicleId);
+
+    /**
+     * Device counts grouped by status (status, total, assigned to a vehicle)
+     */
+    @Query(value = """
+            SELECT d.status, COUNT(*), COUNT(d.vehicle_id)
+            FROM devices d
+            GROUP BY d.status
+            """, nativeQuery = true)
+    List<Object[]> countDevicesGroupByStatus();
 }
@@ -129,4 +129,27 @@ public interface IssueRepository extends BaseRepository<IssueEntity> {
            "WHERE i.vehicleAssignmentEntity.id = :vehicleAssignmentId " +
            "AND it.issueCategory = 'PENALTY'")
     Optional<IssueEntity> findPenaltyIssueByVehicleAssignment(@Param("vehicleAssignmentId") UUID vehicleAssignmentId);
+
+    /**
+     * Daily rollup of reported issues per status, issue type and assigned staff
+     */
+    @Query(value = """
+            SELECT CAST(i.reported_at AS date) AS day, i.status, it.issue_type_name, i.user_id, COUNT(*)
+            FROM issues i
+            LEFT JOIN issue_types it ON it.id = i.issue_type_id
+            WHERE i.reported_at >= :fromDate AND i.reported_at < :toDate
+            GROUP BY day, i.status, it.issue_type_name, i.user_id
+            """, nativeQuery = true)
+    List<Object[]> rollupIssuesByDayStatusTypeAndStaff(@Param("fromDate") LocalDateTime fromDate,
+                                                       @Param("toDate") LocalDateTime toDate);
+
+    List<IssueEntity> findByReportedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+    @Query("SELECT i FROM IssueEntity i " +
+            "LEFT JOIN FETCH i.issueTypeEntity " +
+            "LEFT JOIN FETCH i.staff " +
+            "LEFT JOIN FETCH i.vehicleAssignmentEntity " +
+            "WHERE i.status IN :statuses " +
+            "ORDER BY i.reportedAt DESC")
+    List<IssueEntity> findByStatusIn(@Param("statuses") List<String> statuses);
 }
@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -21,4 +23,17 @@ public interface VehicleFuelConsumptionRepository extends JpaRepository<VehicleF
         WHERE vfc.vehicleAssignmentEntity.id = :vehicleAssignmentId
         """)
     Optional<VehicleFuelConsumptionEntity> findByVehicleAssignmentId(@Param("vehicleAssignmentId") UUID vehicleAssignmentId);
+
+    /**
+     * Daily fuel consumption (day, records, fuel volume) recorded in [fromDate, toDate]
+     */
+    @Query(value = """
+            SELECT CAST(vfc.date_recorded AS date) AS day, COUNT(*), COALESCE(SUM(vfc.fuel_volume), 0)
+            FROM vehicle_fuel_consumptions vfc
+            WHERE vfc.date_recorded BETWEEN :fromDate AND :toDate
+            GROUP BY day
+            ORDER BY day ASC
+            """, nativeQuery = true)
+    List<Object[]> sumFuelVolumeByDay(@Param("fromDate") LocalDateTime fromDate,
+                                      @Param("toDate") LocalDateTime toDate);
 }
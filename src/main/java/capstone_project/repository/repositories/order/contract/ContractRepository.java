@@ -31,4 +31,6 @@ public interface ContractRepository extends BaseRepository<ContractEntity> {
 
     // Find contracts with expired full payment deadline (DEPOSITED status and full_payment_deadline < now)
     List<ContractEntity> findByStatusAndFullPaymentDeadlineBefore(String status, LocalDateTime deadline);
+
+    List<ContractEntity> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
 }
@@ -2,10 +2,18 @@ package capstone_project.repository.repositories.order.order;
 
 import capstone_project.entity.order.order.CategoryPricingDetailEntity;
 import capstone_project.repository.repositories.common.BaseRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface CategoryPricingDetailRepository extends BaseRepository<CategoryPricingDetailEntity> {
 
     CategoryPricingDetailEntity findByCategoryId(UUID categoryId);
+
+    /**
+     * Id loại hàng, hệ số nhân và phụ phí của mọi loại hàng (dùng cho snapshot bảng giá)
+     */
+    @Query("SELECT d.category.id, d.priceMultiplier, d.extraFee FROM CategoryPricingDetailEntity d")
+    List<Object[]> findAdjustmentRows();
 }
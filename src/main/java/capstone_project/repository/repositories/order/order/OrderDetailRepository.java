@@ -6,6 +6,7 @@ import capstone_project.repository.repositories.common.BaseRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -163,4 +164,17 @@ public interface OrderDetailRepository extends BaseRepository<OrderDetailEntity>
      * @return List of order details associated with the vehicle assignment
      */
     List<OrderDetailEntity> findByVehicleAssignmentEntityId(UUID vehicleAssignmentId);
+
+    /**
+     * Daily rollup (by order creation day) of order details per customer and current status
+     */
+    @Query(value = """
+            SELECT CAST(o.created_at AS date) AS day, o.customer_id, od.status, COUNT(*)
+            FROM order_details od
+            JOIN orders o ON o.id = od.order_id
+            WHERE o.created_at >= :fromDate AND o.created_at < :toDate
+            GROUP BY day, o.customer_id, od.status
+            """, nativeQuery = true)
+    List<Object[]> rollupOrderDetailsByDayCustomerAndStatus(@Param("fromDate") LocalDateTime fromDate,
+                                                            @Param("toDate") LocalDateTime toDate);
 }
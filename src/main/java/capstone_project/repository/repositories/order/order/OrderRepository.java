@@ -5,6 +5,7 @@ import capstone_project.repository.repositories.common.BaseRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -196,4 +197,29 @@ public interface OrderRepository extends BaseRepository<OrderEntity> {
             @Param("year") Integer year,
             @Param("amount") int amount
     );
+
+    /**
+     * Daily rollup of created orders per customer, used to (re)build dashboard aggregates
+     */
+    @Query(value = """
+            SELECT CAST(o.created_at AS date) AS day, o.customer_id, COUNT(*)
+            FROM orders o
+            WHERE o.created_at >= :fromDate AND o.created_at < :toDate
+            GROUP BY day, o.customer_id
+            """, nativeQuery = true)
+    List<Object[]> rollupOrdersByDayAndCustomer(@Param("fromDate") LocalDateTime fromDate,
+                                                @Param("toDate") LocalDateTime toDate);
+
+    /**
+     * Orders created in a dashboard range, with their order details fetched in the same query
+     */
+    @Query("""
+            SELECT DISTINCT o FROM OrderEntity o
+            LEFT JOIN FETCH o.orderDetailEntities
+            WHERE o.createdAt BETWEEN :fromDate AND :toDate
+            """)
+    List<OrderEntity> findByCreatedAtBetweenWithDetails(@Param("fromDate") LocalDateTime fromDate,
+                                                        @Param("toDate") LocalDateTime toDate);
+
+    List<OrderEntity> findByStatusInOrderByCreatedAtDesc(List<String> statuses);
 }
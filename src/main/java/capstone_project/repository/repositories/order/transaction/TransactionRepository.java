@@ -72,4 +72,18 @@ public interface TransactionRepository extends BaseRepository<TransactionEntity>
             ORDER BY week_label;
             """, nativeQuery = true)
     List<Object[]> getTotalRevenueByLast4Weeks();
+
+    /**
+     * Daily rollup of paid transactions (count, amount) by payment date
+     */
+    @Query(value = """
+            SELECT CAST(t.payment_date AS date) AS day, COUNT(*), COALESCE(SUM(t.amount), 0)
+            FROM "transaction" t
+            WHERE t.status = 'PAID' AND t.payment_date >= :fromDate AND t.payment_date < :toDate
+            GROUP BY day
+            """, nativeQuery = true)
+    List<Object[]> rollupPaidTransactionsByDay(@Param("fromDate") LocalDateTime fromDate,
+                                               @Param("toDate") LocalDateTime toDate);
+
+    List<TransactionEntity> findByPaymentDateBetween(LocalDateTime startDate, LocalDateTime endDate);
 }
@@ -2,6 +2,7 @@ package capstone_project.repository.repositories.pricing;
 
 import capstone_project.entity.pricing.BasingPriceEntity;
 import capstone_project.repository.repositories.common.BaseRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,4 +12,10 @@ public interface BasingPriceRepository extends BaseRepository<BasingPriceEntity>
     Optional<BasingPriceEntity> findBasingPriceEntityBysizeRuleEntityIdAndDistanceRuleEntityId(UUID sizeRuleEntityId, UUID distanceRuleEntityId);
 
     List<BasingPriceEntity> findAllBysizeRuleEntityId(UUID sizeRuleEntityId);
+
+    /**
+     * Id size rule, id distance rule và giá cơ bản của mọi ô trong bảng giá (dùng cho snapshot bảng giá)
+     */
+    @Query("SELECT bp.sizeRuleEntity.id, bp.distanceRuleEntity.id, bp.basePrice FROM BasingPriceEntity bp")
+    List<Object[]> findPriceMatrixRows();
 }
@@ -24,4 +24,12 @@ public interface SizeRuleRepository extends BaseRepository<SizeRuleEntity> {
     List<SizeRuleEntity> findAllByCategoryId(UUID categoryId);
 
     List<SizeRuleEntity> findAllByVehicleTypeEntityId(UUID vehicleTypeId);
+
+    /**
+     * Tất cả size rule kèm loại xe và loại hàng (dùng cho snapshot bảng giá)
+     */
+    @Query("SELECT sr FROM SizeRuleEntity sr " +
+            "LEFT JOIN FETCH sr.vehicleTypeEntity " +
+            "LEFT JOIN FETCH sr.category")
+    List<SizeRuleEntity> findAllWithVehicleTypeAndCategory();
 }
@@ -2,12 +2,30 @@ package capstone_project.repository.repositories.refund;
 
 import capstone_project.entity.order.order.RefundEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface RefundRepository extends JpaRepository<RefundEntity, UUID> {
     Optional<RefundEntity> findByIssueEntityId(UUID issueId);
+
+    /**
+     * Daily rollup of refunds (count, amount) by refund date
+     */
+    @Query(value = """
+            SELECT CAST(r.refund_date AS date) AS day, COUNT(*), COALESCE(SUM(r.refund_amount), 0)
+            FROM refunds r
+            WHERE r.refund_date >= :fromDate AND r.refund_date < :toDate
+            GROUP BY day
+            """, nativeQuery = true)
+    List<Object[]> rollupRefundsByDay(@Param("fromDate") LocalDateTime fromDate,
+                                      @Param("toDate") LocalDateTime toDate);
+
+    List<RefundEntity> findByRefundDateBetween(LocalDateTime startDate, LocalDateTime endDate);
 }
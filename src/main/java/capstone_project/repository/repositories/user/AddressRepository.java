@@ -21,4 +21,24 @@ public interface AddressRepository extends BaseRepository<AddressEntity> {
     // Hoặc sử dụng query JPQL tùy chỉnh
     @Query("SELECT a FROM AddressEntity a WHERE a.customer.id = :customerId")
     List<AddressEntity> findAllByCustomerId(@Param("customerId") UUID customerId);
+
+    // Địa chỉ được dùng nhiều nhất làm điểm lấy/giao hàng (có toạ độ), dùng để làm nóng cache geocoding
+    @Query(value = """
+            SELECT a.* FROM addresses a
+            JOIN (
+                SELECT u.address_id, COUNT(*) AS uses
+                FROM (
+                    SELECT o.pickup_address_id AS address_id FROM orders o
+                    UNION ALL
+                    SELECT o.delivery_address_id AS address_id FROM orders o
+                ) u
+                WHERE u.address_id IS NOT NULL
+                GROUP BY u.address_id
+                ORDER BY uses DESC
+                LIMIT :limit
+            ) hot ON hot.address_id = a.id
+            WHERE a.latitude IS NOT NULL AND a.longitude IS NOT NULL
+            ORDER BY hot.uses DESC
+            """, nativeQuery = true)
+    List<AddressEntity> findMostUsedWithCoordinates(@Param("limit") int limit);
 }
@@ -2,7 +2,13 @@ package capstone_project.repository.repositories.user;
 
 import capstone_project.entity.user.driver.DriverEntity;
 import capstone_project.repository.repositories.common.BaseRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -41,4 +47,62 @@ public interface DriverRepository extends BaseRepository<DriverEntity> {
      * @return List of drivers matching the email
      */
     List<DriverEntity> findByUserEmail(String email);
+
+    long countByStatusAndDateOfExpiryBefore(String status, LocalDateTime dateOfExpiry);
+
+    /**
+     * Get one keyset page (id > afterId) of driver ids with the given status, for batched sweeps
+     */
+    @Query(value = "SELECT id FROM drivers WHERE status = :status AND id > :afterId ORDER BY id LIMIT :batchSize",
+            nativeQuery = true)
+    List<UUID> findIdsByStatusAfter(@Param("status") String status,
+                                    @Param("afterId") UUID afterId,
+                                    @Param("batchSize") int batchSize);
+
+    /**
+     * Deactivate the drivers of a batch whose license expired before the given time, in one statement
+     * @return [driver id, full name] of the deactivated drivers
+     */
+    @Transactional
+    @Query(value = """
+        UPDATE drivers d
+        SET status = :inactiveStatus, modified_at = :now
+        FROM users u
+        WHERE u.id = d.user_id
+        AND d.id IN (:driverIds)
+        AND d.status = :activeStatus
+        AND d.date_of_expiry < :expiredBefore
+        RETURNING d.id, u.full_name
+        """, nativeQuery = true)
+    List<Object[]> deactivateExpiredLicenses(@Param("driverIds") List<UUID> driverIds,
+                                             @Param("activeStatus") String activeStatus,
+                                             @Param("inactiveStatus") String inactiveStatus,
+                                             @Param("expiredBefore") LocalDateTime expiredBefore,
+                                             @Param("now") LocalDateTime now);
+
+    /**
+     * Drivers of a batch whose license expires before the warning time or has no expiry date
+     * @return [driver id, full name, days left (null when no expiry date)]
+     */
+    @Query(value = """
+        SELECT d.id, u.full_name, CAST(d.date_of_expiry AS date) - CAST(:today AS date)
+        FROM drivers d
+        JOIN users u ON u.id = d.user_id
+        WHERE d.id IN (:driverIds)
+        AND d.status = :status
+        AND (d.date_of_expiry IS NULL OR d.date_of_expiry < :warningBefore)
+        """, nativeQuery = true)
+    List<Object[]> findExpiringLicenses(@Param("driverIds") List<UUID> driverIds,
+                                        @Param("status") String status,
+                                        @Param("today") LocalDate today,
+                                        @Param("warningBefore") LocalDateTime warningBefore);
+
+    /**
+     * Id, hạng bằng lái và ngày hết hạn bằng lái của các tài xế theo trạng thái (dùng cho chỉ mục gợi ý tài xế)
+     */
+    @Query("SELECT d.id, d.licenseClass, d.dateOfExpiry FROM DriverEntity d WHERE d.status = :status")
+    List<Object[]> findAvailabilityFactsByStatus(@Param("status") String status);
+
+    @Query("SELECT d FROM DriverEntity d LEFT JOIN FETCH d.user WHERE d.id IN :driverIds")
+    List<DriverEntity> findAllWithUserByIdIn(@Param("driverIds") Collection<UUID> driverIds);
 }
@@ -5,6 +5,7 @@ import capstone_project.repository.repositories.common.BaseRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -57,4 +58,20 @@ public interface PenaltyHistoryRepository
         ORDER BY ph.penaltyDate DESC
         """)
     List<PenaltyHistoryEntity> findByVehicleId(@Param("vehicleId") UUID vehicleId);
-}
\ No newline at end of file
+
+    /**
+     * Daily penalty counts (day, penalties) with a penalty date in [fromDate, toDate]
+     */
+    @Query(value = """
+            SELECT ph.penalty_date, COUNT(*)
+            FROM penalty_history ph
+            WHERE ph.penalty_date BETWEEN :fromDate AND :toDate
+            GROUP BY ph.penalty_date
+            ORDER BY ph.penalty_date ASC
+            """, nativeQuery = true)
+    List<Object[]> countPenaltiesByDay(@Param("fromDate") LocalDate fromDate,
+                                       @Param("toDate") LocalDate toDate);
+
+    @Query("SELECT d.id, COUNT(ph) FROM PenaltyHistoryEntity ph JOIN ph.issueBy d GROUP BY d.id")
+    List<Object[]> countPerDriver();
+}
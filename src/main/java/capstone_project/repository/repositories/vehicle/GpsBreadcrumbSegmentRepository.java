@@ -0,0 +1,29 @@
+package capstone_project.repository.repositories.vehicle;
+
+import capstone_project.entity.vehicle.GpsBreadcrumbSegmentEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface GpsBreadcrumbSegmentRepository extends JpaRepository<GpsBreadcrumbSegmentEntity, UUID> {
+
+    /**
+     * Segments of an assignment overlapping [from, to], oldest first
+     */
+    @Query("""
+                SELECT s FROM GpsBreadcrumbSegmentEntity s
+                WHERE s.vehicleAssignmentId = :vehicleAssignmentId
+                  AND s.endTime >= :fromTime
+                  AND s.startTime <= :toTime
+                ORDER BY s.startTime ASC
+            """)
+    List<GpsBreadcrumbSegmentEntity> findOverlappingSegments(@Param("vehicleAssignmentId") UUID vehicleAssignmentId,
+                                                             @Param("fromTime") LocalDateTime fromTime,
+                                                             @Param("toTime") LocalDateTime toTime);
+}
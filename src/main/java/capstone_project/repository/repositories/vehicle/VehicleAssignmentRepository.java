@@ -316,4 +316,103 @@ public interface VehicleAssignmentRepository extends BaseRepository<VehicleAssig
         @Param("vehicleId") UUID vehicleId, 
         @Param("statuses") List<String> statuses
     );
+
+    // ================= Suggestion index (set-based) =================
+
+    /**
+     * Vehicle and drivers of every assignment in a status: (vehicle_id, driver_id_1, driver_id_2)
+     */
+    @Query(value = """
+        SELECT va.vehicle_id, va.driver_id_1, va.driver_id_2
+        FROM vehicle_assignments va
+        WHERE va.status = :status
+        """, nativeQuery = true)
+    List<Object[]> findVehicleAndDriverIdsByStatus(@Param("status") String status);
+
+    /**
+     * Drivers of the latest assignment of each vehicle: (vehicle_id, driver_id_1, driver_id_2)
+     */
+    @Query(value = """
+        SELECT DISTINCT ON (va.vehicle_id) va.vehicle_id, va.driver_id_1, va.driver_id_2
+        FROM vehicle_assignments va
+        WHERE va.vehicle_id IS NOT NULL
+        ORDER BY va.vehicle_id, va.created_at DESC
+        """, nativeQuery = true)
+    List<Object[]> findLatestDriverPairingPerVehicle();
+
+    /**
+     * Latest assignment time of each driver as driver1: (driverId, max createdAt)
+     */
+    @Query("SELECT d.id, MAX(va.createdAt) FROM VehicleAssignmentEntity va JOIN va.driver1 d GROUP BY d.id")
+    List<Object[]> findLatestAssignmentTimeAsDriver1();
+
+    /**
+     * Latest assignment time of each driver as driver2: (driverId, max createdAt)
+     */
+    @Query("SELECT d.id, MAX(va.createdAt) FROM VehicleAssignmentEntity va JOIN va.driver2 d GROUP BY d.id")
+    List<Object[]> findLatestAssignmentTimeAsDriver2();
+
+    /**
+     * Assignments created since a time: (driver1Id, driver2Id, createdAt)
+     */
+    @Query("""
+        SELECT d1.id, d2.id, va.createdAt
+        FROM VehicleAssignmentEntity va
+        LEFT JOIN va.driver1 d1
+        LEFT JOIN va.driver2 d2
+        WHERE va.createdAt >= :since
+        """)
+    List<Object[]> findDriverIdsOfAssignmentsSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Completed order details per driver1, same count as countCompletedTripsAsDriver1: (driverId, count)
+     */
+    @Query("""
+        SELECT d.id, COUNT(od)
+        FROM OrderDetailEntity od
+        JOIN od.vehicleAssignmentEntity va
+        JOIN va.driver1 d
+        WHERE od.status = 'COMPLETED'
+        GROUP BY d.id
+        """)
+    List<Object[]> countCompletedTripsPerDriver1();
+
+    /**
+     * Completed order details per driver2, same count as countCompletedTripsAsDriver2: (driverId, count)
+     */
+    @Query("""
+        SELECT d.id, COUNT(od)
+        FROM OrderDetailEntity od
+        JOIN od.vehicleAssignmentEntity va
+        JOIN va.driver2 d
+        WHERE od.status = 'COMPLETED'
+        GROUP BY d.id
+        """)
+    List<Object[]> countCompletedTripsPerDriver2();
+
+    /**
+     * Trip start times of assigned order details from a time on: (driver1Id, driver2Id, estimatedStartTime)
+     */
+    @Query("""
+        SELECT DISTINCT d1.id, d2.id, od.estimatedStartTime
+        FROM OrderDetailEntity od
+        JOIN od.vehicleAssignmentEntity va
+        LEFT JOIN va.driver1 d1
+        LEFT JOIN va.driver2 d2
+        WHERE od.estimatedStartTime >= :from
+        """)
+    List<Object[]> findDriverTripStartTimesFrom(@Param("from") LocalDateTime from);
+
+    /**
+     * Assignments per vehicle created in a time range, for every vehicle: (vehicleId, count)
+     */
+    @Query("SELECT va.vehicleEntity.id, COUNT(va) " +
+            "FROM VehicleAssignmentEntity va " +
+            "WHERE va.createdAt >= :startOfMonth AND va.createdAt < :endOfMonth " +
+            "AND va.vehicleEntity IS NOT NULL " +
+            "GROUP BY va.vehicleEntity.id")
+    List<Object[]> countAssignmentsPerVehicleBetween(
+            @Param("startOfMonth") LocalDateTime startOfMonth,
+            @Param("endOfMonth") LocalDateTime endOfMonth
+    );
 }
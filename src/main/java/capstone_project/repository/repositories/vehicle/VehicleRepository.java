@@ -1,5 +1,6 @@
 package capstone_project.repository.repositories.vehicle;
 
+import capstone_project.common.enums.VehicleServiceStatusEnum;
 import capstone_project.entity.vehicle.VehicleEntity;
 import capstone_project.entity.vehicle.VehicleTypeEntity;
 import capstone_project.repository.repositories.common.BaseRepository;
@@ -11,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -189,4 +191,82 @@ public interface VehicleRepository extends BaseRepository<VehicleEntity> {
     @Transactional
     @Query("UPDATE VehicleEntity v SET v.status = :status WHERE v.id IN :vehicleIds")
     int updateStatusForVehicles(@Param("vehicleIds") List<UUID> vehicleIds, @Param("status") String status);
-}
\ No newline at end of file
+
+    /**
+     * Lấy một trang id xe theo keyset (id > afterId), dùng cho các job quét theo lô
+     */
+    @Query(value = "SELECT id FROM vehicles WHERE id > :afterId ORDER BY id LIMIT :batchSize", nativeQuery = true)
+    List<UUID> findIdsAfter(@Param("afterId") UUID afterId, @Param("batchSize") int batchSize);
+
+    /**
+     * Tính lại trạng thái đăng kiểm/bảo hiểm/bảo dưỡng cho một lô xe trong một câu UPDATE.
+     * Thứ tự ưu tiên giống VehicleExpiryCheckService; chỉ cập nhật xe có trạng thái thay đổi.
+     * @return [id, license_plate_number, status mới] của các xe đã cập nhật
+     */
+    @Transactional
+    @Query(value = """
+        UPDATE vehicles v
+        SET status = c.new_status, modified_at = :now
+        FROM (
+            SELECT id, CASE
+                WHEN inspection_expiry_date < :today THEN 'INSPECTION_EXPIRED'
+                WHEN insurance_expiry_date < :today THEN 'INSURANCE_EXPIRED'
+                WHEN inspection_expiry_date <= :warningDate THEN 'INSPECTION_DUE'
+                WHEN insurance_expiry_date <= :warningDate THEN 'INSURANCE_DUE'
+                WHEN next_maintenance_date >= :today AND next_maintenance_date <= :warningDate THEN 'MAINTENANCE_DUE'
+                ELSE 'ACTIVE'
+            END AS new_status
+            FROM vehicles
+            WHERE id IN (:vehicleIds)
+            AND (status IS NULL OR status NOT IN (:protectedStatuses))
+        ) c
+        WHERE v.id = c.id AND v.status IS DISTINCT FROM c.new_status
+        RETURNING v.id, v.license_plate_number, v.status
+        """, nativeQuery = true)
+    List<Object[]> updateExpiryStatuses(
+            @Param("vehicleIds") List<UUID> vehicleIds,
+            @Param("protectedStatuses") Collection<String> protectedStatuses,
+            @Param("today") LocalDate today,
+            @Param("warningDate") LocalDate warningDate,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Xe trong lô đã quá hạn bảo dưỡng nhưng chưa có lịch bảo dưỡng PLANNED/OVERDUE
+     */
+    @Query("SELECT v FROM VehicleEntity v WHERE v.id IN :vehicleIds " +
+           "AND v.nextMaintenanceDate < :today " +
+           "AND (v.status IS NULL OR v.status NOT IN :protectedStatuses) " +
+           "AND NOT EXISTS (SELECT r.id FROM VehicleServiceRecordEntity r WHERE r.vehicleEntity = v " +
+           "AND r.serviceType = :serviceType AND r.serviceStatus IN :openStatuses)")
+    List<VehicleEntity> findOverdueMaintenanceWithoutOpenRecord(
+            @Param("vehicleIds") List<UUID> vehicleIds,
+            @Param("today") LocalDate today,
+            @Param("protectedStatuses") Collection<String> protectedStatuses,
+            @Param("serviceType") String serviceType,
+            @Param("openStatuses") Collection<VehicleServiceStatusEnum> openStatuses);
+
+    /**
+     * Xe trong lô đã quá hạn đăng kiểm nhưng chưa có lịch đăng kiểm PLANNED/OVERDUE
+     */
+    @Query("SELECT v FROM VehicleEntity v WHERE v.id IN :vehicleIds " +
+           "AND v.inspectionExpiryDate < :today " +
+           "AND (v.status IS NULL OR v.status NOT IN :protectedStatuses) " +
+           "AND NOT EXISTS (SELECT r.id FROM VehicleServiceRecordEntity r WHERE r.vehicleEntity = v " +
+           "AND r.serviceType = :serviceType AND r.serviceStatus IN :openStatuses)")
+    List<VehicleEntity> findOverdueInspectionWithoutOpenRecord(
+            @Param("vehicleIds") List<UUID> vehicleIds,
+            @Param("today") LocalDate today,
+            @Param("protectedStatuses") Collection<String> protectedStatuses,
+            @Param("serviceType") String serviceType,
+            @Param("openStatuses") Collection<VehicleServiceStatusEnum> openStatuses);
+
+    /**
+     * Id, loại xe và hạn đăng kiểm/bảo hiểm của các xe theo trạng thái (dùng cho chỉ mục gợi ý xe)
+     */
+    @Query("SELECT v.id, vt.vehicleTypeName, v.inspectionExpiryDate, v.insuranceExpiryDate " +
+           "FROM VehicleEntity v JOIN v.vehicleTypeEntity vt WHERE v.status = :status")
+    List<Object[]> findAvailabilityFactsByStatus(@Param("status") String status);
+
+    @Query("SELECT v FROM VehicleEntity v LEFT JOIN FETCH v.vehicleTypeEntity WHERE v.id IN :vehicleIds")
+    List<VehicleEntity> findAllWithVehicleTypeByIdIn(@Param("vehicleIds") Collection<UUID> vehicleIds);
+}
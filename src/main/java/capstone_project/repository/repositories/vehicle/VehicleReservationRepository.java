@@ -83,4 +83,18 @@ public interface VehicleReservationRepository extends BaseRepository<VehicleRese
      */
     Optional<VehicleReservationEntity> findByVehicleEntityIdAndTripDateAndOrderEntityId(
             UUID vehicleId, LocalDate tripDate, UUID orderId);
+
+    /**
+     * Các xe có reservation RESERVED trong ngày (trừ reservation của một order), thay cho việc kiểm tra từng xe
+     */
+    @Query(value = """
+        SELECT DISTINCT r.vehicle_id
+        FROM vehicle_reservations r
+        WHERE r.trip_date = :tripDate
+        AND r.status = 'RESERVED'
+        AND r.order_id != :excludeOrderId
+    """, nativeQuery = true)
+    List<UUID> findReservedVehicleIdsByDateExcludingOrder(
+            @Param("tripDate") LocalDate tripDate,
+            @Param("excludeOrderId") UUID excludeOrderId);
 }
@@ -5,8 +5,10 @@ import capstone_project.entity.vehicle.VehicleServiceRecordEntity;
 import capstone_project.repository.repositories.common.BaseRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -123,6 +125,26 @@ public interface VehicleServiceRecordRepository extends BaseRepository<VehicleSe
      */
     List<VehicleServiceRecordEntity> findByServiceStatusAndPlannedDateBefore(
             VehicleServiceStatusEnum serviceStatus, LocalDateTime date);
+
+    /**
+     * Lấy một trang id bản ghi PLANNED đã quá ngày dự kiến theo keyset (id > afterId)
+     */
+    @Query(value = "SELECT id FROM vehicle_service_record " +
+           "WHERE service_status = 'PLANNED' AND planned_date < :now AND id > :afterId " +
+           "ORDER BY id LIMIT :batchSize", nativeQuery = true)
+    List<UUID> findPlannedIdsDueBefore(
+            @Param("now") LocalDateTime now,
+            @Param("afterId") UUID afterId,
+            @Param("batchSize") int batchSize);
+
+    /**
+     * Chuyển một lô bản ghi PLANNED sang OVERDUE trong một câu UPDATE
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE vehicle_service_record SET service_status = 'OVERDUE', modified_at = :now " +
+           "WHERE id IN (:recordIds) AND service_status = 'PLANNED' AND planned_date < :now", nativeQuery = true)
+    int markOverdue(@Param("recordIds") List<UUID> recordIds, @Param("now") LocalDateTime now);
             
     /**
      * Find a vehicle service record by ID with eagerly fetched vehicle and vehicle type
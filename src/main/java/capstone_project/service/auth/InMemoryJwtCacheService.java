@@ -0,0 +1,234 @@
+package capstone_project.service.auth;
+
+import capstone_project.common.utils.JWTUtil;
+import capstone_project.event.UserAccountChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process JWT cache.
+ * - Parsed claims per token, kept until the token expires or the TTL passes
+ * - User details per username, kept for a short TTL so role/status changes are picked up
+ * - Blacklist of revoked tokens until their natural expiry
+ * The token cache is bounded; when full, expired entries and then the soonest-expiring ones are evicted.
+ * State is per instance, so a blacklisted token stays valid on other instances until it expires.
+ */
+@Service
+@Slf4j
+public class InMemoryJwtCacheService implements JwtCacheService {
+
+    // Evict down to this fraction of max entries so eviction does not run on every insert
+    private static final double EVICTION_TARGET_RATIO = 0.9;
+
+    private final Map<String, TokenEntry> tokens = new ConcurrentHashMap<>();
+    private final Map<String, UserEntry> usersByUsername = new ConcurrentHashMap<>();
+    private final Map<String, Long> blacklistExpiresAtMillis = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    @Value("${jwt.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jwt.cache.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${jwt.cache.user-ttl-seconds:300}")
+    private long userTtlSeconds;
+
+    @Value("${jwt.cache.max-entries:10000}")
+    private int maxEntries;
+
+    private record TokenEntry(JwtClaims claims, long expiresAtMillis) {
+    }
+
+    private record UserEntry(UserDetails user, long loadedAtMillis) {
+    }
+
+    public InMemoryJwtCacheService(MeterRegistry meterRegistry) {
+        this.hits = Counter.builder("jwt.cache.requests")
+                .description("Token lookups served from the JWT cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("jwt.cache.requests")
+                .description("Token lookups that had to parse the JWT")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("jwt.cache.size", tokens, Map::size).register(meterRegistry);
+        Gauge.builder("jwt.cache.blacklist.size", blacklistExpiresAtMillis, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    public JwtClaims getClaims(String token) {
+        long now = System.currentTimeMillis();
+        if (enabled) {
+            TokenEntry entry = tokens.get(token);
+            if (entry != null && entry.expiresAtMillis() > now) {
+                hits.increment();
+                return entry.claims();
+            }
+            misses.increment();
+        }
+
+        // Throws ExpiredJwtException / JwtException for invalid tokens, exactly as before caching
+        JwtClaims claims = JwtClaims.from(JWTUtil.parseClaims(token));
+        if (enabled) {
+            putToken(token, new TokenEntry(claims, Math.min(claims.expiresAtMillis(), now + ttlSeconds * 1000L)), now);
+        }
+        return claims;
+    }
+
+    @Override
+    public void cacheValidatedToken(String token, UserDetails userDetails) {
+        if (!enabled || userDetails == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        // Keep the existing entry while it is fresh so the user TTL is not extended on every request
+        usersByUsername.compute(userDetails.getUsername(), (username, existing) ->
+                existing != null && isFresh(existing, now) ? existing : new UserEntry(userDetails, now));
+    }
+
+    @Override
+    public UserDetails getCachedUserByToken(String token) {
+        if (!enabled) {
+            return null;
+        }
+        TokenEntry entry = tokens.get(token);
+        if (entry == null || entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return getCachedUserByUsername(entry.claims().username());
+    }
+
+    @Override
+    public UserDetails getCachedUserByUsername(String username) {
+        if (!enabled || username == null) {
+            return null;
+        }
+        UserEntry entry = usersByUsername.get(username);
+        if (entry == null) {
+            return null;
+        }
+        if (!isFresh(entry, System.currentTimeMillis())) {
+            usersByUsername.remove(username, entry);
+            return null;
+        }
+        return entry.user();
+    }
+
+    @Override
+    public void invalidateToken(String token, String username) {
+        if (token != null) {
+            tokens.remove(token);
+        }
+        if (username != null) {
+            usersByUsername.remove(username);
+        }
+    }
+
+    @Override
+    public void blacklistToken(String token, long expirationSeconds) {
+        if (token == null) {
+            return;
+        }
+        tokens.remove(token);
+        if (expirationSeconds <= 0) {
+            // Already expired, the parser rejects it anyway
+            return;
+        }
+        blacklistExpiresAtMillis.put(token, System.currentTimeMillis() + expirationSeconds * 1000L);
+    }
+
+    @Override
+    public boolean isTokenBlacklisted(String token) {
+        Long expiresAt = blacklistExpiresAtMillis.get(token);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt <= System.currentTimeMillis()) {
+            blacklistExpiresAtMillis.remove(token, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void clearUserCache(String username) {
+        if (username == null) {
+            return;
+        }
+        usersByUsername.remove(username);
+        tokens.values().removeIf(entry -> username.equals(entry.claims().username()));
+    }
+
+    /**
+     * Role, status or credential changes take effect on the next request instead of after the user TTL
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        clearUserCache(event.getUsername());
+        clearUserCache(event.getEmail());
+    }
+
+    /**
+     * Drop expired tokens, users and blacklist entries
+     */
+    @Scheduled(fixedDelayString = "${jwt.cache.cleanup-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int before = tokens.size() + usersByUsername.size() + blacklistExpiresAtMillis.size();
+
+        tokens.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+        usersByUsername.values().removeIf(entry -> !isFresh(entry, now));
+        blacklistExpiresAtMillis.values().removeIf(expiresAt -> expiresAt <= now);
+
+        int removed = before - (tokens.size() + usersByUsername.size() + blacklistExpiresAtMillis.size());
+        if (removed > 0) {
+            log.debug("[JwtCache] Purged {} expired entries", removed);
+        }
+    }
+
+    private void putToken(String token, TokenEntry entry, long now) {
+        tokens.put(token, entry);
+        if (tokens.size() > maxEntries) {
+            evict(now);
+        }
+    }
+
+    private synchronized void evict(long now) {
+        if (tokens.size() <= maxEntries) {
+            return;
+        }
+        tokens.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+
+        int target = (int) (maxEntries * EVICTION_TARGET_RATIO);
+        int excess = tokens.size() - target;
+        if (excess <= 0) {
+            return;
+        }
+        tokens.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().expiresAtMillis()))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(tokens::remove);
+        log.debug("[JwtCache] Evicted {} tokens (max {})", excess, maxEntries);
+    }
+
+    private boolean isFresh(UserEntry entry, long now) {
+        return now - entry.loadedAtMillis() < userTtlSeconds * 1000L;
+    }
+}
@@ -8,6 +8,12 @@ import org.springframework.security.core.userdetails.UserDetails;
  */
 public interface JwtCacheService {
     
+    /**
+     * Get the claims of a token, verifying and parsing it only on the first call.
+     * Throws the parser's JwtException (e.g. ExpiredJwtException) for invalid tokens.
+     */
+    JwtClaims getClaims(String token);
+    
     /**
      * Cache validated token with user details
      */
@@ -0,0 +1,28 @@
+package capstone_project.service.auth;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Claims the request filter needs from an access token, parsed once per token
+ */
+public record JwtClaims(String username,
+                        String userId,
+                        String role,
+                        String status,
+                        long expiresAtMillis) {
+
+    public static JwtClaims from(Claims claims) {
+        String username = claims.get("username", String.class);
+        String email = claims.get("email", String.class);
+        return new JwtClaims(
+                username != null ? username : email,
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.get("status", String.class),
+                claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE);
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis <= nowMillis;
+    }
+}
@@ -1,6 +1,5 @@
 package capstone_project.service.auth;
 
-import capstone_project.common.utils.JWTUtil;
 import capstone_project.config.security.SecurityConfigurer;
 import capstone_project.dtos.response.common.ApiResponse;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -27,7 +26,7 @@ import java.util.Arrays;
 
 /**
  * JWT Request Filter with caching and security improvements
- * - Token validation caching to reduce DB queries
+ * - Token claims parsed once per token and user details cached to reduce DB queries
  * - Blacklist checking for revoked tokens
  * - Better error handling and logging
  * - User status validation
@@ -74,8 +73,9 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                 return;
             }
 
-            // Extract username from token
-            username = JWTUtil.extractUsername(jwt);
+            // Parse the token once (cached until it expires)
+            JwtClaims claims = jwtCacheService.getClaims(jwt);
+            username = claims.username();
             
             if (username == null) {
                 log.warn("[JwtRequestFilter] ❌ No username in token");
@@ -92,6 +92,10 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             // Try to get user from cache first (performance optimization)
             UserDetails user = jwtCacheService.getCachedUserByToken(jwt);
             
+            if (user == null) {
+                user = jwtCacheService.getCachedUserByUsername(username);
+            }
+            
             if (user == null) {
                 // Cache miss - load from database
                 log.debug("[JwtRequestFilter] Cache miss - loading user: {}", username);
@@ -99,11 +103,11 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             }
 
             // Validate token
-            if (JWTUtil.validateToken(jwt, user.getUsername())) {
+            if (username.equals(user.getUsername()) && !claims.isExpired(System.currentTimeMillis())) {
                 
                 // SECURITY: Validate user status from token claims
-                String tokenStatus = JWTUtil.extractStatus(jwt);
-                String tokenRole = JWTUtil.extractRole(jwt);
+                String tokenStatus = claims.status();
+                String tokenRole = claims.role();
                 
                 // Block BANNED users completely
                 if ("BANNED".equals(tokenStatus)) {
@@ -10,6 +10,7 @@ import capstone_project.entity.order.order.OrderDetailEntity;
 import capstone_project.entity.order.order.OrderEntity;
 import capstone_project.entity.order.order.RefundEntity;
 import capstone_project.entity.user.customer.CustomerEntity;
+import capstone_project.event.UserAccountChangedEvent;
 import capstone_project.repository.IssueCompensationAssessmentRepository;
 import capstone_project.repository.repositories.issue.IssueRepository;
 import capstone_project.repository.repositories.refund.RefundRepository;
@@ -25,6 +26,7 @@ import static capstone_project.common.enums.IssueEnum.CLOSED_FRAUD;
 import static capstone_project.common.enums.IssueEnum.RESOLVED;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -50,6 +52,7 @@ public class CompensationServiceImpl implements CompensationService {
     private final CloudinaryService cloudinaryService;
     private final ContractEntityService contractEntityService;
     private final UserContextUtils userContextUtils;
+    private final ApplicationEventPublisher applicationEventPublisher;
     
     private static final BigDecimal TEN = BigDecimal.valueOf(10);
     
@@ -316,6 +319,7 @@ public class CompensationServiceImpl implements CompensationService {
                 if (user != null) {
                     user.setStatus(BANNED.name());
                     userRepository.save(user);
+                    applicationEventPublisher.publishEvent(new UserAccountChangedEvent(user.getUsername(), user.getEmail()));
                 }
                 
                 log.info("Customer {} and associated user {} banned (status set to {}) due to fraud in issue {}", 
@@ -21,6 +21,7 @@ public class RateLimitService {
     private final ConcurrentHashMap<String, Bucket> guestConversationBuckets = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Bucket> guestMessageBuckets = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Bucket> authenticatedMessageBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Bucket> guestBatchQuoteBuckets = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Bucket> ipViolationBuckets = new ConcurrentHashMap<>();
 
     /**
@@ -83,6 +84,25 @@ public class RateLimitService {
         return true;
     }
 
+    /**
+     * Check if IP is allowed to request a batch price quote
+     */
+    public boolean canRequestBatchQuote(String clientIp) {
+        String key = "guest-batch-quote-" + clientIp;
+        Bucket bucket = guestBatchQuoteBuckets.computeIfAbsent(key, 
+            k -> rateLimitConfig.createGuestBatchQuoteBucket());
+        
+        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+        
+        if (!probe.isConsumed()) {
+            log.warn("Rate limit exceeded for batch quote from IP: {}", clientIp);
+            recordViolation(clientIp);
+            return false;
+        }
+        
+        return true;
+    }
+
     /**
      * Record IP violation for potential banning
      */
@@ -1,26 +1,26 @@
 package capstone_project.service.services.ai;
 
 import capstone_project.common.enums.CategoryName;
+import capstone_project.common.enums.ErrorEnum;
+import capstone_project.common.exceptions.dto.BadRequestException;
 import capstone_project.common.utils.BinPacker;
 import capstone_project.dtos.request.chat.PriceEstimateRequest;
 import capstone_project.entity.order.order.CategoryEntity;
-import capstone_project.entity.order.order.CategoryPricingDetailEntity;
 import capstone_project.entity.order.order.OrderDetailEntity;
 import capstone_project.entity.order.order.OrderSizeEntity;
-import capstone_project.entity.pricing.BasingPriceEntity;
-import capstone_project.entity.pricing.DistanceRuleEntity;
 import capstone_project.entity.pricing.SizeRuleEntity;
-import capstone_project.repository.entityServices.order.order.CategoryEntityService;
-import capstone_project.repository.entityServices.order.order.CategoryPricingDetailEntityService;
 import capstone_project.repository.entityServices.order.order.OrderDetailEntityService;
-import capstone_project.repository.entityServices.pricing.BasingPriceEntityService;
-import capstone_project.repository.entityServices.pricing.DistanceRuleEntityService;
-import capstone_project.repository.entityServices.pricing.SizeRuleEntityService;
+import capstone_project.service.services.pricing.PricingSnapshot;
+import capstone_project.service.services.pricing.PricingSnapshotService;
 import capstone_project.service.services.pricing.UnifiedPricingService;
 import capstone_project.service.services.setting.CarrierSettingService;
 import capstone_project.dtos.response.setting.CarrierSettingResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -32,6 +32,9 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,14 +42,30 @@ import java.util.stream.Collectors;
 @Slf4j
 public class PriceCalculationService {
 
-    private final SizeRuleEntityService sizeRuleService;
-    private final DistanceRuleEntityService distanceRuleService;
-    private final BasingPriceEntityService basingPriceService;
-    private final CategoryEntityService categoryEntityService;
-    private final CategoryPricingDetailEntityService categoryPricingDetailService;
+    private final PricingSnapshotService pricingSnapshotService;
     private final OrderDetailEntityService orderDetailEntityService;
     private final UnifiedPricingService unifiedPricingService;
 
+    @Value("${binpacker.search.time-budget-ms:150}")
+    private long packingSearchBudgetMs;
+
+    @Value("${pricing.batch.pool-size:4}")
+    private int batchPoolSize;
+
+    @Value("${pricing.batch.queue-capacity:100}")
+    private int batchQueueCapacity;
+
+    @Value("${pricing.batch.max-scenarios:50}")
+    private int batchMaxScenarios;
+
+    @Value("${pricing.batch.max-packages-per-scenario:100}")
+    private int batchMaxPackagesPerScenario;
+
+    @Value("${pricing.batch.max-total-packages:500}")
+    private int batchMaxTotalPackages;
+
+    private ThreadPoolTaskExecutor quoteExecutor;
+
     /**
      * Tính giá vận chuyển dựa trên weight, distance
      * Trả về explanation chi tiết - Sử dụng UnifiedPricingService để đảm bảo tính nhất quán
@@ -56,7 +75,8 @@ public class PriceCalculationService {
             log.info("🧮 AI Chatbot calculating price: weight={} kg, distance={} km", request.weight(), request.distance());
 
             // 1. Chọn loại xe phù hợp
-            SizeRuleEntity selectedVehicle = selectVehicleByWeight(request.weight());
+            PricingSnapshot pricing = pricingSnapshotService.current();
+            SizeRuleEntity selectedVehicle = selectVehicleByWeight(pricing, request.weight());
             if (selectedVehicle == null) {
                 return PriceEstimateResult.error("Trọng lượng vượt quá khả năng chở của hệ thống (max 10 tấn)");
             }
@@ -70,7 +90,7 @@ public class PriceCalculationService {
             if (request.categoryName() != null && !request.categoryName().equals("Hàng thông thường")) {
                 // Convert String to CategoryName enum for repository lookup
                 CategoryName categoryNameEnum = CategoryName.fromString(request.categoryName());
-                CategoryEntity category = categoryEntityService.findByCategoryName(categoryNameEnum).orElse(null);
+                CategoryEntity category = pricing.categoryByName(categoryNameEnum).orElse(null);
                 if (category != null) {
                     categoryId = category.getId();
                 } else {
@@ -80,6 +100,7 @@ public class PriceCalculationService {
 
             // 3. Sử dụng UnifiedPricingService để tính giá chính xác
             UnifiedPricingService.UnifiedPriceResult pricingResult = unifiedPricingService.calculatePrice(
+                    pricing,
                     selectedVehicle.getId(),
                     request.distance(),
                     1, // Calculate for 1 vehicle first, then multiply
@@ -97,6 +118,7 @@ public class PriceCalculationService {
 
             // 4. Build breakdown chi tiết cho AI chatbot
             StringBuilder breakdown = buildDetailedBreakdown(
+                    pricing,
                     selectedVehicle, 
                     request, 
                     numOfVehiclesNeeded, 
@@ -132,6 +154,12 @@ public class PriceCalculationService {
      */
     public AllVehiclePriceResult estimatePriceWithDimensions(BigDecimal weight, BigDecimal distance,
                                                            List<PackageInfo> packageInfo, String categoryName) {
+        return estimatePriceWithDimensions(weight, distance, packageInfo, categoryName, new QuoteMemo(pricingSnapshotService.current()));
+    }
+
+    private AllVehiclePriceResult estimatePriceWithDimensions(BigDecimal weight, BigDecimal distance,
+                                                            List<PackageInfo> packageInfo, String categoryName,
+                                                            QuoteMemo memo) {
         try {
             log.info("🧮 AI Chatbot calculating ACCURATE price with dimensions: weight={} kg, distance={} km, packages={}", 
                     weight, distance, packageInfo.size());
@@ -144,11 +172,11 @@ public class PriceCalculationService {
             log.info("🔍 DEBUG: Incoming category name: '{}'", categoryName);
             CategoryName categoryNameEnum = CategoryName.fromString(categoryName);
             log.info("🔍 DEBUG: Resolved CategoryName enum: '{}'", categoryNameEnum);
-            CategoryEntity category = categoryEntityService.findByCategoryName(categoryNameEnum)
+            CategoryEntity category = memo.pricing.categoryByName(categoryNameEnum)
                     .orElseThrow(() -> new RuntimeException("Category not found: " + categoryName));
             log.info("🔍 DEBUG: Found category entity - ID: '{}', Name: '{}'", category.getId(), category.getCategoryName());
             
-            List<SizeRuleEntity> allVehicles = sizeRuleService.findAllByCategoryId(category.getId())
+            List<SizeRuleEntity> allVehicles = memo.pricing.sizeRulesOfCategory(category.getId())
                     .stream()
                     .filter(rule -> "ACTIVE".equals(rule.getStatus()))
                     .sorted(Comparator.comparing(SizeRuleEntity::getMaxWeight))
@@ -165,20 +193,31 @@ public class PriceCalculationService {
             }
 
             // 3. Use BinPacker for realistic vehicle allocation
-            List<BinPacker.ContainerState> containers = BinPacker.pack(fakeDetails, allVehicles);
+            // Categories whose vehicles have the same capacities and sizes reuse one packing of the same packages
+            String packingKey = packingKey(allVehicles, packageInfo);
+            List<Integer> packedRules = memo.packings.get(packingKey);
+            if (packedRules == null) {
+                List<BinPacker.ContainerState> containers = BinPacker.packBest(fakeDetails, allVehicles, packingSearchBudgetMs);
+                packedRules = new ArrayList<>();
+                for (BinPacker.ContainerState container : containers) {
+                    if (container.placements.isEmpty()) continue;
+                    packedRules.add(indexOfRule(allVehicles, container.rule));
+                }
+                memo.packings.putIfAbsent(packingKey, packedRules);
+            }
 
             // 4. Calculate pricing for each vehicle
             List<AllVehiclePriceResult> results = new ArrayList<>();
             
-            for (BinPacker.ContainerState container : containers) {
-                if (container.placements.isEmpty()) continue;
+            for (int ruleIndex : packedRules) {
+                SizeRuleEntity rule = allVehicles.get(ruleIndex);
 
                 // Calculate price for this vehicle type
                 PriceEstimateRequest vehicleRequest = new PriceEstimateRequest(distance, 
-                        container.rule.getMaxWeight().multiply(BigDecimal.valueOf(1000)), 
+                        rule.getMaxWeight().multiply(BigDecimal.valueOf(1000)), 
                         null, categoryName);
                 
-                PriceEstimateResult result = estimatePriceForSpecificVehicle(vehicleRequest, container.rule);
+                PriceEstimateResult result = estimatePriceForSpecificVehicle(vehicleRequest, rule, memo);
                 
                 if (result.isSuccess()) {
                     results.add(AllVehiclePriceResult.success(
@@ -186,7 +225,7 @@ public class PriceCalculationService {
                             result.getVehicleType(),
                             result.getBreakdown(),
                             false, // No vehicle recommendation since we use BinPacker
-                            container.rule.getMaxWeight().doubleValue(),
+                            rule.getMaxWeight().doubleValue(),
                             categoryName
                     ));
                 }
@@ -235,7 +274,8 @@ public class PriceCalculationService {
     /**
      * Build detailed breakdown for AI chatbot response
      */
-    private StringBuilder buildDetailedBreakdown(SizeRuleEntity selectedVehicle, 
+    private StringBuilder buildDetailedBreakdown(PricingSnapshot pricing,
+                                               SizeRuleEntity selectedVehicle, 
                                                PriceEstimateRequest request,
                                                int numOfVehiclesNeeded,
                                                boolean needMultipleVehicles,
@@ -264,11 +304,11 @@ public class PriceCalculationService {
         breakdown.append("📊 **Chi tiết tính phí (1 xe):**\n\n");
 
         // Add distance tier breakdown (using existing logic for display)
-        addDistanceTierBreakdown(breakdown, selectedVehicle, request.distance());
+        addDistanceTierBreakdown(pricing, breakdown, selectedVehicle, request.distance());
 
         // Add category adjustment details
         if (categoryId != null) {
-            addCategoryAdjustmentBreakdown(breakdown, categoryId);
+            addCategoryAdjustmentBreakdown(pricing, breakdown, categoryId);
         }
 
         breakdown.append(String.format("\n💰 **TỔNG ƯỚC TÍNH (1 xe):** %,d VND\n", priceForOneVehicle.intValue()));
@@ -292,24 +332,22 @@ public class PriceCalculationService {
     /**
      * Add distance tier breakdown for display purposes
      */
-    private void addDistanceTierBreakdown(StringBuilder breakdown, SizeRuleEntity selectedVehicle, BigDecimal distance) {
-        List<DistanceRuleEntity> distanceRules = distanceRuleService.findAll()
-                .stream()
-                .sorted(Comparator.comparing(DistanceRuleEntity::getFromKm))
-                .toList();
+    private void addDistanceTierBreakdown(PricingSnapshot pricing, StringBuilder breakdown, SizeRuleEntity selectedVehicle,
+                                          BigDecimal distance) {
+        int vehicleIndex = pricing.sizeRuleIndex(selectedVehicle.getId());
+        if (vehicleIndex < 0) {
+            return;
+        }
 
         BigDecimal remainingDistance = distance;
 
-        for (DistanceRuleEntity distanceRule : distanceRules) {
+        for (int tier = 0; tier < pricing.tierCount(); tier++) {
             if (remainingDistance.compareTo(BigDecimal.ZERO) <= 0) break;
 
-            BigDecimal from = distanceRule.getFromKm();
-            BigDecimal to = distanceRule.getToKm();
+            BigDecimal from = pricing.tierFromKm(tier);
+            BigDecimal to = pricing.tierToKm(tier);
 
-            BasingPriceEntity basePrice = basingPriceService
-                    .findBasingPriceEntityBysizeRuleEntityIdAndDistanceRuleEntityId(
-                            selectedVehicle.getId(), distanceRule.getId())
-                    .orElse(null);
+            BigDecimal basePrice = pricing.basePrice(vehicleIndex, tier);
 
             if (basePrice == null) {
                 continue;
@@ -318,18 +356,18 @@ public class PriceCalculationService {
             // Fixed tier (0-4km)
             if (from.compareTo(BigDecimal.ZERO) == 0 && to.compareTo(BigDecimal.valueOf(4)) == 0) {
                 breakdown.append(String.format("- **0-4 km (cố định):** %,d VND\n",
-                        basePrice.getBasePrice().intValue()));
+                        basePrice.intValue()));
                 remainingDistance = remainingDistance.subtract(to);
             } else {
                 // Variable tier
                 BigDecimal tierDistance = (to == null) ? remainingDistance : remainingDistance.min(to.subtract(from));
-                BigDecimal tierPrice = basePrice.getBasePrice().multiply(tierDistance);
+                BigDecimal tierPrice = basePrice.multiply(tierDistance);
 
                 breakdown.append(String.format("- **%s-%s km:** %.1f km × %,d VND/km = %,d VND\n",
                         from.intValue(),
                         to == null ? from.intValue() + "+" : to.intValue(),
                         tierDistance.doubleValue(),
-                        basePrice.getBasePrice().intValue(),
+                        basePrice.intValue(),
                         tierPrice.intValue()));
 
                 remainingDistance = remainingDistance.subtract(tierDistance);
@@ -340,17 +378,12 @@ public class PriceCalculationService {
     /**
      * Add category adjustment breakdown for display purposes
      */
-    private void addCategoryAdjustmentBreakdown(StringBuilder breakdown, UUID categoryId) {
-        CategoryPricingDetailEntity pricingDetail = categoryPricingDetailService.findByCategoryId(categoryId);
-        if (pricingDetail != null) {
-            BigDecimal multiplier = pricingDetail.getPriceMultiplier() != null 
-                    ? pricingDetail.getPriceMultiplier() 
-                    : BigDecimal.ONE;
-            BigDecimal extraFee = pricingDetail.getExtraFee() != null 
-                    ? pricingDetail.getExtraFee() 
-                    : BigDecimal.ZERO;
-
-            CategoryEntity category = categoryEntityService.findEntityById(categoryId).orElse(null);
+    private void addCategoryAdjustmentBreakdown(PricingSnapshot pricing, StringBuilder breakdown, UUID categoryId) {
+        if (pricing.hasCategoryPricing(categoryId)) {
+            BigDecimal multiplier = pricing.categoryMultiplier(categoryId);
+            BigDecimal extraFee = pricing.categoryExtraFee(categoryId);
+
+            CategoryEntity category = pricing.category(categoryId).orElse(null);
             if (category != null) {
                 breakdown.append(String.format("\n📦 **Điều chỉnh loại hàng:** %s\n", category.getCategoryName().name()));
                 breakdown.append(String.format("- Hệ số: %.1fx\n", multiplier.doubleValue()));
@@ -364,11 +397,17 @@ public class PriceCalculationService {
      */
     public List<AllVehiclePriceResult> calculateAllVehiclesPriceWithDimensions(BigDecimal weight, BigDecimal distance,
                                                                              String categoryName, List<PackageInfo> packageInfo) {
+        return calculateAllVehiclesPriceWithDimensions(weight, distance, categoryName, packageInfo, new QuoteMemo(pricingSnapshotService.current()));
+    }
+
+    private List<AllVehiclePriceResult> calculateAllVehiclesPriceWithDimensions(BigDecimal weight, BigDecimal distance,
+                                                                              String categoryName, List<PackageInfo> packageInfo,
+                                                                              QuoteMemo memo) {
         try {
             log.info("🧮 Calculating ACCURATE pricing with dimensions for weight={}kg, distance={}km, packages={}", 
                     weight, distance, packageInfo.size());
 
-            List<CategoryEntity> allCategories = categoryEntityService.findAll();
+            List<CategoryEntity> allCategories = memo.pricing.categories();
             log.info("📦 Found {} categories in database", allCategories.size());
             
             List<AllVehiclePriceResult> results = new ArrayList<>();
@@ -377,7 +416,7 @@ public class PriceCalculationService {
             for (CategoryEntity category : allCategories) {
                 log.info("🏷️ Calculating for category: {}", category.getCategoryName().name());
                 
-                AllVehiclePriceResult result = estimatePriceWithDimensions(weight, distance, packageInfo, category.getCategoryName().name());
+                AllVehiclePriceResult result = estimatePriceWithDimensions(weight, distance, packageInfo, category.getCategoryName().name(), memo);
                 
                 if (result.isSuccess()) {
                     log.info("✅ Success for {}: Price {} VND", category.getCategoryName().name(), result.getEstimatedPrice());
@@ -399,9 +438,9 @@ public class PriceCalculationService {
     /**
      * Chọn xe phù hợp dựa trên trọng lượng (weight in KG, converts to tons for comparison)
      */
-    private SizeRuleEntity selectVehicleByWeight(BigDecimal weightInKg) {
+    private SizeRuleEntity selectVehicleByWeight(PricingSnapshot pricing, BigDecimal weightInKg) {
         BigDecimal weightInTons = weightInKg.divide(BigDecimal.valueOf(1000), 2, RoundingMode.HALF_UP);
-        List<SizeRuleEntity> vehicles = sizeRuleService.findAll().stream()
+        List<SizeRuleEntity> vehicles = pricing.sizeRules().stream()
                 .filter(v -> v.getMaxWeight().compareTo(weightInTons) >= 0)
                 .sorted(Comparator.comparing(v -> v.getMaxWeight().subtract(weightInTons)))
                 .toList();
@@ -436,6 +475,11 @@ public class PriceCalculationService {
      * Hỗ trợ multi-vehicle cho trọng lượng lớn (tối đa 50 tấn)
      */
     public List<AllVehiclePriceResult> calculateAllVehiclesPrice(BigDecimal weight, BigDecimal distance, String categoryName) {
+        return calculateAllVehiclesPrice(weight, distance, categoryName, new QuoteMemo(pricingSnapshotService.current()));
+    }
+
+    private List<AllVehiclePriceResult> calculateAllVehiclesPrice(BigDecimal weight, BigDecimal distance, String categoryName,
+                                                                  QuoteMemo memo) {
         log.info("🔍 calculateAllVehiclesPrice: weight={}kg, distance={}km", weight, distance);
         
         // CRITICAL: Database stores maxWeight in TONS, but input is in KG
@@ -466,11 +510,11 @@ public class PriceCalculationService {
         // Check if weight exceeds maximum single vehicle capacity (10 tons)
         BigDecimal maxSingleVehicleCapacity = BigDecimal.valueOf(10.0); // Max in database
         if (weightInTons.compareTo(maxSingleVehicleCapacity) > 0) {
-            return calculateMultiVehiclePricing(weight, distance, categoryName, weightInTons);
+            return calculateMultiVehiclePricing(weight, distance, categoryName, weightInTons, memo);
         }
         
         // Single vehicle logic for normal cases
-        SizeRuleEntity bestVehicle = selectVehicleByWeight(weight);
+        SizeRuleEntity bestVehicle = selectVehicleByWeight(memo.pricing, weight);
         
         if (bestVehicle == null) {
             log.warn("⚠️ No suitable vehicle found for weight {}kg", weight);
@@ -481,7 +525,7 @@ public class PriceCalculationService {
                 bestVehicle.getSizeRuleName(), bestVehicle.getMaxWeight());
         
         // Get ALL categories from database
-        List<CategoryEntity> allCategories = categoryEntityService.findAll();
+        List<CategoryEntity> allCategories = memo.pricing.categories();
         log.info("📦 Found {} categories in database", allCategories.size());
         
         List<AllVehiclePriceResult> results = new ArrayList<>();
@@ -491,7 +535,7 @@ public class PriceCalculationService {
             log.info("🏷️ Calculating for category: {}", category.getCategoryName().name());
             
             PriceEstimateRequest request = new PriceEstimateRequest(distance, weight, null, category.getCategoryName().name());
-            PriceEstimateResult result = estimatePriceForSpecificVehicle(request, bestVehicle);
+            PriceEstimateResult result = estimatePriceForSpecificVehicle(request, bestVehicle, memo);
             
             if (result.isSuccess()) {
                 log.info("✅ Success for {}: Price {} VND", category.getCategoryName().name(), result.getEstimatedPrice());
@@ -518,22 +562,22 @@ public class PriceCalculationService {
      * BR12 validation already handled in calculateAllVehiclesPrice
      */
     private List<AllVehiclePriceResult> calculateMultiVehiclePricing(BigDecimal weight, BigDecimal distance, 
-            String categoryName, BigDecimal weightInTons) {
+            String categoryName, BigDecimal weightInTons, QuoteMemo memo) {
         
         // Get all available vehicles for optimal allocation
-        List<SizeRuleEntity> allVehicles = sizeRuleService.findAll();
+        List<SizeRuleEntity> allVehicles = memo.pricing.sizeRules();
         if (allVehicles.isEmpty()) {
             return List.of(AllVehiclePriceResult.error("Không tìm thấy loại xe phù hợp"));
         }
         
         // Find optimal vehicle allocation
-        VehicleAllocation optimalAllocation = findOptimalVehicleAllocation(weight, distance, allVehicles);
+        VehicleAllocation optimalAllocation = findOptimalVehicleAllocation(memo.pricing, weight, distance, allVehicles);
         
         log.info("🚛 Optimal vehicle allocation: {} tấn → {}", 
                 weightInTons, optimalAllocation.getDescription());
         
         // Get all categories
-        List<CategoryEntity> allCategories = categoryEntityService.findAll();
+        List<CategoryEntity> allCategories = memo.pricing.categories();
         List<AllVehiclePriceResult> results = new ArrayList<>();
         
         // Calculate for each category
@@ -565,7 +609,7 @@ public class PriceCalculationService {
                             vehicle.getMaxWeight().multiply(BigDecimal.valueOf(1000)), 
                             null, category.getCategoryName().name());
                     
-                    PriceEstimateResult singleVehicleResult = estimatePriceForSpecificVehicle(request, vehicle);
+                    PriceEstimateResult singleVehicleResult = estimatePriceForSpecificVehicle(request, vehicle, memo);
                     
                     if (singleVehicleResult.isSuccess()) {
                         multiVehicleBreakdown.append(String.format("\n**%s:**\n", vehicle.getSizeRuleName()));
@@ -593,7 +637,7 @@ public class PriceCalculationService {
                         vehicle.getMaxWeight().multiply(BigDecimal.valueOf(1000)), // Use max capacity per vehicle
                         null, category.getCategoryName().name());
                 
-                PriceEstimateResult singleVehicleResult = estimatePriceForSpecificVehicle(request, vehicle);
+                PriceEstimateResult singleVehicleResult = estimatePriceForSpecificVehicle(request, vehicle, memo);
                 
                 if (singleVehicleResult.isSuccess()) {
                     BigDecimal vehicleTypePrice = BigDecimal.valueOf(singleVehicleResult.getEstimatedPrice()).multiply(BigDecimal.valueOf(count));
@@ -619,7 +663,7 @@ public class PriceCalculationService {
                     PriceEstimateRequest largestRequest = new PriceEstimateRequest(distance, 
                             largestVehicle.getMaxWeight().multiply(BigDecimal.valueOf(1000)), 
                             null, category.getCategoryName().name());
-                    PriceEstimateResult largestResult = estimatePriceForSpecificVehicle(largestRequest, largestVehicle);
+                    PriceEstimateResult largestResult = estimatePriceForSpecificVehicle(largestRequest, largestVehicle, memo);
                     
                     if (largestResult.isSuccess()) {
                         BigDecimal largestTotalPrice = BigDecimal.valueOf(largestResult.getEstimatedPrice()).multiply(BigDecimal.valueOf(vehiclesNeeded));
@@ -645,10 +689,28 @@ public class PriceCalculationService {
         return results;
     }
 
+    /**
+     * Same as estimatePriceForSpecificVehicle, but a vehicle/distance/weight/category already priced
+     * with this memo is not priced again (tiers are shared by every category and scenario of a quote)
+     */
+    private PriceEstimateResult estimatePriceForSpecificVehicle(PriceEstimateRequest request, SizeRuleEntity selectedVehicle,
+                                                                QuoteMemo memo) {
+        String key = selectedVehicle.getId() + "|" + request.distance().stripTrailingZeros().toPlainString()
+                + "|" + request.weight().stripTrailingZeros().toPlainString() + "|" + request.categoryName();
+        PriceEstimateResult cached = memo.vehicleQuotes.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        PriceEstimateResult result = estimatePriceForSpecificVehicle(memo.pricing, request, selectedVehicle);
+        memo.vehicleQuotes.putIfAbsent(key, result);
+        return result;
+    }
+
     /**
      * Tính giá cho một loại xe cụ thể - Sử dụng UnifiedPricingService để đảm bảo tính nhất quán
      */
-    private PriceEstimateResult estimatePriceForSpecificVehicle(PriceEstimateRequest request, SizeRuleEntity selectedVehicle) {
+    private PriceEstimateResult estimatePriceForSpecificVehicle(PricingSnapshot pricing, PriceEstimateRequest request,
+                                                                SizeRuleEntity selectedVehicle) {
         try {
             log.info("🧮 Calculating price for {}: weight={} kg, distance={} km", 
                     selectedVehicle.getSizeRuleName(), request.weight(), request.distance());
@@ -662,7 +724,7 @@ public class PriceCalculationService {
             if (request.categoryName() != null && !request.categoryName().equals("Hàng thông thường")) {
                 // Convert String to CategoryName enum for repository lookup
                 CategoryName categoryNameEnum = CategoryName.fromString(request.categoryName());
-                CategoryEntity category = categoryEntityService.findByCategoryName(categoryNameEnum).orElse(null);
+                CategoryEntity category = pricing.categoryByName(categoryNameEnum).orElse(null);
                 if (category != null) {
                     categoryId = category.getId();
                 }
@@ -670,6 +732,7 @@ public class PriceCalculationService {
 
             // 3. Sử dụng UnifiedPricingService để tính giá chính xác
             UnifiedPricingService.UnifiedPriceResult pricingResult = unifiedPricingService.calculatePrice(
+                    pricing,
                     selectedVehicle.getId(),
                     request.distance(),
                     numOfVehiclesNeeded, // Calculate for all vehicles at once
@@ -699,11 +762,11 @@ public class PriceCalculationService {
             breakdown.append("📊 **Chi tiết tính phí:**\n");
 
             // Add distance tier breakdown for display
-            addDistanceTierBreakdownSimple(breakdown, selectedVehicle, request.distance());
+            addDistanceTierBreakdownSimple(pricing, breakdown, selectedVehicle, request.distance());
 
             // Add category adjustment for display
             if (categoryId != null) {
-                addSimpleCategoryAdjustmentBreakdown(breakdown, request.categoryName());
+                addSimpleCategoryAdjustmentBreakdown(pricing, breakdown, request.categoryName());
             }
 
             if (needMultipleVehicles) {
@@ -730,24 +793,22 @@ public class PriceCalculationService {
     /**
      * Add simplified distance tier breakdown for specific vehicle display
      */
-    private void addDistanceTierBreakdownSimple(StringBuilder breakdown, SizeRuleEntity selectedVehicle, BigDecimal distance) {
-        List<DistanceRuleEntity> distanceRules = distanceRuleService.findAll()
-                .stream()
-                .sorted(Comparator.comparing(DistanceRuleEntity::getFromKm))
-                .toList();
+    private void addDistanceTierBreakdownSimple(PricingSnapshot pricing, StringBuilder breakdown, SizeRuleEntity selectedVehicle,
+                                                BigDecimal distance) {
+        int vehicleIndex = pricing.sizeRuleIndex(selectedVehicle.getId());
+        if (vehicleIndex < 0) {
+            return;
+        }
 
         BigDecimal remainingDistance = distance;
 
-        for (DistanceRuleEntity distanceRule : distanceRules) {
+        for (int tier = 0; tier < pricing.tierCount(); tier++) {
             if (remainingDistance.compareTo(BigDecimal.ZERO) <= 0) break;
 
-            BigDecimal from = distanceRule.getFromKm();
-            BigDecimal to = distanceRule.getToKm();
+            BigDecimal from = pricing.tierFromKm(tier);
+            BigDecimal to = pricing.tierToKm(tier);
 
-            BasingPriceEntity basePrice = basingPriceService
-                    .findBasingPriceEntityBysizeRuleEntityIdAndDistanceRuleEntityId(
-                            selectedVehicle.getId(), distanceRule.getId())
-                    .orElse(null);
+            BigDecimal basePrice = pricing.basePrice(vehicleIndex, tier);
 
             if (basePrice == null) {
                 continue;
@@ -756,18 +817,18 @@ public class PriceCalculationService {
             // Fixed tier (0-4km)
             if (from.compareTo(BigDecimal.ZERO) == 0 && to.compareTo(BigDecimal.valueOf(4)) == 0) {
                 breakdown.append(String.format("- 0-4 km: %,d VND\n",
-                        basePrice.getBasePrice().intValue()));
+                        basePrice.intValue()));
                 remainingDistance = remainingDistance.subtract(to);
             } else {
                 // Variable tier
                 BigDecimal tierDistance = (to == null) ? remainingDistance : remainingDistance.min(to.subtract(from));
-                BigDecimal tierPrice = basePrice.getBasePrice().multiply(tierDistance);
+                BigDecimal tierPrice = basePrice.multiply(tierDistance);
 
                 breakdown.append(String.format("- %s-%s km: %.1f km × %,d = %,d VND\n",
                         from.intValue(),
                         to == null ? from.intValue() + "+" : to.intValue(),
                         tierDistance.doubleValue(),
-                        basePrice.getBasePrice().intValue(),
+                        basePrice.intValue(),
                         tierPrice.intValue()));
 
                 remainingDistance = remainingDistance.subtract(tierDistance);
@@ -778,20 +839,15 @@ public class PriceCalculationService {
     /**
      * Add simplified category adjustment breakdown
      */
-    private void addSimpleCategoryAdjustmentBreakdown(StringBuilder breakdown, String categoryName) {
+    private void addSimpleCategoryAdjustmentBreakdown(PricingSnapshot pricing, StringBuilder breakdown, String categoryName) {
         if (categoryName != null && !categoryName.equals("Hàng thông thường")) {
             // Convert String to CategoryName enum for repository lookup
             CategoryName categoryNameEnum = CategoryName.fromString(categoryName);
-            CategoryEntity category = categoryEntityService.findByCategoryName(categoryNameEnum).orElse(null);
+            CategoryEntity category = pricing.categoryByName(categoryNameEnum).orElse(null);
             if (category != null) {
-                CategoryPricingDetailEntity pricingDetail = categoryPricingDetailService.findByCategoryId(category.getId());
-                if (pricingDetail != null) {
-                    BigDecimal multiplier = pricingDetail.getPriceMultiplier() != null 
-                            ? pricingDetail.getPriceMultiplier() 
-                            : BigDecimal.ONE;
-                    BigDecimal extraFee = pricingDetail.getExtraFee() != null 
-                            ? pricingDetail.getExtraFee() 
-                            : BigDecimal.ZERO;
+                if (pricing.hasCategoryPricing(category.getId())) {
+                    BigDecimal multiplier = pricing.categoryMultiplier(category.getId());
+                    BigDecimal extraFee = pricing.categoryExtraFee(category.getId());
                     
                     breakdown.append(String.format("- %s: ×%.1f + %,d VND\n", 
                             categoryName,
@@ -906,12 +962,12 @@ public class PriceCalculationService {
         }
     }
     
-    private VehicleAllocation findOptimalVehicleAllocation(BigDecimal totalWeight, BigDecimal distance, List<SizeRuleEntity> allVehicles) {
+    private VehicleAllocation findOptimalVehicleAllocation(PricingSnapshot pricing, BigDecimal totalWeight, BigDecimal distance, List<SizeRuleEntity> allVehicles) {
         List<SizeRuleEntity> sortedVehicles = allVehicles.stream()
                 .sorted(Comparator.comparing(SizeRuleEntity::getMaxWeight))
                 .toList();
 
-        Map<SizeRuleEntity, BigDecimal> vehicleCosts = calculateAllVehicleCosts(distance, sortedVehicles);
+        Map<SizeRuleEntity, BigDecimal> vehicleCosts = calculateAllVehicleCosts(pricing, distance, sortedVehicles);
 
         Map<BigDecimal, VehicleAllocation> dp = new HashMap<>();
         dp.put(BigDecimal.ZERO, new VehicleAllocation(new HashMap<>(), ""));
@@ -1202,10 +1258,10 @@ public class PriceCalculationService {
         return totalCost;
     }
 
-    private Map<SizeRuleEntity, BigDecimal> calculateAllVehicleCosts(BigDecimal distance, List<SizeRuleEntity> allVehicles) {
+    private Map<SizeRuleEntity, BigDecimal> calculateAllVehicleCosts(PricingSnapshot pricing, BigDecimal distance, List<SizeRuleEntity> allVehicles) {
         Map<SizeRuleEntity, BigDecimal> vehicleCosts = new HashMap<>();
         for (SizeRuleEntity vehicle : allVehicles) {
-            BigDecimal cost = calculateSingleVehiclePrice(vehicle, distance);
+            BigDecimal cost = calculateSingleVehiclePrice(pricing, vehicle, distance);
             if (cost != null) {
                 vehicleCosts.put(vehicle, cost);
             }
@@ -1213,7 +1269,7 @@ public class PriceCalculationService {
         return vehicleCosts;
     }
 
-    private BigDecimal calculateSingleVehiclePrice(SizeRuleEntity vehicle, BigDecimal distance) {
+    private BigDecimal calculateSingleVehiclePrice(PricingSnapshot pricing, SizeRuleEntity vehicle, BigDecimal distance) {
         try {
             PriceEstimateRequest request = new PriceEstimateRequest(
                     distance,
@@ -1221,7 +1277,7 @@ public class PriceCalculationService {
                     null,
                     null
             );
-            PriceEstimateResult result = estimatePriceForSpecificVehicle(request, vehicle);
+            PriceEstimateResult result = estimatePriceForSpecificVehicle(pricing, request, vehicle);
             if (!result.isSuccess() || result.getEstimatedPrice() == null) {
                 return null;
             }
@@ -1234,7 +1290,7 @@ public class PriceCalculationService {
     /**
      * Calculate total cost for a vehicle allocation (for final pricing with categories)
      */
-    private BigDecimal calculateTotalCost(VehicleAllocation allocation, BigDecimal distance) {
+    private BigDecimal calculateTotalCost(PricingSnapshot pricing, VehicleAllocation allocation, BigDecimal distance) {
         BigDecimal totalCost = BigDecimal.ZERO;
         
         for (Map.Entry<SizeRuleEntity, Integer> entry : allocation.getVehicleCounts().entrySet()) {
@@ -1243,6 +1299,7 @@ public class PriceCalculationService {
             
             // Calculate price for this vehicle type (without category adjustments for comparison)
             UnifiedPricingService.UnifiedPriceResult pricingResult = unifiedPricingService.calculatePrice(
+                    pricing,
                     vehicle.getId(),
                     distance,
                     count,
@@ -1269,6 +1326,139 @@ public class PriceCalculationService {
         return desc.toString();
     }
     
+    /**
+     * Prices every scenario of a batch in one pass. Scenarios run in parallel on the quote pool
+     * and share one memo, so a vehicle/distance/weight already priced for another category or scenario and
+     * a packing already found for vehicles of the same sizes are reused instead of computed again.
+     */
+    public BatchQuoteResult quoteScenarios(List<QuoteScenario> scenarios) {
+        if (scenarios.size() > batchMaxScenarios) {
+            throw new BadRequestException("Tối đa " + batchMaxScenarios + " kịch bản cho mỗi lần báo giá",
+                    ErrorEnum.INVALID.getErrorCode());
+        }
+        // Packing cost grows with the packages, so cap them per scenario and for the whole batch
+        int totalPackages = 0;
+        for (QuoteScenario scenario : scenarios) {
+            int packages = scenario.packages() == null ? 0 : scenario.packages().size();
+            if (packages > batchMaxPackagesPerScenario) {
+                throw new BadRequestException("Tối đa " + batchMaxPackagesPerScenario + " kiện hàng cho mỗi kịch bản",
+                        ErrorEnum.INVALID.getErrorCode());
+            }
+            totalPackages += packages;
+        }
+        if (totalPackages > batchMaxTotalPackages) {
+            throw new BadRequestException("Tối đa " + batchMaxTotalPackages + " kiện hàng cho mỗi lần báo giá",
+                    ErrorEnum.INVALID.getErrorCode());
+        }
+        // One snapshot for the whole batch: a rule reload half way through cannot mix old and new prices
+        QuoteMemo memo = new QuoteMemo(pricingSnapshotService.current());
+        long pricingVersion = memo.pricing.version();
+        long start = System.nanoTime();
+
+        List<CompletableFuture<List<AllVehiclePriceResult>>> futures = scenarios.stream()
+                .map(scenario -> CompletableFuture.supplyAsync(() -> quoteScenario(scenario, memo), quoteExecutor))
+                .toList();
+        List<List<AllVehiclePriceResult>> results = futures.stream().map(CompletableFuture::join).toList();
+
+        log.info("[PriceQuote] Priced {} scenarios on snapshot {} in {} ms ({} vehicle prices, {} packings)",
+                scenarios.size(), pricingVersion, (System.nanoTime() - start) / 1_000_000,
+                memo.vehicleQuotes.size(), memo.packings.size());
+        return new BatchQuoteResult(pricingVersion, results);
+    }
+
+    private List<AllVehiclePriceResult> quoteScenario(QuoteScenario scenario, QuoteMemo memo) {
+        try {
+            List<AllVehiclePriceResult> results = scenario.packages() != null && !scenario.packages().isEmpty()
+                    ? calculateAllVehiclesPriceWithDimensions(scenario.weight(), scenario.distance(),
+                            scenario.categoryName(), scenario.packages(), memo)
+                    : calculateAllVehiclesPrice(scenario.weight(), scenario.distance(), scenario.categoryName(), memo);
+            if (scenario.categoryName() == null || scenario.categoryName().isBlank()) {
+                return results;
+            }
+            // Only the requested category; errors (no category name) are kept so the caller sees why
+            String requested = CategoryName.fromString(scenario.categoryName()).name();
+            return results.stream()
+                    .filter(result -> result.getCategoryName() == null || requested.equals(result.getCategoryName()))
+                    .toList();
+        } catch (Exception e) {
+            log.error("[PriceQuote] Scenario failed: {}", e.getMessage());
+            return List.of(AllVehiclePriceResult.error("Lỗi tính giá: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Vehicle sizes of the category (in packing order) plus the packages: equal keys give the same packing
+     */
+    private static String packingKey(List<SizeRuleEntity> vehicles, List<PackageInfo> packages) {
+        StringBuilder key = new StringBuilder();
+        for (SizeRuleEntity rule : vehicles) {
+            key.append(plain(rule.getMaxWeight())).append('x').append(plain(rule.getMaxLength()))
+                    .append('x').append(plain(rule.getMaxWidth())).append('x').append(plain(rule.getMaxHeight())).append(';');
+        }
+        key.append('|');
+        for (PackageInfo pkg : packages) {
+            key.append(plain(pkg.weight)).append('x').append(plain(pkg.length))
+                    .append('x').append(plain(pkg.width)).append('x').append(plain(pkg.height)).append(';');
+        }
+        return key.toString();
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "-" : value.stripTrailingZeros().toPlainString();
+    }
+
+    private static int indexOfRule(List<SizeRuleEntity> vehicles, SizeRuleEntity rule) {
+        for (int i = 0; i < vehicles.size(); i++) {
+            if (vehicles.get(i) == rule || vehicles.get(i).getId().equals(rule.getId())) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Packed vehicle " + rule.getSizeRuleName() + " is not a vehicle of the category");
+    }
+
+    @PostConstruct
+    void startQuotePool() {
+        quoteExecutor = new ThreadPoolTaskExecutor();
+        quoteExecutor.setCorePoolSize(batchPoolSize);
+        quoteExecutor.setMaxPoolSize(batchPoolSize);
+        quoteExecutor.setQueueCapacity(batchQueueCapacity);
+        quoteExecutor.setThreadNamePrefix("price-quote-");
+        // When every worker is busy the requesting thread prices the scenario itself
+        quoteExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        quoteExecutor.initialize();
+    }
+
+    @PreDestroy
+    void stopQuotePool() {
+        quoteExecutor.shutdown();
+    }
+
+    /**
+     * Prices and packings computed while answering one request (or one batch) on one pricing snapshot;
+     * never outlives it, so it cannot serve prices of an older snapshot
+     */
+    private static class QuoteMemo {
+        final PricingSnapshot pricing;
+        final Map<String, PriceEstimateResult> vehicleQuotes = new ConcurrentHashMap<>();
+        final Map<String, List<Integer>> packings = new ConcurrentHashMap<>();
+
+        QuoteMemo(PricingSnapshot pricing) {
+            this.pricing = pricing;
+        }
+    }
+
+    /**
+     * One scenario of a batch quote; packages (weights in tons, sizes in meters) switch to dimension-based pricing
+     */
+    public record QuoteScenario(BigDecimal weight, BigDecimal distance, String categoryName, List<PackageInfo> packages) {
+    }
+
+    /**
+     * Results per scenario, in request order, with the version of the pricing snapshot when the batch started
+     */
+    public record BatchQuoteResult(long pricingVersion, List<List<AllVehiclePriceResult>> results) {
+    }
+
     /**
      * Package information holder for dimension-based pricing
      */
@@ -1,17 +1,10 @@
 package capstone_project.service.services.ai;
 
 import capstone_project.entity.order.order.CategoryEntity;
-import capstone_project.entity.order.order.CategoryPricingDetailEntity;
-import capstone_project.entity.pricing.BasingPriceEntity;
-import capstone_project.entity.pricing.DistanceRuleEntity;
 import capstone_project.entity.pricing.SizeRuleEntity;
 import capstone_project.entity.vehicle.VehicleTypeEntity;
-import capstone_project.repository.repositories.order.order.CategoryPricingDetailRepository;
-import capstone_project.repository.repositories.order.order.CategoryRepository;
-import capstone_project.repository.repositories.pricing.BasingPriceRepository;
-import capstone_project.repository.repositories.pricing.DistanceRuleRepository;
-import capstone_project.repository.repositories.pricing.SizeRuleRepository;
-import capstone_project.repository.repositories.vehicle.VehicleTypeRepository;
+import capstone_project.service.services.pricing.PricingSnapshot;
+import capstone_project.service.services.pricing.PricingSnapshotService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -27,18 +20,14 @@ import java.util.stream.Collectors;
 /**
  * Service to fetch and format real-time pricing data from database
  * This ensures AI chatbot always has up-to-date pricing information
+ * (read from the pricing snapshot, which is rebuilt whenever pricing data changes)
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PricingDataService {
 
-    private final VehicleTypeRepository vehicleTypeRepository;
-    private final CategoryRepository categoryRepository;
-    private final CategoryPricingDetailRepository categoryPricingDetailRepository;
-    private final DistanceRuleRepository distanceRuleRepository;
-    private final SizeRuleRepository sizeRuleRepository;
-    private final BasingPriceRepository basingPriceRepository;
+    private final PricingSnapshotService pricingSnapshotService;
     private final capstone_project.service.services.pricing.UnifiedPricingService unifiedPricingService;
 
     private static final NumberFormat VND_FORMAT = NumberFormat.getInstance(new Locale("vi", "VN"));
@@ -54,8 +43,9 @@ public class PricingDataService {
 
         // 1. Vehicle Types with Size Rules
         kb.append("## 🚛 Danh Sách Loại Xe (8 loại)\n\n");
-        List<VehicleTypeEntity> vehicles = vehicleTypeRepository.findAll();
-        List<SizeRuleEntity> sizeRules = sizeRuleRepository.findAll();
+        PricingSnapshot pricing = pricingSnapshotService.current();
+        List<VehicleTypeEntity> vehicles = pricing.vehicleTypes();
+        List<SizeRuleEntity> sizeRules = pricing.sizeRules();
         
         // Map vehicle types to their size rules
         Map<String, SizeRuleEntity> sizeRuleMap = sizeRules.stream()
@@ -151,11 +141,13 @@ public class PricingDataService {
                     ? sizeRule.getVehicleTypeEntity().getVehicleTypeName() 
                     : sizeRule.getSizeRuleName();
 
+            PricingSnapshot pricing = pricingSnapshotService.current();
+
             // Find category
-            CategoryEntity category = categoryRepository.findAll().stream()
+            CategoryEntity category = pricing.categories().stream()
                     .filter(c -> c.getCategoryName().name().equalsIgnoreCase(categoryName))
                     .findFirst()
-                    .orElse(categoryRepository.findAll().get(0)); // Default to first category
+                    .orElse(pricing.categories().get(0)); // Default to first category
 
             example.append(String.format("## Ví Dụ Tính Phí: %.1f tấn, %.0f km, %s\n\n",
                     weightTons, distanceKm, category.getCategoryName().name()));
@@ -192,19 +184,15 @@ public class PricingDataService {
                     VND_FORMAT.format(pricingResult.getBasePriceForOneVehicle())));
 
             // Display category adjustment
-            CategoryPricingDetailEntity categoryPrice = categoryPricingDetailRepository.findAll().stream()
-                    .filter(cp -> cp.getCategory().getId().equals(category.getId()))
-                    .findFirst()
-                    .orElse(null);
-
-            if (categoryPrice != null) {
+            if (pricing.hasCategoryPricing(category.getId())) {
+                BigDecimal extraFee = pricing.categoryExtraFee(category.getId());
                 example.append(String.format("3. **Điều chỉnh loại hàng** (%s):\n", category.getCategoryName().name()));
                 example.append(String.format("   - Hệ số nhân: ×%.2f\n",
-                        categoryPrice.getPriceMultiplier()
+                        pricing.categoryMultiplier(category.getId())
                 ));
-                if (categoryPrice.getExtraFee() != null && categoryPrice.getExtraFee().compareTo(BigDecimal.ZERO) > 0) {
+                if (extraFee.compareTo(BigDecimal.ZERO) > 0) {
                     example.append(String.format("   - Phụ phí: +%s VND\n",
-                            VND_FORMAT.format(categoryPrice.getExtraFee())
+                            VND_FORMAT.format(extraFee)
                     ));
                 }
                 example.append(String.format("   - Sau điều chỉnh: %s VND\n\n",
@@ -246,7 +234,7 @@ public class PricingDataService {
      * @return SizeRuleEntity phù hợp hoặc null nếu không tìm thấy
      */
     private SizeRuleEntity findSuitableVehicle(double weightTons) {
-        List<SizeRuleEntity> rules = sizeRuleRepository.findAll();
+        List<SizeRuleEntity> rules = pricingSnapshotService.current().sizeRules();
         
         // Filter active rules and sort by weight capacity
         rules = rules.stream()
@@ -277,17 +265,19 @@ public class PricingDataService {
         StringBuilder comparison = new StringBuilder();
         
         try {
+            PricingSnapshot pricing = pricingSnapshotService.current();
+
             // Find category
-            CategoryEntity category = categoryRepository.findAll().stream()
+            CategoryEntity category = pricing.categories().stream()
                     .filter(c -> c.getCategoryName().name().equalsIgnoreCase(categoryName))
                     .findFirst()
-                    .orElse(categoryRepository.findAll().get(0));
+                    .orElse(pricing.categories().get(0));
 
             comparison.append(String.format("## So Sánh Giá Xe: %.1f tấn, %.0f km, %s\n\n",
                     weightTons, distanceKm, category.getCategoryName().name()));
 
             // Get all suitable vehicles
-            List<SizeRuleEntity> suitableVehicles = sizeRuleRepository.findAll().stream()
+            List<SizeRuleEntity> suitableVehicles = pricing.sizeRules().stream()
                     .filter(r -> r.getMaxWeight() != null)
                     .filter(r -> r.getMaxWeight().doubleValue() >= weightTons)
                     .filter(r -> "ACTIVE".equalsIgnoreCase(r.getStatus()) || r.getStatus() == null)
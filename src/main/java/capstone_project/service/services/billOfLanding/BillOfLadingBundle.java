@@ -0,0 +1,18 @@
+package capstone_project.service.services.billOfLanding;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The waybill and per-trip dispatch orders of one order, planned but not yet rendered.
+ * Documents are rendered when the bundle is written, so it can be handed to a streaming response.
+ */
+public interface BillOfLadingBundle {
+
+    int documentCount();
+
+    /**
+     * Render the documents and write them as a ZIP archive, in plan order, without closing the stream
+     */
+    void writeZip(OutputStream out) throws IOException;
+}
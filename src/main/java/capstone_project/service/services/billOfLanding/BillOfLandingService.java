@@ -11,4 +11,5 @@ public interface BillOfLandingService {
     BillOfLandingResponse getBillOfLandingById(UUID contractId);
     List<BillOfLandingPreviewResponse> getBillOfLadingAndCargoManifestsPreview(UUID orderId);
     Map<String, byte[]> generateBillOfLadingAndCargoManifests(UUID orderId);
+    BillOfLadingBundle prepareBillOfLadingBundle(UUID orderId);
 }
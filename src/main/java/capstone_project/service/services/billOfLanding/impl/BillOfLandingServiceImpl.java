@@ -27,12 +27,12 @@ import capstone_project.service.mapper.order.OrderMapper;
 import capstone_project.service.mapper.user.CustomerMapper;
 import capstone_project.service.mapper.user.UserMapper;
 import capstone_project.service.mapper.vehicle.VehicleAssignmentMapper;
+import capstone_project.service.services.billOfLanding.BillOfLadingBundle;
 import capstone_project.service.services.billOfLanding.BillOfLandingService;
+import capstone_project.service.services.pdf.PdfArtifactCache;
+import capstone_project.service.services.pdf.PdfRenderingEngine;
 import capstone_project.service.services.setting.ContractSettingService;
-import com.itextpdf.io.font.PdfEncodings;
 import com.itextpdf.kernel.colors.ColorConstants;
-import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.kernel.geom.PageSize;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
@@ -47,27 +47,39 @@ import com.itextpdf.layout.properties.UnitValue;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
-import org.springframework.core.io.ClassPathResource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.itextpdf.barcodes.Barcode128;
 import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
 import com.itextpdf.layout.element.Image;
 import com.itextpdf.layout.properties.HorizontalAlignment;
 import com.itextpdf.layout.element.AreaBreak;
 import com.itextpdf.layout.properties.AreaBreakType;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Collection;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 @RequiredArgsConstructor
@@ -79,6 +91,8 @@ public class BillOfLandingServiceImpl implements BillOfLandingService {
     private final OrderDetailRepository orderDetailRepository;
     private final ContractSettingService contractSettingService;
     private final SealRepository sealRepository;
+    private final PdfRenderingEngine pdfRenderingEngine;
+    private final PdfArtifactCache pdfArtifactCache;
 
     private final CustomerMapper customerMapper;
     private final OrderMapper orderMapper;
@@ -87,6 +101,16 @@ public class BillOfLandingServiceImpl implements BillOfLandingService {
 
     private final String BILL_OF_LANDING_PREFIX = "VN-TRUCKIE-";
     private final OrderRepository orderRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${bill-of-lading.render.pool-size:4}")
+    private int renderPoolSize;
+
+    @Value("${bill-of-lading.render.queue-capacity:100}")
+    private int renderQueueCapacity;
+
+    private ThreadPoolTaskExecutor renderExecutor;
+    private TransactionTemplate readOnlyTransaction;
     private static final int MAX_CARGO_ROWS_PER_PAGE = 12;
 
     @Override
@@ -150,71 +174,239 @@ public class BillOfLandingServiceImpl implements BillOfLandingService {
 
     @Override
     public Map<String, byte[]> generateBillOfLadingAndCargoManifests(UUID orderId) {
-        OrderEntity order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new NotFoundException("Order not found", ErrorEnum.NOT_FOUND.getErrorCode()));
+        Map<String, byte[]> result = new LinkedHashMap<>();
+        try {
+            renderInOrder(planDocuments(orderId), result::put);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
 
-        List<OrderDetailEntity> orderDetails = Optional.ofNullable(order.getOrderDetailEntities())
-                .orElse(Collections.emptyList());
+    @Override
+    public BillOfLadingBundle prepareBillOfLadingBundle(UUID orderId) {
+        List<PlannedDocument> documents = planDocuments(orderId);
+        return new BillOfLadingBundle() {
+            @Override
+            public int documentCount() {
+                return documents.size();
+            }
 
-        // Collect all unique vehicle assignments for this order
-        List<VehicleAssignmentEntity> vehicleAssignments = orderDetails.stream()
-                .map(OrderDetailEntity::getVehicleAssignmentEntity)
-                .filter(Objects::nonNull)
-                .distinct()
-                .toList();
+            @Override
+            public void writeZip(OutputStream out) throws IOException {
+                ZipOutputStream zos = new ZipOutputStream(out);
+                renderInOrder(documents, (fileName, content) -> {
+                    zos.putNextEntry(new ZipEntry(fileName));
+                    zos.write(content);
+                    zos.closeEntry();
+                    // push each finished document to the client instead of buffering the archive
+                    zos.flush();
+                });
+                zos.finish();
+            }
+        };
+    }
 
-        String orderCode = order.getOrderCode() != null ? order.getOrderCode() : order.getId().toString();
-        String dateStr = new SimpleDateFormat("yyyyMMdd").format(new Date());
+    @PostConstruct
+    void startRenderPool() {
+        renderExecutor = new ThreadPoolTaskExecutor();
+        renderExecutor.setCorePoolSize(renderPoolSize);
+        renderExecutor.setMaxPoolSize(renderPoolSize);
+        renderExecutor.setQueueCapacity(renderQueueCapacity);
+        renderExecutor.setThreadNamePrefix("bol-render-");
+        // When every worker is busy the requesting thread renders the document itself
+        renderExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        renderExecutor.initialize();
+
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        log.info("[BillOfLading] Render pool started with {} threads", renderPoolSize);
+    }
 
-        Map<String, byte[]> result = new HashMap<>();
+    @PreDestroy
+    void stopRenderPool() {
+        renderExecutor.shutdown();
+    }
+
+    /**
+     * File names and trips of the bundle: the main waybill first, then one dispatch order per vehicle assignment
+     */
+    private List<PlannedDocument> planDocuments(UUID orderId) {
+        return readOnlyTransaction.execute(status -> {
+            OrderEntity order = findOrder(orderId);
+            List<VehicleAssignmentEntity> vehicleAssignments = collectVehicleAssignments(collectOrderDetails(order));
+
+            String orderCode = order.getOrderCode() != null ? order.getOrderCode() : order.getId().toString();
+            String dateStr = new SimpleDateFormat("yyyyMMdd").format(new Date());
+
+            List<PlannedDocument> documents = new ArrayList<>();
+            // 1. Main waybill (one file, contains all order details + list of trips)
+            documents.add(new PlannedDocument(String.format("van-don-%s-%s.pdf", orderCode, dateStr), orderId, null));
 
-        // 1. Generate main waybill PDF (one file, contains all order details + list of trips)
-        String waybillFileName = String.format("van-don-%s-%s.pdf", orderCode, dateStr);
-        byte[] waybillPdf = generateMainWaybillPdf(order, orderDetails, vehicleAssignments);
-        result.put(waybillFileName, waybillPdf);
+            // 2. Dispatch order & cargo manifest for each trip
+            for (int i = 0; i < vehicleAssignments.size(); i++) {
+                String tripIndex = String.format("TRIP%02d", i + 1);
+                String dispatchOrderFileName = String.format("lenh-dieu-dong-%s-%s-%s.pdf", orderCode, tripIndex, dateStr);
+                documents.add(new PlannedDocument(dispatchOrderFileName, orderId, vehicleAssignments.get(i).getId()));
+            }
+            return documents;
+        });
+    }
+
+    /**
+     * Render the documents on the render pool and hand them to the sink in plan order.
+     * At most twice the pool size is rendered ahead of the sink, which bounds the memory of large bundles
+     */
+    private void renderInOrder(List<PlannedDocument> documents, DocumentSink sink) throws IOException {
+        int window = Math.max(1, renderPoolSize * 2);
+        Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+        int submitted = 0;
+        try {
+            for (PlannedDocument document : documents) {
+                while (submitted < documents.size() && inFlight.size() < window) {
+                    PlannedDocument next = documents.get(submitted++);
+                    inFlight.add(renderExecutor.submit(() -> renderDocument(next)));
+                }
+                byte[] content = awaitDocument(inFlight.poll(), document);
+                sink.accept(document.fileName(), content != null ? content : new byte[0]);
+            }
+        } finally {
+            // Client went away or a document failed; documents still queued are not rendered
+            inFlight.forEach(future -> future.cancel(false));
+        }
+    }
 
-        // 2. Generate dispatch order & cargo manifest for each trip
-        for (int i = 0; i < vehicleAssignments.size(); i++) {
-            VehicleAssignmentEntity assignment = vehicleAssignments.get(i);
-            String tripIndex = String.format("TRIP%02d", i + 1);
-            String assignmentTracking = assignment.getTrackingCode() != null ? assignment.getTrackingCode() :
-                    (assignment.getVehicleEntity() != null ? assignment.getVehicleEntity().getLicensePlateNumber() : "NA");
+    /**
+     * Runs on a render thread, so the order graph is loaded in its own read-only transaction.
+     * Documents whose inputs did not change since the last render are read from the artifact cache
+     */
+    private byte[] renderDocument(PlannedDocument document) {
+        return readOnlyTransaction.execute(status -> {
+            OrderEntity order = findOrder(document.orderId());
+            List<OrderDetailEntity> orderDetails = collectOrderDetails(order);
+            List<VehicleAssignmentEntity> vehicleAssignments = collectVehicleAssignments(orderDetails);
+
+            if (document.vehicleAssignmentId() == null) {
+                String key = documentKey(document, order, orderDetails, vehicleAssignments);
+                return pdfArtifactCache.getOrRender(order.getId(), key,
+                        () -> generateMainWaybillPdf(order, orderDetails, vehicleAssignments));
+            }
+
+            VehicleAssignmentEntity assignment = vehicleAssignments.stream()
+                    .filter(va -> document.vehicleAssignmentId().equals(va.getId()))
+                    .findFirst()
+                    .orElseThrow(() -> new NotFoundException(
+                            "Vehicle assignment not found with id: " + document.vehicleAssignmentId(),
+                            ErrorEnum.NOT_FOUND.getErrorCode()));
             List<OrderDetailEntity> detailsForTrip = orderDetails.stream()
                     .filter(od -> assignment.equals(od.getVehicleAssignmentEntity()))
                     .toList();
+            String key = documentKey(document, order, orderDetails, List.of(assignment));
+            return pdfArtifactCache.getOrRender(order.getId(), key,
+                    () -> generateDispatchOrderAndManifestPdf(order, assignment, detailsForTrip));
+        });
+    }
 
-            String dispatchOrderFileName = String.format("lenh-dieu-dong-%s-%s-%s.pdf", orderCode, tripIndex, dateStr);
-            byte[] dispatchOrderPdf = generateDispatchOrderAndManifestPdf(order, assignment, detailsForTrip);
-            result.put(dispatchOrderFileName, dispatchOrderPdf);
+    /**
+     * Cache key over what the waybill and dispatch orders print: order, contract, details, trips, seals and settings.
+     * The file name carries the order code, trip number and issue date
+     */
+    private String documentKey(PlannedDocument document, OrderEntity order,
+                               List<OrderDetailEntity> orderDetails, List<VehicleAssignmentEntity> assignments) {
+        List<Object> parts = new ArrayList<>();
+        parts.add(document.fileName());
+        parts.add(order.getId());
+        parts.add(order.getModifiedAt());
+        parts.add(order.getStatus());
+
+        contractEntityService.getContractByOrderId(order.getId()).ifPresent(contract -> {
+            parts.add(contract.getId());
+            parts.add(contract.getModifiedAt());
+            parts.add(contract.getStatus());
+        });
+
+        orderDetails.stream()
+                .sorted(Comparator.comparing(OrderDetailEntity::getId))
+                .forEach(od -> {
+                    parts.add(od.getId());
+                    parts.add(od.getModifiedAt());
+                    parts.add(od.getStatus());
+                    parts.add(od.getVehicleAssignmentEntity() != null ? od.getVehicleAssignmentEntity().getId() : null);
+                });
+
+        for (VehicleAssignmentEntity assignment : assignments) {
+            parts.add(assignment.getId());
+            parts.add(assignment.getModifiedAt());
+            parts.add(assignment.getStatus());
+            parts.add(assignment.getVehicleEntity() != null ? assignment.getVehicleEntity().getId() : null);
+            parts.add(assignment.getDriver1() != null ? assignment.getDriver1().getId() : null);
+            parts.add(assignment.getDriver2() != null ? assignment.getDriver2().getId() : null);
         }
 
-        return result;
+        if (document.vehicleAssignmentId() != null) {
+            for (SealEntity seal : sealRepository.findByVehicleAssignment(assignments.get(0))) {
+                parts.add(seal.getId());
+                parts.add(seal.getModifiedAt());
+                parts.add(seal.getStatus());
+            }
+        }
+
+        parts.add(contractSettingService.getLatestContractSetting());
+        return PdfArtifactCache.key(parts.toArray());
+    }
+
+    private byte[] awaitDocument(Future<byte[]> future, PlannedDocument document) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering " + document.fileName());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Failed to render " + document.fileName(), e.getCause());
+        }
+    }
+
+    private OrderEntity findOrder(UUID orderId) {
+        return orderRepository.findById(orderId)
+                .orElseThrow(() -> new NotFoundException("Order not found", ErrorEnum.NOT_FOUND.getErrorCode()));
+    }
+
+    private List<OrderDetailEntity> collectOrderDetails(OrderEntity order) {
+        return Optional.ofNullable(order.getOrderDetailEntities())
+                .orElse(Collections.emptyList());
+    }
+
+    // Collect all unique vehicle assignments for this order
+    private List<VehicleAssignmentEntity> collectVehicleAssignments(List<OrderDetailEntity> orderDetails) {
+        return orderDetails.stream()
+                .map(OrderDetailEntity::getVehicleAssignmentEntity)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+    }
+
+    private record PlannedDocument(String fileName, UUID orderId, UUID vehicleAssignmentId) {
+    }
+
+    @FunctionalInterface
+    private interface DocumentSink {
+        void accept(String fileName, byte[] content) throws IOException;
     }
 
     private byte[] generateMainWaybillPdf(OrderEntity order, List<OrderDetailEntity> orderDetails, List<VehicleAssignmentEntity> vehicleAssignments) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
+        try (PdfRenderingEngine.PdfOutputBuffer baos = pdfRenderingEngine.openOutput()) {
+            PdfWriter writer = new PdfWriter(baos.stream());
             PdfDocument pdf = new PdfDocument(writer);
             Document document = new Document(pdf, PageSize.A4);
             // slightly smaller margins to help fit content into two pages
             document.setMargins(20, 20, 18, 20);
 
             // Set font for Vietnamese text and apply standard base font size
-            PdfFont font;
-            try {
-                byte[] fontBytes = new ClassPathResource("/fonts/DejaVuSans.ttf").getInputStream().readAllBytes();
-                com.itextpdf.io.font.FontProgram fontProgram =
-                        com.itextpdf.io.font.FontProgramFactory.createFont(fontBytes);
-                font = PdfFontFactory.createFont(fontProgram, PdfEncodings.IDENTITY_H,
-                        com.itextpdf.kernel.font.PdfFontFactory.EmbeddingStrategy.FORCE_EMBEDDED);
-                document.setFont(font);
-                new PdfUtil().applyStandardBaseFontSize(document);
-            } catch (IOException e) {
-                log.error("Error loading font: {}", e.getMessage());
-                font = PdfFontFactory.createFont();
-                document.setFont(font);
-                new PdfUtil().applyStandardBaseFontSize(document);
-            }
+            document.setFont(pdfRenderingEngine.createDocumentFont());
+            new PdfUtil().applyStandardBaseFontSize(document);
 
             String orderCode = order.getOrderCode() != null ? order.getOrderCode() : order.getId().toString();
             String dateStr = new SimpleDateFormat("yyyyMMdd").format(new Date());
@@ -279,27 +471,14 @@ public class BillOfLandingServiceImpl implements BillOfLandingService {
     }
 
     private byte[] generateCargoManifestPdf(OrderEntity order, VehicleAssignmentEntity assignment, List<OrderDetailEntity> detailsForTrip) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
+        try (PdfRenderingEngine.PdfOutputBuffer baos = pdfRenderingEngine.openOutput()) {
+            PdfWriter writer = new PdfWriter(baos.stream());
             PdfDocument pdf = new PdfDocument(writer);
             Document document = new Document(pdf, PageSize.A4);
             document.setMargins(20, 20, 18, 20);
 
-            PdfFont font;
-            try {
-                byte[] fontBytes = new ClassPathResource("/fonts/DejaVuSans.ttf").getInputStream().readAllBytes();
-                com.itextpdf.io.font.FontProgram fontProgram =
-                        com.itextpdf.io.font.FontProgramFactory.createFont(fontBytes);
-                font = PdfFontFactory.createFont(fontProgram, PdfEncodings.IDENTITY_H,
-                        com.itextpdf.kernel.font.PdfFontFactory.EmbeddingStrategy.FORCE_EMBEDDED);
-                document.setFont(font);
-                new PdfUtil().applyStandardBaseFontSize(document);
-            } catch (IOException e) {
-                log.error("Error loading font: {}", e.getMessage());
-                font = PdfFontFactory.createFont();
-                document.setFont(font);
-                new PdfUtil().applyStandardBaseFontSize(document);
-            }
+            document.setFont(pdfRenderingEngine.createDocumentFont());
+            new PdfUtil().applyStandardBaseFontSize(document);
 
             String orderCode = order != null && order.getOrderCode() != null ? order.getOrderCode() : (order != null ? String.valueOf(order.getId()) : "NA");
             String dateStr = new SimpleDateFormat("yyyyMMdd").format(new Date());
@@ -1285,27 +1464,14 @@ public class BillOfLandingServiceImpl implements BillOfLandingService {
     }
 
     private byte[] generateDispatchOrderAndManifestPdf(OrderEntity order, VehicleAssignmentEntity assignment, List<OrderDetailEntity> detailsForTrip) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
+        try (PdfRenderingEngine.PdfOutputBuffer baos = pdfRenderingEngine.openOutput()) {
+            PdfWriter writer = new PdfWriter(baos.stream());
             PdfDocument pdf = new PdfDocument(writer);
             Document document = new Document(pdf, PageSize.A4);
             document.setMargins(20, 20, 18, 20);
 
-            PdfFont font;
-            try {
-                byte[] fontBytes = new ClassPathResource("/fonts/DejaVuSans.ttf").getInputStream().readAllBytes();
-                com.itextpdf.io.font.FontProgram fontProgram =
-                        com.itextpdf.io.font.FontProgramFactory.createFont(fontBytes);
-                font = PdfFontFactory.createFont(fontProgram, PdfEncodings.IDENTITY_H,
-                        com.itextpdf.kernel.font.PdfFontFactory.EmbeddingStrategy.FORCE_EMBEDDED);
-                document.setFont(font);
-                new PdfUtil().applyStandardBaseFontSize(document);
-            } catch (IOException e) {
-                log.error("Error loading font: {}", e.getMessage());
-                font = PdfFontFactory.createFont();
-                document.setFont(font);
-                new PdfUtil().applyStandardBaseFontSize(document);
-            }
+            document.setFont(pdfRenderingEngine.createDocumentFont());
+            new PdfUtil().applyStandardBaseFontSize(document);
 
             String orderCode = order != null && order.getOrderCode() != null ? order.getOrderCode() : (order != null ? String.valueOf(order.getId()) : "NA");
             String dateStr = new SimpleDateFormat("yyyyMMdd").format(new Date());
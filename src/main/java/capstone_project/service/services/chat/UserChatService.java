@@ -7,9 +7,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service interface for user-to-user chat functionality
@@ -88,7 +88,7 @@ public interface UserChatService {
     /**
      * Upload chat image
      */
-    String uploadChatImage(MultipartFile file, UUID conversationId) throws IOException;
+    CompletableFuture<String> uploadChatImage(MultipartFile file, UUID conversationId);
     
     /**
      * Search messages in conversation
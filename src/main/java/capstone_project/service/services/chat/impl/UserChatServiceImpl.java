@@ -23,7 +23,7 @@ import capstone_project.repository.repositories.vehicle.VehicleAssignmentReposit
 import capstone_project.repository.repositories.user.CustomerRepository;
 import capstone_project.repository.repositories.user.DriverRepository;
 import capstone_project.service.services.chat.UserChatService;
-import capstone_project.service.services.cloudinary.CloudinaryService;
+import capstone_project.service.services.cloudinary.ImageUploadPipeline;
 import capstone_project.service.rateLimit.RateLimitService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -35,9 +35,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -60,7 +60,7 @@ public class UserChatServiceImpl implements UserChatService {
     private final capstone_project.repository.repositories.order.order.OrderDetailRepository orderDetailRepository;
     private final capstone_project.repository.repositories.issue.IssueRepository issueRepository;
     private final capstone_project.repository.repositories.user.PenaltyHistoryRepository penaltyHistoryRepository;
-    private final CloudinaryService cloudinaryService;
+    private final ImageUploadPipeline imageUploadPipeline;
     private final SimpMessagingTemplate messagingTemplate;
     private final RateLimitService rateLimitService;
     
@@ -483,17 +483,16 @@ public class UserChatServiceImpl implements UserChatService {
     }
     
     @Override
-    public String uploadChatImage(MultipartFile file, UUID conversationId) throws IOException {
+    public CompletableFuture<String> uploadChatImage(MultipartFile file, UUID conversationId) {
         log.info("Uploading chat image for conversation: {}", conversationId);
         
-        byte[] fileBytes = file.getBytes();
         String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
         
-        Map<String, Object> uploadResult = cloudinaryService.uploadFile(fileBytes, fileName, "chat_images");
-        String imageUrl = (String) uploadResult.get("secure_url");
-        
-        log.info("Image uploaded successfully: {}", imageUrl);
-        return imageUrl;
+        return imageUploadPipeline.upload(file, fileName, "chat_images")
+                .thenApply(imageUrl -> {
+                    log.info("Image uploaded successfully: {}", imageUrl);
+                    return imageUrl;
+                });
     }
     
     @Override
@@ -0,0 +1,230 @@
+package capstone_project.service.services.cloudinary;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import org.springframework.core.io.InputStreamSource;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Downscales and re-encodes phone photos before they are uploaded.
+ * Images are decoded straight from the file's stream with source subsampling, so a 12 MP photo is neither
+ * held in memory as bytes nor decoded into a full-size bitmap.
+ * EXIF orientation is applied to the pixels because re-encoding drops the EXIF block.
+ * Anything that is not a still JPEG/PNG/BMP (PDF, GIF, HEIC, ...) is passed through untouched;
+ * only such pass-through files are read into memory, since Cloudinary is given the bytes to upload.
+ */
+final class ImageOptimizer {
+
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
+    // The EXIF APP1 segment sits at the start of a JPEG and is at most 64 KB
+    private static final int HEADER_BYTES = 64 * 1024;
+
+    private ImageOptimizer() {
+    }
+
+    record OptimizedImage(byte[] content, String extension, boolean reencoded, long originalBytes) {
+    }
+
+    /**
+     * @param source file to optimize, opened once for decoding and once more only when it is passed through
+     * @param size   size of the file in bytes
+     */
+    static OptimizedImage optimize(InputStreamSource source, long size, int maxDimension, float jpegQuality,
+                                   int passThroughBytes) throws IOException {
+        try (InputStream in = new BufferedInputStream(source.getInputStream(), HEADER_BYTES)) {
+            OptimizedImage optimized = reencode(in, size, maxDimension, jpegQuality, passThroughBytes);
+            if (optimized != null) {
+                return optimized;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Corrupt or unusual image: upload what the client sent
+        }
+        try (InputStream in = source.getInputStream()) {
+            byte[] original = in.readAllBytes();
+            return new OptimizedImage(original, null, false, original.length);
+        }
+    }
+
+    /**
+     * Downscaled and re-encoded image, or null when the file should be uploaded as it is
+     */
+    private static OptimizedImage reencode(InputStream in, long size, int maxDimension, float jpegQuality,
+                                           int passThroughBytes) throws IOException {
+        in.mark(HEADER_BYTES);
+        byte[] header = in.readNBytes(HEADER_BYTES);
+        in.reset();
+
+        // Read forward only, so the stream cache drops what the decoder has consumed
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                String format = reader.getFormatName().toLowerCase();
+                if (!format.equals("jpeg") && !format.equals("png") && !format.equals("bmp")) {
+                    return null;
+                }
+
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int orientation = format.equals("jpeg") ? exifOrientation(header) : 1;
+                int longestSide = Math.max(width, height);
+                if (longestSide <= maxDimension && orientation == 1 && size <= passThroughBytes) {
+                    return null;
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, longestSide / maxDimension);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                BufferedImage upright = scaleAndOrient(decoded, maxDimension, orientation);
+                boolean alpha = upright.getColorModel().hasAlpha();
+                byte[] encoded = alpha ? encodePng(upright) : encodeJpeg(upright, jpegQuality);
+
+                // Already small, upright images are kept when re-encoding does not help
+                if (encoded.length >= size && orientation == 1 && longestSide <= maxDimension) {
+                    return null;
+                }
+                return new OptimizedImage(encoded, alpha ? "png" : "jpg", true, size);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scaleAndOrient(BufferedImage source, int maxDimension, int orientation) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        boolean swap = orientation >= 5 && orientation <= 8;
+
+        boolean alpha = source.getColorModel().hasAlpha();
+        BufferedImage target = new BufferedImage(swap ? height : width, swap ? width : height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (!alpha) {
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, target.getWidth(), target.getHeight());
+            }
+            g.setTransform(orientationTransform(orientation, width, height));
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Maps the stored image (width x height) to its upright position, see the EXIF orientation values 1-8
+     */
+    private static AffineTransform orientationTransform(int orientation, int width, int height) {
+        return switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, width);
+            default -> new AffineTransform();
+        };
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Orientation from the EXIF APP1 segment of a JPEG, 1 (upright) when missing
+     */
+    static int exifOrientation(byte[] jpeg) {
+        int pos = 2;
+        while (pos + 4 <= jpeg.length && (jpeg[pos] & 0xFF) == 0xFF) {
+            int marker = jpeg[pos + 1] & 0xFF;
+            int length = ((jpeg[pos + 2] & 0xFF) << 8) | (jpeg[pos + 3] & 0xFF);
+            if (marker == 0xDA || length < 2) {
+                break;
+            }
+            int segment = pos + 4;
+            if (marker == 0xE1 && segment + 14 <= jpeg.length
+                    && jpeg[segment] == 'E' && jpeg[segment + 1] == 'x' && jpeg[segment + 2] == 'i' && jpeg[segment + 3] == 'f') {
+                return readOrientation(jpeg, segment + 6, Math.min(jpeg.length, pos + 2 + length));
+            }
+            pos += 2 + length;
+        }
+        return 1;
+    }
+
+    private static int readOrientation(byte[] data, int tiff, int end) {
+        boolean littleEndian = data[tiff] == 'I';
+        int ifd = tiff + readInt(data, tiff + 4, littleEndian);
+        if (ifd + 2 > end) {
+            return 1;
+        }
+        int entries = readShort(data, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (readShort(data, entry, littleEndian) == EXIF_ORIENTATION_TAG) {
+                int value = readShort(data, entry + 8, littleEndian);
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean littleEndian) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return littleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private static int readInt(byte[] data, int offset, boolean littleEndian) {
+        int high = readShort(data, littleEndian ? offset + 2 : offset, littleEndian);
+        int low = readShort(data, littleEndian ? offset : offset + 2, littleEndian);
+        return (high << 16) | low;
+    }
+}
@@ -0,0 +1,167 @@
+package capstone_project.service.services.cloudinary;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uploads images (odometer, seal, damage, chat, packing and completion photos) to Cloudinary off the request thread.
+ * Each file is read from its stream, downscaled and re-encoded, then uploaded on a bounded pool,
+ * so several files of one request upload in parallel and nothing waits on Cloudinary while holding a transaction.
+ * Callers attach the URL when the returned future completes; a multipart file must stay readable until then,
+ * which holds for async controller results and for callers that {@link #await} the future.
+ */
+@Service
+@Slf4j
+public class ImageUploadPipeline {
+
+    private static final String SECURE_URL = "secure_url";
+
+    private final CloudinaryService cloudinaryService;
+    private final ThreadPoolTaskExecutor uploadExecutor;
+    private final Timer uploadTimer;
+    private final Counter savedBytes;
+
+    // Tasks keep the security context of the request that submitted them
+    private final Executor executor;
+
+    @Value("${image.upload.max-dimension:1920}")
+    private int maxDimension;
+
+    @Value("${image.upload.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    @Value("${image.upload.pass-through-bytes:307200}")
+    private int passThroughBytes;
+
+    public ImageUploadPipeline(CloudinaryService cloudinaryService,
+                               MeterRegistry meterRegistry,
+                               @Value("${image.upload.pool-size:8}") int poolSize,
+                               @Value("${image.upload.queue-capacity:200}") int queueCapacity) {
+        this.cloudinaryService = cloudinaryService;
+
+        uploadExecutor = new ThreadPoolTaskExecutor();
+        uploadExecutor.setCorePoolSize(poolSize);
+        uploadExecutor.setMaxPoolSize(poolSize);
+        uploadExecutor.setQueueCapacity(queueCapacity);
+        uploadExecutor.setThreadNamePrefix("image-upload-");
+        // A full queue pushes the upload back onto the caller instead of failing the request
+        uploadExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        uploadExecutor.initialize();
+        this.executor = task -> uploadExecutor.execute(new DelegatingSecurityContextRunnable(task));
+
+        this.uploadTimer = Timer.builder("image.upload.duration")
+                .description("Time to optimize and upload one image to Cloudinary")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.savedBytes = Counter.builder("image.upload.saved.bytes")
+                .description("Bytes removed by downscaling and re-encoding before upload")
+                .register(meterRegistry);
+        Gauge.builder("image.upload.queue.size", uploadExecutor, ThreadPoolTaskExecutor::getQueueSize)
+                .description("Images waiting for an upload thread")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+    }
+
+    /**
+     * Optimize and upload a multipart file; completes with the secure URL
+     */
+    public CompletableFuture<String> upload(MultipartFile file, String fileName, String folder) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return optimizeAndUpload(file, file.getSize(), fileName, folder);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Optimize and upload image bytes that are already in memory (base64 payloads)
+     */
+    public CompletableFuture<String> upload(byte[] image, String fileName, String folder) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return optimizeAndUpload(new ByteArrayResource(image), image.length, fileName, folder);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Upload several files in parallel under random names; the URLs keep the order of the files
+     */
+    public CompletableFuture<List<String>> uploadAll(List<MultipartFile> files, String folder) {
+        List<CompletableFuture<String>> uploads = files.stream()
+                .map(file -> upload(file, UUID.randomUUID().toString(), folder))
+                .toList();
+        return CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new))
+                .thenApply(done -> uploads.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Wait for an upload started earlier, rethrowing its failure unwrapped
+     */
+    public static <T> T await(CompletableFuture<T> upload) {
+        try {
+            return upload.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private String optimizeAndUpload(InputStreamSource source, long size, String fileName, String folder)
+            throws IOException {
+        long start = System.nanoTime();
+        ImageOptimizer.OptimizedImage image = ImageOptimizer.optimize(source, size, maxDimension, jpegQuality,
+                passThroughBytes);
+
+        // The extension tells CloudinaryService to store a re-encoded image as an image resource
+        String uploadName = image.reencoded() ? baseName(fileName) + "." + image.extension() : fileName;
+        Map<String, Object> result = cloudinaryService.uploadFile(image.content(), uploadName, folder);
+        Object url = result.get(SECURE_URL);
+        if (url == null) {
+            throw new IOException("Cloudinary returned no URL for " + fileName);
+        }
+
+        uploadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        savedBytes.increment(Math.max(0, image.originalBytes() - image.content().length));
+        log.debug("[ImageUpload] Uploaded {} to {} ({} bytes, re-encoded: {})",
+                uploadName, folder, image.content().length, image.reencoded());
+        return url.toString();
+    }
+
+    private static String baseName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+}
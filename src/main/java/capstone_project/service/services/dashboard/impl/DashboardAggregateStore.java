@@ -0,0 +1,390 @@
+package capstone_project.service.services.dashboard.impl;
+
+import capstone_project.event.OrderCreatedEvent;
+import capstone_project.event.OrderStatusChangedEvent;
+import capstone_project.repository.repositories.issue.IssueRepository;
+import capstone_project.repository.repositories.order.order.OrderDetailRepository;
+import capstone_project.repository.repositories.order.order.OrderRepository;
+import capstone_project.repository.repositories.order.transaction.TransactionRepository;
+import capstone_project.repository.repositories.refund.RefundRepository;
+import capstone_project.service.events.payment.DepositPaidEvent;
+import capstone_project.service.events.payment.FullPaymentPaidEvent;
+import capstone_project.service.services.order.order.OrderStatusWebSocketService;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Materialized per-day dashboard counters (orders per customer, order details per customer and status,
+ * paid revenue, refunds, issues per status / type / staff).
+ * Built with SQL rollups at startup and refreshed per day when domain events touch that day,
+ * so dashboard reads cost O(days in the filter range) instead of loading whole tables.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardAggregateStore {
+
+    // Whole history for the full rollup
+    private static final LocalDate HISTORY_START = LocalDate.of(1970, 1, 1);
+    private static final LocalDate HISTORY_END = LocalDate.of(2100, 1, 1);
+
+    private final OrderRepository orderRepository;
+    private final OrderDetailRepository orderDetailRepository;
+    private final TransactionRepository transactionRepository;
+    private final RefundRepository refundRepository;
+    private final IssueRepository issueRepository;
+
+    private final NavigableMap<LocalDate, DayBucket> buckets = new ConcurrentSkipListMap<>();
+    private final Set<LocalDate> dirtyDays = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready = false;
+
+    public record CustomerStatus(UUID customerId, String status) {
+    }
+
+    public record IssueKey(String status, String issueType, UUID staffId) {
+    }
+
+    /**
+     * Counters of one calendar day (immutable, replaced as a whole on refresh)
+     */
+    public record DayBucket(Map<UUID, Long> ordersByCustomer,
+                            Map<CustomerStatus, Long> orderDetails,
+                            long paidTransactions,
+                            BigDecimal paidRevenue,
+                            long refunds,
+                            BigDecimal refundAmount,
+                            Map<IssueKey, Long> issues) {
+    }
+
+    /**
+     * Counters folded over a date range. When built for one customer only the order fields are filled.
+     */
+    @Getter
+    public static final class RangeAggregate {
+        private long totalOrders;
+        private long totalOrderDetails;
+        private final Map<String, Long> orderDetailsByStatus = new HashMap<>();
+        private final Map<LocalDate, Long> ordersByDay = new TreeMap<>();
+        private long paidTransactions;
+        private BigDecimal totalRevenue = BigDecimal.ZERO;
+        private final Map<LocalDate, BigDecimal> revenueByDay = new TreeMap<>();
+        private long refunds;
+        private BigDecimal refundAmount = BigDecimal.ZERO;
+        private long totalIssues;
+        private final Map<String, Long> issuesByStatus = new HashMap<>();
+        private final Map<String, Long> issuesByType = new HashMap<>();
+        private final Map<UUID, Long> resolvedIssuesByStaff = new HashMap<>();
+
+        public long countOrderDetails(String... statuses) {
+            long count = 0;
+            for (String status : statuses) {
+                count += orderDetailsByStatus.getOrDefault(status, 0L);
+            }
+            return count;
+        }
+
+        public long countIssues(String... statuses) {
+            long count = 0;
+            for (String status : statuses) {
+                count += issuesByStatus.getOrDefault(status, 0L);
+            }
+            return count;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Aggregate a dashboard range. Empty when the store is not built yet or the range does not fall on
+     * day boundaries (the caller then falls back to row-level filtering).
+     * @param customerId restrict order counters to one customer, or null for all
+     */
+    public Optional<RangeAggregate> query(LocalDateTime start, LocalDateTime end, UUID customerId) {
+        if (!ready || start == null || end == null || !isDayAligned(start, end)) {
+            return Optional.empty();
+        }
+
+        RangeAggregate result = new RangeAggregate();
+        LocalDate firstDay = start.toLocalDate();
+        LocalDate lastDay = end.toLocalDate();
+        for (Map.Entry<LocalDate, DayBucket> entry : buckets.subMap(firstDay, true, lastDay, true).entrySet()) {
+            fold(result, entry.getKey(), entry.getValue(), customerId);
+        }
+        return Optional.of(result);
+    }
+
+    private void fold(RangeAggregate result, LocalDate day, DayBucket bucket, UUID customerId) {
+        long dayOrders = 0;
+        for (Map.Entry<UUID, Long> entry : bucket.ordersByCustomer().entrySet()) {
+            if (customerId == null || customerId.equals(entry.getKey())) {
+                dayOrders += entry.getValue();
+            }
+        }
+        if (dayOrders > 0) {
+            result.totalOrders += dayOrders;
+            result.ordersByDay.merge(day, dayOrders, Long::sum);
+        }
+
+        for (Map.Entry<CustomerStatus, Long> entry : bucket.orderDetails().entrySet()) {
+            if (customerId != null && !customerId.equals(entry.getKey().customerId())) {
+                continue;
+            }
+            result.totalOrderDetails += entry.getValue();
+            if (entry.getKey().status() != null) {
+                result.orderDetailsByStatus.merge(entry.getKey().status(), entry.getValue(), Long::sum);
+            }
+        }
+
+        if (customerId != null) {
+            return;
+        }
+
+        result.paidTransactions += bucket.paidTransactions();
+        result.totalRevenue = result.totalRevenue.add(bucket.paidRevenue());
+        if (bucket.paidTransactions() > 0) {
+            result.revenueByDay.merge(day, bucket.paidRevenue(), BigDecimal::add);
+        }
+        result.refunds += bucket.refunds();
+        result.refundAmount = result.refundAmount.add(bucket.refundAmount());
+
+        for (Map.Entry<IssueKey, Long> entry : bucket.issues().entrySet()) {
+            IssueKey key = entry.getKey();
+            result.totalIssues += entry.getValue();
+            if (key.status() != null) {
+                result.issuesByStatus.merge(key.status(), entry.getValue(), Long::sum);
+            }
+            if (key.issueType() != null) {
+                result.issuesByType.merge(key.issueType(), entry.getValue(), Long::sum);
+            }
+            if (key.staffId() != null && "RESOLVED".equals(key.status())) {
+                result.resolvedIssuesByStaff.merge(key.staffId(), entry.getValue(), Long::sum);
+            }
+        }
+    }
+
+    /**
+     * Dashboard ranges start at midnight and end now or at the end of a day
+     */
+    private boolean isDayAligned(LocalDateTime start, LocalDateTime end) {
+        if (!start.toLocalTime().equals(LocalTime.MIDNIGHT)) {
+            return false;
+        }
+        return !end.toLocalDate().isBefore(LocalDate.now())
+                || !end.toLocalTime().isBefore(LocalTime.of(23, 59, 59));
+    }
+
+    // ===== Event-driven refresh =====
+
+    public void markDirty(LocalDate day) {
+        if (day != null) {
+            dirtyDays.add(day);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        markDirty(event.getCreatedAt() != null ? event.getCreatedAt().toLocalDate() : LocalDate.now());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        markOrderDirty(event.getOrderId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChange(OrderStatusWebSocketService.OrderStatusChangeEvent event) {
+        markOrderDirty(event.getOrderId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDepositPaid(DepositPaidEvent event) {
+        markPaymentDirty(event.getTransaction() != null ? event.getTransaction().getPaymentDate() : null);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFullPaymentPaid(FullPaymentPaidEvent event) {
+        markPaymentDirty(event.getTransaction() != null ? event.getTransaction().getPaymentDate() : null);
+    }
+
+    private void markPaymentDirty(LocalDateTime paymentDate) {
+        markDirty(paymentDate != null ? paymentDate.toLocalDate() : LocalDate.now());
+    }
+
+    /**
+     * Order detail statuses are bucketed by order creation day
+     */
+    private void markOrderDirty(UUID orderId) {
+        if (orderId == null) {
+            return;
+        }
+        try {
+            orderRepository.findById(orderId)
+                    .map(order -> order.getCreatedAt())
+                    .ifPresent(createdAt -> markDirty(createdAt.toLocalDate()));
+        } catch (Exception e) {
+            log.warn("[DashboardAggregate] Could not resolve creation day of order {}: {}", orderId, e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute the days touched by events since the last run
+     */
+    @Scheduled(fixedDelayString = "${dashboard.aggregate.dirty-refresh-interval-ms:5000}")
+    public void refreshDirtyDays() {
+        if (!ready || dirtyDays.isEmpty()) {
+            return;
+        }
+        List<LocalDate> days = new ArrayList<>(dirtyDays);
+        dirtyDays.removeAll(days);
+        for (LocalDate day : days) {
+            try {
+                refreshRange(day, day.plusDays(1));
+            } catch (Exception e) {
+                dirtyDays.add(day);
+                log.error("[DashboardAggregate] Failed to refresh {}: {}", day, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Today and yesterday change through paths that publish no event (issues, refunds, detail statuses)
+     */
+    @Scheduled(fixedDelayString = "${dashboard.aggregate.recent-refresh-interval-ms:60000}")
+    public void refreshRecentDays() {
+        LocalDate today = LocalDate.now();
+        markDirty(today);
+        markDirty(today.minusDays(1));
+    }
+
+    /**
+     * Full SQL rollup backfill: at startup and hourly to pick up late changes to older days
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${dashboard.aggregate.rebuild-cron:0 15 * * * *}")
+    public void rebuildAll() {
+        try {
+            long startedAt = System.currentTimeMillis();
+            refreshRange(HISTORY_START, HISTORY_END);
+            ready = true;
+            log.info("[DashboardAggregate] Rebuilt {} day buckets in {} ms",
+                    buckets.size(), System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            log.error("[DashboardAggregate] Full rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Roll up [fromDay, toDay) with one grouped query per source table and swap the day buckets
+     */
+    private synchronized void refreshRange(LocalDate fromDay, LocalDate toDay) {
+        LocalDateTime from = fromDay.atStartOfDay();
+        LocalDateTime to = toDay.atStartOfDay();
+        Map<LocalDate, BucketBuilder> builders = new HashMap<>();
+
+        for (Object[] row : orderRepository.rollupOrdersByDayAndCustomer(from, to)) {
+            builders.computeIfAbsent(toLocalDate(row[0]), d -> new BucketBuilder())
+                    .ordersByCustomer.merge((UUID) row[1], toLong(row[2]), Long::sum);
+        }
+        for (Object[] row : orderDetailRepository.rollupOrderDetailsByDayCustomerAndStatus(from, to)) {
+            builders.computeIfAbsent(toLocalDate(row[0]), d -> new BucketBuilder())
+                    .orderDetails.merge(new CustomerStatus((UUID) row[1], (String) row[2]), toLong(row[3]), Long::sum);
+        }
+        for (Object[] row : transactionRepository.rollupPaidTransactionsByDay(from, to)) {
+            BucketBuilder builder = builders.computeIfAbsent(toLocalDate(row[0]), d -> new BucketBuilder());
+            builder.paidTransactions += toLong(row[1]);
+            builder.paidRevenue = builder.paidRevenue.add(toBigDecimal(row[2]));
+        }
+        for (Object[] row : refundRepository.rollupRefundsByDay(from, to)) {
+            BucketBuilder builder = builders.computeIfAbsent(toLocalDate(row[0]), d -> new BucketBuilder());
+            builder.refunds += toLong(row[1]);
+            builder.refundAmount = builder.refundAmount.add(toBigDecimal(row[2]));
+        }
+        for (Object[] row : issueRepository.rollupIssuesByDayStatusTypeAndStaff(from, to)) {
+            builders.computeIfAbsent(toLocalDate(row[0]), d -> new BucketBuilder())
+                    .issues.merge(new IssueKey((String) row[1], (String) row[2], (UUID) row[3]), toLong(row[4]), Long::sum);
+        }
+
+        NavigableMap<LocalDate, DayBucket> range = buckets.subMap(fromDay, true, toDay, false);
+        range.keySet().removeIf(day -> !builders.containsKey(day));
+        builders.forEach((day, builder) -> {
+            if (day != null) {
+                buckets.put(day, builder.build());
+            }
+        });
+    }
+
+    private static final class BucketBuilder {
+        private final Map<UUID, Long> ordersByCustomer = new HashMap<>();
+        private final Map<CustomerStatus, Long> orderDetails = new HashMap<>();
+        private long paidTransactions;
+        private BigDecimal paidRevenue = BigDecimal.ZERO;
+        private long refunds;
+        private BigDecimal refundAmount = BigDecimal.ZERO;
+        private final Map<IssueKey, Long> issues = new HashMap<>();
+
+        private DayBucket build() {
+            return new DayBucket(Map.copyOf(withoutNullKeys(ordersByCustomer)), Map.copyOf(orderDetails),
+                    paidTransactions, paidRevenue, refunds, refundAmount, Map.copyOf(issues));
+        }
+
+        // Orders without a customer still count towards the totals
+        private static Map<UUID, Long> withoutNullKeys(Map<UUID, Long> map) {
+            Long orphaned = map.remove(null);
+            if (orphaned != null) {
+                map.merge(ORPHAN_CUSTOMER, orphaned, Long::sum);
+            }
+            return map;
+        }
+    }
+
+    private static final UUID ORPHAN_CUSTOMER = new UUID(0L, 0L);
+
+    static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate localDate) {
+            return localDate;
+        }
+        if (value instanceof java.sql.Date sqlDate) {
+            return sqlDate.toLocalDate();
+        }
+        if (value instanceof java.util.Date date) {
+            return new java.sql.Date(date.getTime()).toLocalDate();
+        }
+        return value != null ? LocalDate.parse(value.toString()) : null;
+    }
+
+    static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return value instanceof Number number ? BigDecimal.valueOf(number.doubleValue()) : BigDecimal.ZERO;
+    }
+}
@@ -12,8 +12,6 @@ import capstone_project.entity.user.driver.PenaltyHistoryEntity;
 import capstone_project.entity.vehicle.VehicleAssignmentEntity;
 import capstone_project.entity.vehicle.VehicleEntity;
 import capstone_project.entity.vehicle.VehicleServiceRecordEntity;
-import capstone_project.repository.entityServices.issue.IssueEntityService;
-import capstone_project.repository.entityServices.order.VehicleFuelConsumptionEntityService;
 import capstone_project.repository.entityServices.order.contract.ContractEntityService;
 import capstone_project.repository.entityServices.order.order.OrderDetailEntityService;
 import capstone_project.repository.entityServices.order.order.OrderEntityService;
@@ -24,8 +22,15 @@ import capstone_project.repository.entityServices.vehicle.VehicleAssignmentEntit
 import capstone_project.repository.entityServices.vehicle.VehicleEntityService;
 import capstone_project.repository.entityServices.vehicle.VehicleServiceRecordEntityService;
 import capstone_project.repository.entityServices.refund.RefundEntityService;
+import capstone_project.repository.repositories.device.DeviceRepository;
 import capstone_project.repository.repositories.issue.IssueRepository;
+import capstone_project.repository.repositories.order.VehicleFuelConsumptionRepository;
+import capstone_project.repository.repositories.order.contract.ContractRepository;
+import capstone_project.repository.repositories.order.order.OrderRepository;
+import capstone_project.repository.repositories.order.transaction.TransactionRepository;
+import capstone_project.repository.repositories.refund.RefundRepository;
 import capstone_project.repository.repositories.user.PenaltyHistoryRepository;
+import capstone_project.repository.repositories.vehicle.VehicleAssignmentRepository;
 import capstone_project.service.services.dashboard.RoleDashboardService;
 import capstone_project.service.services.ai.GeminiService;
 import capstone_project.service.services.ai.GeminiService.ChatMessage;
@@ -50,11 +55,9 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
     private final OrderDetailEntityService orderDetailEntityService;
     private final ContractEntityService contractEntityService;
     private final TransactionEntityService transactionEntityService;
-    private final IssueEntityService issueEntityService;
     private final VehicleEntityService vehicleEntityService;
     private final VehicleAssignmentEntityService vehicleAssignmentEntityService;
     private final VehicleServiceRecordEntityService vehicleServiceRecordEntityService;
-    private final VehicleFuelConsumptionEntityService vehicleFuelConsumptionEntityService;
     private final CustomerEntityService customerEntityService;
     private final DriverEntityService driverEntityService;
     private final RefundEntityService refundEntityService;
@@ -62,7 +65,17 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
     private final IssueRepository issueRepository;
     private final PenaltyHistoryRepository penaltyHistoryRepository;
     private final capstone_project.repository.repositories.auth.UserRepository userRepository;
-    private final capstone_project.repository.entityServices.device.DeviceEntityService deviceEntityService;
+    private final DashboardAggregateStore dashboardAggregateStore;
+    private final OrderRepository orderRepository;
+    private final ContractRepository contractRepository;
+    private final TransactionRepository transactionRepository;
+    private final RefundRepository refundRepository;
+    private final VehicleAssignmentRepository vehicleAssignmentRepository;
+    private final DeviceRepository deviceRepository;
+    private final VehicleFuelConsumptionRepository vehicleFuelConsumptionRepository;
+
+    private static final List<String> OPEN_ISSUE_STATUSES = List.of("OPEN", "IN_PROGRESS");
+    private static final List<String> PENDING_ORDER_STATUSES = List.of("PROCESSING", "ON_PLANNING");
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private static final DateTimeFormatter DEADLINE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
@@ -77,69 +90,23 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
         
         log.info("[Admin Dashboard] Getting data from {} to {}", startDate, endDate);
 
-        // Get all orders in date range
-        List<OrderEntity> allOrders = orderEntityService.findAll();
-        List<OrderEntity> filteredOrders = filterByDateRange(allOrders, startDate, endDate);
+        // Order/revenue/issue/refund sections come from the materialized day buckets when available
+        AdminSections sections = dashboardAggregateStore.query(startDate, endDate, null)
+                .map(aggregate -> buildAdminSections(aggregate, filter))
+                .orElseGet(() -> loadAdminSections(filter));
         
-        // Get all order details
-        List<OrderDetailEntity> allOrderDetails = new ArrayList<>();
-        for (OrderEntity order : filteredOrders) {
-            allOrderDetails.addAll(order.getOrderDetailEntities());
-        }
-        
-        // Get issues
-        List<IssueEntity> allIssues = issueEntityService.findAll();
-        List<IssueEntity> filteredIssues = allIssues.stream()
-                .filter(i -> i.getReportedAt() != null && 
-                        !i.getReportedAt().isBefore(startDate) && 
-                        !i.getReportedAt().isAfter(endDate))
-                .collect(Collectors.toList());
-        
-        // Get contracts
-        List<ContractEntity> allContracts = contractEntityService.findAll();
-        
-        // Get transactions
-        List<TransactionEntity> allTransactions = transactionEntityService.findAll();
-        List<TransactionEntity> filteredTransactions = allTransactions.stream()
-                .filter(t -> t.getPaymentDate() != null && 
-                        !t.getPaymentDate().isBefore(startDate) && 
-                        !t.getPaymentDate().isAfter(endDate))
-                .collect(Collectors.toList());
-        
-        // Get refunds
-        List<RefundEntity> allRefunds = refundEntityService.findAll();
-        List<RefundEntity> filteredRefunds = allRefunds.stream()
-                .filter(r -> r.getRefundDate() != null && 
-                        !r.getRefundDate().isBefore(startDate) && 
-                        !r.getRefundDate().isAfter(endDate))
-                .collect(Collectors.toList());
+        AdminDashboardResponse.KpiSummary kpiSummary = sections.kpiSummary();
+        Map<String, Long> orderStatusDistribution = sections.orderStatusDistribution();
+        List<AdminDashboardResponse.TrendDataPoint> orderTrend = sections.orderTrend();
+        List<AdminDashboardResponse.TrendDataPoint> revenueTrend = sections.revenueTrend();
+        AdminDashboardResponse.DeliveryPerformance deliveryPerformance = sections.deliveryPerformance();
+        AdminDashboardResponse.IssueRefundSummary issueRefundSummary = sections.issueRefundSummary();
         
         // Get vehicles
         List<VehicleEntity> allVehicles = vehicleEntityService.findAll();
         
         // Get maintenances
         List<VehicleServiceRecordEntity> allMaintenances = vehicleServiceRecordEntityService.findAll();
-
-        // Calculate KPIs
-        AdminDashboardResponse.KpiSummary kpiSummary = buildAdminKpiSummary(
-                filteredOrders, allOrderDetails, filteredTransactions, filteredIssues, filteredRefunds);
-        
-        // Order status distribution
-        Map<String, Long> orderStatusDistribution = allOrderDetails.stream()
-                .filter(od -> od.getStatus() != null)
-                .collect(Collectors.groupingBy(OrderDetailEntity::getStatus, Collectors.counting()));
-        
-        // Build order trend
-        List<AdminDashboardResponse.TrendDataPoint> orderTrend = buildOrderTrend(filteredOrders, filter);
-        
-        // Build revenue trend
-        List<AdminDashboardResponse.TrendDataPoint> revenueTrend = buildRevenueTrend(filteredTransactions, filter);
-        
-        // Delivery performance
-        AdminDashboardResponse.DeliveryPerformance deliveryPerformance = buildDeliveryPerformance(allOrderDetails);
-        
-        // Issue/Refund summary
-        AdminDashboardResponse.IssueRefundSummary issueRefundSummary = buildIssueRefundSummary(filteredIssues, filteredRefunds);
         
         // Top customers (using existing service)
         List<AdminDashboardResponse.TopPerformer> topCustomers = buildTopCustomers();
@@ -151,7 +118,7 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
         AdminDashboardResponse.FleetHealthSummary fleetHealth = buildFleetHealth(allVehicles, allMaintenances);
         
         // Top staff
-        List<AdminDashboardResponse.TopPerformer> topStaff = buildTopStaff(filteredIssues);
+        List<AdminDashboardResponse.TopPerformer> topStaff = buildTopStaff(sections.resolvedIssuesByStaff());
         
         // Registration data (customer, staff, driver time series)
         AdminDashboardResponse.RegistrationData registrationData = buildRegistrationData(startDate, endDate, filter);
@@ -198,50 +165,20 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
         
         log.info("[Admin AI Summary] Generating summary from {} to {}", startDate, endDate);
 
-        // Get all orders in date range
-        List<OrderEntity> allOrders = orderEntityService.findAll();
-        List<OrderEntity> filteredOrders = filterByDateRange(allOrders, startDate, endDate);
-        
-        // Get all order details
-        List<OrderDetailEntity> allOrderDetails = new ArrayList<>();
-        for (OrderEntity order : filteredOrders) {
-            allOrderDetails.addAll(order.getOrderDetailEntities());
-        }
-        
-        // Get issues
-        List<IssueEntity> allIssues = issueEntityService.findAll();
-        List<IssueEntity> filteredIssues = allIssues.stream()
-                .filter(i -> i.getReportedAt() != null && 
-                        !i.getReportedAt().isBefore(startDate) && 
-                        !i.getReportedAt().isAfter(endDate))
-                .collect(Collectors.toList());
-        
-        // Get refunds
-        List<RefundEntity> allRefunds = refundEntityService.findAll();
-        List<RefundEntity> filteredRefunds = allRefunds.stream()
-                .filter(r -> r.getRefundDate() != null && 
-                        !r.getRefundDate().isBefore(startDate) && 
-                        !r.getRefundDate().isAfter(endDate))
-                .collect(Collectors.toList());
+        AdminSections sections = dashboardAggregateStore.query(startDate, endDate, null)
+                .map(aggregate -> buildAdminSections(aggregate, filter))
+                .orElseGet(() -> loadAdminSections(filter));
         
         // Get vehicles
         List<VehicleEntity> allVehicles = vehicleEntityService.findAll();
         
         // Get maintenances
         List<VehicleServiceRecordEntity> allMaintenances = vehicleServiceRecordEntityService.findAll();
-
-        // Get transactions for filtering
-        List<TransactionEntity> allTransactions = transactionEntityService.findAll();
-        List<TransactionEntity> filteredTransactions = allTransactions.stream()
-                .filter(t -> t.getPaymentDate() != null && 
-                        !t.getPaymentDate().isBefore(startDate) && 
-                        !t.getPaymentDate().isAfter(endDate))
-                .collect(Collectors.toList());
         
         // Build summary data (reuse existing helper methods)
-        AdminDashboardResponse.KpiSummary kpiSummary = buildAdminKpiSummary(filteredOrders, allOrderDetails, filteredTransactions, filteredIssues, filteredRefunds);
-        AdminDashboardResponse.DeliveryPerformance deliveryPerformance = buildDeliveryPerformance(allOrderDetails);
-        AdminDashboardResponse.IssueRefundSummary issueRefundSummary = buildIssueRefundSummary(filteredIssues, filteredRefunds);
+        AdminDashboardResponse.KpiSummary kpiSummary = sections.kpiSummary();
+        AdminDashboardResponse.DeliveryPerformance deliveryPerformance = sections.deliveryPerformance();
+        AdminDashboardResponse.IssueRefundSummary issueRefundSummary = sections.issueRefundSummary();
         AdminDashboardResponse.FleetHealthSummary fleetHealth = buildFleetHealth(allVehicles, allMaintenances);
 
         // Generate AI Summary with fallback
@@ -278,9 +215,8 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
         
         log.info("[Staff Dashboard] Getting data from {} to {}", startDate, endDate);
 
-        // Get all orders and filter by date range
-        List<OrderEntity> allOrders = orderEntityService.findAll();
-        List<OrderEntity> filteredOrders = filterByDateRange(allOrders, startDate, endDate);
+        // Get orders in date range (order details fetched in the same query)
+        List<OrderEntity> filteredOrders = orderRepository.findByCreatedAtBetweenWithDetails(startDate, endDate);
         
         // Get all order details from filtered orders
         List<OrderDetailEntity> allOrderDetails = new ArrayList<>();
@@ -288,45 +224,23 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
             allOrderDetails.addAll(order.getOrderDetailEntities());
         }
 
-        // Get vehicle assignments (trips) and filter by date range
-        List<VehicleAssignmentEntity> allAssignments = vehicleAssignmentEntityService.findAll();
-        List<VehicleAssignmentEntity> filteredAssignments = allAssignments.stream()
-                .filter(a -> a.getCreatedAt() != null && 
-                        !a.getCreatedAt().isBefore(startDate) && 
-                        !a.getCreatedAt().isAfter(endDate))
-                .collect(Collectors.toList());
+        // Get vehicle assignments (trips) in date range
+        List<VehicleAssignmentEntity> filteredAssignments = vehicleAssignmentRepository.findByCreatedAtBetween(startDate, endDate);
         
-        // Get issues and filter by date range
-        List<IssueEntity> allIssues = issueEntityService.findAll();
-        List<IssueEntity> filteredIssues = allIssues.stream()
-                .filter(i -> i.getReportedAt() != null && 
-                        !i.getReportedAt().isBefore(startDate) && 
-                        !i.getReportedAt().isAfter(endDate))
-                .collect(Collectors.toList());
+        // Get issues in date range
+        List<IssueEntity> filteredIssues = issueRepository.findByReportedAtBetween(startDate, endDate);
         
-        // Get contracts and filter by date range
-        List<ContractEntity> allContracts = contractEntityService.findAll();
-        List<ContractEntity> filteredContracts = allContracts.stream()
-                .filter(c -> c.getCreatedAt() != null && 
-                        !c.getCreatedAt().isBefore(startDate) && 
-                        !c.getCreatedAt().isAfter(endDate))
-                .collect(Collectors.toList());
+        // Get open issues (no date filter - current state)
+        List<IssueEntity> openIssues = issueRepository.findByStatusIn(OPEN_ISSUE_STATUSES);
         
-        // Get transactions and filter by date range
-        List<TransactionEntity> allTransactions = transactionEntityService.findAll();
-        List<TransactionEntity> filteredTransactions = allTransactions.stream()
-                .filter(t -> t.getPaymentDate() != null && 
-                        !t.getPaymentDate().isBefore(startDate) && 
-                        !t.getPaymentDate().isAfter(endDate))
-                .collect(Collectors.toList());
+        // Get contracts in date range
+        List<ContractEntity> filteredContracts = contractRepository.findByCreatedAtBetween(startDate, endDate);
         
-        // Get refunds and filter by date range
-        List<RefundEntity> allRefunds = refundEntityService.findAll();
-        List<RefundEntity> filteredRefunds = allRefunds.stream()
-                .filter(r -> r.getRefundDate() != null && 
-                        !r.getRefundDate().isBefore(startDate) && 
-                        !r.getRefundDate().isAfter(endDate))
-                .collect(Collectors.toList());
+        // Get transactions in date range
+        List<TransactionEntity> filteredTransactions = transactionRepository.findByPaymentDateBetween(startDate, endDate);
+        
+        // Get refunds in date range
+        List<RefundEntity> filteredRefunds = refundRepository.findByRefundDateBetween(startDate, endDate);
         
         // Get vehicles (no date filter - current state)
         List<VehicleEntity> allVehicles = vehicleEntityService.findAll();
@@ -345,13 +259,13 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
                 .collect(Collectors.groupingBy(VehicleAssignmentEntity::getStatus, Collectors.counting()));
         
         // Trip alerts (from all issues with OPEN/IN_PROGRESS status)
-        List<StaffDashboardResponse.TripAlert> tripAlerts = buildTripAlerts(allAssignments, allIssues);
+        List<StaffDashboardResponse.TripAlert> tripAlerts = buildTripAlerts(filteredAssignments, openIssues);
         
         // Issue summary
         StaffDashboardResponse.IssueSummary issueSummary = buildIssueSummary(filteredIssues);
         
         // Pending issues (OPEN and IN_PROGRESS only)
-        List<StaffDashboardResponse.IssueItem> pendingIssues = buildPendingIssues(allIssues);
+        List<StaffDashboardResponse.IssueItem> pendingIssues = buildPendingIssues(openIssues);
         
         // Financial summary
         StaffDashboardResponse.FinancialSummary financialSummary = buildFinancialSummary(filteredContracts, filteredTransactions, filteredRefunds);
@@ -391,7 +305,8 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
         List<StaffDashboardResponse.RecentOrderItem> recentOrders = buildStaffRecentOrders(filteredOrders);
         
         // Pending orders (PROCESSING, ON_PLANNING)
-        List<StaffDashboardResponse.PendingOrderItem> pendingOrders = buildPendingOrders(allOrders);
+        List<StaffDashboardResponse.PendingOrderItem> pendingOrders = buildPendingOrders(
+                orderRepository.findByStatusInOrderByCreatedAtDesc(PENDING_ORDER_STATUSES));
         
         // Top customers
         List<StaffDashboardResponse.TopCustomerItem> topCustomers = buildTopCustomers(filteredOrders, filteredTransactions);
@@ -434,50 +349,20 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
         
         log.info("[Staff AI Summary] Generating summary from {} to {}", startDate, endDate);
 
-        // Get all orders in date range
-        List<OrderEntity> allOrders = orderEntityService.findAll();
-        List<OrderEntity> filteredOrders = filterByDateRange(allOrders, startDate, endDate);
-        
-        // Get all order details
-        List<OrderDetailEntity> allOrderDetails = new ArrayList<>();
-        for (OrderEntity order : filteredOrders) {
-            allOrderDetails.addAll(order.getOrderDetailEntities());
-        }
-        
         // Get issues
-        List<IssueEntity> allIssues = issueEntityService.findAll();
-        List<IssueEntity> filteredIssues = allIssues.stream()
-                .filter(i -> i.getReportedAt() != null && 
-                        !i.getReportedAt().isBefore(startDate) && 
-                        !i.getReportedAt().isAfter(endDate))
-                .collect(Collectors.toList());
+        List<IssueEntity> filteredIssues = issueRepository.findByReportedAtBetween(startDate, endDate);
         
         // Get contracts
-        List<ContractEntity> allContracts = contractEntityService.findAll();
+        List<ContractEntity> filteredContracts = contractRepository.findByCreatedAtBetween(startDate, endDate);
         
         // Get transactions
-        List<TransactionEntity> allTransactions = transactionEntityService.findAll();
-        List<TransactionEntity> filteredTransactions = allTransactions.stream()
-                .filter(t -> t.getPaymentDate() != null && 
-                        !t.getPaymentDate().isBefore(startDate) && 
-                        !t.getPaymentDate().isAfter(endDate))
-                .collect(Collectors.toList());
+        List<TransactionEntity> filteredTransactions = transactionRepository.findByPaymentDateBetween(startDate, endDate);
         
         // Get refunds
-        List<RefundEntity> allRefunds = refundEntityService.findAll();
-        List<RefundEntity> filteredRefunds = allRefunds.stream()
-                .filter(r -> r.getRefundDate() != null && 
-                        !r.getRefundDate().isBefore(startDate) && 
-                        !r.getRefundDate().isAfter(endDate))
-                .collect(Collectors.toList());
+        List<RefundEntity> filteredRefunds = refundRepository.findByRefundDateBetween(startDate, endDate);
         
-        // Get vehicle assignments and filter by date
-        List<VehicleAssignmentEntity> allAssignments = vehicleAssignmentEntityService.findAll();
-        List<VehicleAssignmentEntity> filteredAssignments = allAssignments.stream()
-                .filter(a -> a.getCreatedAt() != null && 
-                        !a.getCreatedAt().isBefore(startDate) && 
-                        !a.getCreatedAt().isAfter(endDate))
-                .collect(Collectors.toList());
+        // Get vehicle assignments in date range
+        List<VehicleAssignmentEntity> filteredAssignments = vehicleAssignmentRepository.findByCreatedAtBetween(startDate, endDate);
         
         // Get vehicles
         List<VehicleEntity> allVehicles = vehicleEntityService.findAll();
@@ -488,7 +373,7 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
         // Build summary data (reuse existing helper methods)
         StaffDashboardResponse.OperationalSummary operationalSummary = buildOperationalSummary(filteredAssignments);
         StaffDashboardResponse.IssueSummary issueSummary = buildIssueSummary(filteredIssues);
-        StaffDashboardResponse.FinancialSummary financialSummary = buildFinancialSummary(allContracts, filteredTransactions, filteredRefunds);
+        StaffDashboardResponse.FinancialSummary financialSummary = buildFinancialSummary(filteredContracts, filteredTransactions, filteredRefunds);
         StaffDashboardResponse.FleetStatus fleetStatus = buildFleetStatus(allVehicles, allMaintenances);
 
         // Generate AI Summary with fallback
@@ -534,9 +419,7 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
         log.info("[Customer Dashboard] Getting data for customer {} from {} to {}", customerId, startDate, endDate);
 
         // Get customer's orders, then apply global time filter for ALL sections
-        List<OrderEntity> customerOrders = orderEntityService.findAll().stream()
-                .filter(o -> o.getSender() != null && o.getSender().getId().equals(customerId))
-                .collect(Collectors.toList());
+        List<OrderEntity> customerOrders = new ArrayList<>(orderEntityService.findBySenderId(customerId));
 
         List<OrderEntity> filteredOrders = filterByDateRange(customerOrders, startDate, endDate);
 
@@ -572,15 +455,15 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
         // Order summary (filtered orders & details)
         CustomerDashboardResponse.OrderSummary orderSummary = buildCustomerOrderSummary(filteredOrders, allOrderDetails);
         
-        // Order status distribution (for orders)
-        Map<String, Long> orderStatusDistribution = allOrderDetails.stream()
-                .filter(od -> od.getStatus() != null)
-                .collect(Collectors.groupingBy(OrderDetailEntity::getStatus, Collectors.counting()));
+        // Order status distribution (for orders) - per-customer day buckets when available
+        Map<String, Long> orderStatusDistribution = dashboardAggregateStore.query(startDate, endDate, customerId)
+                .<Map<String, Long>>map(aggregate -> new HashMap<>(aggregate.getOrderDetailsByStatus()))
+                .orElseGet(() -> allOrderDetails.stream()
+                        .filter(od -> od.getStatus() != null)
+                        .collect(Collectors.groupingBy(OrderDetailEntity::getStatus, Collectors.counting())));
         
         // Order detail status distribution (for packages)
-        Map<String, Long> orderDetailStatusDistribution = allOrderDetails.stream()
-                .filter(od -> od.getStatus() != null)
-                .collect(Collectors.groupingBy(OrderDetailEntity::getStatus, Collectors.counting()));
+        Map<String, Long> orderDetailStatusDistribution = new HashMap<>(orderStatusDistribution);
         
         // Delivery performance (within filtered period)
         CustomerDashboardResponse.DeliveryPerformance deliveryPerformance = buildCustomerDeliveryPerformance(allOrderDetails, customerIssues);
@@ -630,9 +513,7 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
         log.info("[Customer AI Summary] Generating summary for customer {} from {} to {}", customerId, startDate, endDate);
 
         // Get customer's orders, then apply global time filter
-        List<OrderEntity> customerOrders = orderEntityService.findAll().stream()
-                .filter(o -> o.getSender() != null && o.getSender().getId().equals(customerId))
-                .collect(Collectors.toList());
+        List<OrderEntity> customerOrders = new ArrayList<>(orderEntityService.findBySenderId(customerId));
 
         List<OrderEntity> filteredOrders = filterByDateRange(customerOrders, startDate, endDate);
 
@@ -824,6 +705,141 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
 
     // ==================== Helper Methods ====================
 
+    /**
+     * Order, revenue, issue and refund sections shared by the admin dashboard and its AI summary
+     */
+    private record AdminSections(
+            AdminDashboardResponse.KpiSummary kpiSummary,
+            Map<String, Long> orderStatusDistribution,
+            List<AdminDashboardResponse.TrendDataPoint> orderTrend,
+            List<AdminDashboardResponse.TrendDataPoint> revenueTrend,
+            AdminDashboardResponse.DeliveryPerformance deliveryPerformance,
+            AdminDashboardResponse.IssueRefundSummary issueRefundSummary,
+            Map<UUID, Long> resolvedIssuesByStaff) {
+    }
+
+    /**
+     * Build admin sections from the materialized day buckets - O(days in range)
+     */
+    private AdminSections buildAdminSections(DashboardAggregateStore.RangeAggregate aggregate, DashboardFilterRequest filter) {
+        BigDecimal totalRevenue = aggregate.getTotalRevenue();
+        long totalOrderDetails = aggregate.getTotalOrderDetails();
+        long completedDeliveries = aggregate.countOrderDetails("SUCCESSFUL", "DELIVERED");
+        
+        double onTimePercentage = completedDeliveries > 0 ? 100.0 : 0.0;
+        double issueRate = totalOrderDetails > 0 
+                ? (double) aggregate.getTotalIssues() / totalOrderDetails * 100 
+                : 0.0;
+
+        AdminDashboardResponse.KpiSummary kpiSummary = AdminDashboardResponse.KpiSummary.builder()
+                .totalOrders(aggregate.getTotalOrders())
+                .totalOrderDetails(totalOrderDetails)
+                .totalRevenue(totalRevenue)
+                .onTimePercentage(onTimePercentage)
+                .issueRate(Math.round(issueRate * 100.0) / 100.0)
+                .newCustomers(0L) // Would need customer creation date tracking
+                .refundAmount(aggregate.getRefundAmount())
+                .orderGrowth(0.0) // Would need previous period comparison
+                .revenueGrowth(0.0)
+                .onTimeGrowthChange(0.0)
+                .build();
+
+        // Group day buckets by chart label
+        Map<String, Long> ordersByLabel = new HashMap<>();
+        aggregate.getOrdersByDay().forEach((day, count) ->
+                ordersByLabel.merge(getDateKey(day.atStartOfDay(), filter), count, Long::sum));
+        Map<String, BigDecimal> revenueByLabel = new HashMap<>();
+        aggregate.getRevenueByDay().forEach((day, amount) ->
+                revenueByLabel.merge(getDateKey(day.atStartOfDay(), filter), amount, BigDecimal::add));
+
+        List<String> allDateLabels = generateAllDateLabels(filter);
+        List<AdminDashboardResponse.TrendDataPoint> orderTrend = allDateLabels.stream()
+                .map(label -> AdminDashboardResponse.TrendDataPoint.builder()
+                        .label(label)
+                        .count(ordersByLabel.getOrDefault(label, 0L))
+                        .amount(BigDecimal.ZERO)
+                        .build())
+                .collect(Collectors.toList());
+        List<AdminDashboardResponse.TrendDataPoint> revenueTrend = allDateLabels.stream()
+                .map(label -> AdminDashboardResponse.TrendDataPoint.builder()
+                        .label(label)
+                        .count(0)
+                        .amount(revenueByLabel.getOrDefault(label, BigDecimal.ZERO))
+                        .build())
+                .collect(Collectors.toList());
+
+        // All completed deliveries are considered on time (see buildDeliveryPerformance)
+        AdminDashboardResponse.DeliveryPerformance deliveryPerformance = AdminDashboardResponse.DeliveryPerformance.builder()
+                .onTimeCount(completedDeliveries)
+                .lateCount(0)
+                .onTimePercentage(onTimePercentage)
+                .latePercentage(0.0)
+                .trend(new ArrayList<>())
+                .build();
+
+        // Refunds are filtered by refund date, so every refund in range is completed
+        AdminDashboardResponse.IssueRefundSummary issueRefundSummary = AdminDashboardResponse.IssueRefundSummary.builder()
+                .totalIssues(aggregate.getTotalIssues())
+                .openIssues(aggregate.countIssues("OPEN", "REPORTED"))
+                .resolvedIssues(aggregate.countIssues("RESOLVED", "CLOSED"))
+                .pendingRefunds(0L)
+                .completedRefunds(aggregate.getRefunds())
+                .totalRefundAmount(aggregate.getRefundAmount())
+                .issuesByType(new HashMap<>(aggregate.getIssuesByType()))
+                .build();
+
+        return new AdminSections(kpiSummary, new HashMap<>(aggregate.getOrderDetailsByStatus()), orderTrend, revenueTrend,
+                deliveryPerformance, issueRefundSummary, aggregate.getResolvedIssuesByStaff());
+    }
+
+    /**
+     * Build admin sections by loading and filtering rows (ranges not aligned to day buckets, or store not built yet)
+     */
+    private AdminSections loadAdminSections(DashboardFilterRequest filter) {
+        LocalDateTime startDate = filter.getStartDate();
+        LocalDateTime endDate = filter.getEndDate();
+
+        // Get orders in date range (order details fetched in the same query)
+        List<OrderEntity> filteredOrders = orderRepository.findByCreatedAtBetweenWithDetails(startDate, endDate);
+        
+        // Get all order details
+        List<OrderDetailEntity> allOrderDetails = new ArrayList<>();
+        for (OrderEntity order : filteredOrders) {
+            allOrderDetails.addAll(order.getOrderDetailEntities());
+        }
+        
+        // Get issues
+        List<IssueEntity> filteredIssues = issueRepository.findByReportedAtBetween(startDate, endDate);
+        
+        // Get transactions
+        List<TransactionEntity> filteredTransactions = transactionRepository.findByPaymentDateBetween(startDate, endDate);
+        
+        // Get refunds
+        List<RefundEntity> filteredRefunds = refundRepository.findByRefundDateBetween(startDate, endDate);
+
+        // Order status distribution
+        Map<String, Long> orderStatusDistribution = allOrderDetails.stream()
+                .filter(od -> od.getStatus() != null)
+                .collect(Collectors.groupingBy(OrderDetailEntity::getStatus, Collectors.counting()));
+
+        // Resolved issues per staff
+        Map<UUID, Long> resolvedByStaff = filteredIssues.stream()
+                .filter(i -> i.getStaff() != null && "RESOLVED".equals(i.getStatus()))
+                .collect(Collectors.groupingBy(
+                        i -> i.getStaff().getId(),
+                        Collectors.counting()
+                ));
+
+        return new AdminSections(
+                buildAdminKpiSummary(filteredOrders, allOrderDetails, filteredTransactions, filteredIssues, filteredRefunds),
+                orderStatusDistribution,
+                buildOrderTrend(filteredOrders, filter),
+                buildRevenueTrend(filteredTransactions, filter),
+                buildDeliveryPerformance(allOrderDetails),
+                buildIssueRefundSummary(filteredIssues, filteredRefunds),
+                resolvedByStaff);
+    }
+
     private List<OrderEntity> filterByDateRange(List<OrderEntity> orders, LocalDateTime start, LocalDateTime end) {
         return orders.stream()
                 .filter(o -> o.getCreatedAt() != null && 
@@ -1057,17 +1073,21 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
 
     private AdminDashboardResponse.DeviceStatistics buildDeviceStatistics() {
         try {
-            var allDevices = deviceEntityService.findAll();
-            long totalDevices = allDevices.size();
-            long activeDevices = allDevices.stream()
-                    .filter(d -> "ACTIVE".equals(d.getStatus()))
-                    .count();
-            long inactiveDevices = allDevices.stream()
-                    .filter(d -> "INACTIVE".equals(d.getStatus()))
-                    .count();
-            long assignedDevices = allDevices.stream()
-                    .filter(d -> d.getVehicleEntity() != null)
-                    .count();
+            long totalDevices = 0;
+            long activeDevices = 0;
+            long inactiveDevices = 0;
+            long assignedDevices = 0;
+            // Rows: status, total, assigned to a vehicle
+            for (Object[] row : deviceRepository.countDevicesGroupByStatus()) {
+                long count = DashboardAggregateStore.toLong(row[1]);
+                totalDevices += count;
+                assignedDevices += DashboardAggregateStore.toLong(row[2]);
+                if ("ACTIVE".equals(row[0])) {
+                    activeDevices += count;
+                } else if ("INACTIVE".equals(row[0])) {
+                    inactiveDevices += count;
+                }
+            }
             
             return AdminDashboardResponse.DeviceStatistics.builder()
                     .totalDevices(totalDevices)
@@ -1091,23 +1111,22 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
     private AdminDashboardResponse.FuelConsumptionStatistics buildFuelConsumptionStatistics(
             LocalDateTime startDate, LocalDateTime endDate, DashboardFilterRequest filter) {
         try {
-            var allFuelConsumptions = vehicleFuelConsumptionEntityService.findAll();
-            var filteredFuelConsumptions = allFuelConsumptions.stream()
-                    .filter(fc -> fc.getDateRecorded() != null &&
-                            !fc.getDateRecorded().isBefore(startDate) &&
-                            !fc.getDateRecorded().isAfter(endDate))
-                    .collect(Collectors.toList());
+            // Rows: day, records, fuel volume (ordered by day)
+            List<Object[]> dailyFuel = vehicleFuelConsumptionRepository.sumFuelVolumeByDay(startDate, endDate);
             
-            BigDecimal totalFuelConsumed = filteredFuelConsumptions.stream()
-                    .map(fc -> fc.getFuelVolume() != null ? fc.getFuelVolume() : BigDecimal.ZERO)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            long totalRecords = 0;
+            BigDecimal totalFuelConsumed = BigDecimal.ZERO;
+            for (Object[] row : dailyFuel) {
+                totalRecords += DashboardAggregateStore.toLong(row[1]);
+                totalFuelConsumed = totalFuelConsumed.add(DashboardAggregateStore.toBigDecimal(row[2]));
+            }
             
-            BigDecimal averageFuelConsumption = filteredFuelConsumptions.isEmpty() 
+            BigDecimal averageFuelConsumption = totalRecords == 0 
                     ? BigDecimal.ZERO 
-                    : totalFuelConsumed.divide(BigDecimal.valueOf(filteredFuelConsumptions.size()), 2, RoundingMode.HALF_UP);
+                    : totalFuelConsumed.divide(BigDecimal.valueOf(totalRecords), 2, RoundingMode.HALF_UP);
             
             // Build trend data
-            List<AdminDashboardResponse.TrendDataPoint> fuelTrend = buildFuelConsumptionTrend(filteredFuelConsumptions, filter);
+            List<AdminDashboardResponse.TrendDataPoint> fuelTrend = buildFuelConsumptionTrend(dailyFuel, filter);
             
             return AdminDashboardResponse.FuelConsumptionStatistics.builder()
                     .totalFuelConsumed(totalFuelConsumed)
@@ -1127,15 +1146,14 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
     }
 
     private List<AdminDashboardResponse.TrendDataPoint> buildFuelConsumptionTrend(
-            List<capstone_project.entity.order.order.VehicleFuelConsumptionEntity> fuelConsumptions,
-            DashboardFilterRequest filter) {
+            List<Object[]> dailyFuel, DashboardFilterRequest filter) {
         Map<String, BigDecimal> groupedData = new LinkedHashMap<>();
         
-        for (var fc : fuelConsumptions) {
-            if (fc.getDateRecorded() == null) continue;
-            String label = formatDateLabel(fc.getDateRecorded(), filter);
-            BigDecimal fuelVolume = fc.getFuelVolume() != null ? fc.getFuelVolume() : BigDecimal.ZERO;
-            groupedData.merge(label, fuelVolume, BigDecimal::add);
+        for (Object[] row : dailyFuel) {
+            LocalDate day = DashboardAggregateStore.toLocalDate(row[0]);
+            if (day == null) continue;
+            String label = formatDateLabel(day.atStartOfDay(), filter);
+            groupedData.merge(label, DashboardAggregateStore.toBigDecimal(row[2]), BigDecimal::add);
         }
         
         return groupedData.entrySet().stream()
@@ -1150,19 +1168,18 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
     private AdminDashboardResponse.PenaltiesStatistics buildPenaltiesStatistics(
             LocalDateTime startDate, LocalDateTime endDate, DashboardFilterRequest filter) {
         try {
-            var allPenalties = penaltyHistoryRepository.findAll();
-            var filteredPenalties = allPenalties.stream()
-                    .filter(p -> p.getPenaltyDate() != null &&
-                            !p.getPenaltyDate().isBefore(startDate.toLocalDate()) &&
-                            !p.getPenaltyDate().isAfter(endDate.toLocalDate()))
-                    .collect(Collectors.toList());
+            // Rows: day, penalties (ordered by day)
+            List<Object[]> dailyPenalties = penaltyHistoryRepository.countPenaltiesByDay(
+                    startDate.toLocalDate(), endDate.toLocalDate());
             
-            long totalPenalties = filteredPenalties.size();
+            long totalPenalties = dailyPenalties.stream()
+                    .mapToLong(row -> DashboardAggregateStore.toLong(row[1]))
+                    .sum();
             // PenaltyHistoryEntity doesn't have status field, count all as unresolved for now
-            long unresolvedPenalties = filteredPenalties.size();
+            long unresolvedPenalties = totalPenalties;
             
             // Build trend data
-            List<AdminDashboardResponse.TrendDataPoint> penaltiesTrend = buildPenaltiesTrend(filteredPenalties, filter);
+            List<AdminDashboardResponse.TrendDataPoint> penaltiesTrend = buildPenaltiesTrend(dailyPenalties, filter);
             
             return AdminDashboardResponse.PenaltiesStatistics.builder()
                     .totalPenalties(totalPenalties)
@@ -1182,14 +1199,14 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
     }
 
     private List<AdminDashboardResponse.TrendDataPoint> buildPenaltiesTrend(
-            List<PenaltyHistoryEntity> penalties, DashboardFilterRequest filter) {
+            List<Object[]> dailyPenalties, DashboardFilterRequest filter) {
         Map<String, Long> groupedData = new LinkedHashMap<>();
         
-        for (var p : penalties) {
-            if (p.getPenaltyDate() == null) continue;
-            LocalDateTime dateTime = p.getPenaltyDate().atStartOfDay();
-            String label = formatDateLabel(dateTime, filter);
-            groupedData.merge(label, 1L, Long::sum);
+        for (Object[] row : dailyPenalties) {
+            LocalDate day = DashboardAggregateStore.toLocalDate(row[0]);
+            if (day == null) continue;
+            String label = formatDateLabel(day.atStartOfDay(), filter);
+            groupedData.merge(label, DashboardAggregateStore.toLong(row[1]), Long::sum);
         }
         
         return groupedData.entrySet().stream()
@@ -2919,15 +2936,7 @@ public class RoleDashboardServiceImpl implements RoleDashboardService {
     
     // ==================== Admin Dashboard Additional Helpers ====================
     
-    private List<AdminDashboardResponse.TopPerformer> buildTopStaff(List<IssueEntity> issues) {
-        // Group issues by staff and count resolved issues
-        Map<UUID, Long> resolvedByStaff = issues.stream()
-                .filter(i -> i.getStaff() != null && "RESOLVED".equals(i.getStatus()))
-                .collect(Collectors.groupingBy(
-                        i -> i.getStaff().getId(),
-                        Collectors.counting()
-                ));
-        
+    private List<AdminDashboardResponse.TopPerformer> buildTopStaff(Map<UUID, Long> resolvedByStaff) {
         // Build top staff list
         return resolvedByStaff.entrySet().stream()
                 .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
@@ -8,13 +8,14 @@ import capstone_project.repository.entityServices.issue.IssueEntityService;
 import capstone_project.repository.entityServices.issue.IssueImageEntityService;
 import capstone_project.repository.entityServices.vehicle.VehicleAssignmentEntityService;
 import capstone_project.service.mapper.issue.IssueMapper;
-import capstone_project.service.services.cloudinary.CloudinaryService;
+import capstone_project.service.services.cloudinary.ImageUploadPipeline;
 import capstone_project.service.services.issue.IssueImageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -23,7 +24,7 @@ public class IssueImageServiceImpl implements IssueImageService {
     private final IssueMapper issueMapper;
     private final IssueEntityService issueEntityService;
     private final IssueImageEntityService issueImageEntityService;
-    private final CloudinaryService cloudinaryService;
+    private final ImageUploadPipeline imageUploadPipeline;
     private final VehicleAssignmentEntityService vehicleAssignmentEntityService;
 
     @Override
@@ -31,8 +32,8 @@ public class IssueImageServiceImpl implements IssueImageService {
         IssueEntity issue = issueEntityService.findEntityById(request.issueId())
                 .orElseThrow(() -> new RuntimeException("Issue not found with id " + request.issueId()));
 
-        List<IssueImageEntity> images = new ArrayList<>();
-        List<String> urlImages = new ArrayList<>();
+        // Decode and start every upload first, so the images go to Cloudinary in parallel
+        List<CompletableFuture<String>> uploads = new ArrayList<>();
         for (String base64Image : request.imageUrl()) {
             try {
                 // Convert base64 -> byte[]
@@ -42,10 +43,19 @@ public class IssueImageServiceImpl implements IssueImageService {
                 String fileName = "issue_" + issue.getId() + "_" + UUID.randomUUID();
 
                 // Upload lên Cloudinary (folder "issues")
-                Map<String, Object> uploadResult = cloudinaryService.uploadFile(fileBytes, fileName, "issues");
+                uploads.add(imageUploadPipeline.upload(fileBytes, fileName, "issues"));
+            } catch (Exception e) {
+                log.error("Error uploading image for issue {}: {}", issue.getId(), e.getMessage(), e);
+                throw new RuntimeException("Failed to upload image to Cloudinary", e);
+            }
+        }
 
+        List<IssueImageEntity> images = new ArrayList<>();
+        List<String> urlImages = new ArrayList<>();
+        for (CompletableFuture<String> upload : uploads) {
+            try {
                 // Lấy URL trả về
-                String imageUrl = (String) uploadResult.get("secure_url");
+                String imageUrl = ImageUploadPipeline.await(upload);
 
                 // Lưu DB
                 IssueImageEntity imageEntity = IssueImageEntity.builder()
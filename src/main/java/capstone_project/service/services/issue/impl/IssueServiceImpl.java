@@ -31,7 +31,7 @@ import org.springframework.transaction.annotation.Transactional;
 import capstone_project.service.mapper.issue.IssueMapper;
 import capstone_project.service.mapper.order.SealMapper;
 import capstone_project.service.services.issue.IssueService;
-import capstone_project.service.services.cloudinary.CloudinaryService;
+import capstone_project.service.services.cloudinary.ImageUploadPipeline;
 import capstone_project.service.services.notification.NotificationService;
 import capstone_project.service.services.notification.NotificationBuilder;
 import capstone_project.dtos.request.notification.CreateNotificationRequest;
@@ -43,6 +43,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import capstone_project.entity.order.order.OrderEntity;
 import capstone_project.entity.user.customer.CustomerEntity;
 import capstone_project.repository.entityServices.order.order.OrderEntityService;
@@ -60,7 +61,7 @@ public class IssueServiceImpl implements IssueService {
     private final IssueWebSocketService issueWebSocketService;
     private final OrderDetailEntityService orderDetailEntityService;
     private final SealEntityService sealEntityService;
-    private final CloudinaryService cloudinaryService;
+    private final ImageUploadPipeline imageUploadPipeline;
     private final SealMapper sealMapper;
     private final capstone_project.repository.entityServices.issue.IssueImageEntityService issueImageEntityService;
     
@@ -108,6 +109,7 @@ public class IssueServiceImpl implements IssueService {
     
     // ✅ DAMAGE/OFF_ROUTE compensation - unified service
     private final capstone_project.service.CompensationService compensationService;
+    private final org.springframework.context.ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public GetBasicIssueResponse getBasicIssue(UUID issueId) {
@@ -618,12 +620,8 @@ public class IssueServiceImpl implements IssueService {
         try {
             
             String fileName = "seal_removal_" + oldSeal.getId() + "_" + System.currentTimeMillis();
-            var uploadResult = cloudinaryService.uploadFile(
-                    request.sealRemovalImage().getBytes(),
-                    fileName,
-                    "issues/seal-removal"
-            );
-            sealRemovalImageUrl = (String) uploadResult.get("secure_url");
+            sealRemovalImageUrl = ImageUploadPipeline.await(
+                    imageUploadPipeline.upload(request.sealRemovalImage(), fileName, "issues/seal-removal"));
             
         } catch (Exception e) {
             log.error("❌ Error uploading seal removal image: {}", e.getMessage());
@@ -899,6 +897,9 @@ public class IssueServiceImpl implements IssueService {
         newSeal.setStatus(SealEnum.IN_USE.name());
         
         // Upload seal image to Cloudinary instead of storing base64
+        // The seal copy and the issue copy upload in parallel
+        CompletableFuture<String> sealImageUpload;
+        CompletableFuture<String> issueImageUpload;
         try {
             // Extract base64 data from "data:image/jpeg;base64,..." format
             String base64Data = request.newSealAttachedImage();
@@ -907,12 +908,23 @@ public class IssueServiceImpl implements IssueService {
             }
             
             byte[] imageBytes = java.util.Base64.getDecoder().decode(base64Data);
-            var uploadResult = cloudinaryService.uploadFile(
+            sealImageUpload = imageUploadPipeline.upload(
                 imageBytes, 
                 "seal_" + newSeal.getSealCode() + "_" + UUID.randomUUID(), 
                 "seal_attachments"
             );
-            String imageUrl = uploadResult.get("secure_url").toString();
+            issueImageUpload = imageUploadPipeline.upload(
+                imageBytes, 
+                "seal_issue_" + issue.getId() + "_" + UUID.randomUUID(), 
+                "seal_issue_attachments"
+            );
+        } catch (Exception e) {
+            sealImageUpload = CompletableFuture.failedFuture(e);
+            issueImageUpload = CompletableFuture.failedFuture(e);
+        }
+
+        try {
+            String imageUrl = ImageUploadPipeline.await(sealImageUpload);
             newSeal.setSealAttachedImage(imageUrl);
             
         } catch (Exception e) {
@@ -927,18 +939,7 @@ public class IssueServiceImpl implements IssueService {
         // Update issue
         // Store the same URL in IssueEntity for consistency
         try {
-            String base64Data = request.newSealAttachedImage();
-            if (base64Data.startsWith("data:image/")) {
-                base64Data = base64Data.substring(base64Data.indexOf(",") + 1);
-            }
-            
-            byte[] imageBytes = java.util.Base64.getDecoder().decode(base64Data);
-            var uploadResult = cloudinaryService.uploadFile(
-                imageBytes, 
-                "seal_issue_" + issue.getId() + "_" + UUID.randomUUID(), 
-                "seal_issue_attachments"
-            );
-            String imageUrl = uploadResult.get("secure_url").toString();
+            String imageUrl = ImageUploadPipeline.await(issueImageUpload);
             issue.setNewSealAttachedImage(imageUrl);
             
         } catch (Exception e) {
@@ -1342,13 +1343,17 @@ public class IssueServiceImpl implements IssueService {
 
         // Upload damage images to Cloudinary and save to issue_images table
         if (request.damageImages() != null && !request.damageImages().isEmpty()) {
-            for (MultipartFile imageFile : request.damageImages()) {
+            // Start every upload first so the images go to Cloudinary in parallel
+            List<CompletableFuture<String>> damageUploads = request.damageImages().stream()
+                    .map(imageFile -> imageUploadPipeline.upload(imageFile,
+                            "damage_" + System.currentTimeMillis() + "_" + UUID.randomUUID(),
+                            "damage_reports"))
+                    .toList();
+            for (CompletableFuture<String> damageUpload : damageUploads) {
                 try {
                     
                     // Don't add .jpg extension - Cloudinary will add it based on the file
-                    String imageUrl = cloudinaryService.uploadFile(imageFile.getBytes(), 
-                            "damage_" + System.currentTimeMillis(), 
-                            "damage_reports").get("secure_url").toString();
+                    String imageUrl = ImageUploadPipeline.await(damageUpload);
                     
                     // Check for double .jpg extension
                     if (imageUrl.contains(".jpg.jpg")) {
@@ -1509,11 +1514,11 @@ public class IssueServiceImpl implements IssueService {
         if (violationImage != null && !violationImage.isEmpty()) {
             try {
 
-                imageUrl = cloudinaryService.uploadFile(
-                        violationImage.getBytes(),
+                imageUrl = ImageUploadPipeline.await(imageUploadPipeline.upload(
+                        violationImage,
                         "penalty_" + saved.getId() + "_" + System.currentTimeMillis(),
                         "penalties/traffic-violations"
-                ).get("secure_url").toString();
+                ));
 
                 IssueImageEntity imageEntity = IssueImageEntity.builder()
                         .imageUrl(imageUrl)
@@ -2290,14 +2295,9 @@ public class IssueServiceImpl implements IssueService {
 
         // Upload images to Cloudinary and save to IssueImageEntity
         if (files != null && !files.isEmpty()) {
-            for (org.springframework.web.multipart.MultipartFile file : files) {
-                // Upload to Cloudinary
-                var uploadResult = cloudinaryService.uploadFile(
-                        file.getBytes(),
-                        UUID.randomUUID().toString(),
-                        "return_delivery"
-                );
-                String imageUrl = uploadResult.get("secure_url").toString();
+            // Upload to Cloudinary in parallel
+            List<String> imageUrls = ImageUploadPipeline.await(imageUploadPipeline.uploadAll(files, "return_delivery"));
+            for (String imageUrl : imageUrls) {
                 
                 // Save to IssueImageEntity
                 IssueImageEntity imageEntity = IssueImageEntity.builder()
@@ -2570,13 +2570,8 @@ public class IssueServiceImpl implements IssueService {
         
         // Upload optional images if provided
         if (files != null && !files.isEmpty()) {
-            for (org.springframework.web.multipart.MultipartFile file : files) {
-                var uploadResult = cloudinaryService.uploadFile(
-                        file.getBytes(),
-                        UUID.randomUUID().toString(),
-                        "reroute_issue"
-                );
-                String imageUrl = uploadResult.get("secure_url").toString();
+            List<String> imageUrls = ImageUploadPipeline.await(imageUploadPipeline.uploadAll(files, "reroute_issue"));
+            for (String imageUrl : imageUrls) {
                 
                 IssueImageEntity imageEntity = IssueImageEntity.builder()
                         .imageUrl(imageUrl)
@@ -2785,6 +2780,10 @@ public class IssueServiceImpl implements IssueService {
         issue.setResolvedAt(java.time.LocalDateTime.now());
         issue = issueEntityService.save(issue);
         
+        // Off-route detection follows the new journey; its compiled copy of the old route is dropped after commit
+        applicationEventPublisher.publishEvent(new capstone_project.event.JourneyEndedEvent(
+                issue.getVehicleAssignmentEntity().getId(), oldJourney.getId()));
+        
         log.info("✅ Reroute processed: Journey {} created with {} segments",
                 reroutedJourney.getId(), allSegments.size());
         
@@ -0,0 +1,328 @@
+package capstone_project.service.services.map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory cache in front of the Vietmap autocomplete, place and reverse-geocoding APIs (LRU, TTL per kind).
+ * Autocomplete text is normalized before it becomes a key, and a longer prefix is answered by filtering
+ * the cached results of a shorter one when that list was complete (shorter than one Vietmap page).
+ * While the request of a shorter prefix is still in flight, the next keystroke waits for it instead of
+ * calling Vietmap again, so a burst of keystrokes costs about one call. Identical lookups share one call.
+ */
+@Component
+public class GeocodingCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private enum Kind {
+        AUTOCOMPLETE("autocomplete"), PLACE("place"), REVERSE("reverse");
+
+        private final String tag;
+
+        Kind(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private record CachedResult(String response, long expiresAt) {
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final boolean enabled;
+    private final int maxEntries;
+    private final int minPrefixLength;
+    private final int autocompletePageSize;
+    private final int coordinateScale;
+    private final Map<Kind, Duration> ttls;
+
+    // Access-ordered, so iteration starts at the least recently used result; guarded by itself
+    private final LinkedHashMap<String, CachedResult> results = new LinkedHashMap<>(512, 0.75f, true);
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<Kind, Counter> hits = new ConcurrentHashMap<>();
+    private final Map<Kind, Counter> misses = new ConcurrentHashMap<>();
+    private final Counter prefixHits;
+
+    public GeocodingCache(MeterRegistry meterRegistry,
+                          @Value("${vietmap.geocoding-cache.enabled:true}") boolean enabled,
+                          @Value("${vietmap.geocoding-cache.max-entries:20000}") int maxEntries,
+                          @Value("${vietmap.geocoding-cache.min-prefix-length:3}") int minPrefixLength,
+                          @Value("${vietmap.geocoding-cache.autocomplete-page-size:10}") int autocompletePageSize,
+                          @Value("${vietmap.geocoding-cache.coordinate-scale:4}") int coordinateScale,
+                          @Value("${vietmap.geocoding-cache.autocomplete-ttl-minutes:60}") long autocompleteTtlMinutes,
+                          @Value("${vietmap.geocoding-cache.place-ttl-hours:168}") long placeTtlHours,
+                          @Value("${vietmap.geocoding-cache.reverse-ttl-hours:24}") long reverseTtlHours) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.minPrefixLength = Math.max(1, minPrefixLength);
+        this.autocompletePageSize = autocompletePageSize;
+        this.coordinateScale = coordinateScale;
+        this.ttls = Map.of(
+                Kind.AUTOCOMPLETE, Duration.ofMinutes(autocompleteTtlMinutes),
+                Kind.PLACE, Duration.ofHours(placeTtlHours),
+                Kind.REVERSE, Duration.ofHours(reverseTtlHours));
+
+        for (Kind kind : Kind.values()) {
+            hits.put(kind, Counter.builder("vietmap.geocoding.cache")
+                    .description("Geocoding lookups served from memory")
+                    .tag("kind", kind.tag)
+                    .tag("result", "hit")
+                    .register(meterRegistry));
+            misses.put(kind, Counter.builder("vietmap.geocoding.cache")
+                    .description("Geocoding lookups that called Vietmap")
+                    .tag("kind", kind.tag)
+                    .tag("result", "miss")
+                    .register(meterRegistry));
+        }
+        this.prefixHits = Counter.builder("vietmap.geocoding.cache")
+                .description("Autocomplete lookups answered by filtering the results of a shorter prefix")
+                .tag("kind", Kind.AUTOCOMPLETE.tag)
+                .tag("result", "prefix")
+                .register(meterRegistry);
+        Gauge.builder("vietmap.geocoding.cache.size", results, map -> {
+                    synchronized (map) {
+                        return map.size();
+                    }
+                })
+                .description("Geocoding results kept in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached suggestions for the text near focus, or the result of fetch (stored for later keystrokes)
+     */
+    public CompletableFuture<String> autocomplete(String text, String focus, Supplier<CompletableFuture<String>> fetch) {
+        String query = normalize(text);
+        if (!enabled || query.isEmpty()) {
+            return fetch.get();
+        }
+        String scope = "a|" + focus + "|";
+        String key = scope + query;
+
+        String cached = fromMemory(key);
+        if (cached != null) {
+            hits.get(Kind.AUTOCOMPLETE).increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        for (int length = query.length() - 1; length >= minPrefixLength; length--) {
+            String prefixKey = scope + query.substring(0, length);
+            String prefixResult = fromMemory(prefixKey);
+            if (prefixResult != null) {
+                String filtered = filterSuggestions(prefixResult, query);
+                if (filtered != null) {
+                    prefixHits.increment();
+                    remember(key, filtered, Kind.AUTOCOMPLETE);
+                    return CompletableFuture.completedFuture(filtered);
+                }
+                break;
+            }
+            CompletableFuture<String> running = inFlight.get(prefixKey);
+            if (running != null) {
+                // The previous keystroke is still waiting on Vietmap: reuse its answer when it covers this text
+                return running.handle((prefixResponse, error) ->
+                                error == null ? filterSuggestions(prefixResponse, query) : null)
+                        .thenCompose(filtered -> {
+                            if (filtered != null) {
+                                prefixHits.increment();
+                                remember(key, filtered, Kind.AUTOCOMPLETE);
+                                return CompletableFuture.completedFuture(filtered);
+                            }
+                            return lookup(key, Kind.AUTOCOMPLETE, this::isSuggestionList, fetch);
+                        });
+            }
+        }
+
+        return lookup(key, Kind.AUTOCOMPLETE, this::isSuggestionList, fetch);
+    }
+
+    /**
+     * Cached place details of a Vietmap ref id, or the result of fetch
+     */
+    public CompletableFuture<String> place(String refId, Supplier<CompletableFuture<String>> fetch) {
+        if (!enabled || refId == null || refId.isBlank()) {
+            return fetch.get();
+        }
+        String key = "p|" + refId.trim();
+        String cached = fromMemory(key);
+        if (cached != null) {
+            hits.get(Kind.PLACE).increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+        return lookup(key, Kind.PLACE, this::isPlace, fetch);
+    }
+
+    /**
+     * Cached reverse-geocoding result of the point, rounded to vietmap.geocoding-cache.coordinate-scale decimals
+     */
+    public CompletableFuture<String> reverse(double lat, double lng, Supplier<CompletableFuture<String>> fetch) {
+        if (!enabled || !Double.isFinite(lat) || !Double.isFinite(lng)) {
+            return fetch.get();
+        }
+        String key = "r|" + round(lat) + "," + round(lng);
+        String cached = fromMemory(key);
+        if (cached != null) {
+            hits.get(Kind.REVERSE).increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+        return lookup(key, Kind.REVERSE, this::isNonEmptyList, fetch);
+    }
+
+    private CompletableFuture<String> lookup(String key, Kind kind, Predicate<String> cacheable,
+                                             Supplier<CompletableFuture<String>> fetch) {
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return running;
+        }
+
+        misses.get(kind).increment();
+        CompletableFuture<String> fetched;
+        try {
+            fetched = fetch.get();
+        } catch (RuntimeException e) {
+            fetched = CompletableFuture.failedFuture(e);
+        }
+        fetched.whenComplete((response, error) -> {
+            if (error == null && cacheable.test(response)) {
+                remember(key, response, kind);
+            }
+            inFlight.remove(key, mine);
+            if (error != null) {
+                mine.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                mine.complete(response);
+            }
+        });
+        return mine;
+    }
+
+    /**
+     * Suggestions of a shorter prefix that match every word of the query, or null when they cannot stand in
+     * for a Vietmap call: the list was cut at a full page, or nothing matched (Vietmap also matches fuzzily)
+     */
+    private String filterSuggestions(String prefixResponse, String query) {
+        try {
+            JsonNode suggestions = objectMapper.readTree(prefixResponse);
+            if (!suggestions.isArray() || suggestions.size() >= autocompletePageSize) {
+                return null;
+            }
+            String[] words = fold(query).split(" ");
+            ArrayNode matches = objectMapper.createArrayNode();
+            for (JsonNode suggestion : suggestions) {
+                String text = fold(suggestion.path("display").asText("") + " "
+                        + suggestion.path("name").asText("") + " " + suggestion.path("address").asText(""));
+                boolean all = true;
+                for (String word : words) {
+                    if (!text.contains(word)) {
+                        all = false;
+                        break;
+                    }
+                }
+                if (all) {
+                    matches.add(suggestion);
+                }
+            }
+            return matches.isEmpty() ? null : objectMapper.writeValueAsString(matches);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String fromMemory(String key) {
+        synchronized (results) {
+            CachedResult result = results.get(key);
+            if (result == null) {
+                return null;
+            }
+            if (result.expiresAt() - System.nanoTime() <= 0) {
+                results.remove(key);
+                return null;
+            }
+            return result.response();
+        }
+    }
+
+    private void remember(String key, String response, Kind kind) {
+        CachedResult result = new CachedResult(response, System.nanoTime() + ttls.get(kind).toNanos());
+        synchronized (results) {
+            results.put(key, result);
+            var iterator = results.entrySet().iterator();
+            while (results.size() > maxEntries && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    private boolean isSuggestionList(String response) {
+        return parse(response).isArray();
+    }
+
+    private boolean isNonEmptyList(String response) {
+        JsonNode node = parse(response);
+        return node.isArray() && !node.isEmpty();
+    }
+
+    private boolean isPlace(String response) {
+        JsonNode node = parse(response);
+        return node.isObject() && node.hasNonNull("lat") && node.hasNonNull("lng");
+    }
+
+    private JsonNode parse(String response) {
+        if (response == null || response.isBlank()) {
+            return objectMapper.missingNode();
+        }
+        try {
+            return objectMapper.readTree(response);
+        } catch (Exception e) {
+            return objectMapper.missingNode();
+        }
+    }
+
+    private String round(double coordinate) {
+        return BigDecimal.valueOf(coordinate).setScale(coordinateScale, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    /**
+     * Key form of typed text: NFC, lower case, single spaces; diacritics are kept because Vietmap ranks by them
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String composed = Normalizer.normalize(text, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(composed).replaceAll(" ").trim();
+    }
+
+    /**
+     * Match form: normalized and without Vietnamese diacritics, so "nguyen" matches "Nguyễn"
+     */
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(normalize(text), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").replace('đ', 'd');
+    }
+}
@@ -0,0 +1,79 @@
+package capstone_project.service.services.map;
+
+import capstone_project.entity.setting.CarrierSettingEntity;
+import capstone_project.entity.user.address.AddressEntity;
+import capstone_project.repository.entityServices.setting.CarrierSettingEntityService;
+import capstone_project.repository.repositories.user.AddressRepository;
+import capstone_project.service.services.thirdPartyServices.Vietmap.VietmapService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills the geocoding cache after startup with the reverse-geocoding results of the carrier depot
+ * and the addresses used most often as pickup or delivery points, where most map clicks land.
+ * Lookups run one after another on the Vietmap client, so warming never bursts the API quota.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GeocodingCacheWarmer {
+
+    private final VietmapService vietmapService;
+    private final AddressRepository addressRepository;
+    private final CarrierSettingEntityService carrierSettingEntityService;
+
+    @Value("${vietmap.geocoding-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${vietmap.geocoding-cache.prewarm-size:50}")
+    private int prewarmSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!enabled || prewarmSize <= 0) {
+            return;
+        }
+        List<BigDecimal[]> points = new ArrayList<>();
+        try {
+            carrierSettingEntityService.findAll().stream().findFirst()
+                    .filter(carrier -> carrier.getCarrierLatitude() != null && carrier.getCarrierLongitude() != null)
+                    .map(GeocodingCacheWarmer::depot)
+                    .ifPresent(points::add);
+            for (AddressEntity address : addressRepository.findMostUsedWithCoordinates(prewarmSize)) {
+                points.add(new BigDecimal[]{address.getLatitude(), address.getLongitude()});
+            }
+        } catch (Exception e) {
+            log.warn("[GeocodingCacheWarmer] Failed to load hot addresses: {}", e.getMessage());
+            return;
+        }
+
+        AtomicInteger warmed = new AtomicInteger();
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (BigDecimal[] point : points) {
+            chain = chain.thenCompose(ignored -> vietmapService
+                    .reverseAsync(point[0].doubleValue(), point[1].doubleValue())
+                    .handle((response, error) -> {
+                        if (error == null) {
+                            warmed.incrementAndGet();
+                        }
+                        return null;
+                    }));
+        }
+        chain.thenRun(() -> log.info("[GeocodingCacheWarmer] Pre-warmed {} of {} hot locations",
+                warmed.get(), points.size()));
+    }
+
+    private static BigDecimal[] depot(CarrierSettingEntity carrier) {
+        return new BigDecimal[]{carrier.getCarrierLatitude(), carrier.getCarrierLongitude()};
+    }
+}
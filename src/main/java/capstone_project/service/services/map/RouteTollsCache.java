@@ -0,0 +1,326 @@
+package capstone_project.service.services.map;
+
+import capstone_project.common.utils.VietnamTimeUtils;
+import capstone_project.repository.repositories.common.RouteTollCacheRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache of Vietmap route-tolls responses (route polyline and tolls, from which distances are derived).
+ * Keyed by the waypoints rounded to vietmap.route-cache.coordinate-scale decimals plus the vehicle class,
+ * so the same depot-to-customer pair is fetched once and then served from memory (LRU) or the route_toll_cache table.
+ * Concurrent lookups of the same key share one Vietmap call; new routes are written to the table behind the caller.
+ */
+@Component
+@Slf4j
+public class RouteTollsCache {
+
+    private final RouteTollCacheRepository repository;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final ThreadPoolTaskExecutor writeBehind;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final boolean enabled;
+    private final int coordinateScale;
+    private final int maxEntries;
+    private final Duration ttl;
+
+    // Access-ordered, so iteration starts at the least recently used route; guarded by itself
+    private final LinkedHashMap<String, CachedRoute> memory = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter misses;
+
+    private record CachedRoute(String response, LocalDateTime expiresAt) {
+    }
+
+    private record PathKey(String cacheKey, int waypointCount) {
+    }
+
+    public RouteTollsCache(RouteTollCacheRepository repository,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${vietmap.route-cache.enabled:true}") boolean enabled,
+                           @Value("${vietmap.route-cache.coordinate-scale:4}") int coordinateScale,
+                           @Value("${vietmap.route-cache.max-entries:10000}") int maxEntries,
+                           @Value("${vietmap.route-cache.ttl-hours:168}") long ttlHours) {
+        this.repository = repository;
+        // Own transactions, so a failed cache read or write never rolls back the caller (contract or quote calculation)
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        writeBehind = new ThreadPoolTaskExecutor();
+        writeBehind.setCorePoolSize(1);
+        writeBehind.setMaxPoolSize(1);
+        writeBehind.setQueueCapacity(1000);
+        writeBehind.setThreadNamePrefix("route-cache-");
+        // The route stays in memory when the table write is dropped under load
+        writeBehind.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        writeBehind.initialize();
+
+        this.enabled = enabled;
+        this.coordinateScale = coordinateScale;
+        this.maxEntries = maxEntries;
+        this.ttl = Duration.ofHours(ttlHours);
+
+        this.memoryHits = Counter.builder("vietmap.route.cache")
+                .description("Route-tolls lookups served from memory")
+                .tag("result", "memory")
+                .register(meterRegistry);
+        this.databaseHits = Counter.builder("vietmap.route.cache")
+                .description("Route-tolls lookups served from the route_toll_cache table")
+                .tag("result", "database")
+                .register(meterRegistry);
+        this.misses = Counter.builder("vietmap.route.cache")
+                .description("Route-tolls lookups that called Vietmap")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("vietmap.route.cache.size", memory, map -> {
+                    synchronized (map) {
+                        return map.size();
+                    }
+                })
+                .description("Routes kept in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached route-tolls response of the path ([[lng, lat], ...] JSON), or the result of fetch (stored for later calls).
+     * Paths that cannot be parsed are passed straight to fetch.
+     */
+    public String getOrFetch(String pathJson, Integer vehicle, Supplier<String> fetch) {
+        return await(getOrFetchAsync(pathJson, vehicle, () -> {
+            try {
+                return CompletableFuture.completedFuture(fetch.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }));
+    }
+
+    /**
+     * Non-blocking variant for callers that fetch through the reactive Vietmap gateway.
+     * Memory hits complete immediately; the database tier is read on the calling thread and written behind.
+     */
+    public CompletableFuture<String> getOrFetchAsync(String pathJson, Integer vehicle,
+                                                     Supplier<CompletableFuture<String>> fetch) {
+        if (!enabled) {
+            return fetch.get();
+        }
+        PathKey key = pathKey(pathJson, vehicle);
+        if (key == null) {
+            return fetch.get();
+        }
+
+        String cached = fromMemory(key.cacheKey());
+        if (cached != null) {
+            memoryHits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(key.cacheKey(), mine);
+        if (running != null) {
+            // Same route is being loaded by another request
+            return running;
+        }
+
+        CachedRoute stored = fromDatabase(key.cacheKey());
+        if (stored != null) {
+            databaseHits.increment();
+            remember(key.cacheKey(), stored);
+            inFlight.remove(key.cacheKey(), mine);
+            mine.complete(stored.response());
+            return mine;
+        }
+
+        misses.increment();
+        CompletableFuture<String> fetched;
+        try {
+            fetched = fetch.get();
+        } catch (RuntimeException e) {
+            fetched = CompletableFuture.failedFuture(e);
+        }
+        fetched.whenComplete((response, error) -> {
+            if (error == null && isCacheable(response)) {
+                store(key, vehicle, response);
+            }
+            inFlight.remove(key.cacheKey(), mine);
+            if (error != null) {
+                mine.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                mine.complete(response);
+            }
+        });
+        return mine;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeBehind.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${vietmap.route-cache.purge-interval-ms:3600000}",
+            initialDelayString = "${vietmap.route-cache.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = VietnamTimeUtils.now();
+        synchronized (memory) {
+            memory.values().removeIf(route -> !route.expiresAt().isAfter(now));
+        }
+        try {
+            Integer deleted = writeTransaction.execute(status -> repository.deleteExpired(now));
+            if (deleted != null && deleted > 0) {
+                log.debug("[RouteTollsCache] Purged {} expired routes", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("[RouteTollsCache] Failed to purge expired routes: {}", e.getMessage());
+        }
+    }
+
+    private CachedRoute fromDatabase(String cacheKey) {
+        try {
+            return readTransaction.execute(status -> repository.findValid(cacheKey, VietnamTimeUtils.now())
+                    .map(entity -> new CachedRoute(entity.getResponse(), entity.getExpiresAt()))
+                    .orElse(null));
+        } catch (RuntimeException e) {
+            log.warn("[RouteTollsCache] Failed to read cached route: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Keep the route in memory now and write it to the table on the write-behind thread,
+     * so neither the caller nor a Netty event loop waits on the database
+     */
+    private void store(PathKey key, Integer vehicle, String response) {
+        LocalDateTime now = VietnamTimeUtils.now();
+        LocalDateTime expiresAt = now.plus(ttl);
+        remember(key.cacheKey(), new CachedRoute(response, expiresAt));
+        writeBehind.execute(() -> {
+            try {
+                writeTransaction.executeWithoutResult(status -> repository.upsert(
+                        key.cacheKey(), vehicle, key.waypointCount(), response, now, expiresAt));
+            } catch (RuntimeException e) {
+                log.warn("[RouteTollsCache] Failed to store route: {}", e.getMessage());
+            }
+        });
+    }
+
+    private String fromMemory(String cacheKey) {
+        synchronized (memory) {
+            CachedRoute route = memory.get(cacheKey);
+            if (route == null) {
+                return null;
+            }
+            if (!route.expiresAt().isAfter(VietnamTimeUtils.now())) {
+                memory.remove(cacheKey);
+                return null;
+            }
+            return route.response();
+        }
+    }
+
+    private void remember(String cacheKey, CachedRoute route) {
+        synchronized (memory) {
+            memory.put(cacheKey, route);
+            var iterator = memory.entrySet().iterator();
+            while (memory.size() > maxEntries && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Only responses with a usable path are cached, so an error payload is never served again
+     */
+    private boolean isCacheable(String response) {
+        if (response == null || response.isBlank()) {
+            return false;
+        }
+        try {
+            JsonNode path = objectMapper.readTree(response).path("path");
+            return path.isArray() && path.size() >= 2;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * SHA-256 over the vehicle class and the rounded waypoints, null when the path is not a [[lng, lat], ...] array
+     */
+    private PathKey pathKey(String pathJson, Integer vehicle) {
+        try {
+            JsonNode path = objectMapper.readTree(pathJson);
+            if (!path.isArray() || path.size() < 2) {
+                return null;
+            }
+            StringBuilder canonical = new StringBuilder("v=").append(vehicle);
+            for (JsonNode point : path) {
+                if (!point.isArray() || point.size() < 2 || !point.get(0).isNumber() || !point.get(1).isNumber()) {
+                    return null;
+                }
+                canonical.append('|').append(round(point.get(0))).append(',').append(round(point.get(1)));
+            }
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String cacheKey = HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+            return new PathKey(cacheKey, path.size());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String round(JsonNode coordinate) {
+        return coordinate.decimalValue().setScale(coordinateScale, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static String await(CompletableFuture<String> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+}
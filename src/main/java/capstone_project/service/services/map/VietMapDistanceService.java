@@ -4,6 +4,7 @@ import capstone_project.entity.user.address.AddressEntity;
 import capstone_project.service.services.map.impl.VietMapDistanceServiceImpl.DistanceResult;
 
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service for calculating accurate distances using VietMap API
@@ -30,6 +31,12 @@ public interface VietMapDistanceService {
      * @return Distance in kilometers
      */
     BigDecimal calculateDistance(Double fromLat, Double fromLng, Double toLat, Double toLng, String vehicleType);
+
+    /**
+     * Non-blocking variant of calculateDistance, so several segments can be requested at once
+     * @return Distance in kilometers; falls back to Haversine when VietMap fails, like the blocking variant
+     */
+    CompletableFuture<BigDecimal> calculateDistanceAsync(Double fromLat, Double fromLng, Double toLat, Double toLng, String vehicleType);
     
     /**
      * Calculate distance with default vehicle type (car)
@@ -13,6 +13,7 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implementation of VietMapDistanceService using VietMap API
@@ -84,6 +85,40 @@ public class VietMapDistanceServiceImpl implements VietMapDistanceService {
         }
     }
 
+    @Override
+    public CompletableFuture<BigDecimal> calculateDistanceAsync(Double fromLat, Double fromLng, Double toLat, Double toLng, String vehicleType) {
+        if (fromLat == null || fromLng == null || toLat == null || toLng == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Coordinates must not be null"));
+        }
+
+        if (fromLat.equals(toLat) && fromLng.equals(toLng)) {
+            return CompletableFuture.completedFuture(BigDecimal.ZERO);
+        }
+
+        String pathJson;
+        try {
+            pathJson = objectMapper.writeValueAsString(Arrays.asList(
+                Arrays.asList(fromLng, fromLat),
+                Arrays.asList(toLng, toLat)
+            ));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(fallbackHaversineDistance(fromLat, fromLng, toLat, toLng));
+        }
+
+        return vietmapService.routeTollsAsync(pathJson, mapVehicleTypeToInteger(vehicleType))
+            .thenApply(response -> {
+                try {
+                    return parseDistanceAndTollsFromResponse(response).getDistanceKm();
+                } catch (Exception e) {
+                    throw new RuntimeException(e.getMessage(), e);
+                }
+            })
+            .exceptionally(e -> {
+                log.warn("⚠️ VietMap API failed, falling back to Haversine calculation: {}", e.getMessage());
+                return fallbackHaversineDistance(fromLat, fromLng, toLat, toLng);
+            });
+    }
+
     @Override
     public BigDecimal calculateDistance(AddressEntity fromAddress, AddressEntity toAddress) {
         return calculateDistance(fromAddress, toAddress, DEFAULT_VEHICLE_TYPE);
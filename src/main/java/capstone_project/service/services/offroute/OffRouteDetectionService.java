@@ -52,8 +52,8 @@ public interface OffRouteDetectionService {
     UUID createIssueFromEvent(UUID eventId, String description, UUID staffId);
 
     /**
-     * Check all active events and send warnings if thresholds are crossed
-     * Called by scheduled job
+     * Reconcile active events with the in-memory state: re-arm warning timers
+     * of untracked events (overdue thresholds fire immediately). Called by scheduled job
      */
     void checkAndSendWarnings();
 
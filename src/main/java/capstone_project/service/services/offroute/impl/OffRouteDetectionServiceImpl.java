@@ -23,10 +23,8 @@ import capstone_project.repository.entityServices.vehicle.VehicleAssignmentEntit
 import capstone_project.repository.repositories.issue.IssueRepository;
 import capstone_project.repository.repositories.order.contract.ContractRepository;
 import capstone_project.repository.repositories.order.order.OrderDetailRepository;
-import capstone_project.service.services.offroute.OffRouteDetectionService;
 import capstone_project.entity.order.contract.ContractEntity;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import capstone_project.config.scheduler.TimerWheel;
 import capstone_project.service.services.offroute.OffRouteDetectionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -35,7 +33,9 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.Duration;
@@ -46,6 +46,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import capstone_project.entity.user.driver.DriverEntity;
@@ -65,7 +66,12 @@ public class OffRouteDetectionServiceImpl implements OffRouteDetectionService {
     private final IssueTypeEntityService issueTypeEntityService;
     private final IssueRepository issueRepository;
     private final SimpMessagingTemplate messagingTemplate;
-    private final ObjectMapper objectMapper;
+    private final RouteGeometryCache routeGeometryCache;
+    private final TimerWheel timerWheel;
+    private final PlatformTransactionManager transactionManager;
+
+    // In-memory off-route state per vehicle assignment
+    private final Map<UUID, OffRouteSession> sessions = new ConcurrentHashMap<>();
 
     // Configuration constants
     @Value("${offroute.max-distance-meters:500.0}")
@@ -88,6 +94,20 @@ public class OffRouteDetectionServiceImpl implements OffRouteDetectionService {
     @Value("${offroute.return.min-distance-meters:50.0}")
     private double returnMinDistanceMeters;
 
+    // Chu kỳ ghi vị trí cuối cùng của xe đang lệch tuyến xuống DB (giây)
+    @Value("${offroute.checkpoint-interval-seconds:15}")
+    private long checkpointIntervalSeconds;
+
+    // Chu kỳ tải lại tuyến đường của hành trình đang hoạt động (giây)
+    @Value("${offroute.route-refresh-seconds:60}")
+    private long routeRefreshSeconds;
+
+    // Sessions without pings for this long are dropped from memory
+    @Value("${offroute.session-idle-minutes:30}")
+    private long sessionIdleMinutes;
+
+    private static final long WARNING_TIMER_SLACK_MILLIS = 200;
+
     private static final String STAFF_OFF_ROUTE_TOPIC = "/topic/staff/off-route-warnings";
     private static final String STAFF_NEW_ISSUES_TOPIC = "/topic/staff/new-issues";
 
@@ -180,45 +200,29 @@ public class OffRouteDetectionServiceImpl implements OffRouteDetectionService {
     }
 
     @Override
-    @Transactional
     public Double processLocationUpdate(UUID vehicleAssignmentId, BigDecimal lat, BigDecimal lng,
                                        Double speed, Double bearing) {
         try {
-            // Get vehicle assignment with journey
-            Optional<VehicleAssignmentEntity> assignmentOpt = 
-                vehicleAssignmentEntityService.findById(vehicleAssignmentId);
-            
-            if (assignmentOpt.isEmpty()) {
-                log.warn("[OffRoute] Vehicle assignment not found: {}", vehicleAssignmentId);
-                return null;
-            }
-            
-            VehicleAssignmentEntity assignment = assignmentOpt.get();
-            
-            // Get active journey for this assignment
-            Optional<JourneyHistoryEntity> journeyOpt = 
-                journeyHistoryEntityService.findLatestActiveJourney(vehicleAssignmentId);
-            
-            if (journeyOpt.isEmpty() || journeyOpt.get().getJourneySegments() == null) {
+            // Route and event state are served from memory; the DB is only hit on first ping,
+            // on periodic route refresh, on state transitions and on throttled checkpoints
+            OffRouteSession session = getSession(vehicleAssignmentId);
+            if (session == null || !session.hasRoute()) {
                 log.debug("[OffRoute] No active journey found for assignment: {}", vehicleAssignmentId);
                 return null;
             }
             
-            JourneyHistoryEntity journey = journeyOpt.get();
-            List<JourneySegmentEntity> segments = journey.getJourneySegments();
-            
-            // Calculate distance to route
-            double distanceToRoute = calculateDistanceToRoute(
-                lat.doubleValue(), lng.doubleValue(), segments);
+            // Calculate distance to route using the precompiled geometry of this journey
+            double distanceToRoute = session.getRouteIndex()
+                .distanceToRoute(lat.doubleValue(), lng.doubleValue());
             
             log.debug("[OffRoute] Distance to route for {}: {} meters", vehicleAssignmentId, distanceToRoute);
             
             // Check if off-route
             if (distanceToRoute > maxDistanceOnRouteMeters) {
-                handleOffRoute(assignment, lat, lng, distanceToRoute);
+                handleOffRoute(session, lat, lng, distanceToRoute);
             } else {
                 // Back on route - reset if there was an active event
-                handleBackOnRoute(vehicleAssignmentId);
+                handleBackOnRoute(session);
             }
             
             // Return calculated distance for real-time WebSocket updates
@@ -232,78 +236,275 @@ public class OffRouteDetectionServiceImpl implements OffRouteDetectionService {
     }
 
     /**
-     * Handle off-route condition
+     * Get the in-memory session of an assignment, loading it (or refreshing its route) from the database when needed
+     * @return null if the assignment does not exist
+     */
+    private OffRouteSession getSession(UUID vehicleAssignmentId) {
+        long now = System.currentTimeMillis();
+        long refreshMillis = routeRefreshSeconds * 1000L;
+
+        OffRouteSession session = sessions.get(vehicleAssignmentId);
+        if (session != null) {
+            session.touch();
+            if (session.isRouteStale(now, refreshMillis)) {
+                synchronized (session) {
+                    if (session.isRouteStale(now, refreshMillis)) {
+                        refreshRoute(session, now);
+                    }
+                }
+            }
+            return session;
+        }
+
+        OffRouteSession loaded = readOnlyTransaction().execute(status -> {
+            if (vehicleAssignmentEntityService.findById(vehicleAssignmentId).isEmpty()) {
+                log.warn("[OffRoute] Vehicle assignment not found: {}", vehicleAssignmentId);
+                return null;
+            }
+            OffRouteSession created = new OffRouteSession(vehicleAssignmentId);
+            loadRoute(created, now);
+            // Restore an event that was still open before a restart or before this session was evicted
+            offRouteEventEntityService.findActiveByVehicleAssignmentId(vehicleAssignmentId)
+                .filter(OffRouteEventEntity::isActive)
+                .ifPresent(created::attachEvent);
+            return created;
+        });
+        if (loaded == null) {
+            return null;
+        }
+
+        OffRouteSession existing = sessions.putIfAbsent(vehicleAssignmentId, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (loaded) {
+            scheduleNextWarning(loaded);
+        }
+        return loaded;
+    }
+
+    private void refreshRoute(OffRouteSession session, long now) {
+        try {
+            readOnlyTransaction().executeWithoutResult(status -> loadRoute(session, now));
+        } catch (Exception e) {
+            // Keep serving the previous route; retry on the next refresh
+            session.setRoute(session.getJourneyId(), session.getRouteIndex(), now);
+            log.warn("[OffRoute] Could not refresh route for assignment {}: {}",
+                session.getVehicleAssignmentId(), e.getMessage());
+        }
+    }
+
+    private void loadRoute(OffRouteSession session, long now) {
+        Optional<JourneyHistoryEntity> journeyOpt =
+            journeyHistoryEntityService.findLatestActiveJourney(session.getVehicleAssignmentId());
+        if (journeyOpt.isEmpty() || journeyOpt.get().getJourneySegments() == null) {
+            session.setRoute(null, null, now);
+            return;
+        }
+        JourneyHistoryEntity journey = journeyOpt.get();
+        session.setRoute(journey.getId(), routeGeometryCache.getIndex(journey), now);
+    }
+
+    /**
+     * Handle off-route condition.
+     * Only the first off-route ping is persisted (new event); later pings update memory
+     * and are written as a throttled checkpoint. Warnings are driven by the timer wheel.
      */
-    private void handleOffRoute(VehicleAssignmentEntity assignment, 
-                                 BigDecimal lat, BigDecimal lng, double distanceToRoute) {
-        UUID assignmentId = assignment.getId();
+    private void handleOffRoute(OffRouteSession session, BigDecimal lat, BigDecimal lng, double distanceToRoute) {
+        UUID assignmentId = session.getVehicleAssignmentId();
         
-        // Check for existing active event
+        synchronized (session) {
+            if (!session.hasEvent()) {
+                OffRouteEventEntity newEvent = transactionTemplate().execute(status ->
+                    createOffRouteEvent(assignmentId, lat, lng, distanceToRoute));
+                if (newEvent != null) {
+                    session.attachEvent(newEvent);
+                    session.markCheckpointed(System.currentTimeMillis());
+                    scheduleNextWarning(session);
+                    log.info("[OffRoute] New off-route event created for assignment: {}", assignmentId);
+                }
+                return;
+            }
+            
+            session.recordLocation(lat, lng, distanceToRoute);
+            
+            long now = System.currentTimeMillis();
+            if (now - session.getLastCheckpointMillis() >= checkpointIntervalSeconds * 1000L) {
+                checkpointLocation(session, now);
+            }
+        }
+    }
+
+    private OffRouteEventEntity createOffRouteEvent(UUID assignmentId, BigDecimal lat, BigDecimal lng,
+                                                    double distanceToRoute) {
         Optional<OffRouteEventEntity> existingEventOpt = 
             offRouteEventEntityService.findActiveByVehicleAssignmentId(assignmentId);
-        
         if (existingEventOpt.isPresent()) {
-            // Update existing event only if still active
-            OffRouteEventEntity event = existingEventOpt.get();
+            // Created by another node or before this session was loaded
+            return existingEventOpt.get().isActive() ? existingEventOpt.get() : null;
+        }
+        
+        VehicleAssignmentEntity assignment = vehicleAssignmentEntityService.findById(assignmentId)
+            .orElseThrow(() -> new RuntimeException("Vehicle assignment not found: " + assignmentId));
+        OrderEntity order = findOrderForAssignment(assignment);
+        
+        OffRouteEventEntity newEvent = OffRouteEventEntity.builder()
+            .vehicleAssignment(assignment)
+            .order(order)
+            .offRouteStartTime(LocalDateTime.now())
+            .lastKnownLat(lat)
+            .lastKnownLng(lng)
+            .distanceFromRouteMeters(distanceToRoute)
+            .previousDistanceFromRouteMeters(null) // No previous distance for new event
+            .lastLocationUpdateAt(LocalDateTime.now())
+            .warningStatus(OffRouteWarningStatus.NONE)
+            .canContactDriver(null)
+            .gracePeriodExtended(false)
+            .gracePeriodExtensionCount(0)
+            .build();
+        
+        return offRouteEventEntityService.save(newEvent);
+    }
+
+    /**
+     * Write the latest in-memory location of an off-route vehicle to its event
+     */
+    private void checkpointLocation(OffRouteSession session, long now) {
+        UUID eventId = session.getEventId();
+        try {
+            OffRouteEventEntity event = transactionTemplate().execute(status -> {
+                Optional<OffRouteEventEntity> eventOpt = offRouteEventEntityService.findById(eventId);
+                if (eventOpt.isEmpty() || !eventOpt.get().isActive()) {
+                    return eventOpt.orElse(null);
+                }
+                OffRouteEventEntity current = eventOpt.get();
+                session.applyLocationTo(current);
+                return offRouteEventEntityService.save(current);
+            });
+            session.markCheckpointed(now);
             
-            // CRITICAL FIX: Check if event is still active before updating
-            // This prevents tracking after ISSUE_CREATED status
-            if (!event.isActive()) {
-                log.debug("[OffRoute] Skipping update for inactive event {} with status {}", 
-                    event.getId(), event.getWarningStatus());
+            // CRITICAL FIX: Stop tracking once the event was closed (e.g. ISSUE_CREATED by staff)
+            if (event == null || !event.isActive()) {
+                log.debug("[OffRoute] Stopped tracking inactive event {}", eventId);
+                session.detachEvent();
+            }
+        } catch (Exception e) {
+            log.warn("[OffRoute] Checkpoint failed for event {}: {}", eventId, e.getMessage());
+        }
+    }
+
+    /**
+     * Handle returning to route
+     */
+    private void handleBackOnRoute(OffRouteSession session) {
+        synchronized (session) {
+            if (!session.hasEvent()) {
                 return;
             }
-            
-            // Store previous distance before updating
-            event.setPreviousDistanceFromRouteMeters(event.getDistanceFromRouteMeters());
-            event.setLastLocationUpdateAt(LocalDateTime.now());
-            
-            event.setLastKnownLat(lat);
-            event.setLastKnownLng(lng);
-            event.setDistanceFromRouteMeters(distanceToRoute);
-            offRouteEventEntityService.save(event);
-            
-            // Check warning thresholds
-            checkWarningThresholds(event);
+            UUID eventId = session.getEventId();
+            transactionTemplate().executeWithoutResult(status ->
+                offRouteEventEntityService.findById(eventId)
+                    .filter(OffRouteEventEntity::isActive)
+                    .ifPresent(event -> {
+                        session.applyLocationTo(event);
+                        markBackOnRoute(event);
+                    }));
+            session.detachEvent();
+        }
+        
+        log.info("[OffRoute] Driver returned to route for assignment: {}", session.getVehicleAssignmentId());
+    }
+
+    private void markBackOnRoute(OffRouteEventEntity event) {
+        event.setWarningStatus(OffRouteWarningStatus.BACK_ON_ROUTE);
+        event.setResolvedAt(LocalDateTime.now());
+        event.setResolvedReason("Driver returned to planned route automatically");
+        offRouteEventEntityService.save(event);
+    }
+
+    /**
+     * Arm the timer for the next warning threshold of the session's event.
+     * Must be called while holding the session monitor.
+     */
+    private void scheduleNextWarning(OffRouteSession session) {
+        session.cancelWarningTimer();
+        if (!session.hasEvent() || session.getOffRouteStartTime() == null) {
+            return;
+        }
+        
+        LocalDateTime dueAt;
+        if (session.getWarningStatus() == OffRouteWarningStatus.NONE) {
+            dueAt = session.getOffRouteStartTime().plusSeconds(yellowWarningSeconds);
+        } else if (session.getWarningStatus() == OffRouteWarningStatus.YELLOW_SENT) {
+            LocalDateTime from = session.getContactedAt() != null
+                ? session.getContactedAt() : session.getOffRouteStartTime();
+            dueAt = from.plusSeconds(redWarningSeconds);
         } else {
-            // Create new off-route event
-            OrderEntity order = findOrderForAssignment(assignment);
-            
-            OffRouteEventEntity newEvent = OffRouteEventEntity.builder()
-                .vehicleAssignment(assignment)
-                .order(order)
-                .offRouteStartTime(LocalDateTime.now())
-                .lastKnownLat(lat)
-                .lastKnownLng(lng)
-                .distanceFromRouteMeters(distanceToRoute)
-                .previousDistanceFromRouteMeters(null) // No previous distance for new event
-                .lastLocationUpdateAt(LocalDateTime.now())
-                .warningStatus(OffRouteWarningStatus.NONE)
-                .canContactDriver(null)
-                .gracePeriodExtended(false)
-                .gracePeriodExtensionCount(0)
-                .build();
-            
-            offRouteEventEntityService.save(newEvent);
-            log.info("[OffRoute] New off-route event created for assignment: {}", assignmentId);
+            return;
         }
+        
+        // Small slack so the whole-second duration check in checkWarningThresholds has passed
+        long delayMillis = Duration.between(LocalDateTime.now(), dueAt).toMillis() + WARNING_TIMER_SLACK_MILLIS;
+        UUID assignmentId = session.getVehicleAssignmentId();
+        UUID eventId = session.getEventId();
+        session.setWarningTimer(timerWheel.schedule(() -> onWarningDue(assignmentId, eventId), delayMillis));
     }
 
     /**
-     * Handle returning to route
+     * Timer callback: apply the threshold check to the persisted event and arm the next timer
      */
-    private void handleBackOnRoute(UUID vehicleAssignmentId) {
-        Optional<OffRouteEventEntity> eventOpt = 
-            offRouteEventEntityService.findActiveByVehicleAssignmentId(vehicleAssignmentId);
-        
-        if (eventOpt.isPresent()) {
-            OffRouteEventEntity event = eventOpt.get();
-            event.setWarningStatus(OffRouteWarningStatus.BACK_ON_ROUTE);
-            event.setResolvedAt(LocalDateTime.now());
-            event.setResolvedReason("Driver returned to planned route automatically");
-            offRouteEventEntityService.save(event);
+    private void onWarningDue(UUID assignmentId, UUID eventId) {
+        OffRouteSession session = sessions.get(assignmentId);
+        if (session == null) {
+            return;
+        }
+        
+        synchronized (session) {
+            if (!eventId.equals(session.getEventId())) {
+                return; // Event closed or replaced meanwhile
+            }
+            OffRouteEventEntity event = transactionTemplate().execute(status -> {
+                Optional<OffRouteEventEntity> eventOpt = offRouteEventEntityService.findById(eventId);
+                if (eventOpt.isEmpty()) {
+                    return null;
+                }
+                OffRouteEventEntity current = eventOpt.get();
+                // Warning payload carries the latest position held in memory
+                session.applyLocationTo(current);
+                checkWarningThresholds(current);
+                return current;
+            });
+            session.markCheckpointed(System.currentTimeMillis());
             
-            log.info("[OffRoute] Driver returned to route for assignment: {}", vehicleAssignmentId);
+            if (event == null || !event.isActive()) {
+                session.detachEvent();
+                return;
+            }
+            session.attachEvent(event);
+            scheduleNextWarning(session);
+        }
+    }
+
+    /**
+     * Re-sync the session of an assignment after staff changed its event
+     */
+    private void syncSession(OffRouteEventEntity event) {
+        if (event.getVehicleAssignment() == null) {
+            return;
+        }
+        OffRouteSession session = sessions.get(event.getVehicleAssignment().getId());
+        if (session == null) {
+            return;
+        }
+        synchronized (session) {
+            if (!event.isActive()) {
+                if (event.getId().equals(session.getEventId())) {
+                    session.detachEvent();
+                }
+                return;
+            }
+            session.attachEvent(event);
+            scheduleNextWarning(session);
         }
     }
 
@@ -366,6 +567,16 @@ public class OffRouteDetectionServiceImpl implements OffRouteDetectionService {
         }
     }
 
+    private TransactionTemplate transactionTemplate() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
     /**
      * Send warning to staff via WebSocket
      */
@@ -444,7 +655,9 @@ public class OffRouteDetectionServiceImpl implements OffRouteDetectionService {
         event.setCanContactDriver(true);
         event.setContactNotes(notes);
         
-        return offRouteEventEntityService.save(event);
+        OffRouteEventEntity saved = offRouteEventEntityService.save(event);
+        syncSession(saved);
+        return saved;
     }
 
     @Override
@@ -470,7 +683,9 @@ public class OffRouteDetectionServiceImpl implements OffRouteDetectionService {
         log.info("[OffRoute] Contact confirmed for event {} by staff {}, continuing to track", 
             eventId, staffId);
         
-        return offRouteEventEntityService.save(event);
+        OffRouteEventEntity saved = offRouteEventEntityService.save(event);
+        syncSession(saved);
+        return saved;
     }
 
     @Override
@@ -495,7 +710,9 @@ public class OffRouteDetectionServiceImpl implements OffRouteDetectionService {
         log.info("[OffRoute] Grace period extended for event {} by staff {}, new expiry at {}, extension count: {}", 
             eventId, staffId, event.getGracePeriodExpiresAt(), event.getGracePeriodExtensionCount());
         
-        return offRouteEventEntityService.save(event);
+        OffRouteEventEntity saved = offRouteEventEntityService.save(event);
+        syncSession(saved);
+        return saved;
     }
 
     private boolean isDriverReturningToRoute(OffRouteEventEntity event) {
@@ -622,7 +839,9 @@ public class OffRouteDetectionServiceImpl implements OffRouteDetectionService {
         event.setLastContactAttemptAt(LocalDateTime.now());
         event.setContactNotes(notes);
         
-        return offRouteEventEntityService.save(event);
+        OffRouteEventEntity saved = offRouteEventEntityService.save(event);
+        syncSession(saved);
+        return saved;
     }
 
     @Override
@@ -683,6 +902,7 @@ public class OffRouteDetectionServiceImpl implements OffRouteDetectionService {
         event.setWarningStatus(OffRouteWarningStatus.ISSUE_CREATED);
         event.setIssue(savedIssue);
         offRouteEventEntityService.save(event);
+        syncSession(event);
         
         log.info("[OffRoute] Issue created from off-route event: {}", savedIssue.getId());
         
@@ -691,116 +911,59 @@ public class OffRouteDetectionServiceImpl implements OffRouteDetectionService {
 
     @Override
     public void checkAndSendWarnings() {
+        // Reconciliation only: warnings are fired by the timer wheel as soon as a threshold is due.
+        // This re-arms timers for events that are not tracked in memory (e.g. after a restart);
+        // overdue thresholds fire immediately.
         List<OffRouteEventEntity> activeEvents = offRouteEventEntityService.findAllActiveEvents();
+        int rearmed = 0;
         
         for (OffRouteEventEntity event : activeEvents) {
             try {
-                checkWarningThresholds(event);
+                if (!event.isActive() || event.getVehicleAssignment() == null) {
+                    continue;
+                }
+                UUID assignmentId = event.getVehicleAssignment().getId();
+                OffRouteSession session = sessions.computeIfAbsent(assignmentId, OffRouteSession::new);
+                synchronized (session) {
+                    if (event.getId().equals(session.getEventId())
+                            && session.getWarningTimer() != null && !session.getWarningTimer().isExpired()) {
+                        continue;
+                    }
+                    session.attachEvent(event);
+                    scheduleNextWarning(session);
+                    if (session.getWarningTimer() != null) {
+                        rearmed++;
+                    }
+                }
             } catch (Exception e) {
                 log.error("[OffRoute] Error checking warning for event {}: {}", 
                     event.getId(), e.getMessage());
             }
         }
+        
+        // Drop sessions of assignments that stopped sending pings and have nothing pending
+        long idleCutoff = System.currentTimeMillis() - sessionIdleMinutes * 60_000L;
+        sessions.values().removeIf(session -> !session.hasEvent() && session.getLastPingMillis() < idleCutoff);
+        
+        if (rearmed > 0) {
+            log.info("[OffRoute] Re-armed warning timers for {} active events", rearmed);
+        }
     }
 
     @Override
     @Transactional
     public void resetOffRouteEvent(UUID vehicleAssignmentId) {
-        handleBackOnRoute(vehicleAssignmentId);
-    }
-
-    /**
-     * Calculate minimum distance from a point to a route (polyline)
-     */
-    private double calculateDistanceToRoute(double lat, double lng, List<JourneySegmentEntity> segments) {
-        double minDistance = Double.MAX_VALUE;
-        
-        for (JourneySegmentEntity segment : segments) {
-            // Check distance to segment endpoints
-            if (segment.getStartLatitude() != null && segment.getStartLongitude() != null) {
-                double distToStart = haversineDistance(
-                    lat, lng, 
-                    segment.getStartLatitude().doubleValue(), 
-                    segment.getStartLongitude().doubleValue());
-                minDistance = Math.min(minDistance, distToStart);
+        OffRouteSession session = sessions.get(vehicleAssignmentId);
+        if (session != null) {
+            synchronized (session) {
+                session.detachEvent();
             }
-            
-            if (segment.getEndLatitude() != null && segment.getEndLongitude() != null) {
-                double distToEnd = haversineDistance(
-                    lat, lng, 
-                    segment.getEndLatitude().doubleValue(), 
-                    segment.getEndLongitude().doubleValue());
-                minDistance = Math.min(minDistance, distToEnd);
-            }
-            
-            // Check distance to path coordinates if available
-            if (segment.getPathCoordinatesJson() != null) {
-                try {
-                    List<List<Double>> coords = objectMapper.readValue(
-                        segment.getPathCoordinatesJson(), 
-                        new TypeReference<List<List<Double>>>() {});
-                    
-                    for (int i = 0; i < coords.size() - 1; i++) {
-                        List<Double> point1 = coords.get(i);
-                        List<Double> point2 = coords.get(i + 1);
-                        
-                        if (point1.size() >= 2 && point2.size() >= 2) {
-                            double distToSegment = pointToSegmentDistance(
-                                lat, lng,
-                                point1.get(1), point1.get(0), // lat, lng
-                                point2.get(1), point2.get(0)  // lat, lng
-                            );
-                            minDistance = Math.min(minDistance, distToSegment);
-                        }
-                    }
-                } catch (Exception e) {
-                    log.debug("[OffRoute] Could not parse path coordinates: {}", e.getMessage());
-                }
-            }
-        }
-        
-        return minDistance == Double.MAX_VALUE ? 0 : minDistance;
-    }
-
-    /**
-     * Calculate distance from a point to a line segment using Haversine formula
-     */
-    private double pointToSegmentDistance(double lat, double lng, 
-                                           double lat1, double lng1, 
-                                           double lat2, double lng2) {
-        // Project point onto line segment and calculate distance
-        double dx = lat2 - lat1;
-        double dy = lng2 - lng1;
-        
-        if (dx == 0 && dy == 0) {
-            // Segment is a point
-            return haversineDistance(lat, lng, lat1, lng1);
         }
-        
-        double t = Math.max(0, Math.min(1, ((lat - lat1) * dx + (lng - lng1) * dy) / (dx * dx + dy * dy)));
-        
-        double projLat = lat1 + t * dx;
-        double projLng = lng1 + t * dy;
-        
-        return haversineDistance(lat, lng, projLat, projLng);
-    }
-
-    /**
-     * Calculate Haversine distance between two points in meters
-     */
-    private double haversineDistance(double lat1, double lng1, double lat2, double lng2) {
-        final double R = 6371000; // Earth's radius in meters
-        
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLng = Math.toRadians(lng2 - lng1);
-        
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                   Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                   Math.sin(dLng / 2) * Math.sin(dLng / 2);
-        
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        
-        return R * c;
+        offRouteEventEntityService.findActiveByVehicleAssignmentId(vehicleAssignmentId)
+            .ifPresent(event -> {
+                markBackOnRoute(event);
+                log.info("[OffRoute] Driver returned to route for assignment: {}", vehicleAssignmentId);
+            });
     }
 
     /**
@@ -0,0 +1,145 @@
+package capstone_project.service.services.offroute.impl;
+
+import capstone_project.common.enums.OffRouteWarningStatus;
+import capstone_project.common.utils.RouteGeometryIndex;
+import capstone_project.entity.offroute.OffRouteEventEntity;
+import io.netty.util.Timeout;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * In-memory off-route state of one vehicle assignment.
+ * Holds the compiled route and the current event so GPS pings don't go to the database;
+ * only state transitions and throttled checkpoints are persisted.
+ * All mutations happen while holding the session monitor.
+ */
+@Getter
+class OffRouteSession {
+
+    private final UUID vehicleAssignmentId;
+
+    // Route of the latest active journey (null when the assignment has no active journey)
+    private UUID journeyId;
+    private RouteGeometryIndex routeIndex;
+    private long routeLoadedAtMillis;
+
+    // Current off-route event (null while on route)
+    private UUID eventId;
+    private OffRouteWarningStatus warningStatus;
+    private LocalDateTime offRouteStartTime;
+    private LocalDateTime contactedAt;
+
+    // Latest ping while off route, not yet checkpointed
+    private BigDecimal lastKnownLat;
+    private BigDecimal lastKnownLng;
+    private Double distanceFromRouteMeters;
+    private Double previousDistanceFromRouteMeters;
+    private LocalDateTime lastLocationUpdateAt;
+    private long lastCheckpointMillis;
+    private boolean dirty;
+
+    private Timeout warningTimer;
+    private volatile long lastPingMillis = System.currentTimeMillis();
+
+    OffRouteSession(UUID vehicleAssignmentId) {
+        this.vehicleAssignmentId = vehicleAssignmentId;
+    }
+
+    boolean hasRoute() {
+        return routeIndex != null && !routeIndex.isEmpty();
+    }
+
+    boolean isRouteStale(long nowMillis, long refreshMillis) {
+        return nowMillis - routeLoadedAtMillis >= refreshMillis;
+    }
+
+    void setRoute(UUID journeyId, RouteGeometryIndex routeIndex, long nowMillis) {
+        this.journeyId = journeyId;
+        this.routeIndex = routeIndex;
+        this.routeLoadedAtMillis = nowMillis;
+    }
+
+    void touch() {
+        this.lastPingMillis = System.currentTimeMillis();
+    }
+
+    boolean hasEvent() {
+        return eventId != null;
+    }
+
+    /**
+     * Take over the state of a persisted event (new event, restart recovery or staff action)
+     */
+    void attachEvent(OffRouteEventEntity event) {
+        this.eventId = event.getId();
+        this.warningStatus = event.getWarningStatus();
+        this.offRouteStartTime = event.getOffRouteStartTime();
+        this.contactedAt = event.getContactedAt();
+        if (lastLocationUpdateAt == null || (event.getLastLocationUpdateAt() != null
+                && event.getLastLocationUpdateAt().isAfter(lastLocationUpdateAt))) {
+            this.lastKnownLat = event.getLastKnownLat();
+            this.lastKnownLng = event.getLastKnownLng();
+            this.distanceFromRouteMeters = event.getDistanceFromRouteMeters();
+            this.previousDistanceFromRouteMeters = event.getPreviousDistanceFromRouteMeters();
+            this.lastLocationUpdateAt = event.getLastLocationUpdateAt();
+            this.dirty = false;
+        }
+    }
+
+    void detachEvent() {
+        cancelWarningTimer();
+        this.eventId = null;
+        this.warningStatus = null;
+        this.offRouteStartTime = null;
+        this.contactedAt = null;
+        this.lastKnownLat = null;
+        this.lastKnownLng = null;
+        this.distanceFromRouteMeters = null;
+        this.previousDistanceFromRouteMeters = null;
+        this.lastLocationUpdateAt = null;
+        this.dirty = false;
+    }
+
+    void recordLocation(BigDecimal lat, BigDecimal lng, double distance) {
+        this.previousDistanceFromRouteMeters = this.distanceFromRouteMeters;
+        this.lastKnownLat = lat;
+        this.lastKnownLng = lng;
+        this.distanceFromRouteMeters = distance;
+        this.lastLocationUpdateAt = LocalDateTime.now();
+        this.dirty = true;
+    }
+
+    /**
+     * Copy the in-memory location into the entity before it is saved
+     */
+    void applyLocationTo(OffRouteEventEntity event) {
+        if (!dirty) {
+            return;
+        }
+        event.setPreviousDistanceFromRouteMeters(previousDistanceFromRouteMeters);
+        event.setLastKnownLat(lastKnownLat);
+        event.setLastKnownLng(lastKnownLng);
+        event.setDistanceFromRouteMeters(distanceFromRouteMeters);
+        event.setLastLocationUpdateAt(lastLocationUpdateAt);
+    }
+
+    void markCheckpointed(long nowMillis) {
+        this.lastCheckpointMillis = nowMillis;
+        this.dirty = false;
+    }
+
+    void setWarningTimer(Timeout warningTimer) {
+        cancelWarningTimer();
+        this.warningTimer = warningTimer;
+    }
+
+    void cancelWarningTimer() {
+        if (warningTimer != null) {
+            warningTimer.cancel();
+            warningTimer = null;
+        }
+    }
+}
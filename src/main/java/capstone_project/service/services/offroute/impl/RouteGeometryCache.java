@@ -0,0 +1,199 @@
+package capstone_project.service.services.offroute.impl;
+
+import capstone_project.common.utils.RouteGeometryIndex;
+import capstone_project.entity.order.order.JourneyHistoryEntity;
+import capstone_project.entity.order.order.JourneySegmentEntity;
+import capstone_project.event.JourneyEndedEvent;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the compiled {@link RouteGeometryIndex} of each active journey so GPS pings
+ * don't re-parse path_coordinates_json every time.
+ * An entry is rebuilt when the journey or any of its segments changes (fingerprint mismatch)
+ * and dropped when the journey is rerouted or its assignment completes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RouteGeometryCache {
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<UUID, CachedRoute> routesByJourneyId = new ConcurrentHashMap<>();
+
+    // Journeys not queried for this long are dropped (e.g. cancelled trips that never reported an end)
+    private static final long IDLE_EVICTION_MILLIS = 6 * 60 * 60 * 1000L;
+
+    private static final class CachedRoute {
+        private final UUID vehicleAssignmentId;
+        private final long fingerprint;
+        private final RouteGeometryIndex index;
+        private volatile long lastAccessMillis = System.currentTimeMillis();
+
+        private CachedRoute(UUID vehicleAssignmentId, long fingerprint, RouteGeometryIndex index) {
+            this.vehicleAssignmentId = vehicleAssignmentId;
+            this.fingerprint = fingerprint;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Get the compiled route of a journey, building it on first use or after the journey changed
+     */
+    public RouteGeometryIndex getIndex(JourneyHistoryEntity journey) {
+        if (journey == null || journey.getJourneySegments() == null) {
+            return RouteGeometryIndex.empty();
+        }
+
+        long fingerprint = fingerprint(journey);
+        if (journey.getId() == null) {
+            return compile(journey.getJourneySegments());
+        }
+
+        CachedRoute cached = routesByJourneyId.get(journey.getId());
+        if (cached != null && cached.fingerprint == fingerprint) {
+            cached.lastAccessMillis = System.currentTimeMillis();
+            return cached.index;
+        }
+
+        RouteGeometryIndex index = compile(journey.getJourneySegments());
+        UUID vehicleAssignmentId = journey.getVehicleAssignment() != null ? journey.getVehicleAssignment().getId() : null;
+        routesByJourneyId.put(journey.getId(), new CachedRoute(vehicleAssignmentId, fingerprint, index));
+        log.debug("[OffRoute] Compiled route geometry for journey {}: {} vertices, {} segments",
+                journey.getId(), index.vertexCount(), index.segmentCount());
+        return index;
+    }
+
+    /**
+     * Drop the compiled route of a journey (e.g. when it is completed or replaced by a reroute)
+     */
+    public void invalidate(UUID journeyId) {
+        if (journeyId != null) {
+            routesByJourneyId.remove(journeyId);
+        }
+    }
+
+    /**
+     * Drop the compiled routes of every journey of a vehicle assignment (trip completed)
+     */
+    public void invalidateAssignment(UUID vehicleAssignmentId) {
+        if (vehicleAssignmentId != null) {
+            routesByJourneyId.values().removeIf(route -> vehicleAssignmentId.equals(route.vehicleAssignmentId));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onJourneyEnded(JourneyEndedEvent event) {
+        if (event.getJourneyId() != null) {
+            invalidate(event.getJourneyId());
+        } else {
+            invalidateAssignment(event.getVehicleAssignmentId());
+        }
+    }
+
+    public int size() {
+        return routesByJourneyId.size();
+    }
+
+    /**
+     * Drop routes of journeys that stopped receiving GPS pings
+     */
+    @Scheduled(fixedRate = 3600000) // Every hour
+    public void evictIdleRoutes() {
+        long cutoff = System.currentTimeMillis() - IDLE_EVICTION_MILLIS;
+        int before = routesByJourneyId.size();
+        routesByJourneyId.values().removeIf(route -> route.lastAccessMillis < cutoff);
+        int evicted = before - routesByJourneyId.size();
+        if (evicted > 0) {
+            log.debug("[OffRoute] Evicted {} idle compiled routes", evicted);
+        }
+    }
+
+    /**
+     * Cheap fingerprint over journey/segment identity and modification times - no path parsing
+     */
+    private long fingerprint(JourneyHistoryEntity journey) {
+        long hash = Objects.hash(journey.getStatus(), journey.getModifiedAt());
+        List<JourneySegmentEntity> segments = journey.getJourneySegments();
+        for (JourneySegmentEntity segment : segments) {
+            LocalDateTime modifiedAt = segment.getModifiedAt();
+            hash = 31 * hash + Objects.hashCode(segment.getId());
+            hash = 31 * hash + Objects.hashCode(modifiedAt);
+            String path = segment.getPathCoordinatesJson();
+            hash = 31 * hash + (path != null ? path.length() : 0);
+        }
+        return 31 * hash + segments.size();
+    }
+
+    private RouteGeometryIndex compile(List<JourneySegmentEntity> segments) {
+        RouteGeometryIndex.Builder builder = RouteGeometryIndex.builder();
+
+        for (JourneySegmentEntity segment : segments) {
+            if (segment.getStartLatitude() != null && segment.getStartLongitude() != null) {
+                builder.addPoint(segment.getStartLatitude().doubleValue(), segment.getStartLongitude().doubleValue());
+            }
+            if (segment.getEndLatitude() != null && segment.getEndLongitude() != null) {
+                builder.addPoint(segment.getEndLatitude().doubleValue(), segment.getEndLongitude().doubleValue());
+            }
+            if (segment.getPathCoordinatesJson() != null) {
+                try {
+                    readPath(segment.getPathCoordinatesJson(), builder);
+                } catch (IOException | RuntimeException e) {
+                    log.debug("[OffRoute] Could not parse path coordinates: {}", e.getMessage());
+                }
+                builder.endPolyline();
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Stream [[lng, lat], ...] straight into the builder without materializing boxed lists
+     */
+    private void readPath(String json, RouteGeometryIndex.Builder builder) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return;
+            }
+            builder.beginPolyline();
+            while (parser.nextToken() == JsonToken.START_ARRAY) {
+                double lng = Double.NaN;
+                double lat = Double.NaN;
+                int position = 0;
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                    if (token.isNumeric()) {
+                        if (position == 0) {
+                            lng = parser.getDoubleValue();
+                        } else if (position == 1) {
+                            lat = parser.getDoubleValue();
+                        }
+                    } else if (token.isStructStart()) {
+                        parser.skipChildren();
+                    }
+                    position++;
+                }
+                if (!Double.isNaN(lat) && !Double.isNaN(lng)) {
+                    builder.addVertex(lat, lng);
+                }
+            }
+        }
+    }
+}
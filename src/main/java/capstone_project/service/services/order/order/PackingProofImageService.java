@@ -5,12 +5,14 @@ import capstone_project.dtos.request.order.UpdatePackingProofImageRequest;
 import capstone_project.dtos.response.order.PackingProofImageResponse;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface PackingProofImageService {
-    PackingProofImageResponse uploadAndSaveImage(MultipartFile file, CreatePackingProofImageRequest request) throws IOException;
+    CompletableFuture<PackingProofImageResponse> uploadAndSaveImage(MultipartFile file, CreatePackingProofImageRequest request);
+
+    PackingProofImageResponse saveUploadedImage(String imageUrl, CreatePackingProofImageRequest request);
     PackingProofImageResponse updateImage(UpdatePackingProofImageRequest request);
     PackingProofImageResponse getImage(UUID id);
     List<PackingProofImageResponse> getAllImages();
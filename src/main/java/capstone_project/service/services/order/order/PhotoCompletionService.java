@@ -5,17 +5,17 @@ import capstone_project.dtos.request.order.UpdatePhotoCompletionRequest;
 import capstone_project.dtos.response.order.PhotoCompletionResponse;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface PhotoCompletionService {
 
-    PhotoCompletionResponse uploadAndSavePhoto(MultipartFile file,
-                                               CreatePhotoCompletionRequest request) throws IOException;
+    CompletableFuture<PhotoCompletionResponse> uploadAndSavePhoto(MultipartFile file,
+                                                                  CreatePhotoCompletionRequest request);
 
-    List<PhotoCompletionResponse> uploadAndSaveMultiplePhotos(List<MultipartFile> files,
-                                               CreatePhotoCompletionRequest request) throws IOException;
+    CompletableFuture<List<PhotoCompletionResponse>> uploadAndSaveMultiplePhotos(List<MultipartFile> files,
+                                                                                 CreatePhotoCompletionRequest request);
 
     PhotoCompletionResponse updatePhoto(UpdatePhotoCompletionRequest request);
 
@@ -62,6 +62,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
@@ -107,6 +108,9 @@ public class ContractServiceImpl implements ContractService {
     private static final double EARTH_RADIUS_KM = 6371.0;
     private final UserEntityServiceImpl userEntityServiceImpl;
 
+    @Value("${binpacker.search.time-budget-ms:150}")
+    private long packingSearchBudgetMs;
+
     // Manual constructor to break circular dependency
     public ContractServiceImpl(
             ContractEntityService contractEntityService,
@@ -1155,7 +1159,7 @@ public class ContractServiceImpl implements ContractService {
         }
 
         try {
-            List<BinPacker.ContainerState> containers = BinPacker.pack(details, sortedsizeRules);
+            List<BinPacker.ContainerState> containers = BinPacker.packBest(details, sortedsizeRules, packingSearchBudgetMs);
             List<ContractRuleAssignResponse> responses = BinPacker.toContractResponses(containers, details);
             
             long elapsedMs = (System.nanoTime() - t0) / 1_000_000;
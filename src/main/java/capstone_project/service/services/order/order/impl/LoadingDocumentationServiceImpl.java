@@ -13,6 +13,7 @@ import capstone_project.dtos.response.order.seal.GetSealResponse;
 import capstone_project.entity.vehicle.VehicleAssignmentEntity;
 import capstone_project.repository.entityServices.order.order.OrderEntityService;
 import capstone_project.repository.entityServices.vehicle.VehicleAssignmentEntityService;
+import capstone_project.service.services.cloudinary.ImageUploadPipeline;
 import capstone_project.service.services.order.order.LoadingDocumentationService;
 import capstone_project.service.services.order.order.OrderService;
 import capstone_project.service.services.order.order.OrderDetailStatusService;
@@ -34,6 +35,7 @@ import java.util.UUID;
 @Slf4j
 public class LoadingDocumentationServiceImpl implements LoadingDocumentationService {
     private final PackingProofImageService packingProofImageService;
+    private final ImageUploadPipeline imageUploadPipeline;
     private final SealService sealService;
     private final VehicleAssignmentEntityService vehicleAssignmentEntityService;
     private final OrderEntityService orderEntityService;
@@ -56,14 +58,16 @@ public class LoadingDocumentationServiceImpl implements LoadingDocumentationServ
         // Auto-generate packing description
         String generatedDescription = "Packing proof for vehicle assignment " + request.vehicleAssignmentId();
 
-        // Upload packing proof images
+        // Upload packing proof images in parallel, then save them in this transaction
+        List<String> packingProofUrls = ImageUploadPipeline.await(
+                imageUploadPipeline.uploadAll(packingProofImages, "packing_proof_images"));
         List<PackingProofImageResponse> packingProofResponses = new ArrayList<>();
-        for (MultipartFile file : packingProofImages) {
+        for (String imageUrl : packingProofUrls) {
             CreatePackingProofImageRequest imageRequest = new CreatePackingProofImageRequest(
                     request.vehicleAssignmentId(),
                     generatedDescription // Use generated description
             );
-            PackingProofImageResponse response = packingProofImageService.uploadAndSaveImage(file, imageRequest);
+            PackingProofImageResponse response = packingProofImageService.saveUploadedImage(imageUrl, imageRequest);
             packingProofResponses.add(response);
         }
 
@@ -10,17 +10,17 @@ import capstone_project.entity.vehicle.VehicleAssignmentEntity;
 import capstone_project.repository.entityServices.order.conformation.PackingProofImageEntityService;
 import capstone_project.repository.entityServices.vehicle.VehicleAssignmentEntityService;
 import capstone_project.service.mapper.order.PackingProofImageMapper;
-import capstone_project.service.services.cloudinary.CloudinaryService;
+import capstone_project.service.services.cloudinary.ImageUploadPipeline;
 import capstone_project.service.services.order.order.PackingProofImageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -29,27 +29,29 @@ public class PackingProofImageServiceImpl implements PackingProofImageService {
     private final PackingProofImageEntityService packingProofImageEntityService;
     private final PackingProofImageMapper packingProofImageMapper;
     private final VehicleAssignmentEntityService vehicleAssignmentEntityService;
-    private final CloudinaryService cloudinaryService;
+    private final ImageUploadPipeline imageUploadPipeline;
 
     @Override
-    public PackingProofImageResponse uploadAndSaveImage(MultipartFile file,
-                                                     CreatePackingProofImageRequest request) throws IOException {
-        // upload to Cloudinary
-        var uploadResult = cloudinaryService.uploadFile(
-                file.getBytes(),
-                UUID.randomUUID().toString(),
-                "packing_proof_images"
-        );
-        String imageUrl = uploadResult.get("secure_url").toString();
+    public CompletableFuture<PackingProofImageResponse> uploadAndSaveImage(MultipartFile file,
+                                                                        CreatePackingProofImageRequest request) {
+        // load relationships before uploading, so an invalid request never reaches Cloudinary
+        VehicleAssignmentEntity vehicleAssignment = findVehicleAssignment(request.vehicleAssignmentId());
 
-        // load relationships
-        VehicleAssignmentEntity vehicleAssignment = vehicleAssignmentEntityService.findEntityById(request.vehicleAssignmentId())
-                .orElseThrow(() -> new RuntimeException("VehicleAssignment not found"));
+        // upload to Cloudinary off the request thread, then save to database
+        return imageUploadPipeline.upload(file, UUID.randomUUID().toString(), "packing_proof_images")
+                .thenApply(imageUrl -> saveImage(imageUrl, request.description(), vehicleAssignment));
+    }
+
+    @Override
+    public PackingProofImageResponse saveUploadedImage(String imageUrl, CreatePackingProofImageRequest request) {
+        return saveImage(imageUrl, request.description(), findVehicleAssignment(request.vehicleAssignmentId()));
+    }
 
-        // save to database
+    private PackingProofImageResponse saveImage(String imageUrl, String description,
+                                                VehicleAssignmentEntity vehicleAssignment) {
         PackingProofImageEntity entity = PackingProofImageEntity.builder()
                 .imageUrl(imageUrl)
-                .description(request.description())
+                .description(description)
                 .vehicleAssignmentEntity(vehicleAssignment)
                 .build();
         entity = packingProofImageEntityService.save(entity);
@@ -57,6 +59,11 @@ public class PackingProofImageServiceImpl implements PackingProofImageService {
         return packingProofImageMapper.toPackingProofImageResponse(entity);
     }
 
+    private VehicleAssignmentEntity findVehicleAssignment(UUID vehicleAssignmentId) {
+        return vehicleAssignmentEntityService.findEntityById(vehicleAssignmentId)
+                .orElseThrow(() -> new RuntimeException("VehicleAssignment not found"));
+    }
+
     @Override
     public PackingProofImageResponse updateImage(UpdatePackingProofImageRequest request) {
         PackingProofImageEntity entity = packingProofImageEntityService.findEntityById(request.id())
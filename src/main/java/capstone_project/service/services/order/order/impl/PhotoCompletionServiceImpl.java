@@ -16,7 +16,7 @@ import capstone_project.repository.entityServices.order.order.OrderEntityService
 import capstone_project.repository.entityServices.order.order.SealEntityService;
 import capstone_project.repository.entityServices.vehicle.VehicleAssignmentEntityService;
 import capstone_project.service.mapper.order.PhotoCompletionMapper;
-import capstone_project.service.services.cloudinary.CloudinaryService;
+import capstone_project.service.services.cloudinary.ImageUploadPipeline;
 import capstone_project.service.services.order.order.OrderService;
 import capstone_project.service.services.order.order.OrderDetailStatusService;
 import capstone_project.service.services.order.order.PhotoCompletionService;
@@ -25,11 +25,11 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @Slf4j
@@ -37,7 +37,7 @@ public class PhotoCompletionServiceImpl implements PhotoCompletionService {
     private final PhotoCompletionEntityService photoCompletionEntityService;
     private final PhotoCompletionMapper photoCompletionMapper;
     private final VehicleAssignmentEntityService vehicleAssignmentEntityService;
-    private final CloudinaryService cloudinaryService;
+    private final ImageUploadPipeline imageUploadPipeline;
     private final OrderEntityService orderEntityService;
     private final OrderService orderService;
     private final OrderDetailStatusService orderDetailStatusService;
@@ -47,7 +47,7 @@ public class PhotoCompletionServiceImpl implements PhotoCompletionService {
             PhotoCompletionEntityService photoCompletionEntityService,
             PhotoCompletionMapper photoCompletionMapper,
             VehicleAssignmentEntityService vehicleAssignmentEntityService,
-            CloudinaryService cloudinaryService,
+            ImageUploadPipeline imageUploadPipeline,
             OrderEntityService orderEntityService,
             @Lazy OrderService orderService,
             OrderDetailStatusService orderDetailStatusService,
@@ -55,7 +55,7 @@ public class PhotoCompletionServiceImpl implements PhotoCompletionService {
         this.photoCompletionEntityService = photoCompletionEntityService;
         this.photoCompletionMapper = photoCompletionMapper;
         this.vehicleAssignmentEntityService = vehicleAssignmentEntityService;
-        this.cloudinaryService = cloudinaryService;
+        this.imageUploadPipeline = imageUploadPipeline;
         this.orderEntityService = orderEntityService;
         this.orderService = orderService;
         this.orderDetailStatusService = orderDetailStatusService;
@@ -63,49 +63,44 @@ public class PhotoCompletionServiceImpl implements PhotoCompletionService {
     }
 
     @Override
-    public PhotoCompletionResponse uploadAndSavePhoto(MultipartFile file,
-                                                      CreatePhotoCompletionRequest request) throws IOException {
-        // upload Cloudinary
-        var uploadResult = cloudinaryService.uploadFile(
-                file.getBytes(),
-                UUID.randomUUID().toString(),
-                "photo_completions"
-        );
-        String imageUrl = uploadResult.get("secure_url").toString();
-
-        // load relationships
+    public CompletableFuture<PhotoCompletionResponse> uploadAndSavePhoto(MultipartFile file,
+                                                                         CreatePhotoCompletionRequest request) {
+        // load relationships before the upload, so a bad request fails without uploading
         VehicleAssignmentEntity vehicleAssignment = vehicleAssignmentEntityService.findEntityById(request.vehicleAssignmentId())
                 .orElseThrow(() -> new RuntimeException("VehicleAssignment not found"));
 
-        // save DB
-        PhotoCompletionEntity entity = PhotoCompletionEntity.builder()
-                .imageUrl(imageUrl)
-                .description(request.description())
-                .vehicleAssignmentEntity(vehicleAssignment)
-                .build();
-        entity = photoCompletionEntityService.save(entity);
-
-        return photoCompletionMapper.toPhotoCompletionResponse(entity);
+        // upload Cloudinary, then save DB with the URL
+        return imageUploadPipeline.upload(file, UUID.randomUUID().toString(), "photo_completions")
+                .thenApply(imageUrl -> {
+                    PhotoCompletionEntity entity = PhotoCompletionEntity.builder()
+                            .imageUrl(imageUrl)
+                            .description(request.description())
+                            .vehicleAssignmentEntity(vehicleAssignment)
+                            .build();
+                    entity = photoCompletionEntityService.save(entity);
+
+                    return photoCompletionMapper.toPhotoCompletionResponse(entity);
+                });
     }
 
     @Override
-    public List<PhotoCompletionResponse> uploadAndSaveMultiplePhotos(List<MultipartFile> files,
-                                                     CreatePhotoCompletionRequest request) throws IOException {
+    public CompletableFuture<List<PhotoCompletionResponse>> uploadAndSaveMultiplePhotos(List<MultipartFile> files,
+                                                                                        CreatePhotoCompletionRequest request) {
         // load relationships - only do this once for all photos
         VehicleAssignmentEntity vehicleAssignment = vehicleAssignmentEntityService.findEntityById(request.vehicleAssignmentId())
                 .orElseThrow(() -> new RuntimeException("VehicleAssignment not found"));
 
-        List<PhotoCompletionEntity> savedEntities = new ArrayList<>();
+        // upload all files to Cloudinary in parallel
+        return imageUploadPipeline.uploadAll(files, "photo_completions")
+                .thenApply(imageUrls -> savePhotosAndMarkDelivered(imageUrls, vehicleAssignment, request));
+    }
 
-        for (MultipartFile file : files) {
-            // upload each file to Cloudinary
-            var uploadResult = cloudinaryService.uploadFile(
-                    file.getBytes(),
-                    UUID.randomUUID().toString(),
-                    "photo_completions"
-            );
-            String imageUrl = uploadResult.get("secure_url").toString();
+    private List<PhotoCompletionResponse> savePhotosAndMarkDelivered(List<String> imageUrls,
+                                                                     VehicleAssignmentEntity vehicleAssignment,
+                                                                     CreatePhotoCompletionRequest request) {
+        List<PhotoCompletionEntity> savedEntities = new ArrayList<>();
 
+        for (String imageUrl : imageUrls) {
             // save each photo to DB
             PhotoCompletionEntity entity = PhotoCompletionEntity.builder()
                     .imageUrl(imageUrl)
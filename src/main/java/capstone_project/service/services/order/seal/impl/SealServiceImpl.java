@@ -12,7 +12,7 @@ import capstone_project.entity.vehicle.VehicleAssignmentEntity;
 import capstone_project.repository.entityServices.order.order.SealEntityService;
 import capstone_project.repository.entityServices.vehicle.VehicleAssignmentEntityService;
 import capstone_project.service.mapper.order.SealMapper;
-import capstone_project.service.services.cloudinary.CloudinaryService;
+import capstone_project.service.services.cloudinary.ImageUploadPipeline;
 import capstone_project.service.services.notification.NotificationService;
 import capstone_project.service.services.order.seal.SealService;
 import capstone_project.service.services.notification.NotificationBuilder;
@@ -24,11 +24,10 @@ import org.springframework.web.multipart.MultipartFile;
 
 import capstone_project.common.utils.VietnamTimeUtils;
 
-import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -39,7 +38,7 @@ public class SealServiceImpl implements SealService {
     private final SealEntityService sealEntityService;
     private final VehicleAssignmentEntityService vehicleAssignmentEntityService;
     private final SealMapper sealMapper;
-    private final CloudinaryService cloudinaryService;
+    private final ImageUploadPipeline imageUploadPipeline;
     private final capstone_project.repository.entityServices.order.order.OrderDetailEntityService orderDetailEntityService;
     private final NotificationService notificationService;
 
@@ -105,15 +104,13 @@ public class SealServiceImpl implements SealService {
         try {
             MultipartFile sealImage = sealRequest.sealImage();
             String fileName = "seal_" + UUID.randomUUID();
-            Map<String, Object> uploadResult = cloudinaryService.uploadFile(
-                    sealImage.getBytes(),
+            // Lấy URL của ảnh đã upload
+            imageUrl = ImageUploadPipeline.await(imageUploadPipeline.upload(
+                    sealImage,
                     fileName,
                     "seals" // folder name on Cloudinary
-            );
-
-            // Lấy URL của ảnh đã upload
-            imageUrl = (String) uploadResult.get("secure_url");
-        } catch (IOException e) {
+            ));
+        } catch (UncheckedIOException e) {
             log.error("Lỗi khi upload ảnh seal: {}", e.getMessage(), e);
             throw new BadRequestException(
                     "Không thể upload ảnh seal: " + e.getMessage(),
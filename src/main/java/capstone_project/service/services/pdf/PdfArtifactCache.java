@@ -0,0 +1,276 @@
+package capstone_project.service.services.pdf;
+
+import capstone_project.event.OrderDocumentsChangedEvent;
+import capstone_project.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Disk cache of rendered PDFs (contracts, waybills, dispatch orders), keyed by a hash of the render inputs.
+ * A document is only rendered again when one of its inputs changes; everything else is a file read.
+ * Files are named {orderId}_{hash}.pdf so the index can be rebuilt after a restart,
+ * and the least recently used files are deleted once the cache grows past its size limit.
+ */
+@Service
+@Slf4j
+public class PdfArtifactCache {
+
+    private static final String EXTENSION = ".pdf";
+    private static final char PART_SEPARATOR = '\u001f';
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+
+    // Access-ordered, so iteration starts at the least recently used artifact; guarded by this
+    private final LinkedHashMap<String, Artifact> artifacts = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    private record Artifact(UUID orderId, Path path, long size) {
+    }
+
+    public PdfArtifactCache(@Value("${pdf.artifact-cache.enabled:true}") boolean enabled,
+                            @Value("${pdf.artifact-cache.directory:${java.io.tmpdir}/truckie-pdf-cache}") String directory,
+                            @Value("${pdf.artifact-cache.max-bytes:268435456}") long maxBytes,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxBytes;
+        this.hits = Counter.builder("pdf.artifact.cache")
+                .description("PDF documents served from the artifact cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("pdf.artifact.cache")
+                .description("PDF documents rendered because they were not in the artifact cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("pdf.artifact.cache.bytes", this, PdfArtifactCache::totalBytes)
+                .description("Size of the rendered PDFs kept on disk")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rebuild the index from the files left by the previous run, oldest first
+     */
+    @PostConstruct
+    public void loadIndex() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(directory)) {
+                files = new ArrayList<>(stream.filter(Files::isRegularFile).toList());
+            }
+            files.sort(Comparator.comparing(PdfArtifactCache::lastModified));
+
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int separator = name.indexOf('_');
+                if (!name.endsWith(EXTENSION) || separator < 0) {
+                    // Unfinished write or foreign file
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                try {
+                    UUID orderId = UUID.fromString(name.substring(0, separator));
+                    String key = name.substring(separator + 1, name.length() - EXTENSION.length());
+                    register(key, new Artifact(orderId, file, Files.size(file)));
+                } catch (IllegalArgumentException e) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            log.info("[PdfArtifactCache] Loaded {} cached PDFs ({} bytes) from {}", artifacts.size(), totalBytes, directory);
+        } catch (IOException e) {
+            log.warn("[PdfArtifactCache] Failed to load cache directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Content key of a document: SHA-256 over the string form of every input that affects its rendering
+     */
+    public static String key(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) PART_SEPARATOR);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Cached bytes of the document with this key, or the result of render (stored for the next call)
+     */
+    public byte[] getOrRender(UUID orderId, String key, Supplier<byte[]> render) {
+        if (!enabled || orderId == null) {
+            return render.get();
+        }
+
+        Artifact cached;
+        synchronized (this) {
+            cached = artifacts.get(key);
+        }
+        if (cached != null) {
+            try {
+                byte[] content = Files.readAllBytes(cached.path());
+                hits.increment();
+                return content;
+            } catch (NoSuchFileException e) {
+                // Evicted or invalidated between the lookup and the read
+                remove(key, cached);
+            } catch (IOException e) {
+                log.warn("[PdfArtifactCache] Failed to read {}: {}", cached.path(), e.getMessage());
+                remove(key, cached);
+            }
+        }
+
+        misses.increment();
+        byte[] content = render.get();
+        if (content != null && content.length > 0) {
+            store(orderId, key, content);
+        }
+        return content;
+    }
+
+    /**
+     * Drop every cached document of an order
+     */
+    public void invalidateOrder(UUID orderId) {
+        if (orderId == null) {
+            return;
+        }
+        List<Artifact> removed = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Artifact> iterator = artifacts.values().iterator();
+            while (iterator.hasNext()) {
+                Artifact artifact = iterator.next();
+                if (orderId.equals(artifact.orderId())) {
+                    iterator.remove();
+                    totalBytes -= artifact.size();
+                    removed.add(artifact);
+                }
+            }
+        }
+        removed.forEach(this::deleteFile);
+        if (!removed.isEmpty()) {
+            log.debug("[PdfArtifactCache] Invalidated {} documents of order {}", removed.size(), orderId);
+        }
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderDocumentsChanged(OrderDocumentsChangedEvent event) {
+        invalidateOrder(event.getOrderId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        invalidateOrder(event.getOrderId());
+    }
+
+    private void store(UUID orderId, String key, byte[] content) {
+        Path target = directory.resolve(orderId + "_" + key + EXTENSION);
+        try {
+            Files.createDirectories(directory);
+            // Write under a temporary name first, so a crash never leaves a truncated PDF under the final name
+            Path temp = Files.createTempFile(directory, "render-", ".tmp");
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("[PdfArtifactCache] Failed to store {}: {}", target, e.getMessage());
+            return;
+        }
+
+        List<Artifact> evicted = new ArrayList<>();
+        synchronized (this) {
+            register(key, new Artifact(orderId, target, content.length));
+            Iterator<Map.Entry<String, Artifact>> iterator = artifacts.entrySet().iterator();
+            while (totalBytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<String, Artifact> eldest = iterator.next();
+                if (eldest.getKey().equals(key)) {
+                    continue;
+                }
+                iterator.remove();
+                totalBytes -= eldest.getValue().size();
+                evicted.add(eldest.getValue());
+            }
+        }
+        evicted.forEach(this::deleteFile);
+    }
+
+    private synchronized void register(String key, Artifact artifact) {
+        Artifact previous = artifacts.put(key, artifact);
+        if (previous != null) {
+            totalBytes -= previous.size();
+        }
+        totalBytes += artifact.size();
+    }
+
+    private void remove(String key, Artifact artifact) {
+        boolean removed;
+        synchronized (this) {
+            removed = artifacts.remove(key, artifact);
+            if (removed) {
+                totalBytes -= artifact.size();
+            }
+        }
+        if (removed) {
+            deleteFile(artifact);
+        }
+    }
+
+    private void deleteFile(Artifact artifact) {
+        try {
+            Files.deleteIfExists(artifact.path());
+        } catch (IOException e) {
+            log.warn("[PdfArtifactCache] Failed to delete {}: {}", artifact.path(), e.getMessage());
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -16,23 +16,16 @@ import capstone_project.repository.entityServices.user.CustomerEntityService;
 import capstone_project.service.services.order.order.ContractService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
-import org.xhtmlrenderer.pdf.ITextRenderer;
 
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
 import java.math.BigDecimal;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -41,7 +34,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PdfGenerationService {
 
-    private final TemplateEngine templateEngine;
+    private final PdfRenderingEngine pdfRenderingEngine;
+    private final PdfArtifactCache pdfArtifactCache;
     private final ContractService contractService;
     private final CustomerEntityService customerEntityService;
     private final UserEntityService userEntityService;
@@ -49,15 +43,70 @@ public class PdfGenerationService {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
 
+    /**
+     * Contract PDF for the current contract, order and settings; read from the artifact cache when none of them changed
+     */
     public byte[] generateContractPdf(ContractEntity contract,
                                       OrderEntity order,
                                       List<ContractRuleAssignResponse> assignResult,
                                       BigDecimal distanceKm,
                                       Map<UUID, Integer> vehicleCountMap) {
+        PriceCalculationResponse result;
+        ContractSettingEntity setting;
         try {
-            PriceCalculationResponse result =
-                    contractService.calculateTotalPrice(contract, distanceKm, vehicleCountMap);
+            result = contractService.calculateTotalPrice(contract, distanceKm, vehicleCountMap);
+            setting = contractSettingEntityService.findFirstByOrderByCreatedAtAsc()
+                    .orElseThrow(() -> new NotFoundException(
+                            ErrorEnum.NOT_FOUND.getMessage(),
+                            ErrorEnum.NOT_FOUND.getErrorCode()
+                    ));
+        } catch (Exception e) {
+            throw new RuntimeException("Error generating Contract PDF", e);
+        }
+
+        String key = contractKey(contract, order, assignResult, distanceKm, vehicleCountMap, result, setting);
+        return pdfArtifactCache.getOrRender(order.getId(), key,
+                () -> renderContractPdf(contract, order, assignResult, distanceKm, result, setting));
+    }
+
+    /**
+     * Everything the contract template prints, including the computed price so pricing changes also miss the cache
+     */
+    private String contractKey(ContractEntity contract,
+                               OrderEntity order,
+                               List<ContractRuleAssignResponse> assignResult,
+                               BigDecimal distanceKm,
+                               Map<UUID, Integer> vehicleCountMap,
+                               PriceCalculationResponse result,
+                               ContractSettingEntity setting) {
+        CustomerEntity sender = order.getSender();
+        UserEntity senderUser = sender != null ? sender.getUser() : null;
+        List<String> orderDetails = Optional.ofNullable(order.getOrderDetailEntities()).orElse(List.of()).stream()
+                .map(od -> od.getId() + "@" + od.getModifiedAt())
+                .sorted()
+                .toList();
+
+        return PdfArtifactCache.key(
+                "contract-pdf",
+                contract.getId(), contract.getModifiedAt(), contract.getCreatedAt(), contract.getStatus(),
+                contract.getContractName(), contract.getEffectiveDate(), contract.getExpirationDate(),
+                contract.getAdjustedValue(), contract.getCustomDepositPercent(), contract.getDescription(),
+                order.getId(), order.getModifiedAt(), order.getStatus(), orderDetails,
+                sender != null ? sender.getId() : null, sender != null ? sender.getModifiedAt() : null,
+                senderUser != null ? senderUser.getModifiedAt() : null,
+                assignResult, distanceKm, new TreeMap<>(vehicleCountMap), result,
+                setting.getId(), setting.getModifiedAt(), setting.getDepositPercent(), setting.getDepositDeadlineHours(),
+                setting.getSigningDeadlineHours(), setting.getFullPaymentDaysBeforePickup(),
+                setting.getInsuranceRateNormal(), setting.getInsuranceRateFragile(), setting.getVatRate());
+    }
 
+    private byte[] renderContractPdf(ContractEntity contract,
+                                     OrderEntity order,
+                                     List<ContractRuleAssignResponse> assignResult,
+                                     BigDecimal distanceKm,
+                                     PriceCalculationResponse result,
+                                     ContractSettingEntity setting) {
+        try {
             Context context = new Context();
 
             if (contract.getCreatedAt() != null) {
@@ -256,12 +305,6 @@ public class PdfGenerationService {
 //            context.setVariable("summary", result.getSummary());
             context.setVariable("distanceKm", distanceKm);
 
-            ContractSettingEntity setting = contractSettingEntityService.findFirstByOrderByCreatedAtAsc()
-                    .orElseThrow(() -> new NotFoundException(
-                            ErrorEnum.NOT_FOUND.getMessage(),
-                            ErrorEnum.NOT_FOUND.getErrorCode()
-                    ));
-
             // Use custom deposit percent from contract if available, otherwise use global setting
             BigDecimal effectiveDepositPercent = (contract.getCustomDepositPercent() != null 
                 && contract.getCustomDepositPercent().compareTo(BigDecimal.ZERO) > 0
@@ -278,59 +321,10 @@ public class PdfGenerationService {
             context.setVariable("insuranceRateFragile", setting.getInsuranceRateFragile());
             context.setVariable("vatRate", setting.getVatRate());
 
-            String htmlContent = templateEngine.process("contract-pdf", context);
-
-
-            try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                System.out.println("🔧 DEBUG: PdfGenerationService.generateContractPdf() called at " + java.time.LocalDateTime.now());
-                ITextRenderer renderer = new ITextRenderer();
-
-                // Add Times New Roman font (serif - matches frontend)
-                String tnr = fontFromClasspathToTempPath("fonts/TimesNewRoman.ttf");
-                renderer.getFontResolver().addFont(
-                        tnr,
-                        com.lowagie.text.pdf.BaseFont.IDENTITY_H,
-                        com.lowagie.text.pdf.BaseFont.EMBEDDED
-                );
-                // Also add DejaVu Sans as fallback
-                String dejavu = fontFromClasspathToTempPath("fonts/DejaVuSans.ttf");
-                renderer.getFontResolver().addFont(
-                        dejavu,
-                        com.lowagie.text.pdf.BaseFont.IDENTITY_H,
-                        com.lowagie.text.pdf.BaseFont.EMBEDDED
-                );
-
-                // Set page size and margins for proper pagination
-                renderer.setDocumentFromString(htmlContent);
-                
-                // Configure page settings
-                renderer.getSharedContext().setPrint(true);
-                renderer.getSharedContext().setInteractive(false);
-                
-                // Layout and create PDF with proper page breaks
-                renderer.layout();
-                renderer.createPDF(baos, true); // true enables multi-page support
-                return baos.toByteArray();
-            }
-
-
+            return pdfRenderingEngine.renderTemplate("contract-pdf", context);
         } catch (Exception e) {
             throw new RuntimeException("Error generating Contract PDF", e);
         }
     }
 
-    private String fontFromClasspathToTempPath(String classpathLocation) throws Exception {
-        ClassPathResource res = new ClassPathResource(classpathLocation); // ví dụ "fonts/TimesNewRoman.ttf"
-        if (!res.exists()) {
-            throw new IllegalStateException("Font not found in classpath: " + classpathLocation);
-        }
-
-        try (InputStream in = res.getInputStream()) {
-            Path tmp = Files.createTempFile("font-", "-" + Path.of(classpathLocation).getFileName().toString());
-            Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
-            tmp.toFile().deleteOnExit();
-            return tmp.toAbsolutePath().toString();
-        }
-    }
-
 }
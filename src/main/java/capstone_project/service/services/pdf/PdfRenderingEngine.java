@@ -0,0 +1,202 @@
+package capstone_project.service.services.pdf;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.lowagie.text.pdf.BaseFont;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.xhtmlrenderer.pdf.ITextFontResolver;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Shared PDF engine for the HTML documents (Thymeleaf + Flying Saucer) and the iText 7 documents.
+ * Fonts and compiled templates are loaded once and reused by every document,
+ * and documents are written into pooled buffers that keep their capacity between renders.
+ */
+@Service
+@Slf4j
+public class PdfRenderingEngine {
+
+    private static final String TIMES_NEW_ROMAN = "fonts/TimesNewRoman.ttf";
+    private static final String DEJAVU_SANS = "fonts/DejaVuSans.ttf";
+
+    private static final int INITIAL_BUFFER_BYTES = 128 * 1024;
+
+    private final SpringTemplateEngine templateEngine;
+    private final BlockingQueue<PooledBuffer> bufferPool;
+
+    @Value("${pdf.buffer.max-retained-bytes:4194304}")
+    private int maxRetainedBufferBytes;
+
+    // Flying Saucer resolves font decorations from a file, so the fonts are copied to disk once at startup
+    private Path fontDirectory;
+    private Path timesNewRomanPath;
+    private Path dejaVuSansPath;
+    private BaseFont timesNewRoman;
+    private BaseFont dejaVuSans;
+
+    // iText 7 font program; a PdfFont still has to be created per document
+    private FontProgram dejaVuSansProgram;
+
+    public PdfRenderingEngine(@Value("${pdf.template-cache:true}") boolean templateCache,
+                              @Value("${pdf.buffer.pool-size:8}") int bufferPoolSize) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(templateCache);
+
+        this.templateEngine = new SpringTemplateEngine();
+        this.templateEngine.setTemplateResolver(resolver);
+        this.bufferPool = new ArrayBlockingQueue<>(bufferPoolSize);
+    }
+
+    @PostConstruct
+    public void loadFonts() {
+        try {
+            fontDirectory = Files.createTempDirectory("pdf-fonts-");
+            timesNewRomanPath = copyFont(TIMES_NEW_ROMAN);
+            dejaVuSansPath = copyFont(DEJAVU_SANS);
+
+            timesNewRoman = BaseFont.createFont(timesNewRomanPath.toString(), BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+            dejaVuSans = BaseFont.createFont(dejaVuSansPath.toString(), BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+            dejaVuSansProgram = FontProgramFactory.createFont(Files.readAllBytes(dejaVuSansPath));
+            log.info("[PdfEngine] Loaded PDF fonts into {}", fontDirectory);
+        } catch (Exception e) {
+            // Contract PDFs fail on use, waybills fall back to the standard font
+            log.error("[PdfEngine] Failed to load PDF fonts: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void deleteFonts() {
+        try {
+            for (Path font : new Path[]{timesNewRomanPath, dejaVuSansPath}) {
+                if (font != null) {
+                    Files.deleteIfExists(font);
+                }
+            }
+            if (fontDirectory != null) {
+                Files.deleteIfExists(fontDirectory);
+            }
+        } catch (IOException e) {
+            log.warn("[PdfEngine] Failed to delete font directory {}: {}", fontDirectory, e.getMessage());
+        }
+    }
+
+    /**
+     * Render a Thymeleaf template under templates/ to PDF with Times New Roman and DejaVu Sans
+     */
+    public byte[] renderTemplate(String templateName, Context context) throws Exception {
+        if (timesNewRoman == null || dejaVuSans == null) {
+            throw new IllegalStateException("PDF fonts are not loaded");
+        }
+        String html = templateEngine.process(templateName, context);
+
+        try (PdfOutputBuffer output = openOutput()) {
+            // ITextRenderer keeps layout state, so it is not shared between documents
+            ITextRenderer renderer = new ITextRenderer();
+            ITextFontResolver fontResolver = renderer.getFontResolver();
+            fontResolver.addFont(timesNewRoman, timesNewRomanPath.toString(), null);
+            fontResolver.addFont(dejaVuSans, dejaVuSansPath.toString(), null);
+
+            renderer.setDocumentFromString(html);
+            renderer.getSharedContext().setPrint(true);
+            renderer.getSharedContext().setInteractive(false);
+            renderer.layout();
+            renderer.createPDF(output.stream(), true);
+            return output.toByteArray();
+        }
+    }
+
+    /**
+     * DejaVu Sans (Vietnamese glyphs) for an iText 7 document, falling back to the standard font
+     */
+    public PdfFont createDocumentFont() throws IOException {
+        if (dejaVuSansProgram == null) {
+            return PdfFontFactory.createFont();
+        }
+        return PdfFontFactory.createFont(dejaVuSansProgram, PdfEncodings.IDENTITY_H,
+                PdfFontFactory.EmbeddingStrategy.FORCE_EMBEDDED);
+    }
+
+    /**
+     * Borrow an output buffer for one document; closing it returns the buffer to the pool
+     */
+    public PdfOutputBuffer openOutput() {
+        PooledBuffer buffer = bufferPool.poll();
+        return new PdfOutputBuffer(buffer != null ? buffer : new PooledBuffer());
+    }
+
+    public final class PdfOutputBuffer implements AutoCloseable {
+        private PooledBuffer buffer;
+
+        private PdfOutputBuffer(PooledBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        public ByteArrayOutputStream stream() {
+            return buffer;
+        }
+
+        public byte[] toByteArray() {
+            return buffer.toByteArray();
+        }
+
+        @Override
+        public void close() {
+            if (buffer == null) {
+                return;
+            }
+            PooledBuffer released = buffer;
+            buffer = null;
+            // Buffers that grew for an unusually large document are left to the GC
+            if (released.capacity() <= maxRetainedBufferBytes) {
+                released.reset();
+                bufferPool.offer(released);
+            }
+        }
+    }
+
+    private static final class PooledBuffer extends ByteArrayOutputStream {
+        PooledBuffer() {
+            super(INITIAL_BUFFER_BYTES);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+
+    private Path copyFont(String classpathLocation) throws IOException {
+        ClassPathResource resource = new ClassPathResource(classpathLocation);
+        if (!resource.exists()) {
+            throw new IllegalStateException("Font not found in classpath: " + classpathLocation);
+        }
+        Path target = fontDirectory.resolve(resource.getFilename());
+        try (InputStream in = resource.getInputStream()) {
+            Files.copy(in, target);
+        }
+        return target;
+    }
+}
@@ -3,8 +3,6 @@ package capstone_project.service.services.pricing;
 import capstone_project.common.enums.CategoryName;
 import capstone_project.entity.order.order.OrderDetailEntity;
 import capstone_project.entity.order.order.OrderEntity;
-import capstone_project.entity.setting.ContractSettingEntity;
-import capstone_project.repository.entityServices.setting.ContractSettingEntityService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -29,7 +27,7 @@ import java.util.List;
 @Slf4j
 public class InsuranceCalculationService {
 
-    private final ContractSettingEntityService contractSettingEntityService;
+    private final PricingSnapshotService pricingSnapshotService;
 
     // Default values if not configured
     private static final BigDecimal DEFAULT_INSURANCE_RATE_NORMAL = new BigDecimal("0.0008");  // 0.08%
@@ -37,12 +35,11 @@ public class InsuranceCalculationService {
     private static final BigDecimal DEFAULT_VAT_RATE = new BigDecimal("0.10"); // 10%
 
     /**
-     * Lấy cấu hình contract settings hiện tại
+     * Lấy snapshot bảng giá hiện tại (chứa tỷ lệ bảo hiểm và VAT của contract settings)
      */
-    private ContractSettingEntity getContractSettings() {
+    private PricingSnapshot getContractSettings() {
         try {
-            return contractSettingEntityService.findFirstByOrderByCreatedAtAsc()
-                    .orElse(null);
+            return pricingSnapshotService.current();
         } catch (Exception e) {
             log.warn("⚠️ Could not load contract settings, using defaults: {}", e.getMessage());
             return null;
@@ -64,12 +61,12 @@ public class InsuranceCalculationService {
      * This method returns the decimal rate for calculation (e.g., 0.0015)
      */
     public BigDecimal getInsuranceRate(boolean isFragile) {
-        ContractSettingEntity settings = getContractSettings();
+        PricingSnapshot settings = getContractSettings();
         
         if (settings != null) {
             BigDecimal rate = isFragile ? 
-                    settings.getInsuranceRateFragile() : 
-                    settings.getInsuranceRateNormal();
+                    settings.insuranceRateFragile() : 
+                    settings.insuranceRateNormal();
             if (rate != null) {
                 // DB stores percentage value (0.15 = 0.15%), convert to decimal (0.0015)
                 // Only convert if rate >= 0.01 (assuming DB stores as percentage)
@@ -87,12 +84,12 @@ public class InsuranceCalculationService {
      * Lấy tỷ lệ bảo hiểm để hiển thị (dạng phần trăm, e.g., 0.15 = 0.15%)
      */
     public BigDecimal getInsuranceRateForDisplay(boolean isFragile) {
-        ContractSettingEntity settings = getContractSettings();
+        PricingSnapshot settings = getContractSettings();
         
         if (settings != null) {
             BigDecimal rate = isFragile ? 
-                    settings.getInsuranceRateFragile() : 
-                    settings.getInsuranceRateNormal();
+                    settings.insuranceRateFragile() : 
+                    settings.insuranceRateNormal();
             if (rate != null) {
                 // If rate is already in decimal format (< 0.01), convert to percentage
                 if (rate.compareTo(new BigDecimal("0.01")) < 0) {
@@ -111,9 +108,9 @@ public class InsuranceCalculationService {
      * Lấy tỷ lệ VAT
      */
     public BigDecimal getVatRate() {
-        ContractSettingEntity settings = getContractSettings();
-        if (settings != null && settings.getVatRate() != null) {
-            return settings.getVatRate();
+        PricingSnapshot settings = getContractSettings();
+        if (settings != null && settings.vatRate() != null) {
+            return settings.vatRate();
         }
         return DEFAULT_VAT_RATE;
     }
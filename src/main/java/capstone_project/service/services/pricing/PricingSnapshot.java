@@ -0,0 +1,314 @@
+package capstone_project.service.services.pricing;
+
+import capstone_project.common.enums.CategoryName;
+import capstone_project.entity.order.order.CategoryEntity;
+import capstone_project.entity.pricing.DistanceRuleEntity;
+import capstone_project.entity.pricing.SizeRuleEntity;
+import capstone_project.entity.vehicle.VehicleTypeEntity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Immutable, versioned copy of everything a price quote reads: distance tiers sorted by fromKm,
+ * the size rule × tier base-price matrix, category multipliers and extra fees, vehicle types and the
+ * insurance/VAT rates of the contract settings. Amounts stay BigDecimal so quotes match the database to the đồng;
+ * lookups are array indexes. The entities it holds are detached and must not be modified.
+ */
+public final class PricingSnapshot {
+
+    private final long version;
+    private final long builtAtMillis;
+
+    // Distance tiers, sorted by fromKm
+    private final BigDecimal[] tierFromKm;
+    private final BigDecimal[] tierToKm;
+
+    // Size rules in database order; base prices at [sizeRule * tierCount + tier], null when not configured
+    private final List<SizeRuleEntity> sizeRules;
+    private final Map<UUID, Integer> sizeRuleIndex;
+    private final Map<UUID, List<SizeRuleEntity>> sizeRulesByCategory;
+    private final BigDecimal[] basePrices;
+
+    // Categories in database order; multiplier/extra fee are null when the category has no pricing detail
+    private final List<CategoryEntity> categories;
+    private final Map<UUID, Integer> categoryIndex;
+    private final Map<CategoryName, CategoryEntity> categoriesByName;
+    private final boolean[] categoryPriced;
+    private final BigDecimal[] categoryMultipliers;
+    private final BigDecimal[] categoryExtraFees;
+
+    private final List<VehicleTypeEntity> vehicleTypes;
+
+    // Raw contract settings values, null when not configured
+    private final BigDecimal insuranceRateNormal;
+    private final BigDecimal insuranceRateFragile;
+    private final BigDecimal vatRate;
+
+    private PricingSnapshot(Builder builder, long version) {
+        this.version = version;
+        this.builtAtMillis = System.currentTimeMillis();
+
+        List<DistanceRuleEntity> tiers = builder.distanceRules.stream()
+                .sorted(Comparator.comparing(DistanceRuleEntity::getFromKm, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        int tierCount = tiers.size();
+        this.tierFromKm = new BigDecimal[tierCount];
+        this.tierToKm = new BigDecimal[tierCount];
+        Map<UUID, Integer> tierIndex = new HashMap<>();
+        for (int t = 0; t < tierCount; t++) {
+            tierFromKm[t] = tiers.get(t).getFromKm();
+            tierToKm[t] = tiers.get(t).getToKm();
+            tierIndex.put(tiers.get(t).getId(), t);
+        }
+
+        this.sizeRules = List.copyOf(builder.sizeRules);
+        Map<UUID, Integer> ruleIndex = new HashMap<>();
+        Map<UUID, List<SizeRuleEntity>> byCategory = new HashMap<>();
+        for (int r = 0; r < sizeRules.size(); r++) {
+            SizeRuleEntity rule = sizeRules.get(r);
+            ruleIndex.put(rule.getId(), r);
+            if (rule.getCategory() != null) {
+                byCategory.computeIfAbsent(rule.getCategory().getId(), key -> new ArrayList<>()).add(rule);
+            }
+        }
+        byCategory.replaceAll((categoryId, rules) -> List.copyOf(rules));
+        this.sizeRuleIndex = Map.copyOf(ruleIndex);
+        this.sizeRulesByCategory = Map.copyOf(byCategory);
+
+        this.basePrices = new BigDecimal[sizeRules.size() * tierCount];
+        for (Object[] row : builder.priceMatrixRows) {
+            Integer r = ruleIndex.get((UUID) row[0]);
+            Integer t = tierIndex.get((UUID) row[1]);
+            if (r != null && t != null && basePrices[r * tierCount + t] == null) {
+                basePrices[r * tierCount + t] = (BigDecimal) row[2];
+            }
+        }
+
+        this.categories = List.copyOf(builder.categories);
+        Map<UUID, Integer> catIndex = new HashMap<>();
+        Map<CategoryName, CategoryEntity> byName = new EnumMap<>(CategoryName.class);
+        for (int c = 0; c < categories.size(); c++) {
+            CategoryEntity category = categories.get(c);
+            catIndex.put(category.getId(), c);
+            if (category.getCategoryName() != null) {
+                byName.putIfAbsent(category.getCategoryName(), category);
+            }
+        }
+        this.categoryIndex = Map.copyOf(catIndex);
+        this.categoriesByName = byName;
+        this.categoryPriced = new boolean[categories.size()];
+        this.categoryMultipliers = new BigDecimal[categories.size()];
+        this.categoryExtraFees = new BigDecimal[categories.size()];
+        for (Object[] row : builder.categoryAdjustmentRows) {
+            Integer c = catIndex.get((UUID) row[0]);
+            if (c != null && !categoryPriced[c]) {
+                categoryPriced[c] = true;
+                categoryMultipliers[c] = (BigDecimal) row[1];
+                categoryExtraFees[c] = (BigDecimal) row[2];
+            }
+        }
+
+        this.vehicleTypes = List.copyOf(builder.vehicleTypes);
+        this.insuranceRateNormal = builder.insuranceRateNormal;
+        this.insuranceRateFragile = builder.insuranceRateFragile;
+        this.vatRate = builder.vatRate;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    long builtAtMillis() {
+        return builtAtMillis;
+    }
+
+    // ---- Distance tiers ----
+
+    public int tierCount() {
+        return tierFromKm.length;
+    }
+
+    public BigDecimal tierFromKm(int tier) {
+        return tierFromKm[tier];
+    }
+
+    /**
+     * Upper bound of the tier, null for the open-ended last tier
+     */
+    public BigDecimal tierToKm(int tier) {
+        return tierToKm[tier];
+    }
+
+    // ---- Size rules and base prices ----
+
+    /**
+     * All size rules (any status), with vehicle type and category loaded
+     */
+    public List<SizeRuleEntity> sizeRules() {
+        return sizeRules;
+    }
+
+    /**
+     * Position of the size rule in the base-price matrix, or -1 when it does not exist
+     */
+    public int sizeRuleIndex(UUID sizeRuleId) {
+        Integer index = sizeRuleId == null ? null : sizeRuleIndex.get(sizeRuleId);
+        return index == null ? -1 : index;
+    }
+
+    public SizeRuleEntity sizeRule(int sizeRuleIndex) {
+        return sizeRules.get(sizeRuleIndex);
+    }
+
+    public List<SizeRuleEntity> sizeRulesOfCategory(UUID categoryId) {
+        return sizeRulesByCategory.getOrDefault(categoryId, List.of());
+    }
+
+    /**
+     * Base price of the size rule for the tier (flat price for the fixed tier, per km otherwise), null when missing
+     */
+    public BigDecimal basePrice(int sizeRuleIndex, int tier) {
+        return basePrices[sizeRuleIndex * tierFromKm.length + tier];
+    }
+
+    // ---- Categories ----
+
+    public List<CategoryEntity> categories() {
+        return categories;
+    }
+
+    public Optional<CategoryEntity> category(UUID categoryId) {
+        Integer index = categoryId == null ? null : categoryIndex.get(categoryId);
+        return index == null ? Optional.empty() : Optional.of(categories.get(index));
+    }
+
+    public Optional<CategoryEntity> categoryByName(CategoryName categoryName) {
+        return categoryName == null ? Optional.empty() : Optional.ofNullable(categoriesByName.get(categoryName));
+    }
+
+    /**
+     * Whether the category has a pricing detail row (multiplier and extra fee)
+     */
+    public boolean hasCategoryPricing(UUID categoryId) {
+        Integer index = categoryId == null ? null : categoryIndex.get(categoryId);
+        return index != null && categoryPriced[index];
+    }
+
+    /**
+     * Price multiplier of the category, 1 when it has no pricing detail or no multiplier
+     */
+    public BigDecimal categoryMultiplier(UUID categoryId) {
+        Integer index = categoryId == null ? null : categoryIndex.get(categoryId);
+        BigDecimal multiplier = index == null ? null : categoryMultipliers[index];
+        return multiplier != null ? multiplier : BigDecimal.ONE;
+    }
+
+    /**
+     * Extra fee of the category (once per order), 0 when it has no pricing detail or no extra fee
+     */
+    public BigDecimal categoryExtraFee(UUID categoryId) {
+        Integer index = categoryId == null ? null : categoryIndex.get(categoryId);
+        BigDecimal extraFee = index == null ? null : categoryExtraFees[index];
+        return extraFee != null ? extraFee : BigDecimal.ZERO;
+    }
+
+    // ---- Vehicle types and contract settings ----
+
+    public List<VehicleTypeEntity> vehicleTypes() {
+        return vehicleTypes;
+    }
+
+    public BigDecimal insuranceRateNormal() {
+        return insuranceRateNormal;
+    }
+
+    public BigDecimal insuranceRateFragile() {
+        return insuranceRateFragile;
+    }
+
+    public BigDecimal vatRate() {
+        return vatRate;
+    }
+
+    @Override
+    public String toString() {
+        return "PricingSnapshot{version=" + version + ", tiers=" + tierCount() + ", sizeRules=" + sizeRules.size()
+                + ", categories=" + categories.size() + ", missingBasePrices="
+                + Arrays.stream(basePrices).filter(price -> price == null).count() + "}";
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    static final class Builder {
+        private List<DistanceRuleEntity> distanceRules = List.of();
+        private List<SizeRuleEntity> sizeRules = List.of();
+        private List<Object[]> priceMatrixRows = List.of();
+        private List<CategoryEntity> categories = List.of();
+        private List<Object[]> categoryAdjustmentRows = List.of();
+        private List<VehicleTypeEntity> vehicleTypes = List.of();
+        private BigDecimal insuranceRateNormal;
+        private BigDecimal insuranceRateFragile;
+        private BigDecimal vatRate;
+
+        Builder distanceRules(List<DistanceRuleEntity> distanceRules) {
+            this.distanceRules = distanceRules;
+            return this;
+        }
+
+        /**
+         * Size rules with vehicle type and category already loaded
+         */
+        Builder sizeRules(List<SizeRuleEntity> sizeRules) {
+            this.sizeRules = sizeRules;
+            return this;
+        }
+
+        /**
+         * Rows of (size rule id, distance rule id, base price)
+         */
+        Builder priceMatrixRows(List<Object[]> priceMatrixRows) {
+            this.priceMatrixRows = priceMatrixRows;
+            return this;
+        }
+
+        Builder categories(List<CategoryEntity> categories) {
+            this.categories = categories;
+            return this;
+        }
+
+        /**
+         * Rows of (category id, price multiplier, extra fee)
+         */
+        Builder categoryAdjustmentRows(List<Object[]> categoryAdjustmentRows) {
+            this.categoryAdjustmentRows = categoryAdjustmentRows;
+            return this;
+        }
+
+        Builder vehicleTypes(List<VehicleTypeEntity> vehicleTypes) {
+            this.vehicleTypes = vehicleTypes;
+            return this;
+        }
+
+        Builder contractRates(BigDecimal insuranceRateNormal, BigDecimal insuranceRateFragile, BigDecimal vatRate) {
+            this.insuranceRateNormal = insuranceRateNormal;
+            this.insuranceRateFragile = insuranceRateFragile;
+            this.vatRate = vatRate;
+            return this;
+        }
+
+        PricingSnapshot build(long version) {
+            return new PricingSnapshot(this, version);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package capstone_project.service.services.pricing;
+
+import capstone_project.entity.setting.ContractSettingEntity;
+import capstone_project.event.PricingDataChangedEvent;
+import capstone_project.repository.repositories.order.order.CategoryPricingDetailRepository;
+import capstone_project.repository.repositories.order.order.CategoryRepository;
+import capstone_project.repository.repositories.pricing.BasingPriceRepository;
+import capstone_project.repository.repositories.pricing.DistanceRuleRepository;
+import capstone_project.repository.repositories.pricing.SizeRuleRepository;
+import capstone_project.repository.repositories.setting.ContractSettingRepository;
+import capstone_project.repository.repositories.vehicle.VehicleTypeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the current PricingSnapshot. The snapshot is built with a fixed number of queries in its own read-only
+ * transaction and replaced as a whole after pricing data changes, so a quote reads one consistent version
+ * of the tables and never queries itself.
+ */
+@Component
+@Slf4j
+public class PricingSnapshotService {
+
+    private final SizeRuleRepository sizeRuleRepository;
+    private final DistanceRuleRepository distanceRuleRepository;
+    private final BasingPriceRepository basingPriceRepository;
+    private final CategoryRepository categoryRepository;
+    private final CategoryPricingDetailRepository categoryPricingDetailRepository;
+    private final VehicleTypeRepository vehicleTypeRepository;
+    private final ContractSettingRepository contractSettingRepository;
+    private final TransactionTemplate readTransaction;
+
+    // Safety net for changes that bypass the events (direct database edits)
+    @Value("${pricing.snapshot.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong versions = new AtomicLong();
+    private volatile Current current;
+
+    private record Current(PricingSnapshot snapshot, long generation) {
+    }
+
+    public PricingSnapshotService(SizeRuleRepository sizeRuleRepository,
+                                  DistanceRuleRepository distanceRuleRepository,
+                                  BasingPriceRepository basingPriceRepository,
+                                  CategoryRepository categoryRepository,
+                                  CategoryPricingDetailRepository categoryPricingDetailRepository,
+                                  VehicleTypeRepository vehicleTypeRepository,
+                                  ContractSettingRepository contractSettingRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.sizeRuleRepository = sizeRuleRepository;
+        this.distanceRuleRepository = distanceRuleRepository;
+        this.basingPriceRepository = basingPriceRepository;
+        this.categoryRepository = categoryRepository;
+        this.categoryPricingDetailRepository = categoryPricingDetailRepository;
+        this.vehicleTypeRepository = vehicleTypeRepository;
+        this.contractSettingRepository = contractSettingRepository;
+        // Own transaction, so the snapshot never holds entities managed by (and modified in) a caller's transaction
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+
+        Gauge.builder("pricing.snapshot.version", versions, AtomicLong::get)
+                .description("Version of the pricing snapshot used for quotes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Current snapshot, rebuilt when pricing data changed since it was built or it expired
+     */
+    public PricingSnapshot current() {
+        Current held = current;
+        if (isFresh(held)) {
+            return held.snapshot();
+        }
+        synchronized (this) {
+            held = current;
+            if (isFresh(held)) {
+                return held.snapshot();
+            }
+            // An event during the build bumps the generation, so the next call builds again
+            long buildGeneration = generation.get();
+            PricingSnapshot built = build();
+            current = new Current(built, buildGeneration);
+            return built;
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPricingDataChanged(PricingDataChangedEvent event) {
+        log.debug("[PricingSnapshot] {} changed, snapshot {} is stale", event.getSource(), versions.get());
+        invalidate();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            current();
+        } catch (Exception e) {
+            log.warn("[PricingSnapshot] Initial build failed, retrying on the first quote: {}", e.getMessage());
+        }
+    }
+
+    private boolean isFresh(Current candidate) {
+        return candidate != null
+                && candidate.generation() == generation.get()
+                && System.currentTimeMillis() - candidate.snapshot().builtAtMillis() < ttlSeconds * 1000L;
+    }
+
+    private PricingSnapshot build() {
+        long start = System.nanoTime();
+        PricingSnapshot built = readTransaction.execute(status -> {
+            ContractSettingEntity settings = contractSettingRepository.findFirstByOrderByCreatedAtAsc().orElse(null);
+            return PricingSnapshot.builder()
+                    .distanceRules(distanceRuleRepository.findAll())
+                    .sizeRules(sizeRuleRepository.findAllWithVehicleTypeAndCategory())
+                    .priceMatrixRows(basingPriceRepository.findPriceMatrixRows())
+                    .categories(categoryRepository.findAll())
+                    .categoryAdjustmentRows(categoryPricingDetailRepository.findAdjustmentRows())
+                    .vehicleTypes(vehicleTypeRepository.findAll())
+                    .contractRates(
+                            settings != null ? settings.getInsuranceRateNormal() : null,
+                            settings != null ? settings.getInsuranceRateFragile() : null,
+                            settings != null ? settings.getVatRate() : null)
+                    .build(versions.incrementAndGet());
+        });
+        log.info("[PricingSnapshot] Built {} in {} ms", built, (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+}
@@ -1,15 +1,7 @@
 package capstone_project.service.services.pricing;
 
 import capstone_project.entity.order.order.CategoryEntity;
-import capstone_project.entity.order.order.CategoryPricingDetailEntity;
-import capstone_project.entity.pricing.BasingPriceEntity;
-import capstone_project.entity.pricing.DistanceRuleEntity;
 import capstone_project.entity.pricing.SizeRuleEntity;
-import capstone_project.repository.entityServices.order.order.CategoryEntityService;
-import capstone_project.repository.entityServices.order.order.CategoryPricingDetailEntityService;
-import capstone_project.repository.entityServices.pricing.BasingPriceEntityService;
-import capstone_project.repository.entityServices.pricing.DistanceRuleEntityService;
-import capstone_project.repository.entityServices.pricing.SizeRuleEntityService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -17,23 +9,19 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
 /**
- * Unified pricing service to ensure consistency between AI chatbot and backend contract pricing
+ * Unified pricing service to ensure consistency between AI chatbot and backend contract pricing.
+ * Reads rules and prices from the current PricingSnapshot, so a quote does not query the database.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UnifiedPricingService {
 
-    private final SizeRuleEntityService sizeRuleService;
-    private final DistanceRuleEntityService distanceRuleService;
-    private final BasingPriceEntityService basingPriceService;
-    private final CategoryEntityService categoryEntityService;
-    private final CategoryPricingDetailEntityService categoryPricingDetailService;
+    private final PricingSnapshotService pricingSnapshotService;
 
     /**
      * Calculate price using unified formula (matches AI chatbot logic)
@@ -46,25 +34,31 @@ public class UnifiedPricingService {
      */
     public UnifiedPriceResult calculatePrice(UUID vehicleId, BigDecimal distanceKm, 
                                             int numberOfVehicles, UUID categoryId) {
+        return calculatePrice(pricingSnapshotService.current(), vehicleId, distanceKm, numberOfVehicles, categoryId);
+    }
+
+    /**
+     * Same as {@link #calculatePrice(UUID, BigDecimal, int, UUID)} on a snapshot the caller already holds,
+     * so every price of a multi-quote request comes from the same rules
+     */
+    public UnifiedPriceResult calculatePrice(PricingSnapshot pricing, UUID vehicleId, BigDecimal distanceKm,
+                                            int numberOfVehicles, UUID categoryId) {
         try {
             log.info("🧮 Unified pricing: vehicle={}, distance={}km, vehicles={}, category={}", 
                     vehicleId, distanceKm, numberOfVehicles, categoryId);
 
-            // 1. Get vehicle and distance rules
-            SizeRuleEntity vehicle = sizeRuleService.findEntityById(vehicleId)
-                    .orElseThrow(() -> new RuntimeException("Vehicle not found: " + vehicleId));
-
-            List<DistanceRuleEntity> distanceRules = distanceRuleService.findAll()
-                    .stream()
-                    .sorted(Comparator.comparing(DistanceRuleEntity::getFromKm))
-                    .toList();
+            // 1. Get vehicle and distance rules (one snapshot for the whole quote)
+            int vehicleIndex = pricing.sizeRuleIndex(vehicleId);
+            if (vehicleIndex < 0) {
+                throw new RuntimeException("Vehicle not found: " + vehicleId);
+            }
 
-            if (distanceRules.isEmpty()) {
+            if (pricing.tierCount() == 0) {
                 throw new RuntimeException("No distance rules found");
             }
 
             // 2. Calculate base price for ONE vehicle and get individual tier breakdowns
-            List<TierCalculationResult> tierResults = calculateBasePriceForOneVehicle(vehicle, distanceRules, distanceKm);
+            List<TierCalculationResult> tierResults = calculateBasePriceForOneVehicle(pricing, vehicleIndex, distanceKm);
             BigDecimal basePriceForOneVehicle = tierResults.stream()
                     .map(TierCalculationResult::getSubtotal)
                     .reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -74,10 +68,10 @@ public class UnifiedPricingService {
 
             // 4. Apply category adjustment to TOTAL (multiplier × total + extraFee once)
             // CRITICAL: extraFee is added ONCE for the entire order, not per vehicle
-            BigDecimal adjustedTotal = applyCategoryAdjustmentToTotal(totalBasePriceAllVehicles, categoryId);
+            BigDecimal adjustedTotal = applyCategoryAdjustmentToTotal(pricing, totalBasePriceAllVehicles, categoryId);
             
             // Store adjusted price for one vehicle (for display purposes only)
-            BigDecimal adjustedPriceForOneVehicle = basePriceForOneVehicle.multiply(getCategoryMultiplier(categoryId));
+            BigDecimal adjustedPriceForOneVehicle = basePriceForOneVehicle.multiply(pricing.categoryMultiplier(categoryId));
 
             // 5. Round to nearest 1000 VND (matches AI chatbot)
             BigDecimal totalPrice = roundToNearestThousand(adjustedTotal);
@@ -96,27 +90,28 @@ public class UnifiedPricingService {
     /**
      * Calculate base price for one vehicle using distance tiers
      */
-    private List<TierCalculationResult> calculateBasePriceForOneVehicle(SizeRuleEntity vehicle, 
-                                                      List<DistanceRuleEntity> distanceRules, 
+    private List<TierCalculationResult> calculateBasePriceForOneVehicle(PricingSnapshot pricing,
+                                                      int vehicleIndex,
                                                       BigDecimal distanceKm) {
         List<TierCalculationResult> tierResults = new ArrayList<>();
         BigDecimal remainingDistance = distanceKm;
         
-        for (DistanceRuleEntity distanceRule : distanceRules) {
+        for (int tier = 0; tier < pricing.tierCount(); tier++) {
             if (remainingDistance.compareTo(BigDecimal.ZERO) <= 0) break;
 
-            BigDecimal from = distanceRule.getFromKm();
-            BigDecimal to = distanceRule.getToKm();
+            BigDecimal from = pricing.tierFromKm(tier);
+            BigDecimal to = pricing.tierToKm(tier);
 
-            BasingPriceEntity basePrice = basingPriceService
-                    .findBasingPriceEntityBysizeRuleEntityIdAndDistanceRuleEntityId(
-                            vehicle.getId(), distanceRule.getId())
-                    .orElseThrow(() -> new RuntimeException("No base price found for vehicle=" 
-                            + vehicle.getSizeRuleName() + ", tier=" + from + "-" + to));
+            BigDecimal basePrice = pricing.basePrice(vehicleIndex, tier);
+            if (basePrice == null) {
+                SizeRuleEntity vehicle = pricing.sizeRule(vehicleIndex);
+                throw new RuntimeException("No base price found for vehicle="
+                        + vehicle.getSizeRuleName() + ", tier=" + from + "-" + to);
+            }
 
             // Fixed tier (0-4km)
             if (from.compareTo(BigDecimal.ZERO) == 0 && to.compareTo(BigDecimal.valueOf(4)) == 0) {
-                BigDecimal tierPrice = basePrice.getBasePrice();
+                BigDecimal tierPrice = basePrice;
                 remainingDistance = remainingDistance.subtract(to);
                 log.debug("📍 Fixed tier 0-4km: {} VND", tierPrice);
                 
@@ -126,10 +121,10 @@ public class UnifiedPricingService {
             } else {
                 // Variable tier
                 BigDecimal tierDistance = (to == null) ? remainingDistance : remainingDistance.min(to.subtract(from));
-                BigDecimal tierPrice = basePrice.getBasePrice().multiply(tierDistance);
+                BigDecimal tierPrice = basePrice.multiply(tierDistance);
                 remainingDistance = remainingDistance.subtract(tierDistance);
                 log.debug("📍 Variable tier {}-{}km: {}km × {} = {} VND", 
-                        from, to == null ? "∞" : to, tierDistance, basePrice.getBasePrice(), tierPrice);
+                        from, to == null ? "∞" : to, tierDistance, basePrice, tierPrice);
                 
                 // Add tier result
                 String distanceRange;
@@ -138,7 +133,7 @@ public class UnifiedPricingService {
                 } else {
                     distanceRange = from + "-" + to + " km";
                 }
-                tierResults.add(new TierCalculationResult(distanceRange, basePrice.getBasePrice(), tierPrice, tierDistance));
+                tierResults.add(new TierCalculationResult(distanceRange, basePrice, tierPrice, tierDistance));
             }
         }
 
@@ -148,29 +143,24 @@ public class UnifiedPricingService {
     /**
      * Apply category adjustment (multiplier + extra fee) - DEPRECATED, use applyCategoryAdjustmentToTotal
      */
-    private BigDecimal applyCategoryAdjustment(BigDecimal basePrice, UUID categoryId) {
+    private BigDecimal applyCategoryAdjustment(PricingSnapshot pricing, BigDecimal basePrice, UUID categoryId) {
         if (categoryId == null) {
             return basePrice;
         }
 
-        CategoryEntity category = categoryEntityService.findEntityById(categoryId).orElse(null);
+        CategoryEntity category = pricing.category(categoryId).orElse(null);
         if (category == null) {
             log.warn("⚠️ Category not found: {}", categoryId);
             return basePrice;
         }
 
-        CategoryPricingDetailEntity pricingDetail = categoryPricingDetailService.findByCategoryId(categoryId);
-        if (pricingDetail == null) {
+        if (!pricing.hasCategoryPricing(categoryId)) {
             log.warn("⚠️ No pricing detail for category: {}", category.getCategoryName().name());
             return basePrice;
         }
 
-        BigDecimal multiplier = pricingDetail.getPriceMultiplier() != null 
-                ? pricingDetail.getPriceMultiplier() 
-                : BigDecimal.ONE;
-        BigDecimal extraFee = pricingDetail.getExtraFee() != null 
-                ? pricingDetail.getExtraFee() 
-                : BigDecimal.ZERO;
+        BigDecimal multiplier = pricing.categoryMultiplier(categoryId);
+        BigDecimal extraFee = pricing.categoryExtraFee(categoryId);
 
         BigDecimal adjustedPrice = basePrice.multiply(multiplier).add(extraFee);
 
@@ -184,29 +174,24 @@ public class UnifiedPricingService {
      * Apply category adjustment to TOTAL price (multiplier × total + extraFee once)
      * IMPORTANT: extraFee is applied ONCE per order, not per vehicle
      */
-    private BigDecimal applyCategoryAdjustmentToTotal(BigDecimal totalBasePrice, UUID categoryId) {
+    private BigDecimal applyCategoryAdjustmentToTotal(PricingSnapshot pricing, BigDecimal totalBasePrice, UUID categoryId) {
         if (categoryId == null) {
             return totalBasePrice;
         }
 
-        CategoryEntity category = categoryEntityService.findEntityById(categoryId).orElse(null);
+        CategoryEntity category = pricing.category(categoryId).orElse(null);
         if (category == null) {
             log.warn("⚠️ Category not found: {}", categoryId);
             return totalBasePrice;
         }
 
-        CategoryPricingDetailEntity pricingDetail = categoryPricingDetailService.findByCategoryId(categoryId);
-        if (pricingDetail == null) {
+        if (!pricing.hasCategoryPricing(categoryId)) {
             log.warn("⚠️ No pricing detail for category: {}", category.getCategoryName().name());
             return totalBasePrice;
         }
 
-        BigDecimal multiplier = pricingDetail.getPriceMultiplier() != null 
-                ? pricingDetail.getPriceMultiplier() 
-                : BigDecimal.ONE;
-        BigDecimal extraFee = pricingDetail.getExtraFee() != null 
-                ? pricingDetail.getExtraFee() 
-                : BigDecimal.ZERO;
+        BigDecimal multiplier = pricing.categoryMultiplier(categoryId);
+        BigDecimal extraFee = pricing.categoryExtraFee(categoryId);
 
         // CORRECT: (totalBasePrice × multiplier) + extraFee (extraFee only once)
         BigDecimal adjustedPrice = totalBasePrice.multiply(multiplier).add(extraFee);
@@ -217,22 +202,6 @@ public class UnifiedPricingService {
         return adjustedPrice;
     }
 
-    /**
-     * Get category multiplier only (for display purposes)
-     */
-    private BigDecimal getCategoryMultiplier(UUID categoryId) {
-        if (categoryId == null) {
-            return BigDecimal.ONE;
-        }
-
-        CategoryPricingDetailEntity pricingDetail = categoryPricingDetailService.findByCategoryId(categoryId);
-        if (pricingDetail == null || pricingDetail.getPriceMultiplier() == null) {
-            return BigDecimal.ONE;
-        }
-
-        return pricingDetail.getPriceMultiplier();
-    }
-
     /**
      * Round price to nearest 1000 VND (matches AI chatbot rounding)
      */
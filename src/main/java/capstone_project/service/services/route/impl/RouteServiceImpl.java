@@ -25,6 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Concrete RouteService implementation.
@@ -365,6 +366,8 @@ public class RouteServiceImpl implements RouteService {
             // If we have enough points, create multiple segments
             if (pointsToUse.size() > 2) {
                 // Create a segment for each adjacent pair of points
+                // Waypoint-to-waypoint distances are requested from VietMap all at once
+                double[] segmentDistances = calculateSegmentDistancesVietMap(pointsToUse);
                 double totalDistance = 0;
                 for (int i = 0; i < pointsToUse.size() - 1; i++) {
                     String fromType = typesToUse.get(i);
@@ -377,7 +380,7 @@ public class RouteServiceImpl implements RouteService {
 
                     List<List<BigDecimal>> segmentPath = extractPathSegment(path, pointsToUse.get(i), pointsToUse.get(i + 1));
                     // Calculate distance between waypoints using VietMap API (not the entire detailed path)
-                    double segmentDistance = calculateDistanceVietMap(pointsToUse.get(i), pointsToUse.get(i + 1));
+                    double segmentDistance = segmentDistances[i];
                     totalDistance += segmentDistance;
 
                     // Extract start and end coordinates
@@ -660,6 +663,36 @@ public class RouteServiceImpl implements RouteService {
         }
     }
 
+    /**
+     * Distances between each pair of adjacent points (lng/lat) using VietMap, with all segments in flight at once.
+     * A segment that fails falls back to Haversine on its own.
+     */
+    private double[] calculateSegmentDistancesVietMap(List<List<BigDecimal>> points) {
+        List<CompletableFuture<BigDecimal>> requests = new ArrayList<>();
+        for (int i = 0; i < points.size() - 1; i++) {
+            List<BigDecimal> point1 = points.get(i);
+            List<BigDecimal> point2 = points.get(i + 1);
+            if (point1 == null || point2 == null || point1.size() < 2 || point2.size() < 2) {
+                requests.add(CompletableFuture.completedFuture(BigDecimal.ZERO));
+                continue;
+            }
+            requests.add(vietMapDistanceService.calculateDistanceAsync(
+                    point1.get(1).doubleValue(), point1.get(0).doubleValue(),
+                    point2.get(1).doubleValue(), point2.get(0).doubleValue(), "car"));
+        }
+
+        double[] distances = new double[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                distances[i] = requests.get(i).join().doubleValue();
+            } catch (Exception e) {
+                log.warn("VietMap distance calculation failed, using Haversine fallback: {}", e.getMessage());
+                distances[i] = calculateDistanceHaversine(points.get(i), points.get(i + 1));
+            }
+        }
+        return distances;
+    }
+
     /**
      * Calculate distance between two points - defaults to Haversine for performance.
      * Used in optimization algorithms where speed is more important than accuracy.
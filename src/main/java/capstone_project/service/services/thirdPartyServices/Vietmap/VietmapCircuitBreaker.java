@@ -0,0 +1,118 @@
+package capstone_project.service.services.thirdPartyServices.Vietmap;
+
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker for one Vietmap endpoint.
+ * Opens when at least failureRateThreshold of the last windowSize calls failed (after minimumCalls),
+ * rejects calls while open, then lets a single probe through; the probe closes or re-opens the breaker.
+ */
+final class VietmapCircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+
+    // Ring buffer of the last outcomes, true = failure; guarded by this
+    private final boolean[] window;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    VietmapCircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration) {
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Whether a call may go out now; every permitted call must end in onSuccess, onFailure or onCancel
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return false;
+            }
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            close();
+            return;
+        }
+        record(false);
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minimumCalls
+                && (double) failures / recorded >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * Call abandoned by the caller before it finished: frees the half-open probe slot
+     */
+    synchronized void onCancel() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        probeInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        probeInFlight = false;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,247 @@
+package capstone_project.service.services.thirdPartyServices.Vietmap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking transport for the Vietmap REST APIs, on the pooled vietmapWebClient.
+ * Every call gets a per-endpoint timeout, one retry on connection errors and 502/503/504,
+ * and a circuit breaker per endpoint so an outage fails fast instead of tying up request threads.
+ * Idempotent lookups (autocomplete, place, reverse) are hedged: a second request goes out when the first
+ * has not answered within the hedge delay, and whichever answers first wins.
+ * Latency is recorded in the vietmap.request timer per endpoint and outcome.
+ */
+@Component
+@Slf4j
+public class VietmapGateway {
+
+    public enum Endpoint {
+        AUTOCOMPLETE("autocomplete", 3000, 400),
+        PLACE("place", 3000, 400),
+        REVERSE("reverse", 3000, 400),
+        ROUTE("route", 10000, 0),
+        ROUTE_TOLLS("route-tolls", 10000, 0),
+        STYLES("styles", 5000, 0);
+
+        private final String tag;
+        private final long defaultTimeoutMs;
+        private final long defaultHedgeDelayMs;
+
+        Endpoint(String tag, long defaultTimeoutMs, long defaultHedgeDelayMs) {
+            this.tag = tag;
+            this.defaultTimeoutMs = defaultTimeoutMs;
+            this.defaultHedgeDelayMs = defaultHedgeDelayMs;
+        }
+    }
+
+    /**
+     * Thrown without calling Vietmap while the endpoint's circuit breaker is open
+     */
+    public static class CircuitOpenException extends RuntimeException {
+        public CircuitOpenException(Endpoint endpoint) {
+            super("Vietmap " + endpoint.tag + " API is temporarily unavailable");
+        }
+    }
+
+    private record Policy(Duration timeout, Duration hedgeDelay, VietmapCircuitBreaker breaker) {
+    }
+
+    private final WebClient webClient;
+    private final MeterRegistry meterRegistry;
+    private final Map<Endpoint, Policy> policies = new EnumMap<>(Endpoint.class);
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final Counter hedges;
+    private final Counter rejections;
+
+    public VietmapGateway(@Qualifier("vietmapWebClient") WebClient webClient,
+                          MeterRegistry meterRegistry,
+                          Environment environment,
+                          @Value("${vietmap.gateway.max-retries:1}") int maxRetries,
+                          @Value("${vietmap.gateway.retry-backoff-ms:200}") long retryBackoffMs,
+                          @Value("${vietmap.gateway.breaker.window-size:20}") int windowSize,
+                          @Value("${vietmap.gateway.breaker.minimum-calls:10}") int minimumCalls,
+                          @Value("${vietmap.gateway.breaker.failure-rate:0.5}") double failureRate,
+                          @Value("${vietmap.gateway.breaker.open-seconds:30}") long openSeconds) {
+        this.webClient = webClient;
+        this.meterRegistry = meterRegistry;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = Duration.ofMillis(retryBackoffMs);
+
+        for (Endpoint endpoint : Endpoint.values()) {
+            String prefix = "vietmap.gateway." + endpoint.tag;
+            long timeoutMs = environment.getProperty(prefix + ".timeout-ms", Long.class, endpoint.defaultTimeoutMs);
+            long hedgeDelayMs = environment.getProperty(prefix + ".hedge-delay-ms", Long.class, endpoint.defaultHedgeDelayMs);
+            VietmapCircuitBreaker breaker = new VietmapCircuitBreaker(
+                    windowSize, minimumCalls, failureRate, Duration.ofSeconds(openSeconds));
+            policies.put(endpoint, new Policy(Duration.ofMillis(timeoutMs),
+                    hedgeDelayMs > 0 ? Duration.ofMillis(hedgeDelayMs) : null, breaker));
+
+            Gauge.builder("vietmap.circuit.state", breaker, b -> b.state().ordinal())
+                    .description("Circuit breaker state of a Vietmap endpoint (0 closed, 1 open, 2 half-open)")
+                    .tag("endpoint", endpoint.tag)
+                    .register(meterRegistry);
+        }
+
+        this.hedges = Counter.builder("vietmap.request.hedged")
+                .description("Backup requests sent because Vietmap did not answer within the hedge delay")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("vietmap.request.rejected")
+                .description("Vietmap calls rejected by an open circuit breaker")
+                .register(meterRegistry);
+    }
+
+    public Mono<String> get(Endpoint endpoint, String uri) {
+        return execute(endpoint, () -> webClient.get()
+                .uri(uri)
+                .retrieve()
+                .bodyToMono(String.class));
+    }
+
+    public Mono<String> postJson(Endpoint endpoint, String uri, String body) {
+        return execute(endpoint, () -> webClient.post()
+                .uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(String.class));
+    }
+
+    private Mono<String> execute(Endpoint endpoint, Supplier<Mono<String>> request) {
+        Policy policy = policies.get(endpoint);
+        return Mono.defer(() -> {
+            if (!policy.breaker().tryAcquire()) {
+                rejections.increment();
+                record(endpoint, "rejected", 0);
+                return Mono.error(new CircuitOpenException(endpoint));
+            }
+            long start = System.nanoTime();
+            return hedged(policy, request)
+                    .retryWhen(Retry.backoff(maxRetries, retryBackoff)
+                            .filter(VietmapGateway::isTransient)
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                    .doOnSuccess(response -> {
+                        policy.breaker().onSuccess();
+                        record(endpoint, "success", System.nanoTime() - start);
+                    })
+                    .doOnError(error -> {
+                        if (isOutage(error)) {
+                            log.warn("[VietmapGateway] {} call failed: {}", endpoint.tag, error.toString());
+                            policy.breaker().onFailure();
+                        } else {
+                            // Vietmap answered (4xx other than 429), so the endpoint itself is healthy
+                            policy.breaker().onSuccess();
+                        }
+                        record(endpoint, outcome(error), System.nanoTime() - start);
+                    })
+                    .doOnCancel(() -> policy.breaker().onCancel());
+        });
+    }
+
+    /**
+     * One attempt with the endpoint timeout, plus a backup attempt after the hedge delay.
+     * The backup is skipped when the first attempt already failed; retries handle that case.
+     */
+    private Mono<String> hedged(Policy policy, Supplier<Mono<String>> request) {
+        Mono<String> attempt = Mono.defer(request).timeout(policy.timeout());
+        if (policy.hedgeDelay() == null) {
+            return attempt;
+        }
+        return Mono.defer(() -> {
+            Sinks.One<Boolean> primaryFailed = Sinks.one();
+            Mono<String> primary = attempt.doOnError(error -> primaryFailed.tryEmitValue(true));
+            Mono<String> backup = Mono.delay(policy.hedgeDelay())
+                    .takeUntilOther(primaryFailed.asMono())
+                    .flatMap(tick -> {
+                        hedges.increment();
+                        return attempt;
+                    });
+            return Mono.firstWithValue(primary, backup)
+                    // Both attempts failed or the backup never started: surface the first attempt's error
+                    .onErrorMap(NoSuchElementException.class, VietmapGateway::firstAttemptError);
+        });
+    }
+
+    private static Throwable firstAttemptError(NoSuchElementException error) {
+        if (error.getCause() == null) {
+            return error;
+        }
+        return Exceptions.unwrapMultiple(error.getCause()).stream()
+                .filter(cause -> !(cause instanceof NoSuchElementException))
+                .findFirst()
+                .orElse(error);
+    }
+
+    private void record(Endpoint endpoint, String outcome, long nanos) {
+        Timer.builder("vietmap.request")
+                .description("Latency of Vietmap API calls, including retries and hedged requests")
+                .tag("endpoint", endpoint.tag)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Failures worth another attempt: the request never reached Vietmap or a gateway in front of it gave up
+     */
+    private static boolean isTransient(Throwable error) {
+        if (error instanceof WebClientRequestException) {
+            return true;
+        }
+        if (error instanceof WebClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status == 502 || status == 503 || status == 504;
+        }
+        return false;
+    }
+
+    /**
+     * Failures counted by the circuit breaker
+     */
+    private static boolean isOutage(Throwable error) {
+        if (error instanceof TimeoutException || error instanceof WebClientRequestException) {
+            return true;
+        }
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return false;
+    }
+
+    private static String outcome(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (error instanceof WebClientRequestException) {
+            return "connect_error";
+        }
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() ? "server_error" : "client_error";
+        }
+        return "error";
+    }
+}
@@ -3,6 +3,8 @@ package capstone_project.service.services.thirdPartyServices.Vietmap;
 import capstone_project.dtos.request.vietmap.VietmapRouteV3Request;
 import capstone_project.dtos.response.vietmap.VietmapRouteV3Response;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface VietmapService {
     String autocomplete(String text,
                                String focus,
@@ -44,4 +46,34 @@ public interface VietmapService {
      * @return VietmapRouteV3Response with route details, instructions, and annotations
      */
     VietmapRouteV3Response routeV3(VietmapRouteV3Request request);
+
+    // Non-blocking variants: complete on the Vietmap client threads, fail with the same exceptions as above
+
+    CompletableFuture<String> autocompleteAsync(String text,
+                                                String focus,
+                                                Integer cityId,
+                                                Integer distId,
+                                                Integer wardId,
+                                                String circle_center,
+                                                Integer circle_radius,
+                                                String cats,
+                                                String layers);
+
+    CompletableFuture<String> placeAsync(String refId);
+
+    CompletableFuture<String> reverseAsync(Double lat, Double lng);
+
+    CompletableFuture<String> routeTollsAsync(String pathJson, Integer vehicle);
+
+    CompletableFuture<String> routeAsync(java.util.List<String> points,
+                                         Boolean pointsEncoded,
+                                         String vehicle,
+                                         Boolean optimize,
+                                         String avoid);
+
+    CompletableFuture<String> stylesAsync();
+
+    CompletableFuture<String> mobileStylesAsync();
+
+    CompletableFuture<VietmapRouteV3Response> routeV3Async(VietmapRouteV3Request request);
 }
@@ -2,20 +2,30 @@ package capstone_project.service.services.thirdPartyServices.Vietmap.impl;
 
 import capstone_project.dtos.request.vietmap.VietmapRouteV3Request;
 import capstone_project.dtos.response.vietmap.VietmapRouteV3Response;
+import capstone_project.service.services.map.GeocodingCache;
+import capstone_project.service.services.map.RouteTollsCache;
+import capstone_project.service.services.thirdPartyServices.Vietmap.VietmapGateway;
+import capstone_project.service.services.thirdPartyServices.Vietmap.VietmapGateway.Endpoint;
 import capstone_project.service.services.thirdPartyServices.Vietmap.VietmapService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
 public class VietmapServiceImpl implements VietmapService {
 
-    private final WebClient webClient;
+    private final VietmapGateway gateway;
     private final String apiKey;
     private final String baseUrl;
     private final String autocompleteEndpoint;
@@ -30,8 +40,12 @@ public class VietmapServiceImpl implements VietmapService {
     private final ObjectMapper objectMapper;
     private final Boolean defaultAlternative;
     private final String defaultTime;
+    private final RouteTollsCache routeTollsCache;
+    private final GeocodingCache geocodingCache;
 
-    public VietmapServiceImpl(WebClient.Builder webClientBuilder,
+    public VietmapServiceImpl(VietmapGateway gateway,
+                              RouteTollsCache routeTollsCache,
+                              GeocodingCache geocodingCache,
                               @Value("${vietmap.base-url}") String baseUrl,
                               @Value("${vietmap.api.key}") String apiKey,
                               @Value("${vietmap.api.autocomplete.demo.endpoint}") String autocompleteEndpoint,
@@ -52,7 +66,7 @@ public class VietmapServiceImpl implements VietmapService {
         this.reverseEndpoint = reverseEndpoint;
         this.routeTollsEndpoint = routeTollsEndpoint;
         this.styleEndpoint = styleEndpoint;
-        this.webClient = webClientBuilder.baseUrl(baseUrl).build();
+        this.gateway = gateway;
         this.DEFAULT_HCMC_FOCUS = defaultHcmcFocus;
         this.CityId_HCMC = cityId_HCMC;
         this.routeEndpoint = routeEndpoint;
@@ -60,6 +74,8 @@ public class VietmapServiceImpl implements VietmapService {
         this.objectMapper = new ObjectMapper();
         this.defaultAlternative = defaultAlternative;
         this.defaultTime = defaultTime;
+        this.routeTollsCache = routeTollsCache;
+        this.geocodingCache = geocodingCache;
     }
 
     @Override
@@ -72,8 +88,21 @@ public class VietmapServiceImpl implements VietmapService {
                                Integer circle_radius,
                                String cats,
                                String layers) {
+        return await(autocompleteAsync(text, focus, cityId, distId, wardId, circle_center, circle_radius, cats, layers));
+    }
+
+    @Override
+    public CompletableFuture<String> autocompleteAsync(String text,
+                                                       String focus,
+                                                       Integer cityId,
+                                                       Integer distId,
+                                                       Integer wardId,
+                                                       String circle_center,
+                                                       Integer circle_radius,
+                                                       String cats,
+                                                       String layers) {
         if (text == null || text.isBlank()) {
-            throw new IllegalArgumentException("text parameter is required");
+            return CompletableFuture.failedFuture(new IllegalArgumentException("text parameter is required"));
         }
 
         String effectiveFocus = (focus == null || focus.isBlank()) ? DEFAULT_HCMC_FOCUS : focus;
@@ -88,18 +117,20 @@ public class VietmapServiceImpl implements VietmapService {
                 .build()
                 .toUriString();
 
-        try {
-            
-            return webClient.get().uri(uri).retrieve().bodyToMono(String.class).block();
-        } catch (WebClientResponseException ex) {
-            throw new RuntimeException("Vietmap API error: " + ex.getStatusCode() + " - " + ex.getResponseBodyAsString(), ex);
-        }
+        // Repeated and longer prefixes of the same text are answered from the geocoding cache
+        return geocodingCache.autocomplete(text, effectiveFocus,
+                () -> call(gateway.get(Endpoint.AUTOCOMPLETE, uri), "Vietmap API"));
     }
 
     @Override
     public String place(String refId) {
+        return await(placeAsync(refId));
+    }
+
+    @Override
+    public CompletableFuture<String> placeAsync(String refId) {
         if (refId == null || refId.isBlank()) {
-            throw new IllegalArgumentException("refid parameter is required");
+            return CompletableFuture.failedFuture(new IllegalArgumentException("refid parameter is required"));
         }
 
         String uri = UriComponentsBuilder
@@ -109,18 +140,18 @@ public class VietmapServiceImpl implements VietmapService {
                 .build()
                 .toUriString();
 
-        try {
-            
-            return webClient.get().uri(uri).retrieve().bodyToMono(String.class).block();
-        } catch (WebClientResponseException ex) {
-            throw new RuntimeException("Vietmap Place API error: " + ex.getStatusCode() + " - " + ex.getResponseBodyAsString(), ex);
-        }
+        return geocodingCache.place(refId, () -> call(gateway.get(Endpoint.PLACE, uri), "Vietmap Place API"));
     }
 
     @Override
     public String reverse(Double lat, Double lng) {
+        return await(reverseAsync(lat, lng));
+    }
+
+    @Override
+    public CompletableFuture<String> reverseAsync(Double lat, Double lng) {
         if (lat == null || lng == null) {
-            throw new IllegalArgumentException("lat and lng parameters are required");
+            return CompletableFuture.failedFuture(new IllegalArgumentException("lat and lng parameters are required"));
         }
 
         UriComponentsBuilder builder = UriComponentsBuilder
@@ -132,20 +163,25 @@ public class VietmapServiceImpl implements VietmapService {
 
         String uri = builder.build().toUriString();
 
-        try {
-            
-            return webClient.get().uri(uri).retrieve().bodyToMono(String.class).block();
-        } catch (WebClientResponseException ex) {
-            throw new RuntimeException("Vietmap Reverse API error: " + ex.getStatusCode() + " - " + ex.getResponseBodyAsString(), ex);
-        }
+        return geocodingCache.reverse(lat, lng, () -> call(gateway.get(Endpoint.REVERSE, uri), "Vietmap Reverse API"));
     }
 
     @Override
     public String routeTolls(String pathJson, Integer vehicle) {
+        return await(routeTollsAsync(pathJson, vehicle));
+    }
+
+    @Override
+    public CompletableFuture<String> routeTollsAsync(String pathJson, Integer vehicle) {
         if (pathJson == null || pathJson.isBlank()) {
-            throw new IllegalArgumentException("path body is required");
+            return CompletableFuture.failedFuture(new IllegalArgumentException("path body is required"));
         }
 
+        // Same waypoints and vehicle are answered from the route cache
+        return routeTollsCache.getOrFetchAsync(pathJson, vehicle, () -> fetchRouteTolls(pathJson, vehicle));
+    }
+
+    private CompletableFuture<String> fetchRouteTolls(String pathJson, Integer vehicle) {
         UriComponentsBuilder builder = UriComponentsBuilder
                 .fromUriString(baseUrl + routeTollsEndpoint)
                 .queryParam("apikey", apiKey)
@@ -157,18 +193,7 @@ public class VietmapServiceImpl implements VietmapService {
 
         String uri = builder.build().toUriString();
 
-        try {
-            
-            return webClient.post()
-                    .uri(uri)
-                    .header("Content-Type", "application/json")
-                    .bodyValue(pathJson)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-        } catch (WebClientResponseException ex) {
-            throw new RuntimeException("Vietmap Route-Tolls API error: " + ex.getStatusCode() + " - " + ex.getResponseBodyAsString(), ex);
-        }
+        return call(gateway.postJson(Endpoint.ROUTE_TOLLS, uri, pathJson), "Vietmap Route-Tolls API");
     }
 
     @Override
@@ -177,8 +202,17 @@ public class VietmapServiceImpl implements VietmapService {
                         String vehicle,
                         Boolean optimize,
                         String avoid) {
+        return await(routeAsync(points, pointsEncoded, vehicle, optimize, avoid));
+    }
+
+    @Override
+    public CompletableFuture<String> routeAsync(java.util.List<String> points,
+                                                Boolean pointsEncoded,
+                                                String vehicle,
+                                                Boolean optimize,
+                                                String avoid) {
         if (points == null || points.size() < 2) {
-            throw new IllegalArgumentException("At least two point parameters are required");
+            return CompletableFuture.failedFuture(new IllegalArgumentException("At least two point parameters are required"));
         }
 
         UriComponentsBuilder builder = UriComponentsBuilder
@@ -208,57 +242,39 @@ public class VietmapServiceImpl implements VietmapService {
 
         String uri = builder.build().toUriString();
 
-        try {
-            
-            return webClient.get()
-                    .uri(uri)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-        } catch (WebClientResponseException ex) {
-            throw new RuntimeException("Vietmap Route API error: " + ex.getStatusCode() + " - " + ex.getResponseBodyAsString(), ex);
-        }
+        return call(gateway.get(Endpoint.ROUTE, uri), "Vietmap Route API");
     }
 
     @Override
     public String styles() {
+        return await(stylesAsync());
+    }
+
+    @Override
+    public CompletableFuture<String> stylesAsync() {
         UriComponentsBuilder builder = UriComponentsBuilder
                 .fromUriString(baseUrl + styleEndpoint)
                 .queryParam("apikey", apiKey);
 
         String uri = builder.build().toUriString();
 
-        try {
-            
-            return webClient.get()
-                    .uri(uri)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-        } catch (WebClientResponseException ex) {
-            throw new RuntimeException("Vietmap Styles API error: " + ex.getStatusCode() + " - " + ex.getResponseBodyAsString(), ex);
-        }
+        return call(gateway.get(Endpoint.STYLES, uri), "Vietmap Styles API");
     }
 
     @Override
     public String mobileStyles() {
-        
+        return await(mobileStylesAsync());
+    }
+
+    @Override
+    public CompletableFuture<String> mobileStylesAsync() {
         UriComponentsBuilder builder = UriComponentsBuilder
                 .fromUriString(baseUrl + mobileStyleEndpoint)
                 .queryParam("apikey", apiKey);
 
         String uri = builder.build().toUriString();
 
-        try {
-            
-            return webClient.get()
-                    .uri(uri)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-        } catch (WebClientResponseException ex) {
-            throw new RuntimeException("Vietmap Mobile Styles API error: " + ex.getStatusCode() + " - " + ex.getResponseBodyAsString(), ex);
-        }
+        return call(gateway.get(Endpoint.STYLES, uri), "Vietmap Mobile Styles API");
     }
 
     @Override
@@ -272,9 +288,14 @@ public class VietmapServiceImpl implements VietmapService {
 
     @Override
     public VietmapRouteV3Response routeV3(VietmapRouteV3Request request) {
+        return await(routeV3Async(request));
+    }
+
+    @Override
+    public CompletableFuture<VietmapRouteV3Response> routeV3Async(VietmapRouteV3Request request) {
         // Validate required parameters
         if (request.getPoints() == null || request.getPoints().size() < 2) {
-            throw new IllegalArgumentException("At least two point parameters are required");
+            return CompletableFuture.failedFuture(new IllegalArgumentException("At least two point parameters are required"));
         }
 
         // Build URI with query parameters
@@ -336,35 +357,59 @@ public class VietmapServiceImpl implements VietmapService {
 
         String uri = builder.build().toUriString();
 
+        log.info("Calling Vietmap Route API v3: {}", uri);
+
+        return gateway.get(Endpoint.ROUTE, uri)
+                .map(this::parseRouteV3)
+                .onErrorMap(ex -> {
+                    if (ex instanceof WebClientResponseException responseException) {
+                        log.error("Vietmap Route API v3 error: {} - {}", responseException.getStatusCode(), responseException.getResponseBodyAsString());
+                        return new RuntimeException("Vietmap Route API v3 error: " + responseException.getStatusCode() + " - " + responseException.getResponseBodyAsString(), ex);
+                    }
+                    log.error("Error parsing Vietmap Route API v3 response", ex);
+                    return new RuntimeException("Error parsing Vietmap Route API v3 response: " + ex.getMessage(), ex);
+                })
+                .toFuture();
+    }
+
+    private VietmapRouteV3Response parseRouteV3(String jsonResponse) {
+        // Parse JSON response to VietmapRouteV3Response
+        VietmapRouteV3Response response;
+        try {
+            response = objectMapper.readValue(jsonResponse, VietmapRouteV3Response.class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        log.info("Vietmap Route API v3 response code: {}", response.getCode());
+
+        // Check for API error
+        if (!"OK".equals(response.getCode())) {
+            String errorMsg = response.getMessage() != null ? response.getMessage() : response.getMessages();
+            log.error("Vietmap Route API v3 returned error - Code: {}, Message: {}", response.getCode(), errorMsg);
+            throw new RuntimeException("Vietmap Route API v3 error: " + response.getCode() + " - " + errorMsg);
+        }
+
+        return response;
+    }
+
+    private static CompletableFuture<String> call(Mono<String> response, String api) {
+        return response
+                .onErrorMap(WebClientResponseException.class,
+                        ex -> new RuntimeException(api + " error: " + ex.getStatusCode() + " - " + ex.getResponseBodyAsString(), ex))
+                .onErrorMap(TimeoutException.class,
+                        ex -> new RuntimeException(api + " error: no response within the timeout", ex))
+                .toFuture();
+    }
+
+    private static <T> T await(CompletableFuture<T> response) {
         try {
-            log.info("Calling Vietmap Route API v3: {}", uri);
-            
-            String jsonResponse = webClient.get()
-                    .uri(uri)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            // Parse JSON response to VietmapRouteV3Response
-            VietmapRouteV3Response response = objectMapper.readValue(jsonResponse, VietmapRouteV3Response.class);
-            
-            log.info("Vietmap Route API v3 response code: {}", response.getCode());
-            
-            // Check for API error
-            if (!"OK".equals(response.getCode())) {
-                String errorMsg = response.getMessage() != null ? response.getMessage() : response.getMessages();
-                log.error("Vietmap Route API v3 returned error - Code: {}, Message: {}", response.getCode(), errorMsg);
-                throw new RuntimeException("Vietmap Route API v3 error: " + response.getCode() + " - " + errorMsg);
+            return response.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
             }
-            
-            return response;
-            
-        } catch (WebClientResponseException ex) {
-            log.error("Vietmap Route API v3 error: {} - {}", ex.getStatusCode(), ex.getResponseBodyAsString());
-            throw new RuntimeException("Vietmap Route API v3 error: " + ex.getStatusCode() + " - " + ex.getResponseBodyAsString(), ex);
-        } catch (Exception ex) {
-            log.error("Error parsing Vietmap Route API v3 response", ex);
-            throw new RuntimeException("Error parsing Vietmap Route API v3 response: " + ex.getMessage(), ex);
+            throw ex;
         }
     }
 }
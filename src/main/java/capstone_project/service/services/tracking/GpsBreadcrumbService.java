@@ -0,0 +1,29 @@
+package capstone_project.service.services.tracking;
+
+import capstone_project.dtos.response.vehicle.BreadcrumbPointResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface GpsBreadcrumbService {
+
+    /**
+     * Append an accepted GPS ping to the driven track.
+     * Without an assignment ID the ping goes to every assignment of the vehicle that is currently on a trip.
+     */
+    void record(UUID vehicleId, UUID vehicleAssignmentId, BigDecimal latitude, BigDecimal longitude);
+
+    /**
+     * Driven track of an assignment in [from, to], oldest first, including points not yet written to the database
+     * @param from null = from the start of the trip
+     * @param to   null = up to now
+     */
+    List<BreadcrumbPointResponse> getTrack(UUID vehicleAssignmentId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Length of the recorded track of an assignment, 0 if nothing was recorded
+     */
+    double getTrackDistanceKm(UUID vehicleAssignmentId);
+}
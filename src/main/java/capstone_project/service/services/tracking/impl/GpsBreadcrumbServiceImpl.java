@@ -0,0 +1,290 @@
+package capstone_project.service.services.tracking.impl;
+
+import capstone_project.common.utils.GpsTrackCodec;
+import capstone_project.common.utils.GpsTrackCodec.TrackPoint;
+import capstone_project.common.utils.RouteGeometryIndex;
+import capstone_project.common.utils.VietnamTimeUtils;
+import capstone_project.dtos.response.vehicle.BreadcrumbPointResponse;
+import capstone_project.entity.vehicle.GpsBreadcrumbSegmentEntity;
+import capstone_project.repository.repositories.vehicle.GpsBreadcrumbSegmentRepository;
+import capstone_project.service.services.tracking.GpsBreadcrumbService;
+import capstone_project.service.websocket.VehicleTrackingSnapshotCache;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Append-only GPS breadcrumb store.
+ * Pings are buffered per vehicle assignment; a segment is sealed after N points or M seconds,
+ * encoded with {@link GpsTrackCodec} and written as one row by the periodic flush.
+ * Reads merge the stored segments with the sealed and open segments still in memory.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GpsBreadcrumbServiceImpl implements GpsBreadcrumbService {
+
+    // Order detail statuses while the vehicle is actually driving the trip
+    private static final Set<String> ON_TRIP_STATUSES = Set.of(
+            "PICKING_UP", "ON_DELIVERED", "ONGOING_DELIVERED", "IN_TROUBLES", "RESOLVED", "RETURNING");
+
+    private static final LocalDateTime UNBOUNDED_FROM = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final GpsBreadcrumbSegmentRepository segmentRepository;
+    private final VehicleTrackingSnapshotCache trackingSnapshotCache;
+    private final PlatformTransactionManager transactionManager;
+
+    // Segment currently being filled, per vehicle assignment
+    private final Map<UUID, OpenSegment> openSegments = new ConcurrentHashMap<>();
+
+    // Sealed segments waiting for the next flush
+    private final Queue<GpsBreadcrumbSegmentEntity> sealedSegments = new ConcurrentLinkedQueue<>();
+
+    @Value("${tracking.breadcrumb.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tracking.breadcrumb.max-points-per-segment:120}")
+    private int maxPointsPerSegment;
+
+    @Value("${tracking.breadcrumb.max-segment-seconds:300}")
+    private long maxSegmentSeconds;
+
+    private static final class OpenSegment {
+        final UUID vehicleId;
+        final List<TrackPoint> points = new ArrayList<>();
+
+        OpenSegment(UUID vehicleId) {
+            this.vehicleId = vehicleId;
+        }
+
+        long firstTimestamp() {
+            return points.get(0).timestampMillis();
+        }
+    }
+
+    @Override
+    public void record(UUID vehicleId, UUID vehicleAssignmentId, BigDecimal latitude, BigDecimal longitude) {
+        if (!enabled || vehicleId == null || latitude == null || longitude == null) {
+            return;
+        }
+        TrackPoint point = new TrackPoint(System.currentTimeMillis(), latitude.doubleValue(), longitude.doubleValue());
+
+        // The assignment id comes from the client: only trust it when it is an active trip of this vehicle
+        List<UUID> activeIds = activeAssignmentIds(vehicleId);
+        if (vehicleAssignmentId != null) {
+            if (activeIds.contains(vehicleAssignmentId)) {
+                append(vehicleAssignmentId, vehicleId, point);
+                return;
+            }
+            log.debug("[GpsBreadcrumb] Ignoring assignment {} sent for vehicle {}: not an active trip",
+                    vehicleAssignmentId, vehicleId);
+        }
+        for (UUID assignmentId : activeIds) {
+            append(assignmentId, vehicleId, point);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BreadcrumbPointResponse> getTrack(UUID vehicleAssignmentId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime fromTime = from != null ? from : UNBOUNDED_FROM;
+        LocalDateTime toTime = to != null ? to : VietnamTimeUtils.now().plusDays(1);
+        long fromMillis = toEpochMillis(fromTime);
+        long toMillis = toEpochMillis(toTime);
+
+        List<BreadcrumbPointResponse> track = new ArrayList<>();
+        for (TrackPoint point : loadPoints(vehicleAssignmentId, fromTime, toTime)) {
+            if (point.timestampMillis() >= fromMillis && point.timestampMillis() <= toMillis) {
+                track.add(new BreadcrumbPointResponse(
+                        toLocalDateTime(point.timestampMillis()),
+                        BigDecimal.valueOf(point.latitude()),
+                        BigDecimal.valueOf(point.longitude())));
+            }
+        }
+        return track;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public double getTrackDistanceKm(UUID vehicleAssignmentId) {
+        List<TrackPoint> points = loadPoints(vehicleAssignmentId, UNBOUNDED_FROM, VietnamTimeUtils.now().plusDays(1));
+        double meters = 0;
+        for (int i = 1; i < points.size(); i++) {
+            TrackPoint a = points.get(i - 1);
+            TrackPoint b = points.get(i);
+            meters += RouteGeometryIndex.haversineDistance(a.latitude(), a.longitude(), b.latitude(), b.longitude());
+        }
+        return meters / 1000.0;
+    }
+
+    /**
+     * Seal segments that have been open longer than the max duration, then write all sealed segments
+     */
+    @Scheduled(fixedDelayString = "${tracking.breadcrumb.flush-interval-ms:10000}")
+    public void flush() {
+        long cutoff = System.currentTimeMillis() - maxSegmentSeconds * 1000L;
+        for (UUID assignmentId : openSegments.keySet()) {
+            openSegments.computeIfPresent(assignmentId, (id, open) -> {
+                if (open.firstTimestamp() > cutoff) {
+                    return open;
+                }
+                sealedSegments.add(seal(id, open));
+                return null;
+            });
+        }
+        writeSealedSegments();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        for (UUID assignmentId : openSegments.keySet()) {
+            OpenSegment open = openSegments.remove(assignmentId);
+            if (open != null) {
+                sealedSegments.add(seal(assignmentId, open));
+            }
+        }
+        log.info("[GpsBreadcrumb] Writing {} segments before shutdown", sealedSegments.size());
+        writeSealedSegments();
+    }
+
+    private void append(UUID vehicleAssignmentId, UUID vehicleId, TrackPoint point) {
+        openSegments.compute(vehicleAssignmentId, (id, open) -> {
+            OpenSegment segment = open != null ? open : new OpenSegment(vehicleId);
+            segment.points.add(point);
+            boolean full = segment.points.size() >= maxPointsPerSegment
+                    || point.timestampMillis() - segment.firstTimestamp() >= maxSegmentSeconds * 1000L;
+            if (!full) {
+                return segment;
+            }
+            sealedSegments.add(seal(id, segment));
+            return null;
+        });
+    }
+
+    private GpsBreadcrumbSegmentEntity seal(UUID vehicleAssignmentId, OpenSegment segment) {
+        List<TrackPoint> points = segment.points;
+        return GpsBreadcrumbSegmentEntity.builder()
+                .vehicleAssignmentId(vehicleAssignmentId)
+                .vehicleId(segment.vehicleId)
+                .startTime(toLocalDateTime(points.get(0).timestampMillis()))
+                .endTime(toLocalDateTime(points.get(points.size() - 1).timestampMillis()))
+                .pointCount(points.size())
+                .encodedPoints(GpsTrackCodec.encode(points))
+                .build();
+    }
+
+    private void writeSealedSegments() {
+        List<GpsBreadcrumbSegmentEntity> batch = new ArrayList<>();
+        GpsBreadcrumbSegmentEntity segment;
+        while ((segment = sealedSegments.poll()) != null) {
+            batch.add(segment);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            // One transaction so a failed batch can be retried as a whole
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> segmentRepository.saveAll(batch));
+            log.debug("[GpsBreadcrumb] Wrote {} segments", batch.size());
+        } catch (DataIntegrityViolationException e) {
+            // Some segment can never be written (e.g. its assignment was deleted): find it instead of retrying forever
+            log.warn("[GpsBreadcrumb] Batch of {} segments rejected, writing them one by one: {}",
+                    batch.size(), e.getMessage());
+            batch.forEach(failed -> failed.setId(null));
+            writeOneByOne(batch);
+        } catch (Exception e) {
+            log.error("[GpsBreadcrumb] Failed to write {} segments: {}", batch.size(), e.getMessage(), e);
+            // Retry on the next flush; ids were already assigned by the rolled back save
+            batch.forEach(failed -> failed.setId(null));
+            sealedSegments.addAll(batch);
+        }
+    }
+
+    private void writeOneByOne(List<GpsBreadcrumbSegmentEntity> batch) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < batch.size(); i++) {
+            GpsBreadcrumbSegmentEntity segment = batch.get(i);
+            try {
+                transaction.executeWithoutResult(status -> segmentRepository.save(segment));
+            } catch (DataIntegrityViolationException e) {
+                log.warn("[GpsBreadcrumb] Dropping segment of assignment {} ({} points from {}): {}",
+                        segment.getVehicleAssignmentId(), segment.getPointCount(), segment.getStartTime(),
+                        e.getMostSpecificCause().getMessage());
+            } catch (Exception e) {
+                log.error("[GpsBreadcrumb] Failed to write segments, retrying {} on the next flush: {}",
+                        batch.size() - i, e.getMessage(), e);
+                List<GpsBreadcrumbSegmentEntity> remaining = batch.subList(i, batch.size());
+                remaining.forEach(failed -> failed.setId(null));
+                sealedSegments.addAll(remaining);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stored segments overlapping the range plus the points still in memory, oldest first
+     */
+    private List<TrackPoint> loadPoints(UUID vehicleAssignmentId, LocalDateTime from, LocalDateTime to) {
+        List<TrackPoint> points = new ArrayList<>();
+        for (GpsBreadcrumbSegmentEntity segment : segmentRepository.findOverlappingSegments(vehicleAssignmentId, from, to)) {
+            points.addAll(GpsTrackCodec.decode(segment.getEncodedPoints()));
+        }
+        for (GpsBreadcrumbSegmentEntity segment : sealedSegments) {
+            if (vehicleAssignmentId.equals(segment.getVehicleAssignmentId())) {
+                points.addAll(GpsTrackCodec.decode(segment.getEncodedPoints()));
+            }
+        }
+        openSegments.computeIfPresent(vehicleAssignmentId, (id, open) -> {
+            points.addAll(open.points);
+            return open;
+        });
+
+        points.sort(Comparator.comparingLong(TrackPoint::timestampMillis));
+        return points;
+    }
+
+    private List<UUID> activeAssignmentIds(UUID vehicleId) {
+        VehicleTrackingSnapshotCache.VehicleSnapshot snapshot = trackingSnapshotCache.get(vehicleId);
+        if (snapshot == null) {
+            return List.of();
+        }
+        List<UUID> ids = new ArrayList<>();
+        for (VehicleTrackingSnapshotCache.AssignmentSnapshot assignment : snapshot.assignments()) {
+            boolean onTrip = assignment.orders().stream()
+                    .anyMatch(order -> ON_TRIP_STATUSES.contains(order.orderDetailStatus()));
+            if (onTrip) {
+                ids.add(assignment.vehicleAssignmentId());
+            }
+        }
+        return ids;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(VietnamTimeUtils.VIETNAM_ZONE).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), VietnamTimeUtils.VIETNAM_ZONE);
+    }
+}
@@ -1,17 +1,23 @@
 package capstone_project.service.services.user;
 
 import capstone_project.common.enums.CommonStatusEnum;
-import capstone_project.entity.user.driver.DriverEntity;
+import capstone_project.common.utils.VietnamTimeUtils;
+import capstone_project.event.FleetAvailabilityChangedEvent;
 import capstone_project.repository.entityServices.user.DriverEntityService;
+import capstone_project.service.services.websocket.NotificationWebSocketService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Background service to check driver license expiry dates
@@ -24,64 +30,94 @@ import java.util.List;
 @RequiredArgsConstructor
 public class DriverLicenseExpiryCheckService {
 
+    private static final UUID KEYSET_START = new UUID(0L, 0L);
+
     private final DriverEntityService driverEntityService;
+    private final NotificationWebSocketService notificationWebSocketService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * Number of drivers handled per batch (one UPDATE, one transaction)
+     */
+    @Value("${driver.license-expiry.batch-size:500}")
+    private int batchSize;
 
     /**
      * Check all active drivers for expired licenses
-     * Runs daily at 2:00 AM
+     * Runs daily at 2:00 AM.
+     * Drivers are walked in keyset batches; expired licenses of a batch are deactivated by one UPDATE
+     * and each batch with changes sends one summary notification.
      */
     @Scheduled(cron = "0 0 2 * * ?")
-    @Transactional
     public void checkDriverLicenseExpiry() {
         log.info("🔍 [DriverLicenseExpiryCheckService] Bắt đầu kiểm tra hạn bằng lái tài xế...");
 
         LocalDate today = LocalDate.now();
+        LocalDateTime startOfToday = today.atStartOfDay();
+        String activeStatus = CommonStatusEnum.ACTIVE.name();
         int expiredCount = 0;
         int warningCount = 0;
+        int batchCount = 0;
+        UUID afterId = KEYSET_START;
+        List<UUID> driverIds;
 
-        // Get all active drivers
-        List<DriverEntity> activeDrivers = driverEntityService.findByStatus(CommonStatusEnum.ACTIVE.name());
+        while (!(driverIds = driverEntityService.findIdsByStatusAfter(activeStatus, afterId, batchSize)).isEmpty()) {
+            batchCount++;
 
-        for (DriverEntity driver : activeDrivers) {
-            if (driver.getDateOfExpiry() == null) {
-                log.warn("⚠️ Tài xế {} ({}) không có ngày hết hạn bằng lái",
-                        driver.getUser().getFullName(), driver.getId());
-                continue;
+            // Deactivate drivers whose license expired before today
+            List<Object[]> deactivated = driverEntityService.deactivateExpiredLicenses(
+                    driverIds, activeStatus, CommonStatusEnum.INACTIVE.name(), startOfToday, VietnamTimeUtils.now());
+            List<String> deactivatedNames = new ArrayList<>();
+            for (Object[] row : deactivated) {
+                log.warn("🚫 Tài xế {} ({}) đã bị vô hiệu hóa do bằng lái hết hạn", row[1], row[0]);
+                deactivatedNames.add((String) row[1]);
             }
+            expiredCount += deactivated.size();
 
-            LocalDate expiryDate = driver.getDateOfExpiry().toLocalDate();
-
-            // Check if license is expired
-            if (expiryDate.isBefore(today)) {
-                // Deactivate driver
-                driver.setStatus(CommonStatusEnum.INACTIVE.name());
-                driverEntityService.save(driver);
-
-                log.warn("🚫 Tài xế {} ({}) đã bị vô hiệu hóa do bằng lái hết hạn ngày {}",
-                        driver.getUser().getFullName(), driver.getId(), expiryDate);
-                expiredCount++;
-            }
-            // Check if license expires within 7 days (critical warning)
-            else if (expiryDate.isBefore(today.plusDays(7))) {
-                log.warn("⚠️ KHẨN CẤP: Tài xế {} ({}) có bằng lái sẽ hết hạn trong {} ngày (ngày {})",
-                        driver.getUser().getFullName(), driver.getId(),
-                        java.time.temporal.ChronoUnit.DAYS.between(today, expiryDate),
-                        expiryDate);
-                warningCount++;
-            }
-            // Check if license expires within 60 days (warning)
-            else if (expiryDate.isBefore(today.plusDays(60))) {
-                log.info("📢 Tài xế {} ({}) có bằng lái sẽ hết hạn trong {} ngày (ngày {})",
-                        driver.getUser().getFullName(), driver.getId(),
-                        java.time.temporal.ChronoUnit.DAYS.between(today, expiryDate),
-                        expiryDate);
+            // Warn about licenses expiring within 60 days (critical within 7 days)
+            List<Object[]> expiring = driverEntityService.findExpiringLicenses(
+                    driverIds, activeStatus, today, today.plusDays(60).atStartOfDay());
+            for (Object[] row : expiring) {
+                Number daysLeft = (Number) row[2];
+                if (daysLeft == null) {
+                    log.warn("⚠️ Tài xế {} ({}) không có ngày hết hạn bằng lái", row[1], row[0]);
+                    continue;
+                }
+                if (daysLeft.intValue() < 7) {
+                    log.warn("⚠️ KHẨN CẤP: Tài xế {} ({}) có bằng lái sẽ hết hạn trong {} ngày",
+                            row[1], row[0], daysLeft);
+                } else {
+                    log.info("📢 Tài xế {} ({}) có bằng lái sẽ hết hạn trong {} ngày",
+                            row[1], row[0], daysLeft);
+                }
                 warningCount++;
             }
+
+            notifyBatch(batchCount, deactivatedNames);
+            afterId = driverIds.get(driverIds.size() - 1);
+        }
+
+        if (expiredCount > 0) {
+            applicationEventPublisher.publishEvent(new FleetAvailabilityChangedEvent(null, null));
         }
 
-        log.info("🔍 [DriverLicenseExpiryCheckService] Hoàn thành kiểm tra. " +
+        log.info("🔍 [DriverLicenseExpiryCheckService] Hoàn thành kiểm tra {} lô. " +
                         "Đã vô hiệu hóa: {} tài xế, Cảnh báo: {} tài xế",
-                expiredCount, warningCount);
+                batchCount, expiredCount, warningCount);
+    }
+
+    /**
+     * Send one summary notification per batch that deactivated drivers, to staff only (names are internal data)
+     */
+    private void notifyBatch(int batchNumber, List<String> deactivatedNames) {
+        if (deactivatedNames.isEmpty()) {
+            return;
+        }
+        String content = String.format("Đã vô hiệu hóa %d tài xế do bằng lái hết hạn (lô %d): %s",
+                deactivatedNames.size(), batchNumber, String.join(", ", deactivatedNames));
+        notificationWebSocketService.broadcastToStaff("DRIVER_LICENSE_EXPIRY_CHECK",
+                "Tài xế bị vô hiệu hóa do bằng lái hết hạn", content,
+                Map.of("batch", batchNumber, "deactivatedCount", deactivatedNames.size()));
     }
 
     /**
@@ -99,11 +135,6 @@ public class DriverLicenseExpiryCheckService {
      */
     public long getExpiringDriversCount(int daysUntilExpiry) {
         LocalDateTime cutoffDate = LocalDateTime.now().plusDays(daysUntilExpiry);
-        List<DriverEntity> activeDrivers = driverEntityService.findByStatus(CommonStatusEnum.ACTIVE.name());
-        
-        return activeDrivers.stream()
-                .filter(d -> d.getDateOfExpiry() != null)
-                .filter(d -> d.getDateOfExpiry().isBefore(cutoffDate))
-                .count();
+        return driverEntityService.countByStatusAndDateOfExpiryBefore(CommonStatusEnum.ACTIVE.name(), cutoffDate);
     }
 }
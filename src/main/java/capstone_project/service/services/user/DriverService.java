@@ -7,6 +7,7 @@ import capstone_project.dtos.response.user.DriverResponse;
 import capstone_project.entity.user.driver.DriverEntity;
 
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public interface DriverService {
@@ -54,6 +55,11 @@ public interface DriverService {
      */
     boolean isLicenseExpired(DriverEntity driver);
 
+    /**
+     * Vehicle types a license class allows to drive (empty for unknown classes)
+     */
+    Set<VehicleTypeEnum> getEligibleVehicleTypes(String licenseClass);
+
     /**
      * Update all drivers with realistic Vietnamese names, usernames, emails, and common password
      * 
@@ -181,17 +181,18 @@ public class DriverServiceImpl implements DriverService {
 
     @Override
     public boolean isCheckClassDriverLicenseForVehicleType(DriverEntity driver, VehicleTypeEnum vehicleType) {
-        return getEligibleVehicleTypes(driver).contains(vehicleType);
+        return getEligibleVehicleTypes(driver.getLicenseClass()).contains(vehicleType);
     }
 
-    private Set<VehicleTypeEnum> getEligibleVehicleTypes(DriverEntity driver) {
-        if (driver.getLicenseClass() == null) {
+    @Override
+    public Set<VehicleTypeEnum> getEligibleVehicleTypes(String licenseClass) {
+        if (licenseClass == null) {
             return Set.of(); // Không có bằng lái
         }
 
         try {
             DriverLicenseClassEnum licenseClassEnum =
-                    DriverLicenseClassEnum.valueOf(driver.getLicenseClass().toUpperCase());
+                    DriverLicenseClassEnum.valueOf(licenseClass.toUpperCase());
             switch (licenseClassEnum) {
                 case B2:
                     // B2: Xe tải từ 3.5 tấn trở xuống (yêu cầu 18 tuổi trở lên)
@@ -3,10 +3,12 @@ package capstone_project.service.services.user.impl;
 import capstone_project.dtos.response.user.DuplicateUserCleanupResponse;
 import capstone_project.dtos.response.user.DuplicateUserCleanupResponse.DeletedUserInfo;
 import capstone_project.entity.auth.UserEntity;
+import capstone_project.event.UserAccountChangedEvent;
 import capstone_project.repository.repositories.auth.UserRepository;
 import capstone_project.service.services.user.UserCleanupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,6 +29,7 @@ public class UserCleanupServiceImpl implements UserCleanupService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher applicationEventPublisher;
     
     // Track used usernames to avoid conflicts
     private Set<String> usedUsernames;
@@ -135,6 +138,7 @@ public class UserCleanupServiceImpl implements UserCleanupService {
                         userToModify.setEmail(newEmail);
                         userToModify.setPassword(passwordEncoder.encode(newPassword));
                         userRepository.save(userToModify);
+                        applicationEventPublisher.publishEvent(new UserAccountChangedEvent(oldUsername, oldEmail));
                     }
                     
                     // Mark as used
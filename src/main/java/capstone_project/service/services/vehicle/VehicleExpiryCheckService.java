@@ -1,21 +1,30 @@
 package capstone_project.service.services.vehicle;
 
+import capstone_project.common.enums.VehicleServiceStatusEnum;
 import capstone_project.common.enums.VehicleStatusEnum;
-import capstone_project.dtos.response.vehicle.VehicleServiceRecordResponse;
+import capstone_project.common.utils.VietnamTimeUtils;
+import capstone_project.dtos.request.vehicle.VehicleServiceRecordRequest;
 import capstone_project.entity.vehicle.VehicleEntity;
+import capstone_project.event.FleetAvailabilityChangedEvent;
 import capstone_project.repository.repositories.vehicle.VehicleRepository;
+import capstone_project.service.services.websocket.NotificationWebSocketService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Background service để kiểm tra và cập nhật trạng thái xe
@@ -28,14 +37,23 @@ import java.util.Set;
  * 4. INSURANCE_DUE (cảnh báo - vẫn được phân công)
  * 5. MAINTENANCE_DUE (cảnh báo - vẫn được phân công)
  * 6. ACTIVE (bình thường)
+ * (tính trong câu UPDATE của VehicleRepository.updateExpiryStatuses)
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class VehicleExpiryCheckService {
 
+    private static final UUID KEYSET_START = new UUID(0L, 0L);
+    private static final String MAINTENANCE_SERVICE_TYPE = "Bảo dưỡng định kỳ";
+    private static final String INSPECTION_SERVICE_TYPE = "Đăng kiểm định kỳ";
+    private static final List<VehicleServiceStatusEnum> OPEN_RECORD_STATUSES =
+            List.of(VehicleServiceStatusEnum.PLANNED, VehicleServiceStatusEnum.OVERDUE);
+
     private final VehicleRepository vehicleRepository;
     private final VehicleServiceRecordService vehicleServiceRecordService;
+    private final NotificationWebSocketService notificationWebSocketService;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     /**
      * Số ngày trước khi hết hạn để cảnh báo (mặc định 30 ngày)
@@ -43,6 +61,12 @@ public class VehicleExpiryCheckService {
     @Value("${vehicle.expiry.warning-days:30}")
     private int warningDays;
 
+    /**
+     * Số xe xử lý trong một lô (một câu UPDATE, một transaction)
+     */
+    @Value("${vehicle.expiry.batch-size:500}")
+    private int batchSize;
+
     /**
      * Các status không nên thay đổi tự động (xe đang bận hoặc có vấn đề)
      */
@@ -55,10 +79,11 @@ public class VehicleExpiryCheckService {
     );
 
     /**
-     * Chạy mỗi ngày lúc 1:00 AM để kiểm tra và cập nhật trạng thái xe
+     * Chạy mỗi ngày lúc 1:00 AM để kiểm tra và cập nhật trạng thái xe.
+     * Xe được duyệt theo lô (keyset theo id); trạng thái mới của cả lô được tính và ghi bằng một câu UPDATE,
+     * mỗi lô là một transaction riêng và gửi một thông báo tổng hợp.
      */
     @Scheduled(cron = "0 0 1 * * ?")
-    @Transactional
     public void checkVehicleExpiry() {
         // Tạo lịch bảo trì tự động cho xe đã quá hạn bảo trì
         createOverdueMaintenanceRecords();
@@ -67,120 +92,73 @@ public class VehicleExpiryCheckService {
         
         LocalDate today = LocalDate.now();
         LocalDate warningDate = today.plusDays(warningDays);
-        
-        int expiredInspectionCount = 0;
-        int expiredInsuranceCount = 0;
-        int dueInspectionCount = 0;
-        int dueInsuranceCount = 0;
-        int dueMaintenanceCount = 0;
-        int restoredCount = 0;
 
-        List<VehicleEntity> allVehicles = vehicleRepository.findAll();
-        
-        for (VehicleEntity vehicle : allVehicles) {
-            // Bỏ qua xe có status được bảo vệ
-            if (PROTECTED_STATUSES.contains(vehicle.getStatus())) {
-                continue;
-            }
-            
-            String newStatus = determineVehicleStatus(vehicle, today, warningDate);
-            String currentStatus = vehicle.getStatus();
-            
-            if (!newStatus.equals(currentStatus)) {
-                vehicle.setStatus(newStatus);
-                vehicleRepository.save(vehicle);
-                
-                // Log và đếm theo loại thay đổi
-                switch (newStatus) {
-                    case "INSPECTION_EXPIRED":
-                        log.warn("⚠️ Xe {} ({}) đã HẾT HẠN đăng kiểm ngày {}",
-                                vehicle.getLicensePlateNumber(), vehicle.getId(), vehicle.getInspectionExpiryDate());
-                        expiredInspectionCount++;
-                        break;
-                    case "INSURANCE_EXPIRED":
-                        log.warn("⚠️ Xe {} ({}) đã HẾT HẠN bảo hiểm ngày {}",
-                                vehicle.getLicensePlateNumber(), vehicle.getId(), vehicle.getInsuranceExpiryDate());
-                        expiredInsuranceCount++;
-                        break;
-                    case "INSPECTION_DUE":
-                        log.info("📢 Xe {} ({}) sẽ hết hạn đăng kiểm ngày {} (còn {} ngày)",
-                                vehicle.getLicensePlateNumber(), vehicle.getId(), 
-                                vehicle.getInspectionExpiryDate(),
-                                ChronoUnit.DAYS.between(today, vehicle.getInspectionExpiryDate()));
-                        dueInspectionCount++;
-                        break;
-                    case "INSURANCE_DUE":
-                        log.info("📢 Xe {} ({}) sẽ hết hạn bảo hiểm ngày {} (còn {} ngày)",
-                                vehicle.getLicensePlateNumber(), vehicle.getId(), 
-                                vehicle.getInsuranceExpiryDate(),
-                                ChronoUnit.DAYS.between(today, vehicle.getInsuranceExpiryDate()));
-                        dueInsuranceCount++;
-                        break;
-                    case "MAINTENANCE_DUE":
-                        log.info("📢 Xe {} ({}) sẽ đến hạn bảo dưỡng ngày {} (còn {} ngày)",
-                                vehicle.getLicensePlateNumber(), vehicle.getId(), 
-                                vehicle.getNextMaintenanceDate(),
-                                ChronoUnit.DAYS.between(today, vehicle.getNextMaintenanceDate()));
-                        dueMaintenanceCount++;
-                        break;
-                    case "ACTIVE":
-                        log.info("✅ Xe {} ({}) đã được gia hạn. Khôi phục status về ACTIVE",
-                                vehicle.getLicensePlateNumber(), vehicle.getId());
-                        restoredCount++;
-                        break;
-                }
+        Map<String, Integer> changedCounts = new HashMap<>();
+        int batchCount = 0;
+        UUID afterId = KEYSET_START;
+        List<UUID> vehicleIds;
+
+        while (!(vehicleIds = vehicleRepository.findIdsAfter(afterId, batchSize)).isEmpty()) {
+            batchCount++;
+            List<Object[]> changedRows = vehicleRepository.updateExpiryStatuses(
+                    vehicleIds, PROTECTED_STATUSES, today, warningDate, VietnamTimeUtils.now());
+
+            Map<String, List<String>> platesByStatus = new TreeMap<>();
+            for (Object[] row : changedRows) {
+                UUID vehicleId = (UUID) row[0];
+                String licensePlate = (String) row[1];
+                String newStatus = (String) row[2];
+                logStatusChange(vehicleId, licensePlate, newStatus);
+                platesByStatus.computeIfAbsent(newStatus, key -> new ArrayList<>()).add(licensePlate);
+                changedCounts.merge(newStatus, 1, Integer::sum);
             }
+            notifyBatch(batchCount, platesByStatus);
+
+            afterId = vehicleIds.get(vehicleIds.size() - 1);
+        }
+
+        if (!changedCounts.isEmpty()) {
+            applicationEventPublisher.publishEvent(new FleetAvailabilityChangedEvent(null, null));
         }
 
-        log.info("🚗 [VehicleExpiryCheckService] Hoàn thành kiểm tra. " +
+        log.info("🚗 [VehicleExpiryCheckService] Hoàn thành kiểm tra {} lô. " +
                 "Hết hạn đăng kiểm: {}, Hết hạn bảo hiểm: {}, " +
                 "Sắp hết hạn đăng kiểm: {}, Sắp hết hạn bảo hiểm: {}, Sắp hết hạn bảo dưỡng: {}, " +
                 "Đã khôi phục: {}",
-                expiredInspectionCount, expiredInsuranceCount,
-                dueInspectionCount, dueInsuranceCount, dueMaintenanceCount,
-                restoredCount);
+                batchCount,
+                changedCounts.getOrDefault(VehicleStatusEnum.INSPECTION_EXPIRED.name(), 0),
+                changedCounts.getOrDefault(VehicleStatusEnum.INSURANCE_EXPIRED.name(), 0),
+                changedCounts.getOrDefault(VehicleStatusEnum.INSPECTION_DUE.name(), 0),
+                changedCounts.getOrDefault(VehicleStatusEnum.INSURANCE_DUE.name(), 0),
+                changedCounts.getOrDefault(VehicleStatusEnum.MAINTENANCE_DUE.name(), 0),
+                changedCounts.getOrDefault(VehicleStatusEnum.ACTIVE.name(), 0));
+    }
+
+    private void logStatusChange(UUID vehicleId, String licensePlate, String newStatus) {
+        switch (newStatus) {
+            case "INSPECTION_EXPIRED" -> log.warn("⚠️ Xe {} ({}) đã HẾT HẠN đăng kiểm", licensePlate, vehicleId);
+            case "INSURANCE_EXPIRED" -> log.warn("⚠️ Xe {} ({}) đã HẾT HẠN bảo hiểm", licensePlate, vehicleId);
+            case "INSPECTION_DUE" -> log.info("📢 Xe {} ({}) sắp hết hạn đăng kiểm", licensePlate, vehicleId);
+            case "INSURANCE_DUE" -> log.info("📢 Xe {} ({}) sắp hết hạn bảo hiểm", licensePlate, vehicleId);
+            case "MAINTENANCE_DUE" -> log.info("📢 Xe {} ({}) sắp đến hạn bảo dưỡng", licensePlate, vehicleId);
+            case "ACTIVE" -> log.info("✅ Xe {} ({}) đã được gia hạn. Khôi phục status về ACTIVE", licensePlate, vehicleId);
+            default -> log.info("Xe {} ({}) chuyển sang trạng thái {}", licensePlate, vehicleId, newStatus);
+        }
     }
 
     /**
-     * Xác định status phù hợp cho xe dựa trên các ngày hết hạn
-     * Ưu tiên: EXPIRED > DUE > ACTIVE
+     * Gửi một thông báo tổng hợp cho mỗi lô có xe thay đổi trạng thái (chỉ gửi cho nhân viên)
      */
-    private String determineVehicleStatus(VehicleEntity vehicle, LocalDate today, LocalDate warningDate) {
-        // 1. Kiểm tra hết hạn đăng kiểm (ưu tiên cao nhất)
-        if (vehicle.getInspectionExpiryDate() != null && 
-            vehicle.getInspectionExpiryDate().isBefore(today)) {
-            return VehicleStatusEnum.INSPECTION_EXPIRED.name();
-        }
-        
-        // 2. Kiểm tra hết hạn bảo hiểm
-        if (vehicle.getInsuranceExpiryDate() != null && 
-            vehicle.getInsuranceExpiryDate().isBefore(today)) {
-            return VehicleStatusEnum.INSURANCE_EXPIRED.name();
-        }
-        
-        // 3. Kiểm tra sắp hết hạn đăng kiểm (trong vòng warningDays)
-        if (vehicle.getInspectionExpiryDate() != null && 
-            !vehicle.getInspectionExpiryDate().isBefore(today) &&
-            !vehicle.getInspectionExpiryDate().isAfter(warningDate)) {
-            return VehicleStatusEnum.INSPECTION_DUE.name();
+    private void notifyBatch(int batchNumber, Map<String, List<String>> platesByStatus) {
+        if (platesByStatus.isEmpty()) {
+            return;
         }
-        
-        // 4. Kiểm tra sắp hết hạn bảo hiểm (trong vòng warningDays)
-        if (vehicle.getInsuranceExpiryDate() != null && 
-            !vehicle.getInsuranceExpiryDate().isBefore(today) &&
-            !vehicle.getInsuranceExpiryDate().isAfter(warningDate)) {
-            return VehicleStatusEnum.INSURANCE_DUE.name();
-        }
-        
-        // 5. Kiểm tra sắp đến hạn bảo dưỡng (trong vòng warningDays)
-        if (vehicle.getNextMaintenanceDate() != null && 
-            !vehicle.getNextMaintenanceDate().isBefore(today) &&
-            !vehicle.getNextMaintenanceDate().isAfter(warningDate)) {
-            return VehicleStatusEnum.MAINTENANCE_DUE.name();
-        }
-        
-        // 6. Mặc định: ACTIVE
-        return VehicleStatusEnum.ACTIVE.name();
+        String content = platesByStatus.entrySet().stream()
+                .map(entry -> entry.getKey() + ": " + String.join(", ", entry.getValue()))
+                .collect(Collectors.joining("; ", "Cập nhật trạng thái xe (lô " + batchNumber + ") - ", ""));
+        notificationWebSocketService.broadcastToStaff("VEHICLE_EXPIRY_CHECK",
+                "Cập nhật trạng thái hạn đăng kiểm/bảo hiểm xe", content,
+                Map.of("batch", batchNumber, "vehicleCount", platesByStatus.values().stream().mapToInt(List::size).sum()));
     }
 
     /**
@@ -193,101 +171,70 @@ public class VehicleExpiryCheckService {
     
     /**
      * Tạo tự động các lịch bảo trì/đăng kiểm cho xe đã quá hạn
-     * Được gọi tự động mỗi ngày trong checkVehicleExpiry()
+     * Được gọi tự động mỗi ngày trong checkVehicleExpiry().
+     * Duyệt xe theo lô; mỗi lô chỉ nạp những xe quá hạn chưa có lịch PLANNED/OVERDUE tương ứng.
      */
-    @Transactional
     public void createOverdueMaintenanceRecords() {
         LocalDate today = LocalDate.now();
         log.info("📅 [VehicleExpiryCheckService] Kiểm tra và tạo lịch bảo trì/đăng kiểm quá hạn...");
-        
-        // Lấy danh sách xe có ngày bảo trì tiếp theo đã quá hạn
-        List<VehicleEntity> overdueMaintenanceVehicles = vehicleRepository.findAll().stream()
-            .filter(v -> v.getNextMaintenanceDate() != null && v.getNextMaintenanceDate().isBefore(today))
-            .filter(v -> !PROTECTED_STATUSES.contains(v.getStatus()))
-            .toList();
-        
-        // Lấy danh sách xe có ngày đăng kiểm đã quá hạn
-        List<VehicleEntity> overdueInspectionVehicles = vehicleRepository.findAll().stream()
-            .filter(v -> v.getInspectionExpiryDate() != null && v.getInspectionExpiryDate().isBefore(today))
-            .filter(v -> !PROTECTED_STATUSES.contains(v.getStatus()))
-            .toList();
-        
+
         int maintenanceCreated = 0;
         int inspectionCreated = 0;
-        
-        // Tạo lịch bảo trì quá hạn
-        for (VehicleEntity vehicle : overdueMaintenanceVehicles) {
-            // Kiểm tra xem đã có lịch bảo trì PLANNED hoặc OVERDUE nào chưa
-            List<VehicleServiceRecordResponse> existingRecords = vehicleServiceRecordService.getRecordsByVehicleId(vehicle.getId());
-            boolean hasPlannedMaintenance = existingRecords.stream()
-                .anyMatch(r -> "Bảo dưỡng định kỳ".equals(r.serviceType()) && 
-                          ("PLANNED".equals(r.serviceStatus()) || "OVERDUE".equals(r.serviceStatus())));
-            
-            if (!hasPlannedMaintenance) {
-                // Tạo lịch bảo trì mới với trạng thái OVERDUE
-                try {
-                    // Tạo request để gọi service
-                    LocalDateTime plannedDate = vehicle.getNextMaintenanceDate().atStartOfDay();
-                    capstone_project.dtos.request.vehicle.VehicleServiceRecordRequest req = new capstone_project.dtos.request.vehicle.VehicleServiceRecordRequest(
-                        "Bảo dưỡng định kỳ",
-                        "OVERDUE", // Trạng thái quá hạn
-                        plannedDate, // Ngày dự kiến là ngày đã quá hạn
-                        null, // Chưa có ngày thực hiện
-                        null, // Chưa có ngày tiếp theo
-                        "Tạo tự động cho xe quá hạn bảo trì", // Mô tả
-                        null, // Chưa có số đồng hồ công tơ mét
-                        null, // Chưa có ghi chú
-                        vehicle.getId().toString() // ID xe
-                    );
-                    
-                    vehicleServiceRecordService.createRecord(req);
+        UUID afterId = KEYSET_START;
+        List<UUID> vehicleIds;
+
+        while (!(vehicleIds = vehicleRepository.findIdsAfter(afterId, batchSize)).isEmpty()) {
+            // Tạo lịch bảo trì quá hạn
+            List<VehicleEntity> overdueMaintenanceVehicles = vehicleRepository.findOverdueMaintenanceWithoutOpenRecord(
+                    vehicleIds, today, PROTECTED_STATUSES, MAINTENANCE_SERVICE_TYPE, OPEN_RECORD_STATUSES);
+            for (VehicleEntity vehicle : overdueMaintenanceVehicles) {
+                if (createOverdueRecord(vehicle, MAINTENANCE_SERVICE_TYPE,
+                        vehicle.getNextMaintenanceDate().atStartOfDay(), "Tạo tự động cho xe quá hạn bảo trì")) {
                     maintenanceCreated++;
-                    log.info("🔧 Tạo tự động lịch bảo trì quá hạn cho xe {} ({})", 
+                    log.info("🔧 Tạo tự động lịch bảo trì quá hạn cho xe {} ({})",
                             vehicle.getLicensePlateNumber(), vehicle.getId());
-                } catch (Exception e) {
-                    log.error("❌ Lỗi khi tạo lịch bảo trì quá hạn cho xe {}: {}", 
-                            vehicle.getLicensePlateNumber(), e.getMessage());
                 }
             }
-        }
-        
-        // Tạo lịch đăng kiểm quá hạn
-        for (VehicleEntity vehicle : overdueInspectionVehicles) {
-            // Kiểm tra xem đã có lịch đăng kiểm PLANNED hoặc OVERDUE nào chưa
-            List<VehicleServiceRecordResponse> existingRecords = vehicleServiceRecordService.getRecordsByVehicleId(vehicle.getId());
-            boolean hasPlannedInspection = existingRecords.stream()
-                .anyMatch(r -> "Đăng kiểm định kỳ".equals(r.serviceType()) && 
-                          ("PLANNED".equals(r.serviceStatus()) || "OVERDUE".equals(r.serviceStatus())));
-            
-            if (!hasPlannedInspection) {
-                // Tạo lịch đăng kiểm mới với trạng thái OVERDUE
-                try {
-                    // Tạo request để gọi service
-                    LocalDateTime plannedDate = vehicle.getInspectionExpiryDate().atStartOfDay();
-                    capstone_project.dtos.request.vehicle.VehicleServiceRecordRequest req = new capstone_project.dtos.request.vehicle.VehicleServiceRecordRequest(
-                        "Đăng kiểm định kỳ",
-                        "OVERDUE", // Trạng thái quá hạn
-                        plannedDate, // Ngày dự kiến là ngày đã quá hạn
-                        null, // Chưa có ngày thực hiện
-                        null, // Chưa có ngày tiếp theo
-                        "Tạo tự động cho xe quá hạn đăng kiểm", // Mô tả
-                        null, // Chưa có số đồng hồ công tơ mét
-                        null, // Chưa có ghi chú
-                        vehicle.getId().toString() // ID xe
-                    );
-                    
-                    vehicleServiceRecordService.createRecord(req);
+
+            // Tạo lịch đăng kiểm quá hạn
+            List<VehicleEntity> overdueInspectionVehicles = vehicleRepository.findOverdueInspectionWithoutOpenRecord(
+                    vehicleIds, today, PROTECTED_STATUSES, INSPECTION_SERVICE_TYPE, OPEN_RECORD_STATUSES);
+            for (VehicleEntity vehicle : overdueInspectionVehicles) {
+                if (createOverdueRecord(vehicle, INSPECTION_SERVICE_TYPE,
+                        vehicle.getInspectionExpiryDate().atStartOfDay(), "Tạo tự động cho xe quá hạn đăng kiểm")) {
                     inspectionCreated++;
-                    log.info("🛠️ Tạo tự động lịch đăng kiểm quá hạn cho xe {} ({})", 
+                    log.info("🛠️ Tạo tự động lịch đăng kiểm quá hạn cho xe {} ({})",
                             vehicle.getLicensePlateNumber(), vehicle.getId());
-                } catch (Exception e) {
-                    log.error("❌ Lỗi khi tạo lịch đăng kiểm quá hạn cho xe {}: {}", 
-                            vehicle.getLicensePlateNumber(), e.getMessage());
                 }
             }
+
+            afterId = vehicleIds.get(vehicleIds.size() - 1);
         }
-        
+
         log.info("📅 [VehicleExpiryCheckService] Đã tạo {} lịch bảo trì và {} lịch đăng kiểm quá hạn", 
                 maintenanceCreated, inspectionCreated);
     }
+
+    private boolean createOverdueRecord(VehicleEntity vehicle, String serviceType, LocalDateTime plannedDate,
+                                        String description) {
+        try {
+            VehicleServiceRecordRequest req = new VehicleServiceRecordRequest(
+                serviceType,
+                "OVERDUE", // Trạng thái quá hạn
+                plannedDate, // Ngày dự kiến là ngày đã quá hạn
+                null, // Chưa có ngày thực hiện
+                null, // Chưa có ngày tiếp theo
+                description, // Mô tả
+                null, // Chưa có số đồng hồ công tơ mét
+                null, // Chưa có ghi chú
+                vehicle.getId().toString() // ID xe
+            );
+            vehicleServiceRecordService.createRecord(req);
+            return true;
+        } catch (Exception e) {
+            log.error("❌ Lỗi khi tạo lịch {} quá hạn cho xe {}: {}",
+                    serviceType, vehicle.getLicensePlateNumber(), e.getMessage());
+            return false;
+        }
+    }
 }
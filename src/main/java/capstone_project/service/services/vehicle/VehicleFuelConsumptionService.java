@@ -16,11 +16,11 @@ public interface VehicleFuelConsumptionService {
      */
     List<VehicleFuelConsumptionListResponse> getAllVehicleFuelConsumptions();
 
-    VehicleFuelConsumptionResponse createVehicleFuelConsumption(VehicleFuelConsumptionCreateRequest request);
+    VehicleFuelConsumptionResponse createVehicleFuelConsumption(VehicleFuelConsumptionCreateRequest request, String odometerAtStartUrl);
 
-    VehicleFuelConsumptionResponse updateInvoiceImage(VehicleFuelConsumptionInvoiceRequest request);
+    VehicleFuelConsumptionResponse updateInvoiceImage(VehicleFuelConsumptionInvoiceRequest request, String companyInvoiceImageUrl);
 
-    VehicleFuelConsumptionResponse updateFinalReading(VehicleFuelConsumptionEndReadingRequest request);
+    VehicleFuelConsumptionResponse updateFinalReading(VehicleFuelConsumptionEndReadingRequest request, String odometerAtEndUrl);
 
     VehicleFuelConsumptionResponse getVehicleFuelConsumptionById(UUID id);
 
@@ -1,56 +1,76 @@
 package capstone_project.service.services.vehicle;
 
-import capstone_project.common.enums.VehicleServiceStatusEnum;
-import capstone_project.entity.vehicle.VehicleServiceRecordEntity;
 import capstone_project.repository.repositories.vehicle.VehicleServiceRecordRepository;
+import capstone_project.service.services.websocket.NotificationWebSocketService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import capstone_project.common.utils.VietnamTimeUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class VehicleServiceRecordScheduler {
 
+    private static final UUID KEYSET_START = new UUID(0L, 0L);
+
     private final VehicleServiceRecordRepository serviceRecordRepository;
+    private final NotificationWebSocketService notificationWebSocketService;
+
+    /**
+     * Số bản ghi xử lý trong một lô (một câu UPDATE, một transaction)
+     */
+    @Value("${vehicle.service-record.overdue-batch-size:500}")
+    private int batchSize;
 
     /**
      * Chạy mỗi giờ để cập nhật các bản ghi PLANNED đã quá hạn thành OVERDUE
      * Cron: 0 0 * * * * (giờ thứ 0 của mỗi phút)
+     * Duyệt theo lô (keyset theo id), mỗi lô cập nhật bằng một câu UPDATE và gửi một thông báo tổng hợp
      */
     @Scheduled(cron = "0 0 * * * *")
-    @Transactional
     public void updateOverdueServiceRecords() {
         log.info("Bắt đầu cập nhật trạng thái quá hạn cho service records...");
         
         LocalDateTime now = VietnamTimeUtils.now();
-        
-        // Tìm tất cả bản ghi PLANNED có planned_date < now
-        List<VehicleServiceRecordEntity> plannedRecords = serviceRecordRepository
-                .findByServiceStatusAndPlannedDateBefore(VehicleServiceStatusEnum.PLANNED, now);
-        
-        if (plannedRecords.isEmpty()) {
+        int updatedCount = 0;
+        int batchCount = 0;
+        UUID afterId = KEYSET_START;
+        List<UUID> recordIds;
+
+        // Tìm các bản ghi PLANNED có planned_date < now theo từng lô
+        while (!(recordIds = serviceRecordRepository.findPlannedIdsDueBefore(now, afterId, batchSize)).isEmpty()) {
+            batchCount++;
+            int updated = serviceRecordRepository.markOverdue(recordIds, now);
+            updatedCount += updated;
+            log.debug("Lô {}: cập nhật {} bản ghi từ PLANNED thành OVERDUE", batchCount, updated);
+
+            if (updated > 0) {
+                notifyBatch(batchCount, updated);
+            }
+            afterId = recordIds.get(recordIds.size() - 1);
+        }
+
+        if (updatedCount == 0) {
             log.info("Không có bản ghi PLANNED nào cần cập nhật");
             return;
         }
-        
-        // Cập nhật tất cả thành OVERDUE
-        plannedRecords.forEach(record -> {
-            record.setServiceStatus(VehicleServiceStatusEnum.OVERDUE);
-            log.debug("Cập nhật bản ghi ID {} từ PLANNED thành OVERDUE (planned_date: {})", 
-                    record.getId(), record.getPlannedDate());
-        });
-        
-        // Lưu tất cả các bản ghi đã cập nhật
-        serviceRecordRepository.saveAll(plannedRecords);
-        
-        log.info("Đã cập nhật {} bản ghi từ PLANNED thành OVERDUE", plannedRecords.size());
+        log.info("Đã cập nhật {} bản ghi từ PLANNED thành OVERDUE ({} lô)", updatedCount, batchCount);
+    }
+
+    // Chỉ gửi cho nhân viên qua kênh thông báo của staff
+    private void notifyBatch(int batchNumber, int updated) {
+        notificationWebSocketService.broadcastToStaff("SERVICE_RECORD_OVERDUE",
+                "Lịch bảo trì/đăng kiểm quá hạn",
+                String.format("%d lịch bảo trì/đăng kiểm đã chuyển sang quá hạn (lô %d)", updated, batchNumber),
+                Map.of("batch", batchNumber, "overdueCount", updated));
     }
 }
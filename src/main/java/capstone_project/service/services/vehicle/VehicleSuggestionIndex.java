@@ -0,0 +1,395 @@
+package capstone_project.service.services.vehicle;
+
+import capstone_project.common.enums.CommonStatusEnum;
+import capstone_project.common.enums.VehicleTypeEnum;
+import capstone_project.common.utils.VietnamTimeUtils;
+import capstone_project.event.FleetAvailabilityChangedEvent;
+import capstone_project.event.OrderDocumentsChangedEvent;
+import capstone_project.event.OrderStatusChangedEvent;
+import capstone_project.event.VehicleAssignmentChangedEvent;
+import capstone_project.repository.repositories.user.DriverRepository;
+import capstone_project.repository.repositories.user.PenaltyHistoryRepository;
+import capstone_project.repository.repositories.vehicle.VehicleAssignmentRepository;
+import capstone_project.repository.repositories.vehicle.VehicleRepository;
+import capstone_project.service.services.user.DriverService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory availability index behind the vehicle/driver suggestions of an order:
+ * active vehicles by type (least used this month first), active drivers by the vehicle types their license allows,
+ * busy flags, the last driver pairing of each vehicle and the per-driver history used to rank drivers.
+ * Built with a fixed number of set-based queries and dropped on assignment, order, vehicle, driver and penalty events,
+ * so a suggestion request no longer queries per vehicle and per driver.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VehicleSuggestionIndex {
+
+    private final VehicleRepository vehicleRepository;
+    private final DriverRepository driverRepository;
+    private final VehicleAssignmentRepository vehicleAssignmentRepository;
+    private final PenaltyHistoryRepository penaltyHistoryRepository;
+    private final DriverService driverService;
+    private final PlatformTransactionManager transactionManager;
+
+    // Safety net for changes that bypass the events (direct repository writes)
+    @Value("${vehicle.suggestion.index-ttl-seconds:300}")
+    private long ttlSeconds;
+
+    // Assignment history kept for the recent activity score of drivers
+    @Value("${vehicle.suggestion.activity-days:30}")
+    private int activityDays;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public record VehicleFacts(UUID id,
+                               String vehicleTypeName,
+                               LocalDate inspectionExpiryDate,
+                               LocalDate insuranceExpiryDate,
+                               long usageThisMonth) {
+
+        /**
+         * Inspection and insurance are not expired on the given day
+         */
+        public boolean hasValidDocuments(LocalDate today) {
+            return (inspectionExpiryDate == null || !inspectionExpiryDate.isBefore(today))
+                    && (insuranceExpiryDate == null || !insuranceExpiryDate.isBefore(today));
+        }
+    }
+
+    public record DriverFacts(UUID id, String licenseClass, LocalDateTime dateOfExpiry) {
+
+        /**
+         * Same rule as DriverService.isLicenseExpired
+         */
+        public boolean isLicenseExpired(LocalDate today) {
+            return dateOfExpiry != null && dateOfExpiry.toLocalDate().isBefore(today);
+        }
+    }
+
+    private record AssignmentStamp(LocalDateTime createdAt, boolean primaryDriver) {
+    }
+
+    /**
+     * Current index, rebuilt when it was invalidated, expired or built in a previous month
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (isFresh(current)) {
+                return current;
+            }
+            // An event during the build bumps the generation, so the next call builds again
+            Snapshot built = build(generation.get());
+            snapshot = built;
+            return built;
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onVehicleAssignmentChanged(VehicleAssignmentChangedEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFleetAvailabilityChanged(FleetAvailabilityChangedEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        invalidate();
+    }
+
+    // Order detail saves change completed trips and trip dates
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderDocumentsChanged(OrderDocumentsChangedEvent event) {
+        invalidate();
+    }
+
+    private boolean isFresh(Snapshot candidate) {
+        return candidate != null
+                && candidate.generation == generation.get()
+                && System.currentTimeMillis() - candidate.builtAtMillis < ttlSeconds * 1000L
+                && candidate.month.equals(YearMonth.now());
+    }
+
+    private Snapshot build(long buildGeneration) {
+        long start = System.nanoTime();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Snapshot built = readOnly.execute(status -> load(buildGeneration));
+        log.debug("[SuggestionIndex] Built in {} ms: {} vehicle types, {} busy vehicles, {} busy drivers",
+                (System.nanoTime() - start) / 1_000_000, built.vehiclesByType.size(),
+                built.busyVehicleIds.size(), built.busyDriverIds.size());
+        return built;
+    }
+
+    private Snapshot load(long buildGeneration) {
+        String active = CommonStatusEnum.ACTIVE.name();
+        LocalDateTime now = VietnamTimeUtils.now();
+        YearMonth month = YearMonth.now();
+        LocalDateTime startOfMonth = month.atDay(1).atStartOfDay();
+        LocalDate tripDatesFrom = LocalDate.now().minusDays(activityDays);
+
+        // Vehicles: active ones by type, least used this month first
+        Map<UUID, Long> usage = new HashMap<>();
+        for (Object[] row : vehicleAssignmentRepository.countAssignmentsPerVehicleBetween(
+                startOfMonth, startOfMonth.plusMonths(1))) {
+            usage.put((UUID) row[0], ((Number) row[1]).longValue());
+        }
+        Map<String, List<VehicleFacts>> vehiclesByType = new HashMap<>();
+        for (Object[] row : vehicleRepository.findAvailabilityFactsByStatus(active)) {
+            UUID vehicleId = (UUID) row[0];
+            String typeName = (String) row[1];
+            vehiclesByType.computeIfAbsent(typeName, key -> new ArrayList<>()).add(new VehicleFacts(
+                    vehicleId, typeName, (LocalDate) row[2], (LocalDate) row[3], usage.getOrDefault(vehicleId, 0L)));
+        }
+        vehiclesByType.replaceAll((type, vehicles) -> vehicles.stream()
+                .sorted(Comparator.comparingLong(VehicleFacts::usageThisMonth))
+                .toList());
+
+        // Drivers: active ones under every vehicle type their license class allows
+        Map<VehicleTypeEnum, List<DriverFacts>> driversByVehicleType = new EnumMap<>(VehicleTypeEnum.class);
+        for (Object[] row : driverRepository.findAvailabilityFactsByStatus(active)) {
+            DriverFacts driver = new DriverFacts((UUID) row[0], (String) row[1], (LocalDateTime) row[2]);
+            for (VehicleTypeEnum vehicleType : driverService.getEligibleVehicleTypes(driver.licenseClass())) {
+                driversByVehicleType.computeIfAbsent(vehicleType, key -> new ArrayList<>()).add(driver);
+            }
+        }
+        driversByVehicleType.replaceAll((type, drivers) -> List.copyOf(drivers));
+
+        // Busy flags from active assignments
+        Set<UUID> busyVehicleIds = new HashSet<>();
+        Set<UUID> busyDriverIds = new HashSet<>();
+        for (Object[] row : vehicleAssignmentRepository.findVehicleAndDriverIdsByStatus(active)) {
+            addIfPresent(busyVehicleIds, row[0]);
+            addIfPresent(busyDriverIds, row[1]);
+            addIfPresent(busyDriverIds, row[2]);
+        }
+
+        // Drivers of the latest assignment of each vehicle, driver1 first
+        Map<UUID, List<UUID>> lastPairingByVehicle = new HashMap<>();
+        for (Object[] row : vehicleAssignmentRepository.findLatestDriverPairingPerVehicle()) {
+            List<UUID> pairing = new ArrayList<>(2);
+            addIfPresent(pairing, row[1]);
+            addIfPresent(pairing, row[2]);
+            lastPairingByVehicle.put((UUID) row[0], List.copyOf(pairing));
+        }
+
+        // Driver history
+        Map<UUID, LocalDateTime> lastAssignmentByDriver = new HashMap<>();
+        for (List<Object[]> rows : List.of(vehicleAssignmentRepository.findLatestAssignmentTimeAsDriver1(),
+                vehicleAssignmentRepository.findLatestAssignmentTimeAsDriver2())) {
+            for (Object[] row : rows) {
+                if (row[1] != null) {
+                    lastAssignmentByDriver.merge((UUID) row[0], (LocalDateTime) row[1],
+                            (a, b) -> a.isAfter(b) ? a : b);
+                }
+            }
+        }
+
+        Map<UUID, List<AssignmentStamp>> recentAssignmentsByDriver = new HashMap<>();
+        for (Object[] row : vehicleAssignmentRepository.findDriverIdsOfAssignmentsSince(now.minusDays(activityDays))) {
+            LocalDateTime createdAt = (LocalDateTime) row[2];
+            if (row[0] != null) {
+                recentAssignmentsByDriver.computeIfAbsent((UUID) row[0], key -> new ArrayList<>())
+                        .add(new AssignmentStamp(createdAt, true));
+            }
+            if (row[1] != null) {
+                recentAssignmentsByDriver.computeIfAbsent((UUID) row[1], key -> new ArrayList<>())
+                        .add(new AssignmentStamp(createdAt, false));
+            }
+        }
+
+        Map<UUID, Integer> completedTripsByDriver = new HashMap<>();
+        for (List<Object[]> rows : List.of(vehicleAssignmentRepository.countCompletedTripsPerDriver1(),
+                vehicleAssignmentRepository.countCompletedTripsPerDriver2())) {
+            for (Object[] row : rows) {
+                completedTripsByDriver.merge((UUID) row[0], ((Number) row[1]).intValue(), Integer::sum);
+            }
+        }
+
+        Map<UUID, Integer> violationsByDriver = new HashMap<>();
+        for (Object[] row : penaltyHistoryRepository.countPerDriver()) {
+            violationsByDriver.put((UUID) row[0], ((Number) row[1]).intValue());
+        }
+
+        Map<UUID, Set<LocalDate>> tripDatesByDriver = new HashMap<>();
+        for (Object[] row : vehicleAssignmentRepository.findDriverTripStartTimesFrom(tripDatesFrom.atStartOfDay())) {
+            LocalDate tripDate = ((LocalDateTime) row[2]).toLocalDate();
+            for (int i = 0; i < 2; i++) {
+                if (row[i] != null) {
+                    tripDatesByDriver.computeIfAbsent((UUID) row[i], key -> new HashSet<>()).add(tripDate);
+                }
+            }
+        }
+
+        return new Snapshot(buildGeneration, System.currentTimeMillis(), month, tripDatesFrom,
+                vehiclesByType, driversByVehicleType, busyVehicleIds, busyDriverIds, lastPairingByVehicle,
+                lastAssignmentByDriver, recentAssignmentsByDriver, completedTripsByDriver, violationsByDriver,
+                tripDatesByDriver);
+    }
+
+    private static void addIfPresent(java.util.Collection<UUID> target, Object id) {
+        if (id != null) {
+            target.add((UUID) id);
+        }
+    }
+
+    /**
+     * Immutable view of the index; maps are never modified after the build
+     */
+    public final class Snapshot {
+        private final long generation;
+        private final long builtAtMillis;
+        private final YearMonth month;
+        private final LocalDate tripDatesFrom;
+        private final Map<String, List<VehicleFacts>> vehiclesByType;
+        private final Map<VehicleTypeEnum, List<DriverFacts>> driversByVehicleType;
+        private final Set<UUID> busyVehicleIds;
+        private final Set<UUID> busyDriverIds;
+        private final Map<UUID, List<UUID>> lastPairingByVehicle;
+        private final Map<UUID, LocalDateTime> lastAssignmentByDriver;
+        private final Map<UUID, List<AssignmentStamp>> recentAssignmentsByDriver;
+        private final Map<UUID, Integer> completedTripsByDriver;
+        private final Map<UUID, Integer> violationsByDriver;
+        private final Map<UUID, Set<LocalDate>> tripDatesByDriver;
+
+        private Snapshot(long generation, long builtAtMillis, YearMonth month, LocalDate tripDatesFrom,
+                         Map<String, List<VehicleFacts>> vehiclesByType,
+                         Map<VehicleTypeEnum, List<DriverFacts>> driversByVehicleType,
+                         Set<UUID> busyVehicleIds, Set<UUID> busyDriverIds,
+                         Map<UUID, List<UUID>> lastPairingByVehicle,
+                         Map<UUID, LocalDateTime> lastAssignmentByDriver,
+                         Map<UUID, List<AssignmentStamp>> recentAssignmentsByDriver,
+                         Map<UUID, Integer> completedTripsByDriver,
+                         Map<UUID, Integer> violationsByDriver,
+                         Map<UUID, Set<LocalDate>> tripDatesByDriver) {
+            this.generation = generation;
+            this.builtAtMillis = builtAtMillis;
+            this.month = month;
+            this.tripDatesFrom = tripDatesFrom;
+            this.vehiclesByType = vehiclesByType;
+            this.driversByVehicleType = driversByVehicleType;
+            this.busyVehicleIds = busyVehicleIds;
+            this.busyDriverIds = busyDriverIds;
+            this.lastPairingByVehicle = lastPairingByVehicle;
+            this.lastAssignmentByDriver = lastAssignmentByDriver;
+            this.recentAssignmentsByDriver = recentAssignmentsByDriver;
+            this.completedTripsByDriver = completedTripsByDriver;
+            this.violationsByDriver = violationsByDriver;
+            this.tripDatesByDriver = tripDatesByDriver;
+        }
+
+        /**
+         * Active vehicles of a type, least used this month first
+         */
+        public List<VehicleFacts> vehiclesOfType(String vehicleTypeName) {
+            return vehiclesByType.getOrDefault(vehicleTypeName, List.of());
+        }
+
+        /**
+         * Active drivers whose license class allows the vehicle type
+         */
+        public List<DriverFacts> driversFor(VehicleTypeEnum vehicleType) {
+            return driversByVehicleType.getOrDefault(vehicleType, List.of());
+        }
+
+        public boolean isVehicleBusy(UUID vehicleId) {
+            return busyVehicleIds.contains(vehicleId);
+        }
+
+        public boolean isDriverBusy(UUID driverId) {
+            return busyDriverIds.contains(driverId);
+        }
+
+        /**
+         * Driver1 and driver2 of the vehicle's latest assignment, empty if it never had one
+         */
+        public List<UUID> lastPairing(UUID vehicleId) {
+            return lastPairingByVehicle.getOrDefault(vehicleId, List.of());
+        }
+
+        public Optional<LocalDateTime> lastAssignmentAt(UUID driverId) {
+            return Optional.ofNullable(lastAssignmentByDriver.get(driverId));
+        }
+
+        public int completedTrips(UUID driverId) {
+            return completedTripsByDriver.getOrDefault(driverId, 0);
+        }
+
+        public int violations(UUID driverId) {
+            return violationsByDriver.getOrDefault(driverId, 0);
+        }
+
+        /**
+         * Assignments of the driver in the last days, weighted by recency (5 / 3 / 1) plus 1 as primary driver
+         */
+        public int recentActivityScore(UUID driverId, LocalDateTime now, int days) {
+            LocalDateTime cutoff = now.minusDays(days);
+            LocalDateTime veryRecent = now.minusDays(3);
+            LocalDateTime recent = now.minusDays(7);
+            int score = 0;
+            for (AssignmentStamp stamp : recentAssignmentsByDriver.getOrDefault(driverId, List.of())) {
+                if (stamp.createdAt().isBefore(cutoff)) {
+                    continue;
+                }
+                if (stamp.createdAt().isAfter(veryRecent)) {
+                    score += 5;
+                } else if (stamp.createdAt().isAfter(recent)) {
+                    score += 3;
+                } else {
+                    score += 1;
+                }
+                if (stamp.primaryDriver()) {
+                    score += 1;
+                }
+            }
+            return score;
+        }
+
+        /**
+         * Whether the driver already has a trip starting on the date (1 driver per trip per day)
+         */
+        public boolean hasTripOn(UUID driverId, LocalDate tripDate) {
+            if (tripDate.isBefore(tripDatesFrom)) {
+                // Older than the indexed window
+                return vehicleAssignmentRepository.existsAssignmentForDriverOnDate(driverId, tripDate);
+            }
+            return tripDatesByDriver.getOrDefault(driverId, Set.of()).contains(tripDate);
+        }
+    }
+}
@@ -28,7 +28,6 @@ import capstone_project.repository.entityServices.vehicle.VehicleEntityService;
 import capstone_project.repository.entityServices.vehicle.VehicleReservationEntityService;
 import capstone_project.repository.entityServices.vehicle.VehicleTypeEntityService;
 import capstone_project.service.services.vehicle.VehicleReservationService;
-import capstone_project.repository.repositories.user.PenaltyHistoryRepository;
 import capstone_project.service.mapper.order.StaffOrderMapper;
 import capstone_project.service.mapper.user.DriverMapper;
 import capstone_project.service.mapper.vehicle.VehicleAssignmentMapper;
@@ -39,6 +38,7 @@ import capstone_project.service.services.setting.ContractSettingService;
 import capstone_project.service.services.thirdPartyServices.Vietmap.VietmapService;
 import capstone_project.service.services.user.DriverService;
 import capstone_project.service.services.vehicle.VehicleAssignmentService;
+import capstone_project.service.services.vehicle.VehicleSuggestionIndex;
 import capstone_project.service.services.notification.NotificationService;
 import capstone_project.service.services.notification.NotificationBuilder;
 import capstone_project.service.services.email.EmailNotificationService;
@@ -80,7 +80,6 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
     private final VehicleMapper vehicleMapper;
     private final DriverMapper driverMapper;
     private final StaffOrderMapper staffOrderMapper;
-    private final PenaltyHistoryRepository penaltyHistoryRepository;
     private final ContractService contractService;
     private final OrderService orderService;
     private final OrderDetailService orderDetailService;
@@ -92,6 +91,7 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
     private final VehicleReservationEntityService vehicleReservationEntityService;
     private final VehicleReservationService vehicleReservationService;
     private final EmailNotificationService emailNotificationService;
+    private final VehicleSuggestionIndex vehicleSuggestionIndex;
 
     private final ObjectMapper objectMapper;
 
@@ -298,6 +298,9 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
                     ErrorEnum.NO_VEHICLE_AVAILABLE.getErrorCode());
         }
 
+        VehicleSuggestionIndex.Snapshot availability = vehicleSuggestionIndex.current();
+        LocalDate today = LocalDate.now();
+
         for (ContractRuleAssignResponse response : assignResult.vehicleAssignments()) {
             UUID sizeRuleId = response.getSizeRuleId();
             SizeRuleEntity sizeRule = sizeRuleEntityService.findEntityById(sizeRuleId)
@@ -305,90 +308,84 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
                             "Vehicle rule not found: " + sizeRuleId,
                             ErrorEnum.NOT_FOUND.getErrorCode()
                     ));
-            VehicleTypeEnum vehicleTypeEnum = VehicleTypeEnum.valueOf(sizeRule.getVehicleTypeEntity().getVehicleTypeName());
-            List<VehicleEntity> getVehiclesByVehicleType = vehicleEntityService.getVehicleEntitiesByVehicleTypeEntityAndStatus(sizeRule.getVehicleTypeEntity(), CommonStatusEnum.ACTIVE.name());
+            String vehicleTypeName = sizeRule.getVehicleTypeEntity().getVehicleTypeName();
+            VehicleTypeEnum vehicleTypeEnum = VehicleTypeEnum.valueOf(vehicleTypeName);
 
             // Lấy tất cả các tài xế hợp lệ cho loại xe này
-            // Loại trừ tài xế có bằng lái hết hạn
-            List<DriverEntity> allEligibleDrivers = driverEntityService.findByStatus(CommonStatusEnum.ACTIVE.name())
-                    .stream()
-                    .filter(d -> !driverService.isLicenseExpired(d)) // Loại trừ bằng lái hết hạn
-                    .filter(d -> driverService.isCheckClassDriverLicenseForVehicleType(d, vehicleTypeEnum))
-                    .filter(d -> !entityService.existsActiveAssignmentForDriver(d.getId()))
+            // Loại trừ tài xế có bằng lái hết hạn và tài xế đang có assignment
+            List<UUID> allEligibleDriverIds = availability.driversFor(vehicleTypeEnum).stream()
+                    .filter(d -> !d.isLicenseExpired(today))
+                    .map(VehicleSuggestionIndex.DriverFacts::id)
+                    .filter(id -> !availability.isDriverBusy(id))
                     .toList();
+            Set<UUID> eligibleDriverIdSet = new HashSet<>(allEligibleDriverIds);
 
             // Giới hạn số lượng xe để tránh quá nhiều gợi ý
             final int MAX_VEHICLES_PER_DETAIL = 5;
+            // Lấy tối đa 5 tài xế cho mỗi xe
+            final int MAX_DRIVERS_PER_VEHICLE = 5;
 
-            // Sắp xếp xe theo mức độ sử dụng (ít dùng nhất lên đầu)
-            List<UUID> vehicleIds = getVehiclesByVehicleType.stream().map(VehicleEntity::getId).toList();
-            List<UUID> sortedVehicleIds = sortVehiclesByUsageThisMonth(vehicleIds);
-
-            // Tạo một map để giữ các vehicle assignment cho order detail này
-            Map<VehicleResponse, List<DriverResponse>> detailVehicleAssignments = new HashMap<>();
-
-            int vehicleCount = 0;
-            for (UUID vehicleId : sortedVehicleIds) {
+            // Xe đã được sắp xếp theo mức độ sử dụng trong tháng (ít dùng nhất lên đầu)
+            Map<UUID, List<UUID>> selectedDriversByVehicle = new LinkedHashMap<>();
+            for (VehicleSuggestionIndex.VehicleFacts vehicle : availability.vehiclesOfType(vehicleTypeName)) {
                 // Giới hạn số lượng xe
-                if (vehicleCount >= MAX_VEHICLES_PER_DETAIL) {
+                if (selectedDriversByVehicle.size() >= MAX_VEHICLES_PER_DETAIL) {
                     break;
                 }
 
-                VehicleEntity vehicle = vehicleEntityService.findEntityById(vehicleId).get();
-                Optional<VehicleAssignmentEntity> activeAssignment = entityService.findVehicleAssignmentByVehicleEntityAndStatus(vehicle, CommonStatusEnum.ACTIVE.name());
-
-                if (activeAssignment.isPresent()) {
+                if (availability.isVehicleBusy(vehicle.id())) {
                     continue;  // Bỏ qua xe đang có assignment
                 }
 
-                // Ưu tiên tài xế từ assignment gần đây nhất nếu có
-                List<DriverEntity> preferredDrivers = new ArrayList<>();
-                List<VehicleAssignmentEntity> pastAssignments = entityService.findAssignmentsByVehicleOrderByCreatedAtDesc(vehicle);
-
-                if (!pastAssignments.isEmpty()) {
-                    VehicleAssignmentEntity lastAssignment = pastAssignments.get(0);
-                    DriverEntity driver1 = lastAssignment.getDriver1();
-                    DriverEntity driver2 = lastAssignment.getDriver2();
-
-                    if (driver1 != null && CommonStatusEnum.ACTIVE.name().equals(driver1.getStatus()) &&
-                            !driverService.isLicenseExpired(driver1) &&
-                            driverService.isCheckClassDriverLicenseForVehicleType(driver1, vehicleTypeEnum) &&
-                            !entityService.existsActiveAssignmentForDriver(driver1.getId())) {
-                        preferredDrivers.add(driver1);
-                    }
-
-                    if (driver2 != null && CommonStatusEnum.ACTIVE.name().equals(driver2.getStatus()) &&
-                            !driverService.isLicenseExpired(driver2) &&
-                            driverService.isCheckClassDriverLicenseForVehicleType(driver2, vehicleTypeEnum) &&
-                            !entityService.existsActiveAssignmentForDriver(driver2.getId()) &&
-                            !preferredDrivers.contains(driver2)) {
-                        preferredDrivers.add(driver2);
+                // Ưu tiên tài xế từ assignment gần đây nhất nếu có, sau đó thêm tài xế khác
+                List<UUID> selectedDrivers = new ArrayList<>();
+                for (UUID driverId : availability.lastPairing(vehicle.id())) {
+                    if (eligibleDriverIdSet.contains(driverId) && !selectedDrivers.contains(driverId)) {
+                        selectedDrivers.add(driverId);
                     }
                 }
-
-                // Danh sách tài xế đề xuất cho xe này (ưu tiên + thêm tài xế khác)
-                List<DriverEntity> selectedDrivers = new ArrayList<>(preferredDrivers);
-
-                // Thêm tài xế khác từ danh sách tài xế hợp lệ
-                // Lấy tối đa 5 tài xế cho mỗi xe
-                final int MAX_DRIVERS_PER_VEHICLE = 5;
-
-                for (DriverEntity driver : allEligibleDrivers) {
+                for (UUID driverId : allEligibleDriverIds) {
                     if (selectedDrivers.size() >= MAX_DRIVERS_PER_VEHICLE) break;
-                    if (!selectedDrivers.contains(driver)) {
-                        selectedDrivers.add(driver);
+                    if (!selectedDrivers.contains(driverId)) {
+                        selectedDrivers.add(driverId);
                     }
                 }
 
                 if (!selectedDrivers.isEmpty()) {
-                    List<DriverResponse> driverResponses = selectedDrivers.stream()
-                            .map(driverMapper::mapDriverResponse)
-                            .toList();
+                    selectedDriversByVehicle.put(vehicle.id(), selectedDrivers);
+                }
+            }
 
+            if (selectedDriversByVehicle.isEmpty()) {
+                continue;
+            }
+
+            // Chỉ tải entity của các xe và tài xế được chọn, mỗi loại một truy vấn
+            Map<UUID, VehicleEntity> vehiclesById = vehicleEntityService
+                    .findAllWithVehicleTypeByIds(selectedDriversByVehicle.keySet()).stream()
+                    .collect(Collectors.toMap(VehicleEntity::getId, v -> v));
+            Map<UUID, DriverEntity> driversById = driverEntityService
+                    .findAllWithUserByIds(selectedDriversByVehicle.values().stream()
+                            .flatMap(List::stream)
+                            .collect(Collectors.toSet())).stream()
+                    .collect(Collectors.toMap(DriverEntity::getId, d -> d));
+
+            // Giữ thứ tự xe (xe ít dùng nhất đầu tiên) cho đánh dấu xe phù hợp nhất
+            Map<VehicleResponse, List<DriverResponse>> detailVehicleAssignments = new LinkedHashMap<>();
+            selectedDriversByVehicle.forEach((vehicleId, driverIds) -> {
+                VehicleEntity vehicle = vehiclesById.get(vehicleId);
+                if (vehicle == null) {
+                    return;
+                }
+                List<DriverResponse> driverResponses = driverIds.stream()
+                        .map(driversById::get)
+                        .filter(Objects::nonNull)
+                        .map(driverMapper::mapDriverResponse)
+                        .toList();
+                if (!driverResponses.isEmpty()) {
                     detailVehicleAssignments.put(vehicleMapper.toResponse(vehicle), driverResponses);
-                    vehicleCount++;
                 }
-            }
+            });
 
             if (!detailVehicleAssignments.isEmpty()) {
                 sampleVehicleAssignmentResponses.add(
@@ -434,11 +431,21 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
         // Tìm thời gian hoạt động gần nhất của mỗi tài xế
         Map<UUID, String> driverLastActiveTimeMap = findLastActiveTimeForDrivers(allDriverIds);
 
+        // Ngày tạo hồ sơ của tài xế để tính kinh nghiệm, tải một lần cho tất cả tài xế
+        Map<UUID, DriverEntity> driverEntityMap = driverEntityService.findAllWithUserByIds(allDriverIds).stream()
+                .collect(Collectors.toMap(DriverEntity::getId, d -> d));
+
+        // Tracking code của tất cả order detail, tải một lần
+        Map<UUID, String> trackingCodeMap = findTrackingCodes(responses.stream()
+                .flatMap(response -> response.assignedDetails().stream())
+                .distinct()
+                .toList());
+
         for (SampleVehicleAssignmentResponse response : responses) {
             // Với mỗi order detail ID trong assignedDetails
             for (UUID detailId : response.assignedDetails()) {
-                // Lấy tracking code từ order detail ID
-                String trackingCode = getTrackingCodeFromDetailId(detailId);
+                // Lấy tracking code từ order detail ID (fallback: sử dụng ID làm tracking code nếu không tìm thấy)
+                String trackingCode = trackingCodeMap.getOrDefault(detailId, detailId.toString());
 
                 // Danh sách xe gợi ý cho order detail này
                 List<SimplifiedVehicleAssignmentResponse.VehicleSuggestionDTO> detailSuggestions = new ArrayList<>();
@@ -478,44 +485,10 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
                                 String lastActiveTime = driverLastActiveTimeMap.getOrDefault(driverId, "Chưa có hoạt động");
 
                                 // Tính thời gian làm việc dựa trên ngày tạo hồ sơ của tài xế (createdAt)
-                                String workExperience = "Chưa có dữ liệu";
-
-                                try {
-                                    // Lấy thông tin createdAt của tài xế từ DriverEntity
-                                    DriverEntity driverEntity = driverEntityService.findEntityById(driverId)
-                                            .orElse(null);
-
-                                    if (driverEntity != null && driverEntity.getCreatedAt() != null) {
-                                        LocalDate joinDate = driverEntity.getCreatedAt().toLocalDate();
-                                        LocalDate today = LocalDate.now();
-
-                                        // Tính số năm làm việc
-                                        int yearsOfWork = today.getYear() - joinDate.getYear();
-
-                                        // Điều chỉnh nếu chưa đến ngày kỷ niệm hàng năm
-                                        if (today.getMonthValue() < joinDate.getMonthValue() ||
-                                                (today.getMonthValue() == joinDate.getMonthValue() &&
-                                                        today.getDayOfMonth() < joinDate.getDayOfMonth())) {
-                                            yearsOfWork--;
-                                        }
-
-                                        // Tính số tháng làm việc
-                                        int monthsOfWork = today.getMonthValue() - joinDate.getMonthValue();
-                                        if (monthsOfWork < 0) monthsOfWork += 12;
-                                        if (today.getDayOfMonth() < joinDate.getDayOfMonth()) {
-                                            monthsOfWork = (monthsOfWork + 11) % 12; // Điều chỉnh nếu chưa đến ngày kỷ niệm hàng tháng
-                                        }
-
-                                        if (yearsOfWork == 0) {
-                                            workExperience = monthsOfWork + " tháng";
-                                        } else {
-                                            workExperience = yearsOfWork + " năm";
-                                        }
-                                    }
-                                } catch (Exception e) {
-                                    log.error("Lỗi khi tính thời gian làm việc cho tài xế {}: {}", driverId, e.getMessage());
-                                    workExperience = "Chưa có dữ liệu";
-                                }
+                                DriverEntity driverEntity = driverEntityMap.get(driverId);
+                                String workExperience = driverEntity != null
+                                        ? calculateWorkExperience(driverEntity)
+                                        : "Chưa có dữ liệu";
 
                                 return new SimplifiedVehicleAssignmentResponse.DriverSuggestionDTO(
                                         UUID.fromString(driver.getId()),
@@ -569,16 +542,15 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
             return result;
         }
 
+        VehicleSuggestionIndex.Snapshot availability = vehicleSuggestionIndex.current();
+        LocalDate today = VietnamTimeUtils.today();
         for (UUID driverId : driverIds) {
-            Optional<VehicleAssignmentEntity> latestAssignment = entityService.findLatestAssignmentByDriverId(driverId);
+            Optional<LocalDateTime> latestAssignment = availability.lastAssignmentAt(driverId);
 
             if (latestAssignment.isPresent()) {
-                VehicleAssignmentEntity assignment = latestAssignment.get();
-                LocalDateTime createdAt = assignment.getCreatedAt();
+                LocalDateTime createdAt = latestAssignment.get();
 
                 // Định dạng thời gian hoạt động gần nhất
-                LocalDateTime now = VietnamTimeUtils.now();
-                LocalDate today = VietnamTimeUtils.today();
                 LocalDate assignmentDate = createdAt.toLocalDate();
 
                 String formattedTime;
@@ -618,75 +590,36 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
             return result;
         }
 
-        // Với mỗi tài xế, đếm số chuyến đã hoàn thành
-        // Tài xế có thể là driver1 hoặc driver2 trong vehicle assignment
+        // Tài xế có thể là driver1 hoặc driver2 trong vehicle assignment, index đã cộng cả hai
+        VehicleSuggestionIndex.Snapshot availability = vehicleSuggestionIndex.current();
         for (UUID driverId : driverIds) {
-            // Đếm số chuyến hoàn thành khi là driver1
-            int tripsAsDriver1 = entityService.countCompletedTripsAsDriver1(driverId);
-
-            // Đếm số chuyến hoàn thành khi là driver2
-            int tripsAsDriver2 = entityService.countCompletedTripsAsDriver2(driverId);
-
-            // Tổng số chuyến hoàn thành
-            result.put(driverId, tripsAsDriver1 + tripsAsDriver2);
+            result.put(driverId, availability.completedTrips(driverId));
         }
 
         return result;
     }
 
     /**
-     * Sắp xếp xe theo số lần sử dụng trong tháng, xe ít sử dụng được ưu tiên
+     * Lấy tracking code của các order detail bằng một truy vấn
      *
-     * @param vehicleIds Danh sách ID xe cần sắp xếp
-     * @return Danh sách ID xe đã sắp xếp theo số lần sử dụng (tăng dần)
+     * @param detailIds Danh sách ID của order details
+     * @return Map từ order detail ID sang tracking code (thiếu nếu không tìm thấy)
      */
-    private List<UUID> sortVehiclesByUsageThisMonth(List<UUID> vehicleIds) {
-        if (vehicleIds == null || vehicleIds.isEmpty()) {
-            return List.of();
-        }
-
-        LocalDateTime startOfMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-        LocalDateTime endOfMonth = startOfMonth.plusMonths(1);
-
-        // Gọi repo 1 lần lấy count cho tất cả xe
-        List<Object[]> results = entityService.countAssignmentsThisMonthForVehicles(vehicleIds, startOfMonth, endOfMonth);
-
-        // Chuyển sang map: <vehicleId, count>
-        Map<UUID, Long> usageMap = results.stream()
-                .collect(Collectors.toMap(
-                        row -> (UUID) row[0],
-                        row -> (Long) row[1]
-                ));
-
-        // Những xe không có trong kết quả query thì count = 0
-        for (UUID vehicleId : vehicleIds) {
-            usageMap.putIfAbsent(vehicleId, 0L);
+    private Map<UUID, String> findTrackingCodes(List<UUID> detailIds) {
+        Map<UUID, String> result = new HashMap<>();
+        if (detailIds.isEmpty()) {
+            return result;
         }
-
-        // Sắp xếp tăng dần theo số lần dùng
-        return usageMap.entrySet()
-                .stream()
-                .sorted(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .toList();
-    }
-
-    /**
-     * Lấy tracking code từ order detail ID
-     *
-     * @param detailId ID của order detail
-     * @return Tracking code tương ứng hoặc null nếu không tìm thấy
-     */
-    private String getTrackingCodeFromDetailId(UUID detailId) {
         try {
-            // Truy vấn OrderDetailEntity từ database để lấy tracking code
-            return orderDetailEntityService.findEntityById(detailId)
-                    .map(orderDetail -> orderDetail.getTrackingCode())
-                    .orElse(detailId.toString()); // Fallback: sử dụng ID làm tracking code nếu không tìm thấy
+            for (OrderDetailEntity orderDetail : orderDetailEntityService.findAllByIds(detailIds)) {
+                if (orderDetail.getTrackingCode() != null) {
+                    result.put(orderDetail.getId(), orderDetail.getTrackingCode());
+                }
+            }
         } catch (Exception e) {
-            log.error("Lỗi khi lấy tracking code cho order detail {}: {}", detailId, e.getMessage());
-            return detailId.toString(); // Fallback khi có lỗi
+            log.error("Lỗi khi lấy tracking code cho order details {}: {}", detailIds, e.getMessage());
         }
+        return result;
     }
 
     /**
@@ -842,6 +775,19 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
         Set<UUID> usedVehicleIds = new HashSet<>();
         Set<UUID> usedDriverIds = new HashSet<>();
 
+        // B8-B9: Vehicles with RESERVED reservation on tripDate (except for this order), loaded once for all groups
+        Set<UUID> reservedVehicleIds = new HashSet<>(
+                vehicleReservationEntityService.findReservedVehicleIdsByDateExcludingOrder(tripDate, orderId));
+
+        // Order details of all groups in one query
+        Map<UUID, OrderDetailEntity> detailsById = orderDetailEntityService.findAllByIds(assignments.stream()
+                        .flatMap(assignment -> assignment.getAssignedDetails().stream())
+                        .map(detail -> UUID.fromString(detail.id()))
+                        .distinct()
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(OrderDetailEntity::getId, detail -> detail));
+
         for (ContractRuleAssignResponse assignment : assignments) {
             // Lấy thông tin về vehicle rule
             UUID sizeRuleId = assignment.getSizeRuleId();
@@ -858,11 +804,11 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
             if (detailIds.isEmpty()) continue;
 
             List<GroupedVehicleAssignmentResponse.OrderDetailInfo> detailInfos =
-                    getOrderDetailInfos(detailIds);
+                    getOrderDetailInfos(detailIds, detailsById);
 
             // Pass excluded IDs to avoid duplicate suggestions
             // B3: Pass tripDate to filter drivers by date (1 driver per trip per day)
-            // B8-B9: Pass orderId to check vehicle reservations
+            // B8-B9: Pass reserved vehicles of tripDate
             List<GroupedVehicleAssignmentResponse.VehicleSuggestionResponse> vehicleSuggestions =
                     findSuitableVehiclesForGroup(
                             detailIds, 
@@ -871,7 +817,7 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
                             usedVehicleIds,
                             usedDriverIds,
                             tripDate,
-                            orderId
+                            reservedVehicleIds
                     );
             
             // Collect used resources from top recommendation to exclude from next groups
@@ -890,7 +836,7 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
             }
 
             BigDecimal totalWeight = detailIds.stream()
-                    .map(id -> orderDetailEntityService.findEntityById(id).orElse(null))
+                    .map(detailsById::get)
                     .filter(Objects::nonNull)
                     .map(OrderDetailEntity::getWeightTons)
                     .filter(Objects::nonNull)
@@ -1715,13 +1661,15 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
     /**
      * Lấy thông tin chi tiết về các order detail
      * @param detailIds Danh sách ID của order details
+     * @param detailsById Order details đã tải sẵn theo ID
      * @return Danh sách thông tin chi tiết về các order details
      */
-    private List<GroupedVehicleAssignmentResponse.OrderDetailInfo> getOrderDetailInfos(List<UUID> detailIds) {
+    private List<GroupedVehicleAssignmentResponse.OrderDetailInfo> getOrderDetailInfos(
+            List<UUID> detailIds, Map<UUID, OrderDetailEntity> detailsById) {
         List<GroupedVehicleAssignmentResponse.OrderDetailInfo> detailInfos = new ArrayList<>();
 
         for (UUID detailId : detailIds) {
-            OrderDetailEntity orderDetail = orderDetailEntityService.findEntityById(detailId)
+            OrderDetailEntity orderDetail = Optional.ofNullable(detailsById.get(detailId))
                     .orElseThrow(() -> new NotFoundException(
                             "Order detail not found: " + detailId,
                             ErrorEnum.NOT_FOUND.getErrorCode()
@@ -1771,6 +1719,7 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
     /**
      * Tìm xe và tài xế phù hợp cho nhóm order detail
      * Enhanced to exclude already suggested resources from other groups
+     * Candidates come from the suggestion index; only the chosen vehicles and drivers are loaded as entities
      * 
      * @param detailIds Danh sách ID của order details
      * @param sizeRule Quy tắc về loại xe
@@ -1778,7 +1727,7 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
      * @param excludedVehicleIds Set of vehicle IDs to exclude (already suggested for other groups)
      * @param excludedDriverIds Set of driver IDs to exclude (already suggested for other groups)
      * @param tripDate Ngày chuyến để filter driver (B3: 1 driver per trip per day)
-     * @param orderId Order ID để check reservation (B8-B9: exclude reservation của chính order này)
+     * @param reservedVehicleIds Xe đã RESERVED vào tripDate, trừ reservation của chính order này (B8-B9)
      * @return Danh sách gợi ý xe và tài xế phù hợp cho nhóm
      */
     private List<GroupedVehicleAssignmentResponse.VehicleSuggestionResponse> findSuitableVehiclesForGroup(
@@ -1788,70 +1737,72 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
             Set<UUID> excludedVehicleIds,
             Set<UUID> excludedDriverIds,
             LocalDate tripDate,
-            UUID orderId) {
+            Set<UUID> reservedVehicleIds) {
 
         List<GroupedVehicleAssignmentResponse.VehicleSuggestionResponse> vehicleSuggestions = new ArrayList<>();
 
-        // B8-B9: Final variables for lambda
-        final LocalDate finalTripDateForReservation = tripDate;
-        final UUID finalOrderId = orderId;
+        VehicleSuggestionIndex.Snapshot availability = vehicleSuggestionIndex.current();
         final LocalDate today = LocalDate.now();
 
-        // Lấy danh sách xe phù hợp với loại xe từ rule
+        // Lấy danh sách xe phù hợp với loại xe từ rule, đã sắp xếp theo mức độ sử dụng (ít dùng nhất lên đầu)
         VehicleTypeEnum vehicleTypeEnum = VehicleTypeEnum.valueOf(sizeRule.getVehicleTypeEntity().getVehicleTypeName());
-        List<VehicleEntity> availableVehicles = vehicleEntityService.getVehicleEntitiesByVehicleTypeEntityAndStatus(
-                sizeRule.getVehicleTypeEntity(), CommonStatusEnum.ACTIVE.name())
+        List<UUID> availableVehicleIds = availability.vehiclesOfType(sizeRule.getVehicleTypeEntity().getVehicleTypeName())
                 .stream()
-                .filter(v -> !excludedVehicleIds.contains(v.getId()))  // Exclude already suggested vehicles
-                // B8-B9: Exclude vehicles with RESERVED reservation on tripDate (except for this order)
-                .filter(v -> !vehicleReservationEntityService.existsReservedByVehicleAndDateExcludingOrder(
-                        v.getId(), finalTripDateForReservation, finalOrderId))
-                // Exclude vehicles with expired inspection (đăng kiểm hết hạn)
-                .filter(v -> v.getInspectionExpiryDate() == null || !v.getInspectionExpiryDate().isBefore(today))
-                // Exclude vehicles with expired insurance (bảo hiểm hết hạn)
-                .filter(v -> v.getInsuranceExpiryDate() == null || !v.getInsuranceExpiryDate().isBefore(today))
+                .filter(v -> !excludedVehicleIds.contains(v.id()))  // Exclude already suggested vehicles
+                .filter(v -> !reservedVehicleIds.contains(v.id()))  // B8-B9: Exclude vehicles reserved on tripDate
+                // Exclude vehicles with expired inspection (đăng kiểm) or insurance (bảo hiểm)
+                .filter(v -> v.hasValidDocuments(today))
+                .filter(v -> !availability.isVehicleBusy(v.id()))  // Bỏ qua xe đang có assignment
+                .map(VehicleSuggestionIndex.VehicleFacts::id)
                 .toList();
 
-        // B3: Filter drivers by tripDate - 1 driver per trip per day (hard constraint)
-        final LocalDate finalTripDate = tripDate;
-        
-        // Lấy danh sách tài xế hợp lệ cho loại xe này
-        List<DriverEntity> allEligibleDrivers = driverEntityService.findByStatus(CommonStatusEnum.ACTIVE.name())
+        // Lấy danh sách tài xế hợp lệ cho loại xe này (mirror validateDriverForAssignment)
+        List<VehicleSuggestionIndex.DriverFacts> allEligibleDrivers = availability.driversFor(vehicleTypeEnum)
                 .stream()
-                .filter(d -> driverService.isCheckClassDriverLicenseForVehicleType(d, vehicleTypeEnum))
-                .filter(d -> !entityService.existsActiveAssignmentForDriver(d.getId()))
-                .filter(d -> !excludedDriverIds.contains(d.getId()))  // Exclude already suggested drivers
-                .filter(d -> !entityService.existsAssignmentForDriverOnDate(d.getId(), finalTripDate))  // B3: Exclude drivers with assignment on tripDate
+                .filter(d -> !d.isLicenseExpired(today))
+                .filter(d -> !availability.isDriverBusy(d.id()))
+                .filter(d -> !excludedDriverIds.contains(d.id()))  // Exclude already suggested drivers
+                .filter(d -> !availability.hasTripOn(d.id(), tripDate))  // B3: Exclude drivers with assignment on tripDate
                 .toList();
 
-        // Sắp xếp xe theo mức độ sử dụng (ít dùng nhất lên đầu)
-        List<UUID> vehicleIds = availableVehicles.stream().map(VehicleEntity::getId).toList();
-        List<UUID> sortedVehicleIds = sortVehiclesByUsageThisMonth(vehicleIds);
+        if (availableVehicleIds.isEmpty() || allEligibleDrivers.isEmpty()) {
+            return vehicleSuggestions;
+        }
+
+        // Điểm của tài xế không phụ thuộc vào xe, chỉ tính một lần cho cả nhóm
+        Map<UUID, Integer> driverBaseScores = scoreDrivers(allEligibleDrivers, availability);
 
         // Giới hạn số lượng xe gợi ý
         final int MAX_VEHICLES_PER_GROUP = 5;
-        int vehicleCount = 0;
-
-        for (UUID vehicleId : sortedVehicleIds) {
-            if (vehicleCount >= MAX_VEHICLES_PER_GROUP) break;
-
-            VehicleEntity vehicle = vehicleEntityService.findEntityById(vehicleId)
-                    .orElseThrow(() -> new NotFoundException(
-                            "Vehicle not found: " + vehicleId,
-                            ErrorEnum.NOT_FOUND.getErrorCode()
-                    ));
+        Map<UUID, List<UUID>> preferredDriversByVehicle = new LinkedHashMap<>();
+        for (UUID vehicleId : availableVehicleIds.subList(0, Math.min(MAX_VEHICLES_PER_GROUP, availableVehicleIds.size()))) {
+            // Tìm tài xế phù hợp cho xe này
+            preferredDriversByVehicle.put(vehicleId,
+                    findPreferredDriversForVehicle(vehicleId, allEligibleDrivers, driverBaseScores, availability));
+        }
 
-            Optional<VehicleAssignmentEntity> activeAssignment =
-                    entityService.findVehicleAssignmentByVehicleEntityAndStatus(vehicle, CommonStatusEnum.ACTIVE.name());
+        Map<UUID, VehicleEntity> vehiclesById = vehicleEntityService
+                .findAllWithVehicleTypeByIds(preferredDriversByVehicle.keySet()).stream()
+                .collect(Collectors.toMap(VehicleEntity::getId, v -> v));
+        Map<UUID, DriverEntity> driversById = driverEntityService
+                .findAllWithUserByIds(preferredDriversByVehicle.values().stream()
+                        .flatMap(List::stream)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(DriverEntity::getId, d -> d));
 
-            if (activeAssignment.isPresent()) continue;  // Bỏ qua xe đang có assignment
+        int vehicleCount = 0;
+        for (Map.Entry<UUID, List<UUID>> entry : preferredDriversByVehicle.entrySet()) {
+            VehicleEntity vehicle = vehiclesById.get(entry.getKey());
+            if (vehicle == null) continue;
 
-            // Tìm tài xế phù hợp cho xe này
-            List<DriverEntity> preferredDrivers = findPreferredDriversForVehicle(vehicle, allEligibleDrivers, vehicleTypeEnum);
+            List<DriverEntity> preferredDrivers = entry.getValue().stream()
+                    .map(driversById::get)
+                    .filter(Objects::nonNull)
+                    .toList();
 
             if (!preferredDrivers.isEmpty()) {
                 List<GroupedVehicleAssignmentResponse.DriverSuggestionResponse> driverSuggestions =
-                        createDriverSuggestions(preferredDrivers);
+                        createDriverSuggestions(preferredDrivers, availability);
 
                 // Đánh dấu xe được đề xuất nhất (xe đầu tiên trong danh sách)
                 boolean isRecommended = (vehicleCount == 0);
@@ -1889,74 +1840,68 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
 
     /**
      * Find preferred drivers for a specific vehicle
-     * Enhanced to consider recent activity and workload when selecting drivers
+     * Base scores (lower is better) are shared by all vehicles of the group; only familiarity depends on the vehicle
      */
-    private List<DriverEntity> findPreferredDriversForVehicle(
-            VehicleEntity vehicle, List<DriverEntity> allEligibleDrivers, VehicleTypeEnum vehicleTypeEnum) {
+    private List<UUID> findPreferredDriversForVehicle(
+            UUID vehicleId,
+            List<VehicleSuggestionIndex.DriverFacts> allEligibleDrivers,
+            Map<UUID, Integer> driverBaseScores,
+            VehicleSuggestionIndex.Snapshot availability) {
 
-        List<DriverEntity> preferredDrivers = new ArrayList<>();
         final int MAX_DRIVERS_PER_VEHICLE = 6;
 
-        // Collect last assignment drivers for this vehicle (preserve ordering)
-        List<VehicleAssignmentEntity> pastAssignments = entityService.findAssignmentsByVehicleOrderByCreatedAtDesc(vehicle);
-        List<UUID> lastAssignmentDriverOrder = new ArrayList<>();
-        if (!pastAssignments.isEmpty()) {
-            VehicleAssignmentEntity lastAssignment = pastAssignments.get(0);
-            if (lastAssignment.getDriver1() != null) lastAssignmentDriverOrder.add(lastAssignment.getDriver1().getId());
-            if (lastAssignment.getDriver2() != null) lastAssignmentDriverOrder.add(lastAssignment.getDriver2().getId());
-        }
+        // Last assignment drivers for this vehicle (driver1 first)
+        List<UUID> lastAssignmentDriverOrder = availability.lastPairing(vehicleId);
 
-        // Get all driver IDs to calculate metrics
-        Set<UUID> driverIds = allEligibleDrivers.stream().map(DriverEntity::getId).collect(Collectors.toSet());
+        // Sort drivers by their comprehensive score (lower is better), ties keep the index order
+        return allEligibleDrivers.stream()
+                .map(VehicleSuggestionIndex.DriverFacts::id)
+                .sorted(Comparator.comparingInt(driverId -> driverBaseScores.getOrDefault(driverId, Integer.MAX_VALUE)
+                        + familiarityScore(lastAssignmentDriverOrder.indexOf(driverId))))
+                .limit(MAX_DRIVERS_PER_VEHICLE)
+                .toList();
+    }
 
-        // Use our improved activity scoring system - weighted by recency
-        Map<UUID, Integer> recentActivityMap = countRecentActivitiesByDrivers(driverIds, 30);
+    /**
+     * Factor 2: Previous assignment to this vehicle - familiarity bonus (-600 to 0 points)
+     * Familiar drivers get a BONUS (negative score = higher priority)
+     */
+    private int familiarityScore(int previousAssignmentIndex) {
+        if (previousAssignmentIndex < 0) {
+            // Driver never drove this vehicle - no bonus, no penalty (neutral)
+            return 0;
+        }
+        // Driver1 from last assignment gets extra bonus
+        return previousAssignmentIndex == 0 ? -600 : -500;
+    }
 
-        // Count completed trips for each driver
-        Map<UUID, Integer> completedTripsMap = countCompletedTripsByDrivers(driverIds);
+    /**
+     * Comprehensive score of each driver except the vehicle familiarity (lower is better)
+     * Considers license class, recent activity, workload, violations and rest time
+     */
+    private Map<UUID, Integer> scoreDrivers(List<VehicleSuggestionIndex.DriverFacts> drivers,
+                                            VehicleSuggestionIndex.Snapshot availability) {
+        LocalDateTime now = VietnamTimeUtils.now();
 
         // Get the average number of completed trips across all drivers
-        double avgCompletedTrips = completedTripsMap.values().stream()
-                .mapToInt(Integer::intValue)
+        double avgCompletedTrips = drivers.stream()
+                .mapToInt(driver -> availability.completedTrips(driver.id()))
                 .average()
                 .orElse(0);
 
-        // Get violation counts for all drivers
-        Map<UUID, Integer> violationCountMap = new HashMap<>();
-        for (DriverEntity driver : allEligibleDrivers) {
-            violationCountMap.put(driver.getId(), penaltyHistoryRepository.findByDriverId(driver.getId()).size());
-        }
-
-        // Build a comprehensive scoring system for each driver
-        Map<DriverEntity, Integer> driverScoreMap = new HashMap<>();
-        for (DriverEntity driver : allEligibleDrivers) {
+        Map<UUID, Integer> driverScoreMap = new HashMap<>();
+        for (VehicleSuggestionIndex.DriverFacts driver : drivers) {
             int score = 0;
-            UUID driverId = driver.getId();
+            UUID driverId = driver.id();
 
             // Factor 1: License class rank (0-200 points)
-            score += licenseClassRank(driver.getLicenseClass()) * 100;
-
-            // Factor 2: Previous assignment to this vehicle - familiarity bonus (-600 to 0 points)
-            // ✅ FIXED: Familiar drivers should get BONUS (negative score = higher priority)
-            int previousAssignmentIndex = lastAssignmentDriverOrder.indexOf(driverId);
-            if (previousAssignmentIndex >= 0) {
-                // Driver is familiar with this vehicle - BIG BONUS!
-                score -= 500;  // Subtract points (lower score = higher priority)
-                // Driver1 from last assignment gets extra bonus
-                if (previousAssignmentIndex == 0) {
-                    score -= 100;  // Primary driver gets even more bonus
-                }
-            }
-            // Else: Driver never drove this vehicle - no bonus, no penalty (neutral)
+            score += licenseClassRank(driver.licenseClass()) * 100;
 
-            // Factor 3: Recent activity (weighted by our improved scoring system) (0-200 points)
-            // ✅ OPTIMIZED: Reduced weight from 30 to 20 for better balance
-            int recentActivity = recentActivityMap.getOrDefault(driverId, 0);
-            score += recentActivity * 20;
+            // Factor 3: Recent activity in the last 30 days, weighted by recency (0-200 points)
+            score += availability.recentActivityScore(driverId, now, 30) * 20;
 
             // Factor 4: Experience vs workload balance (0-350 points)
-            // ✅ OPTIMIZED: More granular workload distribution with clear sweet spot
-            int completedTrips = completedTripsMap.getOrDefault(driverId, 0);
+            int completedTrips = availability.completedTrips(driverId);
             double workloadRatio = avgCompletedTrips > 0 ? (double) completedTrips / avgCompletedTrips : 0.0;
 
             if (workloadRatio < 0.3) {
@@ -1977,19 +1922,12 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
             }
 
             // Factor 5: Violations (0-300 points)
-            // ✅ OPTIMIZED: Reduced weight from 80 to 60 for better balance
-            int violations = violationCountMap.getOrDefault(driverId, 0);
-            score += violations * 60;
+            score += availability.violations(driverId) * 60;
 
             // Factor 6: Driver workload balance over time (0-400 points)
-            // ✅ OPTIMIZED: More granular levels + prevents consecutive day assignments
-            Optional<VehicleAssignmentEntity> lastAssignment = entityService.findLatestAssignmentByDriverId(driverId);
-            if (lastAssignment.isPresent()) {
-                LocalDateTime lastAssignmentDate = lastAssignment.get().getCreatedAt();
-                long daysSinceLastAssignment = java.time.Duration.between(
-                        lastAssignmentDate,
-                        VietnamTimeUtils.now()
-                ).toDays();
+            Optional<LocalDateTime> lastAssignmentDate = availability.lastAssignmentAt(driverId);
+            if (lastAssignmentDate.isPresent()) {
+                long daysSinceLastAssignment = java.time.Duration.between(lastAssignmentDate.get(), now).toDays();
 
                 // Drivers who haven't been assigned recently get priority
                 if (daysSinceLastAssignment < 1) {
@@ -2007,38 +1945,13 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
                 } else if (daysSinceLastAssignment < 30) {
                     // Long rest (2-4 weeks ago)
                     score += 50;
-                } else {
-                    // Very long rest (>1 month) - highest priority
-                    score += 0;
                 }
+                // Very long rest (>1 month) - highest priority
             }
 
-            // Store the comprehensive score
-            driverScoreMap.put(driver, score);
+            driverScoreMap.put(driverId, score);
         }
-
-        // Sort drivers by their comprehensive score (lower is better)
-        List<DriverEntity> sortedCandidates = new ArrayList<>(allEligibleDrivers);
-        sortedCandidates.sort(Comparator.comparingInt(d -> driverScoreMap.getOrDefault(d, Integer.MAX_VALUE)));
-
-        // Log the top 5 driver scores for debugging if needed
-        if (!sortedCandidates.isEmpty()) {
-            int logLimit = Math.min(sortedCandidates.size(), 5);
-            for (int i = 0; i < logLimit; i++) {
-                DriverEntity driver = sortedCandidates.get(i);
-                
-            }
-        }
-
-        // Select up to MAX_DRIVERS_PER_VEHICLE distinct drivers from sortedCandidates
-        for (DriverEntity driver : sortedCandidates) {
-            if (preferredDrivers.size() >= MAX_DRIVERS_PER_VEHICLE) break;
-            if (!preferredDrivers.contains(driver)) {
-                preferredDrivers.add(driver);
-            }
-        }
-
-        return preferredDrivers;
+        return driverScoreMap;
     }
 
     private int licenseClassRank(String licenseClass) {
@@ -2053,13 +1966,11 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
     /**
      * Create driver suggestion DTOs from driver entities
      */
-    private List<GroupedVehicleAssignmentResponse.DriverSuggestionResponse> createDriverSuggestions(List<DriverEntity> drivers) {
-        // Thu thập tất cả driver ID để tính số chuyến đã hoàn thành
+    private List<GroupedVehicleAssignmentResponse.DriverSuggestionResponse> createDriverSuggestions(
+            List<DriverEntity> drivers, VehicleSuggestionIndex.Snapshot availability) {
+        // Thu thập tất cả driver ID để tìm thời gian hoạt động gần nhất
         Set<UUID> driverIds = drivers.stream().map(DriverEntity::getId).collect(Collectors.toSet());
 
-        // Tính số chuyến đã hoàn thành cho mỗi tài xế
-        Map<UUID, Integer> driversCompletedTripsMap = countCompletedTripsByDrivers(driverIds);
-
         // Tìm thời gian hoạt động gần nhất của mỗi tài xế
         Map<UUID, String> driverLastActiveTimeMap = findLastActiveTimeForDrivers(driverIds);
 
@@ -2070,11 +1981,9 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
                 .toList();
 
         return drivers.stream().map(driver -> {
-            // Tính toán số lượng vi phạm từ PenaltyHistory của tài xế
-            int violationCount = penaltyHistoryRepository.findByDriverId(driver.getId()).size();
-
-            // Lấy số chuyến đã hoàn thành từ map
-            int completedTrips = driversCompletedTripsMap.getOrDefault(driver.getId(), 0);
+            // Số lượng vi phạm và số chuyến đã hoàn thành từ index
+            int violationCount = availability.violations(driver.getId());
+            int completedTrips = availability.completedTrips(driver.getId());
 
             // Lấy thời gian hoạt động gần nhất từ map
             String lastActiveTime = driverLastActiveTimeMap.getOrDefault(driver.getId(), "Chưa có hoạt động");
@@ -2356,61 +2265,6 @@ public class VehicleAssignmentServiceImpl implements VehicleAssignmentService {
         );
     }
 
-    /**
-     * Count recent activities for drivers within a specific time period
-     * Enhanced to consider different activities with varying weights
-     *
-     * @param driverIds IDs of drivers to check
-     * @param days Number of days to look back
-     * @return Map of driver IDs to activity scores
-     */
-    private Map<UUID, Integer> countRecentActivitiesByDrivers(Set<UUID> driverIds, int days) {
-        Map<UUID, Integer> result = new HashMap<>();
-        if (driverIds.isEmpty()) {
-            return result;
-        }
-
-        LocalDateTime cutoffDate = VietnamTimeUtils.now().minusDays(days);
-
-        // Create tiers of activity dates to weight more recent activities more heavily
-        LocalDateTime veryRecentDate = VietnamTimeUtils.now().minusDays(3);  // Last 3 days (high weight)
-        LocalDateTime recentDate = VietnamTimeUtils.now().minusDays(7);      // Last week (medium weight)
-
-        for (UUID driverId : driverIds) {
-            // Get assignments with dates for this driver
-            List<VehicleAssignmentEntity> recentAssignments = entityService.findAssignmentsForDriverSince(driverId, cutoffDate);
-
-            int activityScore = 0;
-
-            // Calculate weighted score based on recency
-            for (VehicleAssignmentEntity assignment : recentAssignments) {
-                LocalDateTime assignmentDate = assignment.getCreatedAt();
-
-                // Very recent activities get higher weight
-                if (assignmentDate.isAfter(veryRecentDate)) {
-                    activityScore += 5;  // High weight for very recent assignments
-                }
-                // Recent activities get medium weight
-                else if (assignmentDate.isAfter(recentDate)) {
-                    activityScore += 3;  // Medium weight for assignments in the last week
-                }
-                // Older activities get lower weight
-                else {
-                    activityScore += 1;  // Low weight for older assignments
-                }
-
-                // Add extra weight if the driver was the primary driver
-                if (driverId.equals(assignment.getDriver1() != null ? assignment.getDriver1().getId() : null)) {
-                    activityScore += 1;  // Extra weight if they were the primary driver
-                }
-            }
-
-            result.put(driverId, activityScore);
-        }
-
-        return result;
-    }
-    
     /**
      * Create notifications for both customer and driver when assignment is created
      */
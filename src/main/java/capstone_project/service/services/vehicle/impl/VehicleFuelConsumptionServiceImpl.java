@@ -12,6 +12,7 @@ import capstone_project.dtos.request.vehicle.VehicleFuelConsumptionEndReadingReq
 import capstone_project.dtos.request.vehicle.VehicleFuelConsumptionInvoiceRequest;
 import capstone_project.dtos.response.vehicle.VehicleFuelConsumptionListResponse;
 import capstone_project.dtos.response.vehicle.VehicleFuelConsumptionResponse;
+import capstone_project.event.JourneyEndedEvent;
 import capstone_project.entity.order.order.VehicleFuelConsumptionEntity;
 import capstone_project.repository.entityServices.order.VehicleFuelConsumptionEntityService;
 import capstone_project.repository.entityServices.order.order.OrderEntityService;
@@ -21,20 +22,19 @@ import capstone_project.repository.entityServices.vehicle.VehicleAssignmentEntit
 import capstone_project.entity.order.order.JourneyHistoryEntity;
 import capstone_project.entity.order.order.JourneySegmentEntity;
 import capstone_project.entity.order.order.OrderDetailEntity;
-import capstone_project.service.services.cloudinary.CloudinaryService;
 import capstone_project.service.services.order.order.OrderService;
 import capstone_project.service.services.order.order.OrderDetailStatusService;
 import capstone_project.service.services.order.order.OrderStatusWebSocketService;
+import capstone_project.service.services.tracking.GpsBreadcrumbService;
 import capstone_project.service.services.vehicle.VehicleFuelConsumptionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
 import capstone_project.common.utils.VietnamTimeUtils;
 
-import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
@@ -56,7 +56,6 @@ public class VehicleFuelConsumptionServiceImpl implements VehicleFuelConsumption
 
     private final VehicleFuelConsumptionEntityService vehicleFuelConsumptionEntityService;
     private final VehicleAssignmentEntityService vehicleAssignmentEntityService;
-    private final CloudinaryService cloudinaryService;
     private final OrderEntityService orderEntityService;
     private final OrderService orderService;
     private final SealEntityService sealEntityService;
@@ -66,6 +65,11 @@ public class VehicleFuelConsumptionServiceImpl implements VehicleFuelConsumption
     private final OrderStatusWebSocketService orderStatusWebSocketService;
     private final JourneyHistoryEntityService journeyHistoryEntityService;
     private final capstone_project.repository.entityServices.vehicle.VehicleEntityService vehicleEntityService;
+    private final GpsBreadcrumbService gpsBreadcrumbService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    // Odometer vs GPS track distance deviation that is worth a warning
+    private static final double GPS_DISTANCE_TOLERANCE = 0.2;
 
     @Override
     public List<VehicleFuelConsumptionListResponse> getAllVehicleFuelConsumptions() {
@@ -137,7 +141,8 @@ public class VehicleFuelConsumptionServiceImpl implements VehicleFuelConsumption
 
     @Override
     @Transactional
-    public VehicleFuelConsumptionResponse createVehicleFuelConsumption(VehicleFuelConsumptionCreateRequest request) {
+    public VehicleFuelConsumptionResponse createVehicleFuelConsumption(VehicleFuelConsumptionCreateRequest request,
+                                                                       String odometerAtStartUrl) {
 
         final var vehicleAssignmentEntity = vehicleAssignmentEntityService.findById(request.vehicleAssignmentId())
                 .orElseThrow(() -> new NotFoundException(
@@ -150,8 +155,6 @@ public class VehicleFuelConsumptionServiceImpl implements VehicleFuelConsumption
             throw new IllegalStateException("Thông tin tiêu thụ nhiên liệu đã tồn tại cho phân công xe ID: " + request.vehicleAssignmentId());
         }
 
-        final var odometerAtStartUrl = uploadImage(request.odometerAtStartImage(), "vehicle-fuel/odometer-start");
-
         final var entity = VehicleFuelConsumptionEntity.builder()
                 .vehicleAssignmentEntity(vehicleAssignmentEntity)
                 .odometerReadingAtStart(request.odometerReadingAtStart())
@@ -189,15 +192,14 @@ public class VehicleFuelConsumptionServiceImpl implements VehicleFuelConsumption
 
     @Override
     @Transactional
-    public VehicleFuelConsumptionResponse updateInvoiceImage(VehicleFuelConsumptionInvoiceRequest request) {
+    public VehicleFuelConsumptionResponse updateInvoiceImage(VehicleFuelConsumptionInvoiceRequest request,
+                                                             String companyInvoiceImageUrl) {
 
         final var entity = vehicleFuelConsumptionEntityService.findEntityById(request.id())
                 .orElseThrow(() -> new NotFoundException(
                         "Không tìm thấy thông tin tiêu thụ nhiên liệu với ID: " + request.id(),
                         ErrorEnum.NOT_FOUND.getErrorCode()));
 
-        final var companyInvoiceImageUrl = uploadImage(request.companyInvoiceImage(), "vehicle-fuel/invoices");
-
         entity.setCompanyInvoiceImageUrl(companyInvoiceImageUrl);
         final var updatedEntity = vehicleFuelConsumptionEntityService.save(entity);
 
@@ -206,15 +208,14 @@ public class VehicleFuelConsumptionServiceImpl implements VehicleFuelConsumption
 
     @Override
     @Transactional
-    public VehicleFuelConsumptionResponse updateFinalReading(VehicleFuelConsumptionEndReadingRequest request) {
+    public VehicleFuelConsumptionResponse updateFinalReading(VehicleFuelConsumptionEndReadingRequest request,
+                                                             String odometerAtEndUrl) {
 
         final var entity = vehicleFuelConsumptionEntityService.findEntityById(request.id())
                 .orElseThrow(() -> new NotFoundException(
                         "Không tìm thấy thông tin tiêu thụ nhiên liệu với ID: " + request.id(),
                         ErrorEnum.NOT_FOUND.getErrorCode()));
 
-        final var odometerAtEndUrl = uploadImage(request.odometerAtEndImage(), "vehicle-fuel/odometer-end");
-
         // Ensure both odometer readings are not null
         if (request.odometerReadingAtEnd() == null) {
             throw new IllegalArgumentException("Số đồng hồ công tơ mét lúc kết thúc không được để trống");
@@ -244,6 +245,8 @@ public class VehicleFuelConsumptionServiceImpl implements VehicleFuelConsumption
                 request.odometerReadingAtEnd(),
                 distanceTraveled);
 
+        reconcileWithGpsTrack(entity.getVehicleAssignmentEntity().getId(), distanceTraveled);
+
         // ✅ IMPROVED: Prioritize odometer-based calculation over segment-based
         BigDecimal fuelVolume;
 
@@ -367,6 +370,8 @@ public class VehicleFuelConsumptionServiceImpl implements VehicleFuelConsumption
                 String oldVaStatus = vehicleAssignment.getStatus();
                 vehicleAssignment.setStatus(VehicleAssignmentStatusEnum.COMPLETED.name());
                 vehicleAssignmentEntityService.save(vehicleAssignment);
+                // Trip is over: compiled routes of its journeys are no longer needed for off-route detection
+                applicationEventPublisher.publishEvent(new JourneyEndedEvent(vehicleAssignment.getId(), null));
                 
             }
             
@@ -410,13 +415,27 @@ public class VehicleFuelConsumptionServiceImpl implements VehicleFuelConsumption
         return mapToResponse(entity);
     }
 
-    private String uploadImage(MultipartFile file, String folder) {
+    /**
+     * Cross-check the odometer distance against the recorded GPS track. Only logs - the odometer stays authoritative
+     */
+    private void reconcileWithGpsTrack(UUID vehicleAssignmentId, BigDecimal odometerDistanceKm) {
         try {
-            final var uploadResult = cloudinaryService.uploadFile(file.getBytes(), file.getOriginalFilename(), folder);
-            return (String) uploadResult.get("secure_url");
-        } catch (IOException e) {
-            log.error("Error uploading image to Cloudinary: {}", e.getMessage());
-            throw new RuntimeException("Failed to upload image", e);
+            double gpsDistanceKm = gpsBreadcrumbService.getTrackDistanceKm(vehicleAssignmentId);
+            if (gpsDistanceKm <= 0) {
+                log.info("[FuelReconciliation] No GPS track for VehicleAssignment={}, skipping cross-check", vehicleAssignmentId);
+                return;
+            }
+            double odometerKm = odometerDistanceKm.doubleValue();
+            double deviation = Math.abs(odometerKm - gpsDistanceKm) / Math.max(odometerKm, gpsDistanceKm);
+            if (deviation > GPS_DISTANCE_TOLERANCE) {
+                log.warn("[FuelReconciliation] Odometer and GPS distance differ by {}% for VehicleAssignment={}: odometerKm={}, gpsKm={}",
+                        Math.round(deviation * 100), vehicleAssignmentId, odometerKm, String.format("%.1f", gpsDistanceKm));
+            } else {
+                log.info("[FuelReconciliation] VehicleAssignment={} odometerKm={}, gpsKm={}",
+                        vehicleAssignmentId, odometerKm, String.format("%.1f", gpsDistanceKm));
+            }
+        } catch (Exception e) {
+            log.warn("[FuelReconciliation] GPS cross-check failed for VehicleAssignment={}: {}", vehicleAssignmentId, e.getMessage());
         }
     }
 
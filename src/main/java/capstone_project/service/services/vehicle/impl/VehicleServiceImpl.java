@@ -37,6 +37,7 @@ import capstone_project.service.services.vehicle.VehicleAssignmentService;
 import capstone_project.service.services.vehicle.VehicleServiceRecordService;
 import capstone_project.service.services.vehicle.VehicleService;
 import capstone_project.service.services.vehicle.VehicleTypeService;
+import capstone_project.service.websocket.VehicleLocationBuffer;
 import capstone_project.service.websocket.VehicleLocationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -66,6 +67,7 @@ public class VehicleServiceImpl implements VehicleService {
     private final VehicleServiceRecordMapper vehicleServiceRecordMapper;
     private final VehicleTypeMapper vehicleTypeMapper;
     private final VehicleLocationService vehicleLocationService;
+    private final VehicleLocationBuffer vehicleLocationBuffer;
     private final PenaltyHistoryRepository penaltyHistoryRepository;
     private final PenaltyHistoryMapper penaltyHistoryMapper;
     private final VehicleAssignmentRepository vehicleAssignmentRepository;
@@ -225,6 +227,9 @@ public class VehicleServiceImpl implements VehicleService {
         boolean updated = vehicleEntityService.updateLocationDirectly(
                 id, request.getLatitude(), request.getLongitude());
 
+        // Drop any buffered WebSocket position so the next flush doesn't overwrite this one
+        vehicleLocationBuffer.evict(id);
+
         if (updated) {
 
             // Fetch vehicle details for broadcasting
@@ -266,6 +271,7 @@ public class VehicleServiceImpl implements VehicleService {
 
         boolean updated = vehicleEntityService.updateLocationWithRateLimit(
                 id, request.getLatitude(), request.getLongitude(), minIntervalSeconds);
+        vehicleLocationBuffer.evict(id);
 
         if (updated) {
 
@@ -311,6 +317,7 @@ public class VehicleServiceImpl implements VehicleService {
         }
 
         int updatedCount = vehicleEntityService.updateLocationsInBatch(batchRequest);
+        batchRequest.getUpdates().forEach(update -> vehicleLocationBuffer.evict(update.getVehicleId()));
 
         // Broadcast updates for vehicles that were updated
         if (updatedCount > 0) {
@@ -0,0 +1,183 @@
+package capstone_project.service.websocket;
+
+import capstone_project.repository.entityServices.vehicle.VehicleEntityService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for GPS pings coming from the mobile app.
+ * Keeps the latest position of every vehicle in memory so reads and broadcasts are served immediately,
+ * and flushes changed positions to the vehicles table in periodic JDBC batches instead of one UPDATE per ping.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VehicleLocationBuffer {
+
+    // A position written through another path (REST update) after the ping was buffered is never overwritten
+    private static final String FLUSH_SQL =
+            "UPDATE vehicles SET current_latitude = ?, current_longitude = ?, last_updated = ? "
+                    + "WHERE id = ? AND (last_updated IS NULL OR last_updated < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VehicleEntityService vehicleEntityService;
+
+    // Latest known position per vehicle (served to readers)
+    private final Map<UUID, BufferedLocation> latestLocations = new ConcurrentHashMap<>();
+
+    // Positions not yet written to the database
+    private final Map<UUID, BufferedLocation> pendingLocations = new ConcurrentHashMap<>();
+
+    // Vehicles already confirmed to exist, so pings don't re-check the database
+    private final Set<UUID> knownVehicleIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Latest position of a vehicle as held by the buffer
+     */
+    public record BufferedLocation(BigDecimal latitude, BigDecimal longitude, LocalDateTime lastUpdated) {
+        boolean samePosition(BigDecimal lat, BigDecimal lng) {
+            return latitude.compareTo(lat) == 0 && longitude.compareTo(lng) == 0;
+        }
+    }
+
+    /**
+     * Record a location ping
+     * @return true if the position changed and should be broadcast, false if unchanged
+     */
+    public boolean record(UUID vehicleId, BigDecimal latitude, BigDecimal longitude) {
+        return record(vehicleId, latitude, longitude, 0);
+    }
+
+    /**
+     * Record a location ping with rate limiting. Same rules as the old SQL rate limit:
+     * accepted when the position changed, or when the last accepted ping is older than the interval.
+     * @return true if the ping was accepted, false if skipped
+     */
+    public boolean record(UUID vehicleId, BigDecimal latitude, BigDecimal longitude, int minIntervalSeconds) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean[] accepted = {false};
+
+        BufferedLocation result = latestLocations.compute(vehicleId, (id, current) -> {
+            if (current != null && current.samePosition(latitude, longitude)) {
+                boolean intervalPassed = minIntervalSeconds > 0
+                        && current.lastUpdated().isBefore(now.minusSeconds(minIntervalSeconds));
+                if (!intervalPassed) {
+                    return current;
+                }
+            }
+            accepted[0] = true;
+            return new BufferedLocation(latitude, longitude, now);
+        });
+
+        if (accepted[0]) {
+            pendingLocations.put(vehicleId, result);
+        }
+        return accepted[0];
+    }
+
+    /**
+     * Check that the vehicle exists; only the first ping of a vehicle hits the database
+     */
+    public boolean isKnownVehicle(UUID vehicleId) {
+        if (knownVehicleIds.contains(vehicleId)) {
+            return true;
+        }
+        boolean exists = vehicleEntityService.findByVehicleId(vehicleId).isPresent();
+        if (exists) {
+            knownVehicleIds.add(vehicleId);
+        }
+        return exists;
+    }
+
+    /**
+     * Latest buffered position of a vehicle, if any ping has been received since startup
+     */
+    public Optional<BufferedLocation> getLatest(UUID vehicleId) {
+        if (vehicleId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(latestLocations.get(vehicleId));
+    }
+
+    /**
+     * Drop a vehicle from the buffer after its location was changed through another path
+     */
+    public void evict(UUID vehicleId) {
+        latestLocations.remove(vehicleId);
+        pendingLocations.remove(vehicleId);
+    }
+
+    public int getPendingCount() {
+        return pendingLocations.size();
+    }
+
+    /**
+     * Flush pending positions to the vehicles table in one JDBC batch
+     */
+    @Scheduled(fixedDelayString = "${vehicle.location.flush-interval-ms:2000}")
+    public void flush() {
+        if (pendingLocations.isEmpty()) {
+            return;
+        }
+
+        List<UUID> vehicleIds = new ArrayList<>(pendingLocations.size());
+        List<BufferedLocation> locations = new ArrayList<>(pendingLocations.size());
+        for (UUID vehicleId : pendingLocations.keySet()) {
+            BufferedLocation location = pendingLocations.remove(vehicleId);
+            if (location != null) {
+                vehicleIds.add(vehicleId);
+                locations.add(location);
+            }
+        }
+
+        if (vehicleIds.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batchArgs = new ArrayList<>(vehicleIds.size());
+        for (int i = 0; i < vehicleIds.size(); i++) {
+            BufferedLocation location = locations.get(i);
+            Timestamp lastUpdated = Timestamp.valueOf(location.lastUpdated());
+            batchArgs.add(new Object[]{
+                    location.latitude(),
+                    location.longitude(),
+                    lastUpdated,
+                    vehicleIds.get(i),
+                    lastUpdated
+            });
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batchArgs);
+            log.debug("[VehicleLocationBuffer] Flushed {} vehicle locations", vehicleIds.size());
+        } catch (Exception e) {
+            log.error("[VehicleLocationBuffer] Failed to flush {} vehicle locations: {}",
+                    vehicleIds.size(), e.getMessage(), e);
+            // Re-queue positions unless a newer ping already replaced them
+            for (int i = 0; i < vehicleIds.size(); i++) {
+                pendingLocations.putIfAbsent(vehicleIds.get(i), locations.get(i));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("[VehicleLocationBuffer] Flushing {} pending vehicle locations before shutdown", pendingLocations.size());
+        flush();
+    }
+}
@@ -0,0 +1,222 @@
+package capstone_project.service.websocket;
+
+import capstone_project.config.websocket.ChannelMetricsInterceptor;
+import capstone_project.dtos.websocket.VehicleLocationFrame;
+import capstone_project.dtos.websocket.VehicleLocationMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces vehicle location broadcasts into fixed-interval frames.
+ * Pings only update in-memory state; every frame interval the latest state is sent once per destination,
+ * so outbound traffic follows the number of vehicles instead of vehicles x ping rate.
+ * The all-vehicles map gets delta frames (changed fields only) with a periodic keyframe.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VehicleLocationFanout {
+
+    public static final String TOPIC_ALL_VEHICLES = "/topic/vehicles/locations";
+    public static final String TOPIC_ALL_VEHICLES_FRAMES = "/topic/vehicles/locations/frames";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // Overview state per vehicle (all-vehicles map)
+    private final Map<UUID, VehicleState> vehicles = new ConcurrentHashMap<>();
+
+    // Latest pending message per destination and vehicle (per-vehicle and per-order topics)
+    private final Map<PendingKey, Object> pendingMessages = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile long lastKeyframeMillis;
+
+    @Value("${vehicle.tracking.fanout.keyframe-interval-ms:10000}")
+    private long keyframeIntervalMs;
+
+    @Value("${vehicle.tracking.fanout.stale-seconds:300}")
+    private long staleSeconds;
+
+    @Value("${vehicle.tracking.fanout.legacy-all-vehicles-topic:false}")
+    private boolean legacyAllVehiclesTopic;
+
+    private record PendingKey(String destination, UUID vehicleId) {
+    }
+
+    private static final class VehicleState {
+        VehicleLocationMessage latest;
+        Map<String, Object> sentFields;
+        long lastSeenMillis;
+        boolean dirty;
+    }
+
+    /**
+     * Queue a ping for the all-vehicles map
+     */
+    public void publishOverview(VehicleLocationMessage message) {
+        long now = System.currentTimeMillis();
+        vehicles.compute(message.getVehicleId(), (id, state) -> {
+            VehicleState current = state != null ? state : new VehicleState();
+            current.latest = message;
+            current.lastSeenMillis = now;
+            current.dirty = true;
+            return current;
+        });
+    }
+
+    /**
+     * Queue a message for a destination; a newer message for the same vehicle replaces it before the next frame
+     */
+    public void publish(String destination, UUID vehicleId, Object message) {
+        pendingMessages.put(new PendingKey(destination, vehicleId), message);
+    }
+
+    /**
+     * Full state of the all-vehicles map, for clients that just subscribed
+     */
+    public VehicleLocationFrame snapshot() {
+        List<Map<String, Object>> all = new ArrayList<>();
+        for (VehicleState state : vehicles.values()) {
+            VehicleLocationMessage latest = state.latest;
+            if (latest != null) {
+                all.add(toFields(latest));
+            }
+        }
+        return VehicleLocationFrame.builder()
+                .sequence(sequence.get())
+                .keyframe(true)
+                .vehicles(all)
+                .removed(List.of())
+                .build();
+    }
+
+    @Scheduled(fixedRateString = "${vehicle.tracking.fanout.frame-interval-ms:250}")
+    public void sendFrames() {
+        try {
+            sendPendingMessages();
+            sendOverviewFrame();
+        } catch (Exception e) {
+            log.error("[LocationFanout] Failed to send frame: {}", e.getMessage(), e);
+        }
+    }
+
+    private void sendPendingMessages() {
+        for (PendingKey key : pendingMessages.keySet()) {
+            Object message = pendingMessages.remove(key);
+            if (message != null) {
+                messagingTemplate.convertAndSend(key.destination(), message, coalesceHeaders(key.vehicleId()));
+            }
+        }
+    }
+
+    private void sendOverviewFrame() {
+        long now = System.currentTimeMillis();
+        boolean keyframe = now - lastKeyframeMillis >= keyframeIntervalMs;
+        long staleBefore = now - staleSeconds * 1000L;
+
+        List<Map<String, Object>> changed = new ArrayList<>();
+        List<UUID> removed = new ArrayList<>();
+        List<VehicleLocationMessage> legacyMessages = new ArrayList<>();
+
+        for (UUID vehicleId : vehicles.keySet()) {
+            vehicles.computeIfPresent(vehicleId, (id, state) -> {
+                if (state.lastSeenMillis < staleBefore) {
+                    removed.add(id);
+                    return null;
+                }
+                if (!state.dirty && !keyframe) {
+                    return state;
+                }
+                Map<String, Object> fields = toFields(state.latest);
+                Map<String, Object> delta = keyframe ? fields : diff(id, state.sentFields, fields);
+                if (delta != null) {
+                    changed.add(delta);
+                }
+                if (state.dirty) {
+                    legacyMessages.add(state.latest);
+                }
+                state.sentFields = fields;
+                state.dirty = false;
+                return state;
+            });
+        }
+
+        if (keyframe) {
+            lastKeyframeMillis = now;
+        } else if (changed.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        // One conversion per frame, shared by every subscriber of the destination
+        VehicleLocationFrame frame = VehicleLocationFrame.builder()
+                .sequence(sequence.incrementAndGet())
+                .keyframe(keyframe)
+                .vehicles(changed)
+                .removed(removed)
+                .build();
+        messagingTemplate.convertAndSend(TOPIC_ALL_VEHICLES_FRAMES, frame);
+
+        // Only while older web clients are migrated (off by default): one full message per vehicle per frame
+        if (legacyAllVehiclesTopic) {
+            for (VehicleLocationMessage message : legacyMessages) {
+                messagingTemplate.convertAndSend(TOPIC_ALL_VEHICLES, message, coalesceHeaders(message.getVehicleId()));
+            }
+        }
+
+        log.debug("[LocationFanout] Frame {}: keyframe={}, changed={}, removed={}",
+                frame.getSequence(), keyframe, changed.size(), removed.size());
+    }
+
+    /**
+     * Lets the outbound channel drop this message when a newer one for the same vehicle is queued for the session.
+     * Delta frames never carry it - every frame is needed to rebuild the state
+     */
+    private static Map<String, Object> coalesceHeaders(UUID vehicleId) {
+        return Map.of(ChannelMetricsInterceptor.COALESCE_KEY_HEADER, vehicleId.toString());
+    }
+
+    /**
+     * Fields that differ from the last frame sent for this vehicle, or null when nothing changed
+     */
+    private static Map<String, Object> diff(UUID vehicleId, Map<String, Object> previous, Map<String, Object> current) {
+        if (previous == null) {
+            return current;
+        }
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("vehicleId", vehicleId);
+        for (Map.Entry<String, Object> entry : current.entrySet()) {
+            if (!Objects.equals(previous.get(entry.getKey()), entry.getValue())) {
+                delta.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return delta.size() > 1 ? delta : null;
+    }
+
+    private static Map<String, Object> toFields(VehicleLocationMessage message) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("vehicleId", message.getVehicleId());
+        fields.put("latitude", message.getLatitude());
+        fields.put("longitude", message.getLongitude());
+        fields.put("licensePlateNumber", message.getLicensePlateNumber());
+        fields.put("vehicleAssignmentId", message.getVehicleAssignmentId());
+        fields.put("bearing", message.getBearing());
+        fields.put("speed", message.getSpeed());
+        fields.put("velocityLat", message.getVelocityLat());
+        fields.put("velocityLng", message.getVelocityLng());
+        fields.put("distanceFromRoute", message.getDistanceFromRoute());
+        return fields;
+    }
+}
@@ -36,13 +36,15 @@ public class VehicleLocationService {
     private final VehicleAssignmentRepository vehicleAssignmentRepository;
     private final OrderDetailRepository orderDetailRepository;
     private final OrderEntityService orderEntityService;
+    private final VehicleLocationBuffer vehicleLocationBuffer;
+    private final VehicleTrackingSnapshotCache vehicleTrackingSnapshotCache;
+    private final VehicleLocationFanout vehicleLocationFanout;
     
     // Lazy injection to avoid circular dependency
     @Autowired
     @Lazy
     private OffRouteDetectionService offRouteDetectionService;
 
-    private static final String TOPIC_ALL_VEHICLES = "/topic/vehicles/locations";
     private static final String TOPIC_VEHICLE_PREFIX = "/topic/vehicles/";
     private static final String TOPIC_ORDER_VEHICLES_PREFIX = "/topic/orders/";
 
@@ -65,7 +67,8 @@ public class VehicleLocationService {
     }
 
     /**
-     * Broadcast updated vehicle location to all subscribers using the message DTO
+     * Broadcast updated vehicle location to all subscribers using the message DTO.
+     * Messages are queued in {@link VehicleLocationFanout} and sent with the next frame
      */
     public void broadcastVehicleLocation(VehicleLocationMessage message) {
         log.info("[VehicleLocation] Incoming WS location: vehicleId={}, assignmentId={}, lat={}, lng={}, speed={}, bearing={}",
@@ -76,27 +79,40 @@ public class VehicleLocationService {
                 message.getSpeed(),
                 message.getBearing());
 
+        // Vehicle, drivers and subscribed orders come from memory - no DB query per ping
+        VehicleTrackingSnapshotCache.VehicleSnapshot snapshot = loadSnapshot(message.getVehicleId());
+
         // Calculate velocity for smooth frontend interpolation
-        enhanceMessageWithVelocity(message);
+        enhanceMessageWithVelocity(message, snapshot);
         
-        // Broadcast to all vehicles topic for web clients
-        messagingTemplate.convertAndSend(TOPIC_ALL_VEHICLES, message);
+        // All vehicles map for web clients - sent as coalesced delta frames
+        vehicleLocationFanout.publishOverview(message);
 
-        // Broadcast to specific vehicle topic for clients tracking specific vehicle
-        messagingTemplate.convertAndSend(TOPIC_VEHICLE_PREFIX + message.getVehicleId(), message);
+        // Specific vehicle topic for clients tracking specific vehicle
+        vehicleLocationFanout.publish(TOPIC_VEHICLE_PREFIX + message.getVehicleId(), message.getVehicleId(), message);
 
         // Find all orders associated with this vehicle and broadcast to order topics
-        broadcastToOrderTopics(message);
+        broadcastToOrderTopics(message, snapshot);
+
+    }
 
+    private VehicleTrackingSnapshotCache.VehicleSnapshot loadSnapshot(UUID vehicleId) {
+        try {
+            return vehicleTrackingSnapshotCache.get(vehicleId);
+        } catch (Exception e) {
+            log.error("Error loading tracking snapshot for vehicle {}: {}", vehicleId, e.getMessage(), e);
+            return null;
+        }
     }
     
     /**
      * Enhance message with velocity data for smooth frontend interpolation
      * Uses actual speed and bearing from mobile if available, otherwise calculates defaults
      */
-    private void enhanceMessageWithVelocity(VehicleLocationMessage message) {
+    private void enhanceMessageWithVelocity(VehicleLocationMessage message,
+                                            VehicleTrackingSnapshotCache.VehicleSnapshot snapshot) {
         // Calculate off-route distance for real-time tracking
-        calculateDistanceFromRoute(message);
+        calculateDistanceFromRoute(message, snapshot);
         
         // Use speed from message if available, otherwise default
         double speedKmh = message.getSpeed() != null ? 
@@ -128,37 +144,53 @@ public class VehicleLocationService {
     }
 
     /**
-     * Calculate distance from route for real-time off-route tracking
+     * Calculate distance from route for real-time off-route tracking.
+     * This is the only off-route evaluation of a ping: the message's assignment,
+     * or every assignment with active orders when the client sent no assignment ID (older mobile clients).
      */
-    private void calculateDistanceFromRoute(VehicleLocationMessage message) {
-        if (message == null || message.getVehicleAssignmentId() == null || 
-            message.getLatitude() == null || message.getLongitude() == null) {
+    private void calculateDistanceFromRoute(VehicleLocationMessage message,
+                                            VehicleTrackingSnapshotCache.VehicleSnapshot snapshot) {
+        if (message == null || message.getLatitude() == null || message.getLongitude() == null) {
             return;
         }
 
-        try {
-            // Calculate distance using OffRouteDetectionService and get real-time value
-            Double distance = offRouteDetectionService.processLocationUpdate(
-                message.getVehicleAssignmentId(),
-                message.getLatitude(),
-                message.getLongitude(),
-                message.getSpeed() != null ? message.getSpeed().doubleValue() : null,
-                message.getBearing() != null ? message.getBearing().doubleValue() : null
-            );
-            
-            // Set real-time distance in WebSocket message
-            if (distance != null) {
-                message.setDistanceFromRoute(BigDecimal.valueOf(distance));
-                log.debug("[VehicleLocation] Real-time distance from route for assignment {}: {} meters", 
-                    message.getVehicleAssignmentId(), distance);
-            } else {
-                message.setDistanceFromRoute(null);
+        List<UUID> assignmentIds = new ArrayList<>();
+        if (message.getVehicleAssignmentId() != null) {
+            assignmentIds.add(message.getVehicleAssignmentId());
+        } else if (snapshot != null) {
+            for (VehicleTrackingSnapshotCache.AssignmentSnapshot assignment : snapshot.assignments()) {
+                if (!assignment.orders().isEmpty()) {
+                    assignmentIds.add(assignment.vehicleAssignmentId());
+                }
             }
-                
-        } catch (Exception e) {
-            log.warn("[VehicleLocation] Failed to calculate distance from route for assignment {}: {}", 
-                message.getVehicleAssignmentId(), e.getMessage());
-            // Set distance to null if calculation fails
+        }
+
+        Double distance = null;
+        for (UUID assignmentId : assignmentIds) {
+            try {
+                // Calculate distance using OffRouteDetectionService and get real-time value
+                Double assignmentDistance = offRouteDetectionService.processLocationUpdate(
+                    assignmentId,
+                    message.getLatitude(),
+                    message.getLongitude(),
+                    message.getSpeed() != null ? message.getSpeed().doubleValue() : null,
+                    message.getBearing() != null ? message.getBearing().doubleValue() : null
+                );
+                if (distance == null) {
+                    distance = assignmentDistance;
+                }
+            } catch (Exception e) {
+                log.warn("[VehicleLocation] Failed to calculate distance from route for assignment {}: {}", 
+                    assignmentId, e.getMessage());
+            }
+        }
+            
+        // Set real-time distance in WebSocket message (null if calculation failed or no active journey)
+        if (distance != null) {
+            message.setDistanceFromRoute(BigDecimal.valueOf(distance));
+            log.debug("[VehicleLocation] Real-time distance from route for vehicle {}: {} meters", 
+                message.getVehicleId(), distance);
+        } else {
             message.setDistanceFromRoute(null);
         }
     }
@@ -168,105 +200,34 @@ public class VehicleLocationService {
      * IMPORTANT: Deduplicates orders to prevent sending duplicate vehicle messages
      * when multiple order details share the same vehicle assignment
      */
-    private void broadcastToOrderTopics(VehicleLocationMessage message) {
-        if (message == null || message.getVehicleId() == null) {
+    private void broadcastToOrderTopics(VehicleLocationMessage message,
+                                        VehicleTrackingSnapshotCache.VehicleSnapshot snapshot) {
+        if (message == null || message.getVehicleId() == null || snapshot == null) {
             return;
         }
 
         try {
-            // Find all active vehicle assignments for this vehicle with eagerly fetched drivers
-            List<VehicleAssignmentEntity> assignments = vehicleAssignmentRepository
-                    .findByVehicleEntityIdWithDrivers(message.getVehicleId());
-
             // Track which orders we've already broadcast to (to avoid duplicates)
             java.util.Set<UUID> broadcastedOrders = new java.util.HashSet<>();
 
-            // For each assignment, find active order details
-            for (VehicleAssignmentEntity assignment : assignments) {
+            for (VehicleTrackingSnapshotCache.AssignmentSnapshot assignment : snapshot.assignments()) {
                 // ✅ Multi-trip-safe: If message has a specific assignmentId, only process that one.
                 // If assignmentId is null (older mobile clients), process all assignments for this vehicle.
                 if (message.getVehicleAssignmentId() != null &&
-                        !assignment.getId().equals(message.getVehicleAssignmentId())) {
-                    log.debug("[VehicleLocation] Skipping assignment {} - location update is for assignment {}", 
-                        assignment.getId(), message.getVehicleAssignmentId());
+                        !assignment.vehicleAssignmentId().equals(message.getVehicleAssignmentId())) {
                     continue;
                 }
 
-                log.debug("[VehicleLocation] Processing location update for assignment {} - vehicle {}", 
-                    assignment.getId(), message.getVehicleId());
-
-                // Check Order status (not OrderDetail status) for real-time tracking
-                // Include all statuses from PICKING_UP onwards as defined in frontend OrderStatusEnum
-                List<OrderDetailEntity> activeOrderDetails = orderDetailRepository
-                        .findActiveOrderDetailsByVehicleAssignmentId(
-                                assignment.getId(),
-                                List.of("PICKING_UP", "ON_DELIVERED", "ONGOING_DELIVERED", 
-                                       "DELIVERED", "IN_TROUBLES", "RESOLVED", "COMPENSATION",
-                                       "RETURNING", "RETURNED"));
-                
-                // ✅ OFF-ROUTE DETECTION: Check if driver is off-route for active trips
-                if (!activeOrderDetails.isEmpty() && offRouteDetectionService != null) {
-                    try {
-                        offRouteDetectionService.processLocationUpdate(
-                            assignment.getId(),
-                            message.getLatitude(),
-                            message.getLongitude(),
-                            message.getSpeed() != null ? message.getSpeed().doubleValue() : null,
-                            message.getBearing() != null ? message.getBearing().doubleValue() : null
-                        );
-                    } catch (Exception e) {
-                        log.debug("[OffRoute] Error processing off-route check for {}: {}", 
-                            assignment.getId(), e.getMessage());
+                for (VehicleTrackingSnapshotCache.OrderSubscription order : assignment.orders()) {
+                    // Skip if we've already broadcast to this order
+                    if (!broadcastedOrders.add(order.orderId())) {
+                        continue;
                     }
-                }
 
-                // Group order details by order ID to avoid duplicate broadcasts
-                for (OrderDetailEntity orderDetail : activeOrderDetails) {
-                    String orderStatus = orderDetail.getOrderEntity() != null ? 
-                            orderDetail.getOrderEntity().getStatus() : "NULL";
-
-                    if (orderDetail.getOrderEntity() != null && orderDetail.getOrderEntity().getId() != null) {
-                        UUID orderId = orderDetail.getOrderEntity().getId();
-                        
-                        // Skip if we've already broadcast to this order
-                        if (broadcastedOrders.contains(orderId)) {
-                            
-                            continue;
-                        }
-                        
-                        String orderTopic = TOPIC_ORDER_VEHICLES_PREFIX + orderId + "/vehicles";
-
-                        // Get enhanced message with assignment details using eager-fetched vehicle
-                        VehicleEntity vehicle = vehicleEntityService.findByVehicleIdWithVehicleType(message.getVehicleId()).orElse(null);
-                        String orderDetailStatus = orderDetail.getStatus() != null ? orderDetail.getStatus() : "UNKNOWN";
-                        VehicleLocationMessage enhancedMessage = buildEnhancedLocationMessage(vehicle, assignment, orderDetailStatus);
-                        
-                        if (enhancedMessage != null) {
-                            // CRITICAL: Copy bearing, speed, and velocity from original message
-                            // These come from mobile app and are essential for smooth tracking
-                            enhancedMessage.setBearing(message.getBearing());
-                            enhancedMessage.setSpeed(message.getSpeed());
-                            enhancedMessage.setVelocityLat(message.getVelocityLat());
-                            enhancedMessage.setVelocityLng(message.getVelocityLng());
-                            
-                            // DEBUG: Log speed values to identify discrepancy
-                            // log.info("=== [WEBSOCKET SPEED DEBUG] Vehicle {} ({}) - Speed from mobile: {} km/h, Speed being sent: {} km/h", 
-                            //         message.getVehicleId(), 
-                            //         message.getLicensePlateNumber(),
-                            //         message.getSpeed() != null ? message.getSpeed().doubleValue() + "" : "NULL",
-                            //         enhancedMessage.getSpeed() != null ? enhancedMessage.getSpeed().doubleValue() + "" : "NULL");
-
-                            messagingTemplate.convertAndSend(orderTopic, enhancedMessage);
-                            broadcastedOrders.add(orderId); // Mark as broadcast
-                            
-                        } else {
-                            log.warn("=== [broadcastToOrderTopics] Enhanced message is NULL for vehicle {}", 
-                                    message.getVehicleId());
-                        }
-                    } else {
-                        log.warn("=== [broadcastToOrderTopics] OrderDetail {} has no order entity or order ID", 
-                                orderDetail.getId());
-                    }
+                    String orderTopic = TOPIC_ORDER_VEHICLES_PREFIX + order.orderId() + "/vehicles";
+                    VehicleLocationMessage enhancedMessage = buildOrderLocationMessage(
+                            message, snapshot, assignment, order.orderDetailStatus());
+                    vehicleLocationFanout.publish(orderTopic, snapshot.vehicleId(), enhancedMessage);
                 }
             }
 
@@ -276,6 +237,39 @@ public class VehicleLocationService {
         }
     }
 
+    /**
+     * Build the order-topic message from the incoming ping and the cached snapshot
+     */
+    private VehicleLocationMessage buildOrderLocationMessage(VehicleLocationMessage message,
+                                                             VehicleTrackingSnapshotCache.VehicleSnapshot snapshot,
+                                                             VehicleTrackingSnapshotCache.AssignmentSnapshot assignment,
+                                                             String orderDetailStatus) {
+        Optional<VehicleLocationBuffer.BufferedLocation> location = vehicleLocationBuffer.getLatest(snapshot.vehicleId());
+
+        return VehicleLocationMessage.builder()
+                .vehicleId(snapshot.vehicleId())
+                .latitude(location.map(VehicleLocationBuffer.BufferedLocation::latitude).orElse(message.getLatitude()))
+                .longitude(location.map(VehicleLocationBuffer.BufferedLocation::longitude).orElse(message.getLongitude()))
+                .licensePlateNumber(snapshot.licensePlateNumber())
+                .lastUpdated(location.map(VehicleLocationBuffer.BufferedLocation::lastUpdated).orElse(null))
+                .manufacturer(snapshot.manufacturer())
+                .vehicleTypeName(snapshot.vehicleTypeName())
+                .vehicleAssignmentId(assignment.vehicleAssignmentId())
+                .trackingCode(assignment.trackingCode())
+                .orderDetailStatus(orderDetailStatus)
+                .driver1Name(assignment.driver1Name())
+                .driver1Phone(assignment.driver1Phone())
+                .driver2Name(assignment.driver2Name())
+                .driver2Phone(assignment.driver2Phone())
+                // CRITICAL: Copy bearing, speed, and velocity from original message
+                // These come from mobile app and are essential for smooth tracking
+                .bearing(message.getBearing())
+                .speed(message.getSpeed())
+                .velocityLat(message.getVelocityLat())
+                .velocityLng(message.getVelocityLng())
+                .build();
+    }
+
     /**
      * Find the order ID that has the specified vehicle assignment
      * @param assignmentId The vehicle assignment ID
@@ -331,17 +325,18 @@ public class VehicleLocationService {
 
         // Get vehicle entity with full details
         VehicleEntity vehicle = vehicleEntityService.findByVehicleId(vehicleId).orElse(null);
-        if (vehicle == null || vehicle.getCurrentLatitude() == null || vehicle.getCurrentLongitude() == null) {
+        VehicleLocationBuffer.BufferedLocation location = resolveLocation(vehicle);
+        if (location == null) {
             return null;
         }
 
         // Build basic location message
         VehicleLocationMessage.VehicleLocationMessageBuilder builder = VehicleLocationMessage.builder()
                 .vehicleId(vehicle.getId())
-                .latitude(vehicle.getCurrentLatitude())
-                .longitude(vehicle.getCurrentLongitude())
+                .latitude(location.latitude())
+                .longitude(location.longitude())
                 .licensePlateNumber(vehicle.getLicensePlateNumber())
-                .lastUpdated(vehicle.getLastUpdated())
+                .lastUpdated(location.lastUpdated())
                 .manufacturer(vehicle.getManufacturer());
 
         // Add vehicle type information if available
@@ -360,17 +355,18 @@ public class VehicleLocationService {
      * @return Enhanced vehicle location message
      */
     private VehicleLocationMessage buildEnhancedLocationMessage(VehicleEntity vehicle, VehicleAssignmentEntity assignmentEntity, String orderDetailStatus) {
-        if (vehicle == null || vehicle.getCurrentLatitude() == null || vehicle.getCurrentLongitude() == null) {
+        VehicleLocationBuffer.BufferedLocation location = resolveLocation(vehicle);
+        if (location == null) {
             return null;
         }
 
         // Create basic location message
         VehicleLocationMessage.VehicleLocationMessageBuilder builder = VehicleLocationMessage.builder()
                 .vehicleId(vehicle.getId())
-                .latitude(vehicle.getCurrentLatitude())
-                .longitude(vehicle.getCurrentLongitude())
+                .latitude(location.latitude())
+                .longitude(location.longitude())
                 .licensePlateNumber(vehicle.getLicensePlateNumber())
-                .lastUpdated(vehicle.getLastUpdated())
+                .lastUpdated(location.lastUpdated())
                 .manufacturer(vehicle.getManufacturer());
 
         // Add vehicle type information if available - handle lazy loading safely
@@ -435,6 +431,27 @@ public class VehicleLocationService {
         return builder.build();
     }
 
+    /**
+     * Resolve the latest position of a vehicle, preferring the in-memory buffer over the database row
+     * @return Location or null if vehicle is null or has no known position
+     */
+    private VehicleLocationBuffer.BufferedLocation resolveLocation(VehicleEntity vehicle) {
+        if (vehicle == null) {
+            return null;
+        }
+
+        Optional<VehicleLocationBuffer.BufferedLocation> buffered = vehicleLocationBuffer.getLatest(vehicle.getId());
+        if (buffered.isPresent()) {
+            return buffered.get();
+        }
+
+        if (vehicle.getCurrentLatitude() == null || vehicle.getCurrentLongitude() == null) {
+            return null;
+        }
+        return new VehicleLocationBuffer.BufferedLocation(
+                vehicle.getCurrentLatitude(), vehicle.getCurrentLongitude(), vehicle.getLastUpdated());
+    }
+
     /**
      * Get locations of all vehicles for a specific order with enhanced details
      * IMPORTANT: Deduplicates vehicles by vehicleId to prevent duplicate entries
@@ -471,13 +488,17 @@ public class VehicleLocationService {
                         VehicleAssignmentEntity assignmentEntity = vehicleAssignmentRepository
                                 .findByIdWithDrivers(assignment.id()).orElse(null);
 
+                        // Prefer the buffered position - the database may lag behind by one flush interval
+                        VehicleLocationBuffer.BufferedLocation location = vehicleLocationBuffer.getLatest(vehicle.getId())
+                                .orElse(null);
+
                         // Build enhanced message
                         VehicleLocationMessage.VehicleLocationMessageBuilder builder = VehicleLocationMessage.builder()
                                 .vehicleId(vehicle.getId())
-                                .latitude(vehicle.getCurrentLatitude())
-                                .longitude(vehicle.getCurrentLongitude())
+                                .latitude(location != null ? location.latitude() : vehicle.getCurrentLatitude())
+                                .longitude(location != null ? location.longitude() : vehicle.getCurrentLongitude())
                                 .licensePlateNumber(vehicle.getLicensePlateNumber())
-                                .lastUpdated(vehicle.getLastUpdated())
+                                .lastUpdated(location != null ? location.lastUpdated() : vehicle.getLastUpdated())
                                 .manufacturer(vehicle.getManufacturer());
 
                         // Add vehicle type - now eagerly loaded
@@ -0,0 +1,208 @@
+package capstone_project.service.websocket;
+
+import capstone_project.entity.auth.UserEntity;
+import capstone_project.entity.order.order.OrderDetailEntity;
+import capstone_project.entity.user.driver.DriverEntity;
+import capstone_project.entity.vehicle.VehicleAssignmentEntity;
+import capstone_project.entity.vehicle.VehicleEntity;
+import capstone_project.event.OrderStatusChangedEvent;
+import capstone_project.event.VehicleAssignmentChangedEvent;
+import capstone_project.repository.entityServices.vehicle.VehicleEntityService;
+import capstone_project.repository.repositories.order.order.OrderDetailRepository;
+import capstone_project.repository.repositories.vehicle.VehicleAssignmentRepository;
+import capstone_project.service.services.order.order.OrderStatusWebSocketService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-vehicle snapshot of everything the location broadcast needs besides the position itself:
+ * vehicle info, assignments with their drivers, and the active orders subscribed to each assignment.
+ * Built once on the first ping and refreshed on assignment / order status events,
+ * so a GPS ping costs no database query in steady state.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VehicleTrackingSnapshotCache {
+
+    // Order statuses from PICKING_UP onwards, as defined in frontend OrderStatusEnum
+    static final List<String> TRACKED_ORDER_STATUSES = List.of(
+            "PICKING_UP", "ON_DELIVERED", "ONGOING_DELIVERED",
+            "DELIVERED", "IN_TROUBLES", "RESOLVED", "COMPENSATION",
+            "RETURNING", "RETURNED");
+
+    private final VehicleEntityService vehicleEntityService;
+    private final VehicleAssignmentRepository vehicleAssignmentRepository;
+    private final OrderDetailRepository orderDetailRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<UUID, VehicleSnapshot> snapshotsByVehicleId = new ConcurrentHashMap<>();
+
+    // Safety net for changes that bypass the events (e.g. order detail status updates)
+    @Value("${vehicle.tracking.snapshot-ttl-seconds:300}")
+    private long snapshotTtlSeconds;
+
+    public record VehicleSnapshot(UUID vehicleId,
+                                  String licensePlateNumber,
+                                  String manufacturer,
+                                  String vehicleTypeName,
+                                  List<AssignmentSnapshot> assignments,
+                                  long loadedAtMillis) {
+    }
+
+    public record AssignmentSnapshot(UUID vehicleAssignmentId,
+                                     String trackingCode,
+                                     String driver1Name,
+                                     String driver1Phone,
+                                     String driver2Name,
+                                     String driver2Phone,
+                                     List<OrderSubscription> orders) {
+    }
+
+    /**
+     * An order topic that receives the assignment's location, with the status of its first order detail
+     */
+    public record OrderSubscription(UUID orderId, String orderDetailStatus) {
+    }
+
+    /**
+     * Get the snapshot of a vehicle, loading it on first use or after it was invalidated
+     * @return null if the vehicle does not exist
+     */
+    public VehicleSnapshot get(UUID vehicleId) {
+        if (vehicleId == null) {
+            return null;
+        }
+        VehicleSnapshot snapshot = snapshotsByVehicleId.get(vehicleId);
+        if (snapshot != null && System.currentTimeMillis() - snapshot.loadedAtMillis() < snapshotTtlSeconds * 1000L) {
+            return snapshot;
+        }
+
+        VehicleSnapshot loaded = load(vehicleId);
+        if (loaded != null) {
+            snapshotsByVehicleId.put(vehicleId, loaded);
+        }
+        return loaded;
+    }
+
+    public void invalidate(UUID vehicleId) {
+        if (vehicleId != null) {
+            snapshotsByVehicleId.remove(vehicleId);
+        }
+    }
+
+    public int size() {
+        return snapshotsByVehicleId.size();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onVehicleAssignmentChanged(VehicleAssignmentChangedEvent event) {
+        invalidate(event.getVehicleId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        invalidateOrder(event.getOrderId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChange(OrderStatusWebSocketService.OrderStatusChangeEvent event) {
+        invalidateOrder(event.getOrderId());
+    }
+
+    /**
+     * Drop the snapshots of all vehicles carrying an order, including orders that just became trackable
+     */
+    private void invalidateOrder(UUID orderId) {
+        if (orderId == null || snapshotsByVehicleId.isEmpty()) {
+            return;
+        }
+        try {
+            List<UUID> vehicleIds = readOnlyTransaction().execute(status -> {
+                List<UUID> ids = new ArrayList<>();
+                for (OrderDetailEntity detail : orderDetailRepository
+                        .findOrderDetailEntitiesByOrderEntityIdOrderByCreatedAtDesc(orderId)) {
+                    VehicleAssignmentEntity assignment = detail.getVehicleAssignmentEntity();
+                    if (assignment != null && assignment.getVehicleEntity() != null) {
+                        ids.add(assignment.getVehicleEntity().getId());
+                    }
+                }
+                return ids;
+            });
+            if (vehicleIds != null) {
+                vehicleIds.forEach(this::invalidate);
+            }
+        } catch (Exception e) {
+            log.warn("[VehicleTracking] Could not resolve vehicles of order {}, clearing all snapshots: {}",
+                    orderId, e.getMessage());
+            snapshotsByVehicleId.clear();
+        }
+    }
+
+    private VehicleSnapshot load(UUID vehicleId) {
+        return readOnlyTransaction().execute(status -> {
+            VehicleEntity vehicle = vehicleEntityService.findByVehicleIdWithVehicleType(vehicleId).orElse(null);
+            if (vehicle == null) {
+                return null;
+            }
+
+            List<AssignmentSnapshot> assignments = new ArrayList<>();
+            for (VehicleAssignmentEntity assignment : vehicleAssignmentRepository.findByVehicleEntityIdWithDrivers(vehicleId)) {
+                // Deduplicate orders when multiple order details share the same vehicle assignment
+                Map<UUID, OrderSubscription> orders = new LinkedHashMap<>();
+                for (OrderDetailEntity detail : orderDetailRepository
+                        .findActiveOrderDetailsByVehicleAssignmentId(assignment.getId(), TRACKED_ORDER_STATUSES)) {
+                    if (detail.getOrderEntity() == null || detail.getOrderEntity().getId() == null) {
+                        log.warn("[VehicleTracking] OrderDetail {} has no order entity or order ID", detail.getId());
+                        continue;
+                    }
+                    orders.putIfAbsent(detail.getOrderEntity().getId(), new OrderSubscription(
+                            detail.getOrderEntity().getId(),
+                            detail.getStatus() != null ? detail.getStatus() : "UNKNOWN"));
+                }
+
+                UserEntity driver1 = userOf(assignment.getDriver1());
+                UserEntity driver2 = userOf(assignment.getDriver2());
+                assignments.add(new AssignmentSnapshot(
+                        assignment.getId(),
+                        assignment.getTrackingCode(),
+                        driver1 != null ? driver1.getFullName() : null,
+                        driver1 != null ? driver1.getPhoneNumber() : null,
+                        driver2 != null ? driver2.getFullName() : null,
+                        driver2 != null ? driver2.getPhoneNumber() : null,
+                        List.copyOf(orders.values())));
+            }
+
+            return new VehicleSnapshot(
+                    vehicle.getId(),
+                    vehicle.getLicensePlateNumber(),
+                    vehicle.getManufacturer(),
+                    vehicle.getVehicleTypeEntity() != null ? vehicle.getVehicleTypeEntity().getDescription() : null,
+                    List.copyOf(assignments),
+                    System.currentTimeMillis());
+        });
+    }
+
+    private UserEntity userOf(DriverEntity driver) {
+        return driver != null ? driver.getUser() : null;
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+}
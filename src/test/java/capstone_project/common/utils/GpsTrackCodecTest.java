@@ -0,0 +1,115 @@
+package capstone_project.common.utils;
+
+import capstone_project.common.utils.GpsTrackCodec.TrackPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GpsTrackCodecTest {
+
+    private static final double COORDINATE_TOLERANCE = 1.0 / GpsTrackCodec.COORDINATE_SCALE;
+
+    @Test
+    void testRoundTripWithNegativeDeltas() {
+        // Truck heading south-west: latitude and longitude both decrease, one ping arrives out of order
+        List<TrackPoint> points = List.of(
+                new TrackPoint(1_700_000_000_000L, 10.762622, 106.660172),
+                new TrackPoint(1_700_000_005_000L, 10.761501, 106.659034),
+                new TrackPoint(1_700_000_003_000L, 10.760011, 106.657999),
+                new TrackPoint(1_700_000_010_000L, 10.758000, 106.655120));
+
+        List<TrackPoint> decoded = GpsTrackCodec.decode(GpsTrackCodec.encode(points));
+
+        assertTrackEquals(points, decoded);
+    }
+
+    @Test
+    void testRoundTripAcrossHemispheres() {
+        // Negative absolute coordinates and sign changes between consecutive points
+        List<TrackPoint> points = List.of(
+                new TrackPoint(0L, -0.000001, -179.999999),
+                new TrackPoint(1_000L, 0.000001, 179.999999),
+                new TrackPoint(2_000L, -89.5, 0.0));
+
+        List<TrackPoint> decoded = GpsTrackCodec.decode(GpsTrackCodec.encode(points));
+
+        assertTrackEquals(points, decoded);
+    }
+
+    @Test
+    void testRoundsToMicroDegrees() {
+        List<TrackPoint> decoded = GpsTrackCodec.decode(GpsTrackCodec.encode(List.of(
+                new TrackPoint(42L, 10.12345649, 106.98765451))));
+
+        assertEquals(10.123456, decoded.get(0).latitude(), 1e-9);
+        assertEquals(106.987655, decoded.get(0).longitude(), 1e-9);
+    }
+
+    @Test
+    void testEmptySegment() {
+        assertTrue(GpsTrackCodec.decode(GpsTrackCodec.encode(List.of())).isEmpty());
+    }
+
+    @Test
+    void testSegmentsDecodeIndependently() {
+        List<TrackPoint> track = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            track.add(new TrackPoint(1_700_000_000_000L + i * 3_000L, 21.028511 - i * 0.0007, 105.804817 + i * 0.0011));
+        }
+        List<TrackPoint> first = track.subList(0, 6);
+        List<TrackPoint> second = track.subList(6, track.size());
+
+        byte[] firstBytes = GpsTrackCodec.encode(first);
+        byte[] secondBytes = GpsTrackCodec.encode(second);
+
+        // The first point of every segment is stored in full, not as a delta to the previous segment
+        assertTrackEquals(second, GpsTrackCodec.decode(secondBytes));
+        List<TrackPoint> joined = new ArrayList<>(GpsTrackCodec.decode(firstBytes));
+        joined.addAll(GpsTrackCodec.decode(secondBytes));
+        assertTrackEquals(track, joined);
+    }
+
+    @Test
+    void testDeltasAreCompact() {
+        List<TrackPoint> points = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            points.add(new TrackPoint(1_700_000_000_000L + i * 5_000L, 10.762622 - i * 0.00005, 106.660172 + i * 0.00004));
+        }
+
+        byte[] encoded = GpsTrackCodec.encode(points);
+
+        assertTrue(encoded.length < 100 * 8, "Expected at most 8 bytes per ping, got " + encoded.length);
+    }
+
+    @Test
+    void testRejectsTruncatedData() {
+        byte[] encoded = GpsTrackCodec.encode(List.of(
+                new TrackPoint(1_700_000_000_000L, 10.762622, 106.660172),
+                new TrackPoint(1_700_000_005_000L, 10.761501, 106.659034)));
+
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 1);
+
+        assertThrows(IllegalArgumentException.class, () -> GpsTrackCodec.decode(truncated));
+    }
+
+    @Test
+    void testRejectsUnknownVersion() {
+        byte[] encoded = GpsTrackCodec.encode(List.of(new TrackPoint(0L, 1.0, 2.0)));
+        encoded[0] = 9;
+
+        assertThrows(IllegalArgumentException.class, () -> GpsTrackCodec.decode(encoded));
+    }
+
+    private static void assertTrackEquals(List<TrackPoint> expected, List<TrackPoint> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).timestampMillis(), actual.get(i).timestampMillis(), "timestamp of point " + i);
+            assertEquals(expected.get(i).latitude(), actual.get(i).latitude(), COORDINATE_TOLERANCE, "latitude of point " + i);
+            assertEquals(expected.get(i).longitude(), actual.get(i).longitude(), COORDINATE_TOLERANCE, "longitude of point " + i);
+        }
+    }
+}
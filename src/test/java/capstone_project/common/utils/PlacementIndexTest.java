@@ -0,0 +1,101 @@
+package capstone_project.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlacementIndexTest {
+
+    @Test
+    void testEmptyIndexHasNoCollisions() {
+        PlacementIndex index = new PlacementIndex(600, 240, 240);
+
+        assertFalse(index.collides(0, 0, 0, 600, 240, 240));
+        assertFalse(index.isOccupied(0, 0, 0));
+        assertFalse(index.isInsideLast(0, 0, 0));
+    }
+
+    @Test
+    void testOverlapAndTouchingFaces() {
+        PlacementIndex index = new PlacementIndex(600, 240, 240);
+        index.add(100, 50, 0, 120, 80, 60);
+
+        // Overlapping by one unit on every axis
+        assertTrue(index.collides(219, 129, 59, 10, 10, 10));
+        // Fully inside and fully enclosing
+        assertTrue(index.collides(110, 60, 10, 5, 5, 5));
+        assertTrue(index.collides(0, 0, 0, 600, 240, 240));
+        // Touching a face is not an overlap: boxes are [start, end)
+        assertFalse(index.collides(220, 50, 0, 50, 80, 60));
+        assertFalse(index.collides(0, 50, 0, 100, 80, 60));
+        assertFalse(index.collides(100, 130, 0, 120, 50, 60));
+        assertFalse(index.collides(100, 50, 60, 120, 80, 60));
+    }
+
+    @Test
+    void testBoxSpanningManyCellsIsFound() {
+        // 16 cells per axis: a long box registers in many cells and must still be found from any of them
+        PlacementIndex index = new PlacementIndex(1600, 160, 160);
+        index.add(0, 0, 0, 1600, 10, 10);
+
+        assertTrue(index.collides(1590, 5, 5, 5, 1, 1));
+        assertTrue(index.collides(800, 0, 0, 1, 1, 1));
+        assertFalse(index.collides(800, 10, 0, 1, 1, 1));
+    }
+
+    @Test
+    void testOccupiedPoints() {
+        PlacementIndex index = new PlacementIndex(600, 240, 240);
+        index.add(0, 0, 0, 100, 100, 100);
+        index.add(100, 0, 0, 50, 50, 50);
+
+        assertTrue(index.isOccupied(0, 0, 0));
+        assertTrue(index.isOccupied(99, 99, 99));
+        assertTrue(index.isOccupied(100, 0, 0));
+        assertFalse(index.isOccupied(100, 50, 0));
+        assertFalse(index.isOccupied(150, 0, 0));
+
+        assertTrue(index.isInsideLast(120, 10, 10));
+        assertFalse(index.isInsideLast(50, 50, 50));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testMatchesPairwiseIntersect() {
+        Random random = new Random(7);
+        int maxX = 620, maxY = 240, maxZ = 250;
+        PlacementIndex index = new PlacementIndex(maxX, maxY, maxZ);
+        List<int[]> placed = new ArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            int[] box = randomBox(random, maxX, maxY, maxZ);
+            index.add(box[0], box[1], box[2], box[3], box[4], box[5]);
+            placed.add(box);
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            int[] query = randomBox(random, maxX, maxY, maxZ);
+            boolean expected = false;
+            for (int[] box : placed) {
+                if (BinPacker.intersect(query[0], query[1], query[2], query[3], query[4], query[5],
+                        box[0], box[1], box[2], box[3], box[4], box[5])) {
+                    expected = true;
+                    break;
+                }
+            }
+            assertEquals(expected, index.collides(query[0], query[1], query[2], query[3], query[4], query[5]),
+                    "query " + i);
+        }
+    }
+
+    private static int[] randomBox(Random random, int maxX, int maxY, int maxZ) {
+        int lx = 1 + random.nextInt(80);
+        int ly = 1 + random.nextInt(60);
+        int lz = 1 + random.nextInt(60);
+        return new int[]{random.nextInt(maxX - lx + 1), random.nextInt(maxY - ly + 1), random.nextInt(maxZ - lz + 1), lx, ly, lz};
+    }
+}
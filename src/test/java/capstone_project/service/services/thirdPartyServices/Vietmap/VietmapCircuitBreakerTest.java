@@ -0,0 +1,117 @@
+package capstone_project.service.services.thirdPartyServices.Vietmap;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VietmapCircuitBreakerTest {
+
+    @Test
+    void testStaysClosedBelowMinimumCalls() {
+        VietmapCircuitBreaker breaker = new VietmapCircuitBreaker(10, 4, 0.5, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+
+        assertEquals(VietmapCircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void testOpensAtFailureRate() {
+        VietmapCircuitBreaker breaker = new VietmapCircuitBreaker(10, 4, 0.5, Duration.ofMinutes(1));
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertEquals(VietmapCircuitBreaker.State.CLOSED, breaker.state());
+
+        // 2 failures out of 4 calls reaches the 50% threshold
+        breaker.onFailure();
+        assertEquals(VietmapCircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void testOldOutcomesLeaveTheWindow() {
+        VietmapCircuitBreaker breaker = new VietmapCircuitBreaker(4, 4, 0.5, Duration.ofMinutes(1));
+
+        breaker.onFailure();
+        for (int i = 0; i < 4; i++) {
+            breaker.onSuccess();
+        }
+        // The early failure has been pushed out: 1 failure out of the last 4 calls
+        breaker.onFailure();
+
+        assertEquals(VietmapCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void testHalfOpenProbeClosesOnSuccess() {
+        VietmapCircuitBreaker breaker = openBreaker(Duration.ZERO);
+
+        // Open duration elapsed: exactly one probe goes through
+        assertTrue(breaker.tryAcquire());
+        assertEquals(VietmapCircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+
+        assertEquals(VietmapCircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void testHalfOpenProbeReopensOnFailure() {
+        VietmapCircuitBreaker breaker = openBreaker(Duration.ZERO);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(VietmapCircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void testCancelledProbeFreesTheSlot() {
+        VietmapCircuitBreaker breaker = openBreaker(Duration.ZERO);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onCancel();
+
+        assertEquals(VietmapCircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void testRejectsWhileOpen() {
+        VietmapCircuitBreaker breaker = openBreaker(Duration.ofMinutes(1));
+
+        assertFalse(breaker.tryAcquire());
+        assertEquals(VietmapCircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void testClosingResetsTheWindow() {
+        VietmapCircuitBreaker breaker = openBreaker(Duration.ZERO);
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+
+        // Failures before the breaker opened no longer count
+        breaker.onFailure();
+
+        assertEquals(VietmapCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    private static VietmapCircuitBreaker openBreaker(Duration openDuration) {
+        VietmapCircuitBreaker breaker = new VietmapCircuitBreaker(4, 2, 0.5, openDuration);
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(VietmapCircuitBreaker.State.OPEN, breaker.state());
+        return breaker;
+    }
+}